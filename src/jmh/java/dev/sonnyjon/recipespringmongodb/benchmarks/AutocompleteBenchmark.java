@@ -0,0 +1,88 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.services.AutocompleteServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Suggestion latency of {@link AutocompleteServiceImpl} over random ingredient descriptions
+ * (one to three made-up words each) with skewed use counts. Runs in memory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class AutocompleteBenchmark
+{
+    @Param("50000")
+    int descriptionCount;
+
+    AutocompleteServiceImpl autocompleteService;
+    Ingredient ingredient;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        autocompleteService = new AutocompleteServiceImpl(null, null, 10);
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setDescription("Cup");
+
+        Random random = new Random(42);
+        for (int i = 0; i < descriptionCount; i++)
+        {
+            Ingredient next = new Ingredient(phrase(random), BigDecimal.ONE, uom);
+            int uses = 1 + 100 / (1 + random.nextInt(100));
+            for (int use = 0; use < uses; use++) autocompleteService.recordIngredient(null, next);
+        }
+        ingredient = new Ingredient(phrase(random), BigDecimal.ONE, uom);
+    }
+
+    @Benchmark
+    public List<String> oneLetterPrefix()
+    {
+        return autocompleteService.suggestIngredients("s", 10);
+    }
+
+    @Benchmark
+    public List<String> threeLetterPrefix()
+    {
+        return autocompleteService.suggestIngredients("sal", 10);
+    }
+
+    @Benchmark
+    public void recordIngredient()
+    {
+        autocompleteService.recordIngredient(null, ingredient);
+    }
+
+    //==================================================================================================================
+    private static String phrase(Random random)
+    {
+        StringBuilder phrase = new StringBuilder();
+        int words = 1 + random.nextInt(3);
+
+        for (int w = 0; w < words; w++)
+        {
+            if (w > 0) phrase.append(' ');
+            int letters = 3 + random.nextInt(8);
+            for (int l = 0; l < letters; l++) phrase.append((char) ('a' + random.nextInt(26)));
+        }
+
+        return phrase.toString();
+    }
+}
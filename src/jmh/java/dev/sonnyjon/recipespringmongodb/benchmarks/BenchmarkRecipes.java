@@ -0,0 +1,82 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.converters.CategoryConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.NotesConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Notes;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+
+import java.math.BigDecimal;
+
+/**
+ * Shared fixtures for the converter benchmarks.
+ */
+final class BenchmarkRecipes
+{
+    private BenchmarkRecipes()
+    {
+    }
+
+    /**
+     * @return the generated RecipeConverter, wired the way Spring wires the beans.
+     */
+    static RecipeConverter newConverter()
+    {
+        return new RecipeConverterImpl(new CategoryConverterImpl(),
+                                       new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                       new NotesConverterImpl());
+    }
+
+    /**
+     * @param ingredientCount number of ingredients in the recipe.
+     * @return a fully populated recipe with three categories.
+     */
+    static Recipe getTestRecipe(int ingredientCount)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setId("RECIPE-1");
+        recipe.setVersion(1L);
+        recipe.setDescription("Perfect Guacamole");
+        recipe.setPrepTime(10);
+        recipe.setCookTime(0);
+        recipe.setServings(4);
+        recipe.setDifficulty(Difficulty.EASY);
+        recipe.setDirections("Cut the avocados, mash with a fork, season and serve.");
+
+        Notes notes = new Notes();
+        notes.setId("NOTES-1");
+        notes.setRecipeNotes("Best eaten fresh.");
+        recipe.setNotes(notes);
+
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId("UOM-1");
+        uom.setDescription("Teaspoon");
+
+        for (int i = 0; i < ingredientCount; i++)
+        {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setId("INGRED-" + i);
+            ingredient.setDescription("Ingredient " + i);
+            ingredient.setAmount(new BigDecimal(i + 1));
+            ingredient.setUom(uom);
+            recipe.addIngredient(ingredient);
+        }
+
+        for (int i = 0; i < 3; i++)
+        {
+            Category category = new Category();
+            category.setId("CAT-" + i);
+            category.setDescription("Category " + i);
+            recipe.getCategories().add(category);
+        }
+
+        return recipe;
+    }
+}
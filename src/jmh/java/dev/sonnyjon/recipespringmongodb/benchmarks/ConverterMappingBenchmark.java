@@ -0,0 +1,68 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-threaded cost of the MapStruct-generated RecipeConverter against the hand-written
+ * converters it replaced, in both directions and for growing ingredient lists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+public class ConverterMappingBenchmark
+{
+    @Param({"1", "10", "100"})
+    int ingredientCount;
+
+    RecipeConverter generated;
+    HandWrittenRecipeConverter handWritten;
+    Recipe recipe;
+    RecipeDto dto;
+
+    @Setup
+    public void setUp()
+    {
+        generated = BenchmarkRecipes.newConverter();
+        handWritten = new HandWrittenRecipeConverter();
+        recipe = BenchmarkRecipes.getTestRecipe(ingredientCount);
+        dto = generated.convertEntity(recipe);
+    }
+
+    @Benchmark
+    public RecipeDto generatedToDto()
+    {
+        return generated.convertEntity(recipe);
+    }
+
+    @Benchmark
+    public RecipeDto handWrittenToDto()
+    {
+        return handWritten.convertEntity(recipe);
+    }
+
+    @Benchmark
+    public Recipe generatedToEntity()
+    {
+        return generated.convertDto(dto);
+    }
+
+    @Benchmark
+    public Recipe handWrittenToEntity()
+    {
+        return handWritten.convertDto(dto);
+    }
+}
@@ -0,0 +1,79 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity -> DTO -> entity round trip through one shared RecipeConverter, as the request
+ * threads do through the singleton bean.
+ * <p>
+ * <code>locked</code> reproduces the former Lombok <code>@Synchronized</code> converters by
+ * serializing every conversion on one monitor; <code>lockFree</code> is the current code.
+ * Run {@link #main} to sweep 1 to 32 threads, or pass <code>-t</code> to the JMH runner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class ConverterThroughputBenchmark
+{
+    static final int[] THREAD_COUNTS = {1, 2, 4, 8, 16, 32};
+
+    private final Object lock = new Object();
+
+    RecipeConverter converter;
+    Recipe recipe;
+
+    @Setup
+    public void setUp()
+    {
+        converter = BenchmarkRecipes.newConverter();
+        recipe = BenchmarkRecipes.getTestRecipe(10);
+    }
+
+    @Benchmark
+    public Recipe lockFree()
+    {
+        RecipeDto dto = converter.convertEntity(recipe);
+        return converter.convertDto(dto);
+    }
+
+    @Benchmark
+    public Recipe locked()
+    {
+        synchronized (lock)
+        {
+            RecipeDto dto = converter.convertEntity(recipe);
+            return converter.convertDto(dto);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException
+    {
+        for (int threads : THREAD_COUNTS)
+        {
+            Options options = new OptionsBuilder()
+                                    .include(ConverterThroughputBenchmark.class.getSimpleName())
+                                    .threads(threads)
+                                    .warmupIterations(3)
+                                    .measurementIterations(5)
+                                    .build();
+            new Runner(options).run();
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Notes;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.Consumer;
+
+/**
+ * Deterministic recipe dataset for the search benchmarks. Words are drawn uniformly from
+ * small vocabularies, so the frequency of a term is predictable: each main ingredient (e.g.
+ * "chicken") appears in roughly one description in twenty, while "saffron" is picked for
+ * about one recipe in a thousand.
+ */
+final class GeneratedRecipes
+{
+    static final String COMMON_TERM = "chicken";
+    static final String RARE_TERM = "saffron";
+
+    private static final String[] ADJECTIVES = {
+            "spicy", "smoky", "crispy", "creamy", "grilled", "roasted", "braised", "quick", "easy", "classic",
+            "rustic", "zesty", "tangy", "hearty", "light", "sticky", "golden", "herbed", "garlicky", "sweet"};
+    private static final String[] MAINS = {
+            "chicken", "beef", "pork", "lamb", "salmon", "shrimp", "tofu", "mushroom", "lentil", "chickpea",
+            "eggplant", "potato", "squash", "cauliflower", "turkey", "duck", "cod", "tuna", "bean", "spinach"};
+    private static final String[] DISHES = {
+            "tacos", "curry", "stew", "salad", "soup", "pasta", "risotto", "burger", "skewers", "casserole",
+            "pie", "stir fry", "bowl", "wraps", "chili"};
+    private static final String[] INGREDIENTS = {
+            "onion", "garlic", "tomato", "lime", "lemon", "cilantro", "parsley", "basil", "oregano", "cumin",
+            "paprika", "chili powder", "black pepper", "salt", "olive oil", "butter", "cream", "cheddar",
+            "parmesan", "rice", "flour", "sugar", "honey", "soy sauce", "ginger", "coconut milk", "avocado",
+            "carrot", "celery", "bell pepper", "jalapeno", "corn", "stock", "vinegar", "mustard", "yogurt",
+            "egg", "breadcrumbs", "scallion", "thyme"};
+    private static final String[] VERBS = {
+            "chop", "dice", "mince", "stir", "whisk", "simmer", "boil", "saute", "season", "bake", "roast",
+            "grill", "toss", "fold", "drain", "rest", "slice", "serve", "garnish", "marinate"};
+
+    private GeneratedRecipes()
+    {
+    }
+
+    /**
+     * Generates recipes and hands them over in batches.
+     *
+     * @param count number of recipes.
+     * @param batchSize recipes per batch.
+     * @param batches receives each batch; the list is not reused.
+     */
+    static void generate(int count, int batchSize, Consumer<List<Recipe>> batches)
+    {
+        Random random = new Random(42);
+        List<Recipe> batch = new ArrayList<>(batchSize);
+
+        for (int i = 0; i < count; i++)
+        {
+            batch.add(newRecipe(random));
+
+            if (batch.size() == batchSize || i == count - 1)
+            {
+                batches.accept(batch);
+                batch = new ArrayList<>(batchSize);
+            }
+        }
+    }
+
+    //==================================================================================================================
+    private static Recipe newRecipe(Random random)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setDescription(pick(random, ADJECTIVES) + " " + pick(random, MAINS) + " " + pick(random, DISHES));
+        recipe.setPrepTime(5 + random.nextInt(40));
+        recipe.setCookTime(random.nextInt(120));
+        recipe.setServings(1 + random.nextInt(8));
+        recipe.setDifficulty(Difficulty.values()[random.nextInt(Difficulty.values().length)]);
+        recipe.setDirections(sentences(random, 4 + random.nextInt(6)));
+
+        Notes notes = new Notes();
+        notes.setRecipeNotes(sentences(random, 1));
+        recipe.setNotes(notes);
+
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId("UOM-" + random.nextInt(8));
+        uom.setDescription("Unit " + uom.getId());
+
+        int ingredientCount = 5 + random.nextInt(8);
+        for (int i = 0; i < ingredientCount; i++)
+        {
+            recipe.addIngredient(new Ingredient(pick(random, INGREDIENTS), new BigDecimal(1 + random.nextInt(4)), uom));
+        }
+        if (random.nextInt(1000) == 0) recipe.addIngredient(new Ingredient(RARE_TERM, BigDecimal.ONE, uom));
+
+        Category category = new Category();
+        category.setId("CAT-" + random.nextInt(4));
+        category.setDescription("Category " + category.getId());
+        recipe.getCategories().add(category);
+
+        return recipe;
+    }
+
+    private static String sentences(Random random, int count)
+    {
+        StringBuilder text = new StringBuilder();
+
+        for (int i = 0; i < count; i++)
+        {
+            text.append(pick(random, VERBS)).append(" the ").append(pick(random, INGREDIENTS))
+                .append(" and ").append(pick(random, VERBS)).append(" until done. ");
+        }
+
+        return text.toString().trim();
+    }
+
+    private static String pick(Random random, String[] words)
+    {
+        return words[random.nextInt(words.length)];
+    }
+}
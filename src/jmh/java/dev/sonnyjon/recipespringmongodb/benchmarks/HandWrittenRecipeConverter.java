@@ -0,0 +1,183 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.converters.DualConverter;
+import dev.sonnyjon.recipespringmongodb.dto.CategoryDto;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.dto.NotesDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Notes;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The hand-written converters as they were before MapStruct generated them, folded into one
+ * class: field-by-field copies into unsized ArrayList/HashSet collections. Kept only as the
+ * baseline for {@link ConverterMappingBenchmark}.
+ */
+class HandWrittenRecipeConverter implements DualConverter<Recipe, RecipeDto>
+{
+    @Override
+    public RecipeDto convertEntity(Recipe entity)
+    {
+        if (entity == null) return null;
+
+        final RecipeDto dto = new RecipeDto();
+        dto.setId( entity.getId() );
+        dto.setVersion( entity.getVersion() );
+        dto.setDescription( entity.getDescription() );
+        dto.setPrepTime( entity.getPrepTime() );
+        dto.setCookTime( entity.getCookTime() );
+        dto.setServings( entity.getServings() );
+        dto.setSource( entity.getSource() );
+        dto.setUrl( entity.getUrl() );
+        dto.setDirections( entity.getDirections() );
+        dto.setIngredients( convertIngredients( entity.getIngredients() ) );
+        dto.setImageId( entity.getImageId() );
+        dto.setDifficulty( entity.getDifficulty() );
+        dto.setNotes( convertNotes( entity.getNotes() ) );
+        dto.setCategories( convertCategories( entity.getCategories() ) );
+
+        return dto;
+    }
+
+    @Override
+    public Recipe convertDto(RecipeDto dto)
+    {
+        if (dto == null) return null;
+
+        final Recipe entity = new Recipe();
+        entity.setId( dto.getId() );
+        entity.setVersion( dto.getVersion() );
+        entity.setDescription( dto.getDescription() );
+        entity.setPrepTime( dto.getPrepTime() );
+        entity.setCookTime( dto.getCookTime() );
+        entity.setServings( dto.getServings() );
+        entity.setSource( dto.getSource() );
+        entity.setUrl( dto.getUrl() );
+        entity.setDirections( dto.getDirections() );
+        entity.setIngredients( convertIngredientDtos( dto.getIngredients() ) );
+        entity.setImageId( dto.getImageId() );
+        entity.setDifficulty( dto.getDifficulty() );
+        entity.setNotes( convertNotesDto( dto.getNotes() ) );
+        entity.setCategories( convertCategoryDtos( dto.getCategories() ) );
+
+        return entity;
+    }
+
+    //==================================================================================================================
+    private static List<IngredientDto> convertIngredients(Set<Ingredient> entities)
+    {
+        if (entities == null) return null;
+
+        final List<IngredientDto> dtos = new ArrayList<>();
+        entities.forEach((Ingredient entity) -> {
+            final IngredientDto dto = new IngredientDto();
+            dto.setId(entity.getId());
+            dto.setDescription(entity.getDescription());
+            dto.setAmount(entity.getAmount());
+            dto.setUom(convertUom(entity.getUom()));
+            dtos.add(dto);
+        });
+
+        return dtos;
+    }
+
+    private static Set<Ingredient> convertIngredientDtos(List<IngredientDto> dtos)
+    {
+        if (dtos == null) return null;
+
+        final Set<Ingredient> entities = new HashSet<>();
+        dtos.forEach((IngredientDto dto) -> {
+            final Ingredient entity = new Ingredient();
+            entity.setId(dto.getId());
+            entity.setDescription(dto.getDescription());
+            entity.setAmount(dto.getAmount());
+            entity.setUom(convertUomDto(dto.getUom()));
+            entities.add(entity);
+        });
+
+        return entities;
+    }
+
+    private static UnitOfMeasureDto convertUom(UnitOfMeasure entity)
+    {
+        if (entity == null) return null;
+
+        final UnitOfMeasureDto dto = new UnitOfMeasureDto();
+        dto.setId(entity.getId());
+        dto.setDescription(entity.getDescription());
+
+        return dto;
+    }
+
+    private static UnitOfMeasure convertUomDto(UnitOfMeasureDto dto)
+    {
+        if (dto == null) return null;
+
+        final UnitOfMeasure entity = new UnitOfMeasure();
+        entity.setId(dto.getId());
+        entity.setDescription(dto.getDescription());
+
+        return entity;
+    }
+
+    private static NotesDto convertNotes(Notes entity)
+    {
+        if (entity == null) return null;
+
+        final NotesDto dto = new NotesDto();
+        dto.setId(entity.getId());
+        dto.setRecipeNotes(entity.getRecipeNotes());
+
+        return dto;
+    }
+
+    private static Notes convertNotesDto(NotesDto dto)
+    {
+        if (dto == null) return null;
+
+        final Notes entity = new Notes();
+        entity.setId(dto.getId());
+        entity.setRecipeNotes(dto.getRecipeNotes());
+
+        return entity;
+    }
+
+    private static List<CategoryDto> convertCategories(Set<Category> entities)
+    {
+        if (entities == null) return null;
+
+        final List<CategoryDto> dtos = new ArrayList<>();
+        entities.forEach((Category entity) -> {
+            final CategoryDto dto = new CategoryDto();
+            dto.setId(entity.getId());
+            dto.setDescription(entity.getDescription());
+            dtos.add(dto);
+        });
+
+        return dtos;
+    }
+
+    private static Set<Category> convertCategoryDtos(List<CategoryDto> dtos)
+    {
+        if (dtos == null) return null;
+
+        final Set<Category> entities = new HashSet<>();
+        dtos.forEach((CategoryDto dto) -> {
+            final Category entity = new Category();
+            entity.setId(dto.getId());
+            entity.setDescription(dto.getDescription());
+            entities.add(entity);
+        });
+
+        return entities;
+    }
+}
@@ -0,0 +1,103 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the original boxed image pipeline (upload -> Byte[] -> byte[] -> response)
+ * with the primitive, stream-through pipeline used since images moved to GridFS.
+ * <p>
+ * Both variants start from an uploaded MultipartFile and end in a response output
+ * stream; the boxed variant reproduces the copies made by the old
+ * <code>ImageServiceImpl.saveImageFile</code> and <code>ImageController.renderImageFromDB</code>.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ImagePipelineBenchmark
+{
+    @Param({"102400", "1048576", "5242880"})
+    int imageSize;
+
+    MultipartFile upload;
+
+    @Setup
+    public void setUp()
+    {
+        byte[] image = new byte[imageSize];
+        ThreadLocalRandom.current().nextBytes(image);
+        upload = new MockMultipartFile("imagefile", "image.jpg", "image/jpeg", image);
+    }
+
+    @Benchmark
+    public void boxed(Blackhole blackhole) throws IOException
+    {
+        // saveImageFile: getBytes() twice, boxing every byte
+        Byte[] byteObjects = new Byte[upload.getBytes().length];
+        int i = 0;
+
+        for (byte b : upload.getBytes())
+        {
+            byteObjects[i++] = b;
+        }
+
+        // renderImageFromDB: unbox, then copy through a ByteArrayInputStream
+        byte[] byteArray = new byte[byteObjects.length];
+        int j = 0;
+
+        for (Byte wrappedByte : byteObjects)
+        {
+            byteArray[j++] = wrappedByte;
+        }
+
+        InputStream is = new ByteArrayInputStream(byteArray);
+        blackhole.consume(StreamUtils.copy(is, sink(blackhole)));
+    }
+
+    @Benchmark
+    public void primitive(Blackhole blackhole) throws IOException
+    {
+        try (InputStream is = upload.getInputStream())
+        {
+            blackhole.consume(StreamUtils.copy(is, sink(blackhole)));
+        }
+    }
+
+    //==================================================================================================================
+    private static OutputStream sink(Blackhole blackhole)
+    {
+        return new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                blackhole.consume(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len)
+            {
+                blackhole.consume(b);
+            }
+        };
+    }
+}
@@ -0,0 +1,72 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverter;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ingredient set handling on large recipes: building the HashSet a recipe keeps its ingredients
+ * in (Ingredient.hashCode), looking up equal copies as read back from the database
+ * (Ingredient.equals), and IngredientConverter.convertEntities over the set.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class IngredientBenchmark
+{
+    @Param({"10", "1000", "10000"})
+    int ingredientCount;
+
+    IngredientConverter converter;
+    Set<Ingredient> ingredients;
+    List<Ingredient> copies;
+
+    @Setup
+    public void setUp()
+    {
+        converter = new IngredientConverterImpl(new UnitOfMeasureConverterImpl());
+        ingredients = BenchmarkRecipes.getTestRecipe(ingredientCount).getIngredients();
+
+        // Equal but distinct instances, so equals compares every field instead of stopping at ==
+        copies = new ArrayList<>(converter.convertDtos(converter.convertEntities(ingredients)));
+    }
+
+    @Benchmark
+    public Set<Ingredient> buildSet()
+    {
+        return new HashSet<>(copies);
+    }
+
+    @Benchmark
+    public int containsEqualCopies()
+    {
+        int found = 0;
+        for (Ingredient copy : copies) if (ingredients.contains(copy)) found++;
+
+        return found;
+    }
+
+    @Benchmark
+    public List<IngredientDto> convertEntities()
+    {
+        return converter.convertEntities(ingredients);
+    }
+}
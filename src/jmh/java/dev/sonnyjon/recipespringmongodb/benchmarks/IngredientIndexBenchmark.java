@@ -0,0 +1,80 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.services.IngredientIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query and update cost of {@link IngredientIndex} over a generated dataset (see
+ * {@link GeneratedRecipes}), where each common ingredient appears in about one recipe in six.
+ * Runs in memory; no database is needed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class IngredientIndexBenchmark
+{
+    private static final List<String> COMMON_INGREDIENTS = List.of("avocado", "lime", "cilantro");
+    private static final List<String> RARE_AND_COMMON = List.of(GeneratedRecipes.RARE_TERM, "garlic");
+    private static final List<String> ALTERNATIVES = List.of("lime", "lemon");
+
+    @Param("100000")
+    int recipeCount;
+
+    IngredientIndex index;
+    List<Recipe> recipes;
+    int next;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        index = new IngredientIndex(null);
+        recipes = new ArrayList<>(recipeCount);
+        GeneratedRecipes.generate(recipeCount, 1000, recipes::addAll);
+
+        for (int i = 0; i < recipes.size(); i++)
+        {
+            recipes.get(i).setId("RECIPE-" + i);
+            index.index(recipes.get(i));
+        }
+    }
+
+    @Benchmark
+    public List<String> allOfCommonIngredients()
+    {
+        return index.findWithAll(COMMON_INGREDIENTS);
+    }
+
+    @Benchmark
+    public List<String> allWithRareIngredient()
+    {
+        return index.findWithAll(RARE_AND_COMMON);
+    }
+
+    @Benchmark
+    public List<String> anyOfCommonIngredients()
+    {
+        return index.findWithAny(ALTERNATIVES);
+    }
+
+    @Benchmark
+    public void reindexRecipe()
+    {
+        // Re-indexing unchanged ingredients still tokenizes them and diffs the word lists
+        index.index(recipes.get(next++ % recipes.size()));
+    }
+}
@@ -0,0 +1,90 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverter;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.services.IngredientService;
+import dev.sonnyjon.recipespringmongodb.services.IngredientServiceMongoImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of IngredientServiceMongoImpl.findInRecipe, which fetches the matching array element
+ * only, against loading the whole recipe and scanning its ingredients as the former
+ * findIngredientInRecipe did. Needs a live MongoDB, as {@link RecipeSearchBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+public class IngredientLookupBenchmark
+{
+    @Param({"10", "100", "1000"})
+    int ingredientCount;
+
+    MongoClient client;
+    MongoTemplate mongoTemplate;
+    IngredientConverter converter;
+    IngredientService ingredientService;
+    String recipeId;
+    String ingredientId;
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        mongoTemplate = new MongoTemplate(client, RecipeSearchBenchmark.DATABASE);
+        converter = new IngredientConverterImpl(new UnitOfMeasureConverterImpl());
+
+        // Lookups read through the template only
+        ingredientService = new IngredientServiceMongoImpl(null, mongoTemplate, null, converter, null, null, null);
+
+        Recipe recipe = BenchmarkRecipes.getTestRecipe(ingredientCount);
+        recipe.setId("LOOKUP-" + ingredientCount);
+        recipe.setVersion(null);
+        mongoTemplate.save(recipe);
+
+        recipeId = recipe.getId();
+        ingredientId = "INGRED-" + (ingredientCount - 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        mongoTemplate.remove(mongoTemplate.findById(recipeId, Recipe.class));
+        client.close();
+    }
+
+    @Benchmark
+    public IngredientDto positionalProjection()
+    {
+        return ingredientService.findInRecipe(recipeId, ingredientId);
+    }
+
+    @Benchmark
+    public IngredientDto wholeRecipeScan()
+    {
+        return mongoTemplate.findById(recipeId, Recipe.class)
+                            .getIngredients().stream()
+                            .filter(ingredient -> ingredient.getId().equals(ingredientId))
+                            .findFirst()
+                            .map(converter::convertEntity)
+                            .orElseThrow();
+    }
+}
@@ -0,0 +1,99 @@
+package dev.sonnyjon.recipespringmongodb.benchmarks;
+
+import com.mongodb.client.MongoClient;
+import com.mongodb.client.MongoClients;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.repositories.IndexInitializer;
+import dev.sonnyjon.recipespringmongodb.services.IngredientIndex;
+import dev.sonnyjon.recipespringmongodb.services.RecipeSearchService;
+import dev.sonnyjon.recipespringmongodb.services.RecipeSearchServiceImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link RecipeSearchServiceImpl} against a live MongoDB holding a generated
+ * dataset (see {@link GeneratedRecipes}); each call fetches one page and counts the matches.
+ * <p>
+ * Connects to <code>-Dbench.mongo.uri</code> (default <code>mongodb://localhost:27017</code>)
+ * and uses the <code>recipes_bench</code> database, regenerating it only when its size differs
+ * from <code>recipeCount</code>. The declared indexes are created as at application startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+public class RecipeSearchBenchmark
+{
+    static final String DATABASE = "recipes_bench";
+
+    @Param("100000")
+    int recipeCount;
+
+    MongoClient client;
+    RecipeSearchService searchService;
+    Pageable firstPage = PageRequest.of(0, 20);
+    Pageable deepPage = PageRequest.of(50, 20);
+
+    @Setup(Level.Trial)
+    public void setUp()
+    {
+        client = MongoClients.create(System.getProperty("bench.mongo.uri", "mongodb://localhost:27017"));
+        MongoTemplate mongoTemplate = new MongoTemplate(client, DATABASE);
+
+        if (mongoTemplate.count(new Query(), Recipe.class) != recipeCount)
+        {
+            mongoTemplate.dropCollection(Recipe.class);
+            GeneratedRecipes.generate(recipeCount, 1000, batch -> mongoTemplate.insert(batch, Recipe.class));
+        }
+
+        new IndexInitializer(mongoTemplate, true).ensureIndexes();
+        searchService = new RecipeSearchServiceImpl(mongoTemplate, new IngredientIndex(mongoTemplate));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        client.close();
+    }
+
+    @Benchmark
+    public Page<RecipeSummaryDto> commonTerm()
+    {
+        return searchService.search(GeneratedRecipes.COMMON_TERM, firstPage);
+    }
+
+    @Benchmark
+    public Page<RecipeSummaryDto> rareTerm()
+    {
+        return searchService.search(GeneratedRecipes.RARE_TERM, firstPage);
+    }
+
+    @Benchmark
+    public Page<RecipeSummaryDto> multipleTerms()
+    {
+        return searchService.search("spicy chicken tacos", firstPage);
+    }
+
+    @Benchmark
+    public Page<RecipeSummaryDto> commonTermDeepPage()
+    {
+        return searchService.search(GeneratedRecipes.COMMON_TERM, deepPage);
+    }
+}
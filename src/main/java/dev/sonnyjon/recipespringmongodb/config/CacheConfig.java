@@ -0,0 +1,21 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * In-process caches for reference data (units of measure and categories). Size, TTL and
+ * statistics are set by <code>spring.cache.caffeine.spec</code>; hit/miss counts are
+ * published as the <code>cache.gets</code> metric.
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig
+{
+    public static final String UOMS = "unitsOfMeasure";
+    public static final String UOM_BY_ID = "unitOfMeasureById";
+    public static final String UOM_BY_DESCRIPTION = "unitOfMeasureByDescription";
+    public static final String CATEGORIES = "categories";
+    public static final String CATEGORY_BY_ID = "categoryById";
+    public static final String CATEGORY_BY_DESCRIPTION = "categoryByDescription";
+}
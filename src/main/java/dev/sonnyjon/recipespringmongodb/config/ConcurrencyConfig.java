@@ -0,0 +1,23 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import dev.sonnyjon.recipespringmongodb.services.RetryPolicy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Retry settings for recipe writes that lose an optimistic concurrency race.
+ */
+@Configuration
+public class ConcurrencyConfig
+{
+    @Bean
+    public RetryPolicy recipeRetryPolicy(@Value("${recipe.retry.max-attempts:5}") int maxAttempts,
+                                         @Value("${recipe.retry.initial-backoff:10ms}") Duration initialBackoff,
+                                         @Value("${recipe.retry.max-backoff:200ms}") Duration maxBackoff)
+    {
+        return new RetryPolicy(maxAttempts, initialBackoff, maxBackoff);
+    }
+}
@@ -0,0 +1,112 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.WriteListener;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.io.IOException;
+
+/**
+ * Records the bytes of recipe image responses as actually written, so 304s and Range requests
+ * count what was sent rather than the image size.
+ */
+class ImageBytesFilter extends OncePerRequestFilter
+{
+    static final String IMAGE_PATH_SUFFIX = "/recipeimage";
+
+    private final DistributionSummary bytesOut;
+
+    ImageBytesFilter(DistributionSummary bytesOut)
+    {
+        this.bytesOut = bytesOut;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request)
+    {
+        return !request.getRequestURI().endsWith(IMAGE_PATH_SUFFIX);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException
+    {
+        CountingResponse countingResponse = new CountingResponse(response);
+        try {
+            filterChain.doFilter(request, countingResponse);
+        }
+        finally
+        {
+            if (countingResponse.count > 0) bytesOut.record(countingResponse.count);
+        }
+    }
+
+    //==================================================================================================================
+    private static final class CountingResponse extends HttpServletResponseWrapper
+    {
+        private ServletOutputStream outputStream;
+        private long count;
+
+        private CountingResponse(HttpServletResponse response)
+        {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException
+        {
+            if (outputStream == null)
+            {
+                ServletOutputStream delegate = super.getOutputStream();
+                outputStream = new ServletOutputStream()
+                {
+                    @Override
+                    public void write(int b) throws IOException
+                    {
+                        delegate.write(b);
+                        count++;
+                    }
+
+                    @Override
+                    public void write(byte[] b, int off, int len) throws IOException
+                    {
+                        delegate.write(b, off, len);
+                        count += len;
+                    }
+
+                    @Override
+                    public void flush() throws IOException
+                    {
+                        delegate.flush();
+                    }
+
+                    @Override
+                    public void close() throws IOException
+                    {
+                        delegate.close();
+                    }
+
+                    @Override
+                    public boolean isReady()
+                    {
+                        return delegate.isReady();
+                    }
+
+                    @Override
+                    public void setWriteListener(WriteListener writeListener)
+                    {
+                        delegate.setWriteListener(writeListener);
+                    }
+                };
+            }
+
+            return outputStream;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Background executor used to generate image size variants after upload.
+ */
+@Configuration
+public class ImageConfig
+{
+    public static final String IMAGE_TASK_EXECUTOR = "imageTaskExecutor";
+
+    @Bean(IMAGE_TASK_EXECUTOR)
+    public ThreadPoolTaskExecutor imageTaskExecutor(@Value("${recipe.images.variant-threads:2}") int threads,
+                                                    @Value("${recipe.images.variant-queue:100}") int queueCapacity)
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("image-variants-");
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        return executor;
+    }
+}
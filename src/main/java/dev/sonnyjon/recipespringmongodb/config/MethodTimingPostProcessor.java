@@ -0,0 +1,107 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.AbstractAdvisingBeanPostProcessor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.util.ClassUtils;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Times every call to the interface methods of beans implementing one of the given types, as
+ * a timer tagged with the interface ("class"), the method and the exception thrown, if any.
+ * Beans already proxied (e.g. for transactions) get the timing advice added to their proxy.
+ */
+class MethodTimingPostProcessor extends AbstractAdvisingBeanPostProcessor
+{
+    private static final long serialVersionUID = 1L;
+
+    MethodTimingPostProcessor(String metricName, ObjectProvider<MeterRegistry> meterRegistry, Class<?>... types)
+    {
+        List<Class<?>> timedTypes = List.of(types);
+
+        StaticMethodMatcherPointcut pointcut = new StaticMethodMatcherPointcut()
+        {
+            @Override
+            public boolean matches(Method method, Class<?> targetClass)
+            {
+                return timedInterface(timedTypes, method, targetClass).isPresent();
+            }
+        };
+
+        this.advisor = new DefaultPointcutAdvisor(pointcut, new TimingInterceptor(metricName, meterRegistry, timedTypes));
+        setProxyTargetClass(true);
+        setBeforeExistingAdvisors(true);
+    }
+
+    //==================================================================================================================
+    static Optional<Class<?>> timedInterface(List<Class<?>> timedTypes, Method method, Class<?> targetClass)
+    {
+        // The interface declaring the method; by name and arity, so generic bridge methods match too
+        return ClassUtils.getAllInterfacesForClassAsSet(targetClass).stream()
+                         .filter(type -> timedTypes.stream().anyMatch(timed -> timed.isAssignableFrom(type)))
+                         .filter(type -> Arrays.stream(type.getMethods())
+                                               .anyMatch(declared -> declared.getName().equals(method.getName())
+                                                                     && declared.getParameterCount() == method.getParameterCount()))
+                         .findFirst();
+    }
+
+    private static final class TimingInterceptor implements MethodInterceptor
+    {
+        private final String metricName;
+        private final ObjectProvider<MeterRegistry> meterRegistryProvider;
+        private final List<Class<?>> timedTypes;
+        private final Map<Method, String> classTags = new ConcurrentHashMap<>();
+        private volatile MeterRegistry meterRegistry;
+
+        private TimingInterceptor(String metricName, ObjectProvider<MeterRegistry> meterRegistryProvider, List<Class<?>> timedTypes)
+        {
+            this.metricName = metricName;
+            this.meterRegistryProvider = meterRegistryProvider;
+            this.timedTypes = timedTypes;
+        }
+
+        @Override
+        public Object invoke(MethodInvocation invocation) throws Throwable
+        {
+            // Resolved on first use: the registry is not available yet while post-processors are created
+            if (meterRegistry == null) meterRegistry = meterRegistryProvider.getIfAvailable();
+            if (meterRegistry == null) return invocation.proceed();
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            String exception = "none";
+            try {
+                return invocation.proceed();
+            }
+            catch (Throwable e)
+            {
+                exception = e.getClass().getSimpleName();
+                throw e;
+            }
+            finally
+            {
+                Method method = invocation.getMethod();
+                String classTag = classTags.computeIfAbsent(method, key -> timedInterface(
+                        timedTypes, key, ClassUtils.getUserClass(invocation.getThis().getClass()))
+                        .map(Class::getSimpleName)
+                        .orElse(key.getDeclaringClass().getSimpleName()));
+
+                sample.stop(Timer.builder(metricName)
+                                 .tag("class", classTag)
+                                 .tag("method", method.getName())
+                                 .tag("exception", exception)
+                                 .register(meterRegistry));
+            }
+        }
+    }
+}
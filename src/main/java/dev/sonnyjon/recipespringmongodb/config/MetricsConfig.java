@@ -0,0 +1,83 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import dev.sonnyjon.recipespringmongodb.converters.DualConverter;
+import dev.sonnyjon.recipespringmongodb.services.ImageService;
+import dev.sonnyjon.recipespringmongodb.services.IngredientService;
+import dev.sonnyjon.recipespringmongodb.services.RecipeService;
+import dev.sonnyjon.recipespringmongodb.services.UnitOfMeasureService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Application metrics, scraped with Boot's own at <code>/actuator/prometheus</code>: service
+ * and converter call timers, image bytes in and out, and template render time. MongoDB command
+ * latency per collection (<code>mongodb.driver.commands</code>) and request latency
+ * (<code>http.server.requests</code>) come from Boot's auto-configuration.
+ */
+@Configuration
+public class MetricsConfig
+{
+    public static final String SERVICE_TIMER = "recipe.service";
+    public static final String CONVERTER_TIMER = "recipe.converter";
+    public static final String IMAGE_BYTES = "recipe.image.bytes";
+
+    @Bean
+    public static MethodTimingPostProcessor serviceTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry)
+    {
+        return new MethodTimingPostProcessor(SERVICE_TIMER, meterRegistry,
+                                             RecipeService.class, IngredientService.class,
+                                             ImageService.class, UnitOfMeasureService.class);
+    }
+
+    @Bean
+    public static MethodTimingPostProcessor converterTimingPostProcessor(ObjectProvider<MeterRegistry> meterRegistry)
+    {
+        return new MethodTimingPostProcessor(CONVERTER_TIMER, meterRegistry, DualConverter.class);
+    }
+
+    /**
+     * @param direction <code>in</code> for uploads, <code>out</code> for served images.
+     */
+    public static DistributionSummary imageBytes(MeterRegistry meterRegistry, String direction)
+    {
+        return DistributionSummary.builder(IMAGE_BYTES)
+                                  .baseUnit("bytes")
+                                  .tag("direction", direction)
+                                  .register(meterRegistry);
+    }
+
+    @Configuration
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+    static class ServletMetricsConfig implements WebMvcConfigurer
+    {
+        private final MeterRegistry meterRegistry;
+
+        ServletMetricsConfig(MeterRegistry meterRegistry)
+        {
+            this.meterRegistry = meterRegistry;
+        }
+
+        @Override
+        public void addInterceptors(InterceptorRegistry registry)
+        {
+            registry.addInterceptor(new ViewRenderTimingInterceptor(meterRegistry));
+        }
+
+        @Bean
+        public FilterRegistrationBean<ImageBytesFilter> imageBytesFilter()
+        {
+            FilterRegistrationBean<ImageBytesFilter> registration =
+                    new FilterRegistrationBean<>(new ImageBytesFilter(imageBytes(meterRegistry, "out")));
+            registration.addUrlPatterns("/recipe/*");
+
+            return registration;
+        }
+    }
+}
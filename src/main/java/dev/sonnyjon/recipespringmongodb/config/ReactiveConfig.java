@@ -0,0 +1,27 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * The <code>reactive</code> profile runs the application on WebFlux with reactive MongoDB
+ * repositories instead of Spring MVC. Both stacks are on the classpath; the servlet controllers
+ * are disabled in this profile and the reactive ones in all others.
+ */
+@Configuration
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveConfig
+{
+    public static final String PROFILE = "reactive";
+
+    /**
+     * Netty rather than Tomcat's reactive adapter, which Boot would pick first with both present.
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory()
+    {
+        return new NettyReactiveWebServerFactory();
+    }
+}
@@ -0,0 +1,35 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+/**
+ * Background executor that copies unit of measure and category renames into the snapshots
+ * embedded in recipes. A single thread applies the renames; when the queue is full the saving
+ * thread applies the rename itself. Each rename copies the description current when it runs, so
+ * the order in which they are applied does not matter.
+ */
+@Configuration
+public class SnapshotSyncConfig
+{
+    public static final String SNAPSHOT_SYNC_EXECUTOR = "snapshotSyncExecutor";
+
+    @Bean(SNAPSHOT_SYNC_EXECUTOR)
+    public ThreadPoolTaskExecutor snapshotSyncExecutor(@Value("${recipe.snapshots.sync-queue:100}") int queueCapacity)
+    {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("snapshot-sync-");
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        return executor;
+    }
+}
@@ -0,0 +1,20 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * The DTO constraints are <code>jakarta.validation</code> annotations, which Boot 2.7 does not
+ * auto-configure (its validator is <code>javax.validation</code>-based); this factory validates them.
+ */
+@Configuration
+public class ValidationConfig
+{
+    @Bean(destroyMethod = "close")
+    public ValidatorFactory jakartaValidatorFactory()
+    {
+        return Validation.buildDefaultValidatorFactory();
+    }
+}
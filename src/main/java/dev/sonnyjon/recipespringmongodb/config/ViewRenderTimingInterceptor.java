@@ -0,0 +1,50 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Times template rendering: Spring MVC renders the view between {@link #postHandle} and
+ * {@link #afterCompletion}. Tagged with the view name; redirects are not timed.
+ */
+class ViewRenderTimingInterceptor implements HandlerInterceptor
+{
+    static final String RENDER_TIMER = "recipe.view.render";
+    private static final String SAMPLE_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".sample";
+    private static final String VIEW_ATTRIBUTE = ViewRenderTimingInterceptor.class.getName() + ".view";
+
+    private final MeterRegistry meterRegistry;
+
+    ViewRenderTimingInterceptor(MeterRegistry meterRegistry)
+    {
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler, ModelAndView modelAndView)
+    {
+        if (modelAndView == null || modelAndView.getViewName() == null) return;
+        if (modelAndView.getViewName().startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)) return;
+
+        request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+        request.setAttribute(SAMPLE_ATTRIBUTE, Timer.start(meterRegistry));
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex)
+    {
+        Object sample = request.getAttribute(SAMPLE_ATTRIBUTE);
+        if (!(sample instanceof Timer.Sample)) return;
+
+        ((Timer.Sample) sample).stop(Timer.builder(RENDER_TIMER)
+                                          .tag("view", (String) request.getAttribute(VIEW_ATTRIBUTE))
+                                          .tag("exception", ex == null ? "none" : ex.getClass().getSimpleName())
+                                          .register(meterRegistry));
+    }
+}
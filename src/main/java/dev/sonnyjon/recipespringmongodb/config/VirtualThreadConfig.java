@@ -0,0 +1,44 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.coyote.ProtocolHandler;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Opt-in (<code>recipe.virtual-threads.enabled=true</code>) handling of servlet requests on
+ * virtual threads instead of Tomcat's platform thread pool. Controllers and services run on the
+ * request thread, so a blocking MongoDB call then parks a virtual thread rather than holding one
+ * of <code>server.tomcat.threads.max</code> threads. Concurrency is then bounded by
+ * <code>server.tomcat.max-connections</code> and the MongoDB connection pool instead.
+ * <p>
+ * Without a JDK 21 runtime a warning is logged and the platform pool is kept.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(name = "recipe.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig
+{
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadRequestExecutor()
+    {
+        Optional<ExecutorService> executor = VirtualThreads.newPerTaskExecutor("http-virtual-");
+
+        if (executor.isEmpty())
+        {
+            log.warn("recipe.virtual-threads.enabled is set, but this runtime ("
+                     + System.getProperty("java.version") + ") has no virtual threads; using Tomcat's thread pool");
+            return protocolHandler -> { };
+        }
+
+        log.info("Handling requests on virtual threads");
+        return protocolHandler -> protocolHandler.setExecutor(executor.get());
+    }
+}
@@ -0,0 +1,46 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Virtual thread executors, looked up reflectively: the build targets Java 11, while virtual
+ * threads need a JDK 21 runtime.
+ */
+public final class VirtualThreads
+{
+    private VirtualThreads()
+    {
+    }
+
+    /**
+     * @param namePrefix thread name prefix; threads are numbered from 0.
+     * @return an executor starting a new virtual thread per task, or empty if the runtime has no
+     *         virtual threads (before JDK 21, or JDK 19/20 without preview features enabled).
+     */
+    public static Optional<ExecutorService> newPerTaskExecutor(String namePrefix)
+    {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, namePrefix, 0L);
+            ThreadFactory threadFactory = (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+
+            return Optional.of((ExecutorService) Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class)
+                                                               .invoke(null, threadFactory));
+        }
+        catch (ClassNotFoundException | NoSuchMethodException | IllegalAccessException e)
+        {
+            return Optional.empty();
+        }
+        catch (InvocationTargetException e)
+        {
+            // Preview API present but not enabled
+            if (e.getCause() instanceof UnsupportedOperationException) return Optional.empty();
+            throw new IllegalStateException("Could not create a virtual thread executor", e.getCause());
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.services.AutocompleteService;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * JSON suggestions for the ingredient form, e.g. <code>GET /api/autocomplete/ingredients?prefix=chi</code>
+ * returns <code>["chicken breast", "chili powder", ...]</code>, most used first.
+ */
+@RestController
+@RequestMapping("/api/autocomplete")
+public class AutocompleteController
+{
+    static final String DEFAULT_LIMIT = "10";
+
+    private final AutocompleteService autocompleteService;
+
+    public AutocompleteController(AutocompleteService autocompleteService)
+    {
+        this.autocompleteService = autocompleteService;
+    }
+
+    @GetMapping("/ingredients")
+    public List<String> ingredients(@RequestParam(defaultValue = "") String prefix,
+                                    @RequestParam(defaultValue = DEFAULT_LIMIT) int limit)
+    {
+        return autocompleteService.suggestIngredients(prefix, limit);
+    }
+
+    @GetMapping("/units")
+    public List<String> units(@RequestParam(defaultValue = "") String prefix,
+                              @RequestParam(defaultValue = DEFAULT_LIMIT) int limit)
+    {
+        return autocompleteService.suggestUnits(prefix, limit);
+    }
+}
@@ -1,6 +1,10 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.exceptions.ImageUploadException;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,6 +15,7 @@ import org.springframework.web.servlet.ModelAndView;
  * Created by Sonny on 7/15/2022.
  */
 @ControllerAdvice
+@Profile("!" + ReactiveConfig.PROFILE)
 public class ControllerExceptionHandler
 {
     @ResponseStatus(HttpStatus.NOT_FOUND)
@@ -24,4 +29,28 @@ public class ControllerExceptionHandler
 
         return modelAndView;
     }
-}
\ No newline at end of file
+
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    @ExceptionHandler(ImageUploadException.class)
+    public ModelAndView handleBadUpload(Exception exception)
+    {
+        ModelAndView modelAndView = new ModelAndView();
+
+        modelAndView.setViewName("400error");
+        modelAndView.addObject("exception", exception);
+
+        return modelAndView;
+    }
+
+    @ResponseStatus(HttpStatus.CONFLICT)
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ModelAndView handleConflict(Exception exception)
+    {
+        ModelAndView modelAndView = new ModelAndView();
+
+        modelAndView.setViewName("409error");
+        modelAndView.addObject("exception", exception);
+
+        return modelAndView;
+    }
+}
@@ -0,0 +1,56 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.services.ExportFormat;
+import dev.sonnyjon.recipespringmongodb.services.RecipeExportService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.time.LocalDate;
+
+/**
+ * Downloads of the whole recipe collection, for backups and data hand-offs. Only mapped when
+ * <code>recipe.admin.web-enabled</code> is true.
+ */
+@Controller
+@Profile("!" + ReactiveConfig.PROFILE)
+@ConditionalOnProperty(name = "recipe.admin.web-enabled", havingValue = "true")
+public class ExportController
+{
+    static final String GZIP_CONTENT_TYPE = "application/gzip";
+
+    private final RecipeExportService exportService;
+
+    public ExportController(RecipeExportService exportService)
+    {
+        this.exportService = exportService;
+    }
+
+    /**
+     * Streams every recipe to the response as it is read, as a gzip-compressed attachment.
+     * Written on the request thread rather than asynchronously, so a long export is not cut
+     * off by the async request timeout.
+     *
+     * @param format ndjson (default) or csv.
+     * @param images whether to embed each recipe's image; true by default.
+     */
+    @GetMapping("admin/export/recipes")
+    public void exportRecipes(@RequestParam(name = "format", required = false) String format,
+                              @RequestParam(name = "images", defaultValue = "true") boolean images,
+                              HttpServletResponse response) throws IOException
+    {
+        ExportFormat exportFormat = ExportFormat.fromParam(format);
+        String filename = "recipes-" + LocalDate.now() + exportFormat.fileExtension();
+
+        response.setContentType(GZIP_CONTENT_TYPE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment().filename(filename).build().toString());
+        exportService.exportRecipes(exportFormat, images, response.getOutputStream());
+    }
+}
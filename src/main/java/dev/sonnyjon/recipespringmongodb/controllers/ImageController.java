@@ -1,9 +1,18 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
-import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
 import dev.sonnyjon.recipespringmongodb.services.ImageService;
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import dev.sonnyjon.recipespringmongodb.services.ImageSize;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
-import org.apache.tomcat.util.http.fileupload.IOUtils;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.Resource;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -12,17 +21,19 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.multipart.MultipartFile;
 
-import javax.servlet.http.HttpServletResponse;
-import java.io.ByteArrayInputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Created by Sonny on 7/13/2022.
  */
 @Controller
+@Profile("!" + ReactiveConfig.PROFILE)
 public class ImageController
 {
+    // GridFS files are never modified, so a URL pinned to an image id can be cached forever
+    static final CacheControl VERSIONED_CACHE = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic();
+    static final CacheControl UNVERSIONED_CACHE = CacheControl.noCache().cachePublic();
+
     private final ImageService imageService;
     private final RecipeService recipeService;
 
@@ -46,24 +57,70 @@ public class ImageController
         return "redirect:/recipe/" + id + "/show";
     }
 
+    /**
+     * Serves a recipe image. Conditional requests (If-None-Match / If-Modified-Since) are
+     * answered with 304 and Range requests with 206 by Spring MVC, based on the ETag and
+     * Last-Modified headers and the Resource body returned here.
+     *
+     * @param id recipe id.
+     * @param size image variant: original, medium or thumb.
+     * @param version optional image id the caller expects; when it matches and the requested variant exists,
+     *                the response is cacheable indefinitely.
+     * @return the image, or 404 if the recipe has no image.
+     */
     @GetMapping("recipe/{id}/recipeimage")
-    public void renderImageFromDB(@PathVariable String id, HttpServletResponse response) throws IOException
+    public ResponseEntity<Resource> renderImageFromDB(@PathVariable String id,
+                                                      @RequestParam(name = "size", required = false) String size,
+                                                      @RequestParam(name = "v", required = false) String version)
+    {
+        final ImageSize imageSize = ImageSize.fromParam(size);
+
+        return imageService.findImage(id, imageSize)
+                            .map(image -> imageResponse(image, imageSize, version))
+                            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    //==================================================================================================================
+    private static ResponseEntity<Resource> imageResponse(GridFsResource image, ImageSize size, String version)
+    {
+        final GridFSFile file = image.getGridFSFile();
+        final Document metadata = file.getMetadata();
+
+        return ResponseEntity.ok()
+                                .cacheControl(cacheControl(file, size, version))
+                                .eTag(entityTag(file, metadata))
+                                .lastModified(file.getUploadDate().toInstant())
+                                .contentType(MediaType.parseMediaType(image.getContentType()))
+                                .body(image);
+    }
+
+    /**
+     * Long-term caching only applies to the requested variant of the requested image. Until a
+     * variant has been generated the original is served in its place, and must not be cached
+     * under the variant's URL.
+     */
+    static CacheControl cacheControl(GridFSFile file, ImageSize size, String version)
     {
-        RecipeDto recipeDto = recipeService.findDtoById(id);
-
-        if (recipeDto.getImage() != null)
-        {
-            byte[] byteArray = new byte[recipeDto.getImage().length];
-            int i = 0;
-
-            for (Byte wrappedByte : recipeDto.getImage())
-            {
-                byteArray[i++] = wrappedByte; //auto unboxing
-            }
-
-            response.setContentType("image/jpeg");
-            InputStream is = new ByteArrayInputStream(byteArray);
-            IOUtils.copy(is, response.getOutputStream());
-        }
+        final Document metadata = file.getMetadata();
+        final String servedSize = metadata != null ? metadata.getString(ImageServiceImpl.SIZE_METADATA) : null;
+        final boolean sizeMatches = size.paramValue().equals(servedSize != null ? servedSize : ImageSize.ORIGINAL.paramValue());
+
+        return sizeMatches && sourceId(file, metadata).equals(version) ? VERSIONED_CACHE : UNVERSIONED_CACHE;
+    }
+
+    private static String sourceId(GridFSFile file, Document metadata)
+    {
+        // Size variants are versioned by the id of the original image they were generated from
+        final Object sourceId = metadata != null ? metadata.get(ImageServiceImpl.SOURCE_ID_METADATA) : null;
+
+        return sourceId != null ? sourceId.toString() : file.getObjectId().toHexString();
+    }
+
+    static String entityTag(GridFSFile file, Document metadata)
+    {
+        // Images stored before content hashing fall back to their (equally immutable) file id
+        final String contentHash = metadata != null ? metadata.getString(ImageServiceImpl.CONTENT_HASH_METADATA) : null;
+
+        return contentHash != null ? contentHash : file.getObjectId().toHexString();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.services.ImportReport;
+import dev.sonnyjon.recipespringmongodb.services.RecipeImportService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk recipe uploads, e.g. of a file written by the export. Only mapped when
+ * <code>recipe.admin.web-enabled</code> is true, since an upload can replace stored recipes.
+ */
+@Controller
+@Profile("!" + ReactiveConfig.PROFILE)
+@ConditionalOnProperty(name = "recipe.admin.web-enabled", havingValue = "true")
+public class ImportController
+{
+    private final RecipeImportService importService;
+
+    public ImportController(RecipeImportService importService)
+    {
+        this.importService = importService;
+    }
+
+    /**
+     * @param file NDJSON recipes, optionally gzipped.
+     * @return counts, rows per second and the rejected rows with their line numbers.
+     */
+    @PostMapping("admin/import/recipes")
+    @ResponseBody
+    public ImportReport importRecipes(@RequestParam("file") MultipartFile file) throws IOException
+    {
+        try (InputStream in = file.getInputStream())
+        {
+            return importService.importRecipes(in);
+        }
+    }
+}
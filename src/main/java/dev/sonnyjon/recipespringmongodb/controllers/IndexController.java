@@ -1,18 +1,32 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.util.Set;
 
 /**
  * Created by Sonny on 7/14/2022.
  */
 @Slf4j
 @Controller
+@Profile("!" + ReactiveConfig.PROFILE)
 public class IndexController
 {
+    static final String DEFAULT_PAGE_SIZE = "20";
+    static final int MAX_PAGE_SIZE = 100;
+    static final String DEFAULT_SORT = "description";
+    static final Set<String> SORTABLE_FIELDS = Set.of("description", "difficulty", "prepTime", "cookTime");
+
     private final RecipeService recipeService;
 
     public IndexController(RecipeService recipeService)
@@ -21,10 +35,30 @@ public class IndexController
     }
 
     @RequestMapping({"", "/", "/index"})
-    public String getIndexPage(Model model)
+    public String getIndexPage(@RequestParam(defaultValue = "0") int page,
+                               @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                               @RequestParam(defaultValue = DEFAULT_SORT) String sort,
+                               @RequestParam(defaultValue = "asc") String dir,
+                               Model model)
     {
         log.debug("Getting Index page");
-        model.addAttribute("recipes", recipeService.getRecipes());
+        Pageable pageable = toPageable( page, size, sort, dir );
+        Sort.Order order = pageable.getSort().iterator().next();
+
+        model.addAttribute("recipes", recipeService.getRecipeSummaries( pageable ));
+        model.addAttribute("sort", order.getProperty());
+        model.addAttribute("dir", order.getDirection().name().toLowerCase());
         return "index";
     }
-}
\ No newline at end of file
+
+    //==================================================================================================================
+    static Pageable toPageable(int page, int size, String sort, String dir)
+    {
+        final int pageNumber = Math.max( page, 0 );
+        final int pageSize = Math.min( Math.max( size, 1 ), MAX_PAGE_SIZE );
+        final String property = SORTABLE_FIELDS.contains( sort ) ? sort : DEFAULT_SORT;
+        final Sort.Direction direction = Sort.Direction.fromOptionalString( dir ).orElse( Sort.Direction.ASC );
+
+        return PageRequest.of( pageNumber, pageSize, Sort.by( direction, property ).and( Sort.by( "id" ) ) );
+    }
+}
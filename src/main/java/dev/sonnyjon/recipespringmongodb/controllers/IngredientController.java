@@ -1,11 +1,13 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
 import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
 import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
 import dev.sonnyjon.recipespringmongodb.services.IngredientService;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
 import dev.sonnyjon.recipespringmongodb.services.UnitOfMeasureService;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -18,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
  */
 @Slf4j
 @Controller
+@Profile("!" + ReactiveConfig.PROFILE)
 public class IngredientController
 {
     private final IngredientService ingredientService;
@@ -0,0 +1,30 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.reactive.result.view.Rendering;
+
+/**
+ * WebFlux counterpart of {@link ControllerExceptionHandler}.
+ */
+@ControllerAdvice
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveControllerExceptionHandler
+{
+    @ExceptionHandler(NotFoundException.class)
+    public Rendering handleNotFound(Exception exception)
+    {
+        return Rendering.view("404error").modelAttribute("exception", exception).status(HttpStatus.NOT_FOUND).build();
+    }
+
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public Rendering handleConflict(Exception exception)
+    {
+        return Rendering.view("409error").modelAttribute("exception", exception).status(HttpStatus.CONFLICT).build();
+    }
+}
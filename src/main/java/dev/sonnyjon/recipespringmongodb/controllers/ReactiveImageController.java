@@ -0,0 +1,88 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import dev.sonnyjon.recipespringmongodb.services.ImageSize;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveImageService;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import org.bson.Document;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RequestPart;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static dev.sonnyjon.recipespringmongodb.controllers.ImageController.*;
+
+/**
+ * WebFlux counterpart of {@link ImageController}, with the same caching headers. WebFlux
+ * answers conditional requests with 304 itself; Range requests get the whole image.
+ */
+@Controller
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveImageController
+{
+    // Metadata field in which GridFsTemplate and ReactiveGridFsTemplate store the content type
+    static final String CONTENT_TYPE_METADATA = "_contentType";
+
+    private final ReactiveImageService imageService;
+    private final ReactiveRecipeService recipeService;
+
+    public ReactiveImageController(ReactiveImageService imageService, ReactiveRecipeService recipeService)
+    {
+        this.imageService = imageService;
+        this.recipeService = recipeService;
+    }
+
+    @GetMapping("recipe/{id}/image")
+    public String showUploadForm(@PathVariable String id, Model model)
+    {
+        model.addAttribute("recipe", recipeService.findDtoById(id));
+        return "recipe/imageuploadform";
+    }
+
+    @PostMapping("recipe/{id}/image")
+    public Mono<String> handleImagePost(@PathVariable String id, @RequestPart("imagefile") FilePart file)
+    {
+        return imageService.saveImageFile(id, file).thenReturn("redirect:/recipe/" + id + "/show");
+    }
+
+    @GetMapping("recipe/{id}/recipeimage")
+    public Mono<ResponseEntity<Flux<DataBuffer>>> renderImageFromDB(@PathVariable String id,
+                                                                    @RequestParam(name = "size", required = false) String size,
+                                                                    @RequestParam(name = "v", required = false) String version)
+    {
+        final ImageSize imageSize = ImageSize.fromParam(size);
+
+        return imageService.findImage(id, imageSize)
+                           .flatMap(image -> image.getGridFSFile().map(file -> imageResponse(image, file, imageSize, version)))
+                           .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    //==================================================================================================================
+    private static ResponseEntity<Flux<DataBuffer>> imageResponse(ReactiveGridFsResource image, GridFSFile file,
+                                                                  ImageSize size, String version)
+    {
+        final Document metadata = file.getMetadata();
+        final String contentType = metadata != null ? metadata.getString(CONTENT_TYPE_METADATA) : null;
+
+        return ResponseEntity.ok()
+                             .cacheControl(cacheControl(file, size, version))
+                             .eTag(entityTag(file, metadata))
+                             .lastModified(file.getUploadDate().toInstant())
+                             .contentType(MediaType.parseMediaType(contentType != null ? contentType : ImageServiceImpl.DEFAULT_CONTENT_TYPE))
+                             .contentLength(file.getLength())
+                             .body(image.getDownloadStream());
+    }
+}
@@ -0,0 +1,57 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.thymeleaf.spring5.context.webflux.ReactiveDataDriverContextVariable;
+
+import java.util.List;
+
+import static dev.sonnyjon.recipespringmongodb.controllers.IndexController.*;
+
+/**
+ * Index page of the <code>reactive</code> profile. The rows are streamed into the template as
+ * they are read ("recipeRows", in chunks of {@link #ROW_BUFFER_SIZE}); "recipes" carries the
+ * page metadata only, so the pagination renders as in {@link IndexController}.
+ */
+@Slf4j
+@Controller
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveIndexController
+{
+    static final int ROW_BUFFER_SIZE = 10;
+
+    private final ReactiveRecipeService recipeService;
+
+    public ReactiveIndexController(ReactiveRecipeService recipeService)
+    {
+        this.recipeService = recipeService;
+    }
+
+    @RequestMapping({"", "/", "/index"})
+    public String getIndexPage(@RequestParam(defaultValue = "0") int page,
+                               @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size,
+                               @RequestParam(defaultValue = DEFAULT_SORT) String sort,
+                               @RequestParam(defaultValue = "asc") String dir,
+                               Model model)
+    {
+        log.debug("Getting Index page");
+        Pageable pageable = toPageable( page, size, sort, dir );
+        Sort.Order order = pageable.getSort().iterator().next();
+
+        model.addAttribute("recipes", recipeService.countRecipes().map(total -> new PageImpl<>(List.of(), pageable, total)));
+        model.addAttribute("recipeRows", new ReactiveDataDriverContextVariable(recipeService.getRecipeSummaries( pageable ),
+                                                                               ROW_BUFFER_SIZE));
+        model.addAttribute("sort", order.getProperty());
+        model.addAttribute("dir", order.getDirection().name().toLowerCase());
+        return "index";
+    }
+}
@@ -0,0 +1,98 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveIngredientService;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveUnitOfMeasureService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link IngredientController}, rendering the same templates.
+ */
+@Slf4j
+@Controller
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveIngredientController
+{
+    private final ReactiveIngredientService ingredientService;
+    private final ReactiveRecipeService recipeService;
+    private final ReactiveUnitOfMeasureService unitOfMeasureService;
+
+    public ReactiveIngredientController(ReactiveIngredientService ingredientService,
+                                        ReactiveRecipeService recipeService,
+                                        ReactiveUnitOfMeasureService unitOfMeasureService)
+    {
+        this.ingredientService = ingredientService;
+        this.recipeService = recipeService;
+        this.unitOfMeasureService = unitOfMeasureService;
+    }
+
+    @GetMapping("/recipe/{recipeId}/ingredients")
+    public String listIngredients(@PathVariable String recipeId, Model model)
+    {
+        log.debug("Getting ingredient list for recipe id: " + recipeId);
+
+        model.addAttribute("recipe", recipeService.findDtoById(recipeId));
+        return "recipe/ingredient/list";
+    }
+
+    @GetMapping("/recipe/{recipeId}/ingredient/{id}/show")
+    public String showRecipeIngredient(@PathVariable String recipeId, @PathVariable String id, Model model)
+    {
+        log.debug("Showing ingredients for ingredient id: " + id);
+
+        model.addAttribute("ingredient", ingredientService.findInRecipe(recipeId, id));
+        return "recipe/ingredient/show";
+    }
+
+    @GetMapping("/recipe/{recipeId}/ingredient/new")
+    public Mono<String> newIngredient(@PathVariable String recipeId, Model model)
+    {
+        IngredientDto ingredientDto = new IngredientDto();
+        ingredientDto.setUom(new UnitOfMeasureDto());
+
+        model.addAttribute( "recipeId", recipeId );
+        model.addAttribute( "ingredient", ingredientDto );
+        model.addAttribute( "uomList",  unitOfMeasureService.listAllUoms() );
+
+        // Check for valid recipeId. Signals NotFoundException if invalid.
+        return recipeService.findById(recipeId).thenReturn("recipe/ingredient/ingredientform");
+    }
+
+    @GetMapping("/recipe/{recipeId}/ingredient/{id}/update")
+    public String updateRecipeIngredient(@PathVariable String recipeId, @PathVariable String id, Model model)
+    {
+        model.addAttribute("ingredient", ingredientService.findInRecipe(recipeId, id));
+        model.addAttribute("uomList", unitOfMeasureService.listAllUoms());
+
+        return "recipe/ingredient/ingredientform";
+    }
+
+    @PostMapping("/recipe/{recipeId}/ingredient")
+    public Mono<String> saveOrUpdate(@PathVariable String recipeId, @ModelAttribute IngredientDto ingredient)
+    {
+        return ingredientService.saveIngredient(recipeId, ingredient)
+                                .doOnNext(savedIngredient -> log.debug("saved ingredient id:" + savedIngredient.getId()))
+                                .map(savedIngredient -> String.format("redirect:/recipe/%1$s/ingredient/%2$s/show",
+                                                                      recipeId, savedIngredient.getId()));
+    }
+
+    @GetMapping("/recipe/{recipeId}/ingredient/{id}/delete")
+    public Mono<String> deleteIngredient(@PathVariable String recipeId, @PathVariable String id)
+    {
+        log.debug("deleting ingredient id:" + id);
+
+        return ingredientService.removeIngredient(recipeId, id)
+                                .thenReturn(String.format("redirect:/recipe/%s/ingredients", recipeId));
+    }
+}
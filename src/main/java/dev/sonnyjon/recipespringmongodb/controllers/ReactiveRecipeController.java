@@ -0,0 +1,89 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.validation.BindingResult;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux counterpart of {@link RecipeController}, rendering the same templates.
+ */
+@Slf4j
+@Controller
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveRecipeController
+{
+    private static final String RECIPE_RECIPEFORM_URL = "recipe/recipeform";
+    private final ReactiveRecipeService recipeService;
+
+    public ReactiveRecipeController(ReactiveRecipeService recipeService)
+    {
+        this.recipeService = recipeService;
+    }
+
+    @GetMapping("/recipe/{id}/show")
+    public String showById(@PathVariable String id, Model model)
+    {
+        model.addAttribute("recipe", recipeService.findDtoById(id));
+        return "recipe/show";
+    }
+
+    @GetMapping("/recipe/new")
+    public String newRecipe(Model model)
+    {
+        model.addAttribute("recipe", new RecipeDto());
+        return RECIPE_RECIPEFORM_URL;
+    }
+
+    @GetMapping("/recipe/{id}/update")
+    public String updateRecipe(@PathVariable String id, Model model)
+    {
+        model.addAttribute("recipe", recipeService.findDtoById(id));
+        return RECIPE_RECIPEFORM_URL;
+    }
+
+    @PostMapping("/recipe")
+    public Mono<String> saveOrUpdate(@Valid @ModelAttribute("recipe") RecipeDto recipeDto, BindingResult bindingResult)
+    {
+        if (bindingResult.hasErrors())
+        {
+            bindingResult.getAllErrors().forEach(objectError -> log.debug(objectError.toString()));
+
+            return Mono.just(RECIPE_RECIPEFORM_URL);
+        }
+
+        return recipeService.saveRecipe(recipeDto)
+                            .map(savedRecipe -> String.format("redirect:/recipe/%s/show", savedRecipe.getId()))
+                            .onErrorResume(OptimisticLockingFailureException.class, e -> {
+                                log.debug("Conflicting edit of recipe: " + recipeDto.getId());
+
+                                // Keep the submitted edits but take the current version, so saving again is a deliberate overwrite
+                                return recipeService.findDtoById(recipeDto.getId())
+                                                    .map(current -> {
+                                                        recipeDto.setVersion(current.getVersion());
+                                                        bindingResult.reject("recipe.conflict", "This recipe was changed by someone else.");
+
+                                                        return RECIPE_RECIPEFORM_URL;
+                                                    });
+                            });
+    }
+
+    @GetMapping("/recipe/{id}/delete")
+    public Mono<String> deleteById(@PathVariable String id)
+    {
+        log.debug("Deleting id: " + id);
+
+        return recipeService.deleteById(id).thenReturn("redirect:/");
+    }
+}
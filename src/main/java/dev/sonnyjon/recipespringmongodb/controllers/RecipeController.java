@@ -1,9 +1,12 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
 import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -17,6 +20,7 @@ import org.springframework.web.bind.annotation.PostMapping;
  */
 @Slf4j
 @Controller
+@Profile("!" + ReactiveConfig.PROFILE)
 public class RecipeController
 {
     private static final String RECIPE_RECIPEFORM_URL = "recipe/recipeform";
@@ -58,7 +62,20 @@ public class RecipeController
             return RECIPE_RECIPEFORM_URL;
         }
 
-        RecipeDto savedRecipe = recipeService.saveRecipe(recipeDto);
+        RecipeDto savedRecipe;
+        try {
+            savedRecipe = recipeService.saveRecipe(recipeDto);
+        }
+        catch (OptimisticLockingFailureException e)
+        {
+            log.debug("Conflicting edit of recipe: " + recipeDto.getId());
+
+            // Keep the submitted edits but take the current version, so saving again is a deliberate overwrite
+            recipeDto.setVersion(recipeService.findDtoById(recipeDto.getId()).getVersion());
+            bindingResult.reject("recipe.conflict", "This recipe was changed by someone else.");
+
+            return RECIPE_RECIPEFORM_URL;
+        }
 
         return String.format("redirect:/recipe/%s/show", savedRecipe.getId());
     }
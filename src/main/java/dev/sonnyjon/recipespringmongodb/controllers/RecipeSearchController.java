@@ -0,0 +1,66 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.services.RecipeSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+/**
+ * Full-text recipe search, listed by relevance with the same paging as the index page, and
+ * search by ingredients ("what can I cook with...").
+ */
+@Slf4j
+@Controller
+@Profile("!" + ReactiveConfig.PROFILE)
+public class RecipeSearchController
+{
+    static final String MATCH_ALL = "all";
+    static final String MATCH_ANY = "any";
+
+    private final RecipeSearchService searchService;
+
+    public RecipeSearchController(RecipeSearchService searchService)
+    {
+        this.searchService = searchService;
+    }
+
+    @GetMapping("/recipe/search")
+    public String search(@RequestParam(defaultValue = "") String q,
+                         @RequestParam(defaultValue = "0") int page,
+                         @RequestParam(defaultValue = IndexController.DEFAULT_PAGE_SIZE) int size,
+                         Model model)
+    {
+        log.debug("Searching recipes: " + q);
+        final int pageNumber = Math.max( page, 0 );
+        final int pageSize = Math.min( Math.max( size, 1 ), IndexController.MAX_PAGE_SIZE );
+
+        model.addAttribute("searchPath", "/recipe/search");
+        model.addAttribute("q", q);
+        model.addAttribute("recipes", searchService.search( q, PageRequest.of( pageNumber, pageSize ) ));
+        return "recipe/search";
+    }
+
+    @GetMapping("/recipe/search/ingredients")
+    public String searchByIngredients(@RequestParam(defaultValue = "") String q,
+                                      @RequestParam(defaultValue = MATCH_ALL) String match,
+                                      @RequestParam(defaultValue = "0") int page,
+                                      @RequestParam(defaultValue = IndexController.DEFAULT_PAGE_SIZE) int size,
+                                      Model model)
+    {
+        log.debug("Searching recipes by ingredients: " + q);
+        final int pageNumber = Math.max( page, 0 );
+        final int pageSize = Math.min( Math.max( size, 1 ), IndexController.MAX_PAGE_SIZE );
+        final boolean matchAll = !MATCH_ANY.equals( match );
+
+        model.addAttribute("searchPath", "/recipe/search/ingredients");
+        model.addAttribute("q", q);
+        model.addAttribute("match", matchAll ? MATCH_ALL : MATCH_ANY);
+        model.addAttribute("recipes", searchService.searchByIngredients( q, matchAll, PageRequest.of( pageNumber, pageSize ) ));
+        return "recipe/search";
+    }
+}
@@ -0,0 +1,19 @@
+package dev.sonnyjon.recipespringmongodb.converters;
+
+import org.mapstruct.InjectionStrategy;
+import org.mapstruct.MapperConfig;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Shared settings for the converters generated by MapStruct at build time. The generated
+ * implementations are plain getter/setter code and pre-size their collections.
+ * <p>
+ * An unmapped target property fails the build, so a field added to an entity or DTO
+ * cannot silently be dropped by the conversion.
+ */
+@MapperConfig(componentModel = "spring",
+              injectionStrategy = InjectionStrategy.CONSTRUCTOR,
+              unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface ConverterConfig
+{
+}
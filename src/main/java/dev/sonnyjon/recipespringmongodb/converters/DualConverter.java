@@ -2,6 +2,9 @@ package dev.sonnyjon.recipespringmongodb.converters;
 
 /**
  * Created by Sonny on 7/8/2022.
+ * <p>
+ * Implementations are generated at build time (see {@link ConverterConfig}) as stateless Spring
+ * singletons, shared by all request threads without locking.
  */
 public interface DualConverter<T, V>
 {
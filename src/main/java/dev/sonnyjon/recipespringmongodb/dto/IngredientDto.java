@@ -1,5 +1,7 @@
 package dev.sonnyjon.recipespringmongodb.dto;
 
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -15,7 +17,9 @@ import java.math.BigDecimal;
 public class IngredientDto
 {
     private String id;
+    @NotBlank
     private String description;
+    @PositiveOrZero
     private BigDecimal amount;
     private UnitOfMeasureDto uom;
 }
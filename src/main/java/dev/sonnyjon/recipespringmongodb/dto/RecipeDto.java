@@ -1,6 +1,11 @@
 package dev.sonnyjon.recipespringmongodb.dto;
 
 import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -17,15 +22,26 @@ import java.util.List;
 public class RecipeDto
 {
     private String id;
+    private Long version;
+    @NotBlank
+    @Size(min = 3, max = 255)
     private String description;
+    @Min(1)
+    @Max(999)
     private Integer prepTime;
+    @Min(0)
+    @Max(999)
     private Integer cookTime;
+    @Min(1)
+    @Max(100)
     private Integer servings;
     private String source;
+    @Size(max = 2048)
     private String url;
     private String directions;
+    @Valid
     private List<IngredientDto> ingredients = new ArrayList<>();
-    private Byte[] image;
+    private String imageId;
     private Difficulty difficulty;
     private NotesDto notes;
     private List<CategoryDto> categories = new ArrayList<>();
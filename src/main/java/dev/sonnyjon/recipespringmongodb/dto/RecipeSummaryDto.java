@@ -0,0 +1,21 @@
+package dev.sonnyjon.recipespringmongodb.dto;
+
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Lightweight, read-only view of a Recipe used by listing pages. Only the fields
+ * declared here are fetched from MongoDB when used as a repository projection.
+ */
+@Getter
+@AllArgsConstructor
+public class RecipeSummaryDto
+{
+    private final String id;
+    private final String description;
+    private final Difficulty difficulty;
+    private final Integer prepTime;
+    private final Integer cookTime;
+    private final String imageId;
+}
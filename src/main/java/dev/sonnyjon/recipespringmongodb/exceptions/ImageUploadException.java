@@ -0,0 +1,16 @@
+package dev.sonnyjon.recipespringmongodb.exceptions;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * An uploaded image could not be read.
+ */
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class ImageUploadException extends RuntimeException
+{
+    public ImageUploadException(String message, Throwable cause)
+    {
+        super(message, cause);
+    }
+}
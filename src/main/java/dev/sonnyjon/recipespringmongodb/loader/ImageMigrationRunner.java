@@ -0,0 +1,109 @@
+package dev.sonnyjon.recipespringmongodb.loader;
+
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.Binary;
+import org.bson.types.ObjectId;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-off migration that moves images embedded in recipe documents (the legacy
+ * <code>image</code> field) into GridFS and replaces them with an <code>imageId</code>
+ * reference. Enabled with <code>recipe.images.migrate=true</code>; safe to re-run, as
+ * migrated recipes no longer carry the legacy field.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recipe.images.migrate", havingValue = "true")
+public class ImageMigrationRunner implements ApplicationRunner
+{
+    static final String RECIPE_COLLECTION = "recipe";
+    static final String LEGACY_IMAGE_FIELD = "image";
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+
+    public ImageMigrationRunner(MongoTemplate mongoTemplate, GridFsTemplate gridFsTemplate)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args)
+    {
+        Query legacyImages = query(where(LEGACY_IMAGE_FIELD).exists(true));
+        legacyImages.fields().include(LEGACY_IMAGE_FIELD);
+        int migrated = 0;
+
+        try (CloseableIterator<Document> recipes = mongoTemplate.stream(legacyImages, Document.class, RECIPE_COLLECTION))
+        {
+            while (recipes.hasNext())
+            {
+                migrate(recipes.next());
+                migrated++;
+            }
+        }
+
+        log.info("Migrated {} embedded recipe image(s) to GridFS", migrated);
+    }
+
+    //==================================================================================================================
+    private void migrate(Document recipe)
+    {
+        Object recipeId = recipe.get("_id");
+        Update update = new Update().unset(LEGACY_IMAGE_FIELD);
+        byte[] bytes = toBytes(recipe.get(LEGACY_IMAGE_FIELD));
+
+        if (bytes.length > 0)
+        {
+            String id = recipeId instanceof ObjectId ? ((ObjectId) recipeId).toHexString() : recipeId.toString();
+            ObjectId imageId = gridFsTemplate.store(new ByteArrayInputStream(bytes), id,
+                                                    ImageServiceImpl.DEFAULT_CONTENT_TYPE,
+                                                    new Document(ImageServiceImpl.RECIPE_ID_METADATA, id)
+                                                        .append(ImageServiceImpl.CONTENT_HASH_METADATA,
+                                                                DigestUtils.md5DigestAsHex(bytes)));
+            update.set("imageId", imageId.toHexString());
+        }
+
+        mongoTemplate.updateFirst(query(where("_id").is(recipeId)), update, RECIPE_COLLECTION);
+        log.debug("Migrated image for recipe: " + recipeId);
+    }
+
+    /**
+     * Boxed Byte[] images were stored as arrays of int32; primitive arrays as BSON binary.
+     */
+    static byte[] toBytes(Object image)
+    {
+        if (image instanceof Binary) return ((Binary) image).getData();
+        if (image instanceof byte[]) return (byte[]) image;
+        if (!(image instanceof List)) return new byte[0];
+
+        List<?> values = (List<?>) image;
+        byte[] bytes = new byte[values.size()];
+        int i = 0;
+
+        for (Object value : values)
+        {
+            bytes[i++] = ((Number) value).byteValue();
+        }
+
+        return bytes;
+    }
+}
@@ -0,0 +1,53 @@
+package dev.sonnyjon.recipespringmongodb.loader;
+
+import dev.sonnyjon.recipespringmongodb.services.ExportFormat;
+import dev.sonnyjon.recipespringmongodb.services.RecipeExportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Exports all recipes to <code>recipe.export.file</code> at startup, e.g.
+ * <code>--recipe.export.file=recipes.ndjson.gz --recipe.export.format=csv --recipe.export.images=false</code>.
+ * Run with <code>--spring.main.web-application-type=none</code> for the application to exit
+ * once the export is written.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recipe.export.file")
+public class RecipeExportRunner implements ApplicationRunner
+{
+    private final RecipeExportService exportService;
+    private final Path file;
+    private final ExportFormat format;
+    private final boolean includeImages;
+
+    public RecipeExportRunner(RecipeExportService exportService,
+                              @Value("${recipe.export.file}") Path file,
+                              @Value("${recipe.export.format:ndjson}") String format,
+                              @Value("${recipe.export.images:true}") boolean includeImages)
+    {
+        this.exportService = exportService;
+        this.file = file;
+        this.format = ExportFormat.fromParam(format);
+        this.includeImages = includeImages;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException
+    {
+        try (OutputStream out = Files.newOutputStream(file))
+        {
+            long count = exportService.exportRecipes(format, includeImages, out);
+            log.info("Wrote {} recipe(s) to {}", count, file.toAbsolutePath());
+        }
+    }
+}
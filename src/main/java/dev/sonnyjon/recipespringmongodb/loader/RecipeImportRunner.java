@@ -0,0 +1,49 @@
+package dev.sonnyjon.recipespringmongodb.loader;
+
+import dev.sonnyjon.recipespringmongodb.services.ImportReport;
+import dev.sonnyjon.recipespringmongodb.services.RecipeImportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Imports the recipes in <code>recipe.import.file</code> (NDJSON, optionally gzipped) at startup
+ * and logs the rejected rows. Run with <code>--spring.main.web-application-type=none</code> for
+ * the application to exit once the import is done.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recipe.import.file")
+public class RecipeImportRunner implements ApplicationRunner
+{
+    private final RecipeImportService importService;
+    private final Path file;
+
+    public RecipeImportRunner(RecipeImportService importService, @Value("${recipe.import.file}") Path file)
+    {
+        this.importService = importService;
+        this.file = file;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException
+    {
+        try (InputStream in = Files.newInputStream(file))
+        {
+            ImportReport report = importService.importRecipes(in);
+            report.getErrors().forEach(error -> log.warn("{} line {}: {}", file.getFileName(), error.getLine(), error.getMessage()));
+            if (report.getFailed() > report.getErrors().size())
+            {
+                log.warn("{} more rejected row(s) not listed", report.getFailed() - report.getErrors().size());
+            }
+        }
+    }
+}
@@ -1,48 +1,71 @@
 package dev.sonnyjon.recipespringmongodb.loader;
 
 import dev.sonnyjon.recipespringmongodb.model.*;
-import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
-import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReferenceDataCacheListener;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationListener;
-import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 /**
  * Created by Sonny on 7/13/2022.
+ * <p>
+ * Seeds the bootstrap data once per startup, ahead of the other runners. Categories and units of
+ * measure are upserted by their (unique) description in one bulk write per collection, skipped
+ * altogether when a count shows they all exist; the sample recipes are only added to an empty
+ * recipe collection. Re-running against a seeded database therefore costs three small queries.
  */
 @Slf4j
 @Component
-public class RecipeLoader implements ApplicationListener<ContextRefreshedEvent>
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RecipeLoader implements ApplicationRunner
 {
-    private final CategoryRepository categoryRepository;
+    static final List<String> CATEGORIES = List.of("American", "Italian", "Mexican", "Fast Food");
+    static final List<String> UOMS = List.of("Teaspoon", "Tablespoon", "Cup", "Pinch", "Ounce", "Each", "Pint", "Dash");
+
+    private final MongoTemplate mongoTemplate;
     private final RecipeRepository recipeRepository;
-    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final ReferenceDataCacheListener cacheListener;
 
-    public RecipeLoader(CategoryRepository categoryRepository,
+    public RecipeLoader(MongoTemplate mongoTemplate,
                         RecipeRepository recipeRepository,
-                        UnitOfMeasureRepository unitOfMeasureRepository)
+                        ReferenceDataCacheListener cacheListener)
     {
-        this.categoryRepository = categoryRepository;
+        this.mongoTemplate = mongoTemplate;
         this.recipeRepository = recipeRepository;
-        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.cacheListener = cacheListener;
     }
 
     @Override
-    @Transactional
-    public void onApplicationEvent(ContextRefreshedEvent event)
+    public void run(ApplicationArguments args)
     {
-        if (shouldLoad()) doLoad();
+        int seeded = seed(Category.class, CATEGORIES) + seed(UnitOfMeasure.class, UOMS);
+        boolean loadRecipes = !mongoTemplate.exists(new Query(), Recipe.class);
+
+        if (loadRecipes) recipeRepository.saveAll(getRecipes());
+
+        if (seeded > 0 || loadRecipes) doLoad(seeded, loadRecipes);
         else skipLoad();
     }
 
+    //==================================================================================================================
     private void skipLoad()
     {
         log.info("---------------------------------------------------------");
@@ -50,119 +73,67 @@ public class RecipeLoader implements ApplicationListener<ContextRefreshedEvent>
         log.info("---------------------------------------------------------");
     }
 
-    private void doLoad()
+    private void doLoad(int seeded, boolean loadRecipes)
     {
-        loadCategories();
-        loadUom();
-        recipeRepository.saveAll(getRecipes());
-
         log.info("---------------------------------------------------------");
-        log.info("Loading Bootstrap data");
+        log.info("Loaded Bootstrap data: {} reference document(s){}", seeded, loadRecipes ? ", sample recipes" : "");
         log.info("---------------------------------------------------------");
     }
 
-    private boolean shouldLoad()
-    {
-        int catCount = categoryRepository.findAll().size();
-        int uomCount = unitOfMeasureRepository.findAll().size();
-
-        return catCount == 0 || uomCount == 0;
-    }
-
-    private void loadCategories()
+    /**
+     * Upserts the reference documents of the given type that are missing.
+     *
+     * @return the number of documents inserted.
+     */
+    private int seed(Class<?> type, List<String> descriptions)
     {
-        Category cat1 =  new Category();
-        cat1.setDescription("American");
-        categoryRepository.save(cat1);
+        if (mongoTemplate.count(query(where("description").in(descriptions)), type) == descriptions.size()) return 0;
 
-        Category cat2 = new Category();
-        cat2.setDescription("Italian");
-        categoryRepository.save(cat2);
+        BulkOperations bulkOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, type);
+        for (String description : descriptions)
+        {
+            bulkOps.upsert(query(where("description").is(description)), new Update().setOnInsert("description", description));
+        }
 
-        Category cat3 = new Category();
-        cat3.setDescription("Mexican");
-        categoryRepository.save(cat3);
+        int upserted = bulkOps.execute().getUpserts().size();
+        // Bulk writes raise no mapping events
+        if (upserted > 0) cacheListener.evict(type);
 
-        Category cat4 = new Category();
-        cat4.setDescription("Fast Food");
-        categoryRepository.save(cat4);
+        return upserted;
     }
 
-    private void loadUom()
+    private <T> Map<String, T> byDescription(Class<T> type, List<String> descriptions, Function<T, String> description)
     {
-        UnitOfMeasure uom1 = new UnitOfMeasure();
-        uom1.setDescription("Teaspoon");
-        unitOfMeasureRepository.save(uom1);
-
-        UnitOfMeasure uom2 = new UnitOfMeasure();
-        uom2.setDescription("Tablespoon");
-        unitOfMeasureRepository.save(uom2);
-
-        UnitOfMeasure uom3 = new UnitOfMeasure();
-        uom3.setDescription("Cup");
-        unitOfMeasureRepository.save(uom3);
-
-        UnitOfMeasure uom4 = new UnitOfMeasure();
-        uom4.setDescription("Pinch");
-        unitOfMeasureRepository.save(uom4);
-
-        UnitOfMeasure uom5 = new UnitOfMeasure();
-        uom5.setDescription("Ounce");
-        unitOfMeasureRepository.save(uom5);
-
-        UnitOfMeasure uom6 = new UnitOfMeasure();
-        uom6.setDescription("Each");
-        unitOfMeasureRepository.save(uom6);
+        return mongoTemplate.find(query(where("description").in(descriptions)), type)
+                            .stream()
+                            .collect(Collectors.toMap(description, Function.identity()));
+    }
 
-        UnitOfMeasure uom7 = new UnitOfMeasure();
-        uom7.setDescription("Pint");
-        unitOfMeasureRepository.save(uom7);
+    private static <T> T required(Map<String, T> byDescription, String description)
+    {
+        T found = byDescription.get(description);
+        if (found == null) throw new RuntimeException("Expected bootstrap data not found: " + description);
 
-        UnitOfMeasure uom8 = new UnitOfMeasure();
-        uom8.setDescription("Dash");
-        unitOfMeasureRepository.save(uom8);
+        return found;
     }
 
     private List<Recipe> getRecipes()
     {
         List<Recipe> recipes = new ArrayList<>(2);
 
-        //get UOMs
-        Optional<UnitOfMeasure> eachUomOptional = unitOfMeasureRepository.findByDescription("Each");
-        if (eachUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        Optional<UnitOfMeasure> tableSpoonUomOptional = unitOfMeasureRepository.findByDescription("Tablespoon");
-        if (tableSpoonUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        Optional<UnitOfMeasure> teaSpoonUomOptional = unitOfMeasureRepository.findByDescription("Teaspoon");
-        if (teaSpoonUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        Optional<UnitOfMeasure> dashUomOptional = unitOfMeasureRepository.findByDescription("Dash");
-        if (dashUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        Optional<UnitOfMeasure> pintUomOptional = unitOfMeasureRepository.findByDescription("Pint");
-        if (pintUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        Optional<UnitOfMeasure> cupsUomOptional = unitOfMeasureRepository.findByDescription("Cup");
-        if (cupsUomOptional.isEmpty()) throw new RuntimeException("Expected UOM Not Found");
-
-        //get optionals
-        UnitOfMeasure eachUom = eachUomOptional.get();
-        UnitOfMeasure tableSpoonUom = tableSpoonUomOptional.get();
-        UnitOfMeasure teapoonUom = tableSpoonUomOptional.get();
-        UnitOfMeasure dashUom = dashUomOptional.get();
-        UnitOfMeasure pintUom = dashUomOptional.get();
-        UnitOfMeasure cupsUom = cupsUomOptional.get();
-
-        //get Categories
-        Optional<Category> americanCategoryOptional = categoryRepository.findByDescription("American");
-        if (americanCategoryOptional.isEmpty()) throw new RuntimeException("Expected Category Not Found");
+        //get UOMs and Categories, one query each
+        Map<String, UnitOfMeasure> uoms = byDescription(UnitOfMeasure.class, UOMS, UnitOfMeasure::getDescription);
+        Map<String, Category> categories = byDescription(Category.class, CATEGORIES, Category::getDescription);
 
-        Optional<Category> mexicanCategoryOptional = categoryRepository.findByDescription("Mexican");
-        if (mexicanCategoryOptional.isEmpty()) throw new RuntimeException("Expected Category Not Found");
+        UnitOfMeasure eachUom = required(uoms, "Each");
+        UnitOfMeasure tableSpoonUom = required(uoms, "Tablespoon");
+        UnitOfMeasure teapoonUom = required(uoms, "Teaspoon");
+        UnitOfMeasure dashUom = required(uoms, "Dash");
+        UnitOfMeasure pintUom = required(uoms, "Pint");
+        UnitOfMeasure cupsUom = required(uoms, "Cup");
 
-        Category americanCategory = americanCategoryOptional.get();
-        Category mexicanCategory = mexicanCategoryOptional.get();
+        Category americanCategory = required(categories, "American");
+        Category mexicanCategory = required(categories, "Mexican");
 
         //Yummy Guac
         Recipe guacRecipe = new Recipe();
@@ -0,0 +1,89 @@
+package dev.sonnyjon.recipespringmongodb.loader;
+
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import dev.sonnyjon.recipespringmongodb.services.ReferenceSnapshots;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * One-off migration that replaces the unit of measure and category DBRefs of legacy recipe
+ * documents with embedded snapshots. Enabled with <code>recipe.snapshots.migrate=true</code>;
+ * safe to re-run, as migrated recipes no longer hold DBRefs. A recipe modified while it is
+ * being migrated is skipped and left for the next run.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recipe.snapshots.migrate", havingValue = "true")
+public class SnapshotMigrationRunner implements ApplicationRunner
+{
+    static final String RECIPE_COLLECTION = "recipe";
+
+    private final MongoTemplate mongoTemplate;
+    private final RecipeRepository recipeRepository;
+    private final ReferenceSnapshots snapshots;
+
+    public SnapshotMigrationRunner(MongoTemplate mongoTemplate,
+                                   RecipeRepository recipeRepository,
+                                   ReferenceSnapshots snapshots)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.recipeRepository = recipeRepository;
+        this.snapshots = snapshots;
+    }
+
+    @Override
+    public void run(ApplicationArguments args)
+    {
+        Query legacyRecipes = query(legacyReferences());
+        legacyRecipes.fields().include("_id");
+        int migrated = 0;
+
+        try (CloseableIterator<Document> recipes = mongoTemplate.stream(legacyRecipes, Document.class, RECIPE_COLLECTION))
+        {
+            while (recipes.hasNext())
+            {
+                if (migrate(recipes.next().get("_id").toString())) migrated++;
+            }
+        }
+
+        log.info("Migrated {} recipe(s) to embedded unit of measure and category snapshots", migrated);
+    }
+
+    //==================================================================================================================
+    private boolean migrate(String recipeId)
+    {
+        // The repository inlines the referenced documents
+        Recipe recipe = recipeRepository.findById(recipeId).orElse(null);
+        if (recipe == null) return false;
+
+        snapshots.fill(recipe);
+
+        Query unchanged = query(where("id").is(recipeId).and("version").is(recipe.getVersion()));
+        Update update = new Update().set("ingredients", recipe.getIngredients())
+                                    .set("categories", recipe.getCategories());
+
+        boolean updated = mongoTemplate.updateFirst(unchanged, update, Recipe.class).getModifiedCount() > 0;
+        if (!updated) log.warn("Recipe changed during snapshot migration, skipped: " + recipeId);
+
+        return updated;
+    }
+
+    private static Criteria legacyReferences()
+    {
+        return new Criteria().orOperator(where("ingredients.uom.$ref").exists(true),
+                                         where("categories.$ref").exists(true));
+    }
+}
@@ -3,6 +3,8 @@ package dev.sonnyjon.recipespringmongodb.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.annotation.Transient;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Set;
@@ -18,6 +20,9 @@ public class Category
     @Id
     private String id;
 
+    @Indexed(unique = true)
     private String description;
+    // Not stored: recipes embed category snapshots, not the other way round
+    @Transient
     private Set<Recipe> recipes;
 }
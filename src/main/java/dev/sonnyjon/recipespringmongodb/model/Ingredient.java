@@ -3,7 +3,7 @@ package dev.sonnyjon.recipespringmongodb.model;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 
 import java.math.BigDecimal;
 import java.util.Objects;
@@ -11,6 +11,9 @@ import java.util.UUID;
 
 /**
  * Created by Sonny on 7/7/2022.
+ * <p>
+ * The unit of measure is an embedded snapshot (id and description) rather than a DBRef, so that
+ * reading a recipe needs no further queries. Renames are copied into it in the background.
  */
 @Getter
 @Setter
@@ -18,9 +21,9 @@ import java.util.UUID;
 public class Ingredient
 {
     private String id = UUID.randomUUID().toString();
+    @TextIndexed(weight = 5)
     private String description;
     private BigDecimal amount;
-    @DBRef
     private UnitOfMeasure uom;
 
     public Ingredient(String description, BigDecimal amount, UnitOfMeasure uom)
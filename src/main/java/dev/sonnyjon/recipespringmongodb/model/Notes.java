@@ -2,6 +2,7 @@ package dev.sonnyjon.recipespringmongodb.model;
 
 import lombok.Getter;
 import lombok.Setter;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 
 /**
  * Created by Sonny on 7/7/2022.
@@ -11,5 +12,6 @@ import lombok.Setter;
 public class Notes
 {
     private String id;
+    @TextIndexed(weight = 2)
     private String recipeNotes;
 }
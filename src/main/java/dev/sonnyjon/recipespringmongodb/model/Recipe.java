@@ -3,7 +3,10 @@ package dev.sonnyjon.recipespringmongodb.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
-import org.springframework.data.mongodb.core.mapping.DBRef;
+import org.springframework.data.annotation.Version;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.TextIndexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.HashSet;
@@ -11,27 +14,46 @@ import java.util.Set;
 
 /**
  * Created by Sonny on 7/7/2022.
+ * <p>
+ * Categories are embedded snapshots (id and description), like the ingredients' units of measure.
+ * <p>
+ * Indexes cover the embedded ingredient and snapshot lookups, and each sortable column of the
+ * recipe list (with <code>_id</code> as tie-breaker, matching the page sort). The text index
+ * spans the description, directions, notes and ingredient descriptions, weighted in that order
+ * of relevance: description 10, ingredients 5, notes 2, directions 1.
  */
 @Getter
 @Setter
 @Document("recipe")
+@CompoundIndexes({
+        @CompoundIndex(name = "ingredients_id", def = "{'ingredients._id': 1}"),
+        @CompoundIndex(name = "ingredients_uom_id", def = "{'ingredients.uom._id': 1}"),
+        @CompoundIndex(name = "categories_id", def = "{'categories._id': 1}"),
+        @CompoundIndex(name = "description_id", def = "{'description': 1, '_id': 1}"),
+        @CompoundIndex(name = "difficulty_id", def = "{'difficulty': 1, '_id': 1}"),
+        @CompoundIndex(name = "prepTime_id", def = "{'prepTime': 1, '_id': 1}"),
+        @CompoundIndex(name = "cookTime_id", def = "{'cookTime': 1, '_id': 1}")
+})
 public class Recipe
 {
     @Id
     private String id;
+    @Version
+    private Long version;
 
+    @TextIndexed(weight = 10)
     private String description;
     private Integer prepTime;
     private Integer cookTime;
     private Integer servings;
     private String source;
     private String url;
+    @TextIndexed
     private String directions;
-    private Byte[] image;
+    private String imageId;
     private Difficulty difficulty;
     private Notes notes;
     private Set<Ingredient> ingredients = new HashSet<>();
-    @DBRef
     private Set<Category> categories = new HashSet<>();
 
     /**
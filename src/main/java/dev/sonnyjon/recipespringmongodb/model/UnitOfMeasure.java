@@ -3,6 +3,7 @@ package dev.sonnyjon.recipespringmongodb.model;
 import lombok.Getter;
 import lombok.Setter;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 
 import java.util.Objects;
@@ -17,6 +18,7 @@ public class UnitOfMeasure
 {
     @Id
     private String id;
+    @Indexed(unique = true)
     private String description;
 
     @Override
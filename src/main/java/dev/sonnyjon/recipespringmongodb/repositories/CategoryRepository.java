@@ -1,14 +1,29 @@
 package dev.sonnyjon.recipespringmongodb.repositories;
 
+import dev.sonnyjon.recipespringmongodb.config.CacheConfig;
 import dev.sonnyjon.recipespringmongodb.model.Category;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Created by Sonny on 7/7/2022.
+ * <p>
+ * Lookups are cached; {@link ReferenceDataCacheListener} clears the caches on every save or delete.
+ * Cached entities are shared, so callers must not modify them.
  */
 public interface CategoryRepository extends MongoRepository<Category, String>
 {
+    @Cacheable(CacheConfig.CATEGORY_BY_DESCRIPTION)
     Optional<Category> findByDescription(String description);
+
+    @Override
+    @Cacheable(CacheConfig.CATEGORY_BY_ID)
+    Optional<Category> findById(String id);
+
+    @Override
+    @Cacheable(CacheConfig.CATEGORIES)
+    List<Category> findAll();
 }
@@ -0,0 +1,141 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationListener;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mapping.context.MappingContext;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Creates the indexes declared on the <code>@Document</code> classes (<code>@Indexed</code>,
+ * <code>@CompoundIndex</code>) at startup, before the bootstrap data is loaded, then checks
+ * that every one of them exists. With <code>recipe.indexes.create=false</code> the indexes are
+ * only verified, e.g. where they are managed by the DBA.
+ * <p>
+ * Indexes declared on a type that is also embedded (unit of measure, category) are resolved a
+ * second time under the embedding path, with the path in their name; those belong to the
+ * type's own collection and are skipped for the embedding one.
+ */
+@Slf4j
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class IndexInitializer implements ApplicationListener<ContextRefreshedEvent>
+{
+    static final String GRIDFS_FILES = "fs.files";
+
+    private final MongoTemplate mongoTemplate;
+    private final boolean createIndexes;
+
+    public IndexInitializer(MongoTemplate mongoTemplate, @Value("${recipe.indexes.create:true}") boolean createIndexes)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.createIndexes = createIndexes;
+    }
+
+    @Override
+    public void onApplicationEvent(ContextRefreshedEvent event)
+    {
+        ensureIndexes();
+    }
+
+    /**
+     * Creates (unless disabled) and verifies all declared indexes.
+     *
+     * @return the declared indexes that do not exist, as <code>collection.indexName</code>.
+     */
+    public List<String> ensureIndexes()
+    {
+        List<String> missing = new ArrayList<>();
+        int declared = 0;
+
+        for (Map.Entry<String, List<IndexDefinition>> entry : declaredIndexes().entrySet())
+        {
+            String collection = entry.getKey();
+            IndexOperations indexOps = mongoTemplate.indexOps(collection);
+
+            if (createIndexes) entry.getValue().forEach(definition -> create(indexOps, collection, definition));
+
+            Set<String> existing = indexOps.getIndexInfo().stream().map(IndexInfo::getName).collect(Collectors.toSet());
+            for (IndexDefinition definition : entry.getValue())
+            {
+                declared++;
+                if (!existing.contains(nameOf(definition))) missing.add(collection + "." + nameOf(definition));
+            }
+        }
+
+        if (missing.isEmpty()) log.info("Verified {} declared index(es)", declared);
+        else log.warn("Missing {} of {} declared index(es): {}", missing.size(), declared, missing);
+
+        return missing;
+    }
+
+    /**
+     * All declared indexes, by collection.
+     */
+    Map<String, List<IndexDefinition>> declaredIndexes()
+    {
+        MappingContext<? extends MongoPersistentEntity<?>, MongoPersistentProperty> mappingContext =
+                mongoTemplate.getConverter().getMappingContext();
+        IndexResolver resolver = IndexResolver.create(mappingContext);
+        Map<String, List<IndexDefinition>> indexes = new LinkedHashMap<>();
+
+        for (MongoPersistentEntity<?> entity : mappingContext.getPersistentEntities())
+        {
+            if (!entity.isAnnotationPresent(Document.class)) continue;
+
+            for (IndexDefinition definition : resolver.resolveIndexFor(entity.getTypeInformation()))
+            {
+                if (nameOf(definition).contains(".")) continue;
+                indexes.computeIfAbsent(entity.getCollection(), name -> new ArrayList<>()).add(definition);
+            }
+        }
+
+        // Image lookups and deletes by recipe
+        indexes.computeIfAbsent(GRIDFS_FILES, name -> new ArrayList<>())
+               .add(new Index().on("metadata." + ImageServiceImpl.RECIPE_ID_METADATA, Sort.Direction.ASC)
+                               .named("metadata_recipeId"));
+
+        return indexes;
+    }
+
+    //==================================================================================================================
+    private void create(IndexOperations indexOps, String collection, IndexDefinition definition)
+    {
+        try
+        {
+            indexOps.ensureIndex(definition);
+        }
+        catch (DataAccessException e)
+        {
+            // e.g. duplicate values under a unique index; reported as missing below
+            log.error("Could not create index " + collection + "." + nameOf(definition), e);
+        }
+    }
+
+    private static String nameOf(IndexDefinition definition)
+    {
+        return definition.getIndexOptions().getString("name");
+    }
+}
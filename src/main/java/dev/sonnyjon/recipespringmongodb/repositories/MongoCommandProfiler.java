@@ -0,0 +1,425 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import com.mongodb.MongoClientSettings;
+import com.mongodb.event.CommandFailedEvent;
+import com.mongodb.event.CommandListener;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.BsonArray;
+import org.bson.BsonBinaryWriter;
+import org.bson.BsonDocument;
+import org.bson.BsonString;
+import org.bson.BsonValue;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.BsonDocumentCodec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoClientSettingsBuilderCustomizer;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Profiles the data commands sent to MongoDB by both drivers: duration, response size, number
+ * and largest of the returned documents, and the query shape (the filter with its values
+ * replaced by <code>?</code>). Commands slower than <code>recipe.mongo.profiler.slow-threshold</code>
+ * or returning more than <code>recipe.mongo.profiler.large-threshold</code> are logged, with the
+ * servlet request that sent them.
+ * <p>
+ * The slowest and the largest commands of the last <code>recipe.mongo.profiler.window</code> are
+ * kept (<code>recipe.mongo.profiler.top-size</code> each) and published as the
+ * <code>mongoprofile</code> actuator endpoint; a DELETE on the endpoint clears them.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "mongoprofile")
+@ConditionalOnProperty(name = "recipe.mongo.profiler.enabled", havingValue = "true", matchIfMissing = true)
+public class MongoCommandProfiler implements CommandListener, MongoClientSettingsBuilderCustomizer
+{
+    static final Set<String> PROFILED_COMMANDS = Set.of("find", "getMore", "aggregate", "count", "distinct",
+                                                        "insert", "update", "delete", "findAndModify");
+    static final String PLACEHOLDER = "?";
+    static final int MAX_OPEN_CURSORS = 1000;
+
+    private final long slowThresholdNanos;
+    private final long largeThresholdBytes;
+    private final TopCommands slowest;
+    private final TopCommands largest;
+    private final Clock clock;
+
+    private final Map<Integer, Started> inFlight = new ConcurrentHashMap<>();
+    private final Map<Long, String> cursorShapes = new ConcurrentHashMap<>();
+
+    @Autowired
+    public MongoCommandProfiler(@Value("${recipe.mongo.profiler.slow-threshold:100ms}") Duration slowThreshold,
+                                @Value("${recipe.mongo.profiler.large-threshold:1MB}") DataSize largeThreshold,
+                                @Value("${recipe.mongo.profiler.top-size:20}") int topSize,
+                                @Value("${recipe.mongo.profiler.window:1h}") Duration window)
+    {
+        this(slowThreshold, largeThreshold, topSize, window, Clock.systemUTC());
+    }
+
+    MongoCommandProfiler(Duration slowThreshold, DataSize largeThreshold, int topSize, Duration window, Clock clock)
+    {
+        this.slowThresholdNanos = slowThreshold.toNanos();
+        this.largeThresholdBytes = largeThreshold.toBytes();
+        this.slowest = new TopCommands(topSize, window, Comparator.comparingDouble(ProfiledCommand::getDurationMillis));
+        this.largest = new TopCommands(topSize, window, Comparator.comparingLong(ProfiledCommand::getResponseBytes));
+        this.clock = clock;
+    }
+
+    @Override
+    public void customize(MongoClientSettings.Builder builder)
+    {
+        builder.addCommandListener(this);
+    }
+
+    @Override
+    public void commandStarted(CommandStartedEvent event)
+    {
+        BsonDocument command = event.getCommand();
+        if ("killCursors".equals(event.getCommandName())) forgetCursors(command.get("cursors"));
+        if (!PROFILED_COMMANDS.contains(event.getCommandName())) return;
+
+        // The command document is only valid during this call, so its shape is taken now
+        long cursorId = "getMore".equals(event.getCommandName()) && command.isNumber("getMore")
+                              ? command.getNumber("getMore").longValue()
+                              : 0;
+        String shape = cursorId != 0
+                             ? cursorShapes.getOrDefault(cursorId, event.getCommandName())
+                             : shapeOf(event.getCommandName(), command);
+
+        inFlight.put(event.getRequestId(),
+                     new Started(collectionOf(event.getCommandName(), command), shape, cursorId, currentRequest()));
+    }
+
+    @Override
+    public void commandSucceeded(CommandSucceededEvent event)
+    {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+
+        BsonDocument response = event.getResponse();
+        List<BsonValue> documents = returnedDocuments(response);
+        long largestDocument = documents.stream()
+                                        .filter(BsonValue::isDocument)
+                                        .mapToLong(document -> documentBytes(document.asDocument()))
+                                        .max()
+                                        .orElse(0);
+        trackCursor(response, started);
+
+        record(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS),
+               documentBytes(response), documents.size(), largestDocument, false);
+    }
+
+    @Override
+    public void commandFailed(CommandFailedEvent event)
+    {
+        Started started = inFlight.remove(event.getRequestId());
+        if (started == null) return;
+
+        record(event.getCommandName(), started, event.getElapsedTime(TimeUnit.NANOSECONDS), 0, 0, 0, true);
+    }
+
+    /**
+     * @return the slowest and the largest commands of the rolling window, worst first.
+     */
+    @ReadOperation
+    public Profile profile()
+    {
+        return new Profile(slowest.snapshot(clock.instant()), largest.snapshot(clock.instant()));
+    }
+
+    @DeleteOperation
+    public void reset()
+    {
+        slowest.clear();
+        largest.clear();
+    }
+
+    /**
+     * The query of a command with every value replaced by a placeholder, so the same query with
+     * different values has the same shape. Sort and projection are kept as sent.
+     */
+    static String shapeOf(String commandName, BsonDocument command)
+    {
+        BsonDocument shape = new BsonDocument();
+
+        switch (commandName)
+        {
+            case "find":
+                putShaped(shape, "filter", command.get("filter"));
+                putAsSent(shape, "sort", command.get("sort"));
+                putAsSent(shape, "projection", command.get("projection"));
+                break;
+            case "aggregate":
+                putShaped(shape, "pipeline", command.get("pipeline"));
+                break;
+            case "count":
+            case "distinct":
+                putShaped(shape, "query", command.get("query"));
+                putAsSent(shape, "key", command.get("key"));
+                break;
+            case "findAndModify":
+                putShaped(shape, "query", command.get("query"));
+                putAsSent(shape, "sort", command.get("sort"));
+                break;
+            case "update":
+                putShaped(shape, "q", firstStatement(command, "updates", "q"));
+                break;
+            case "delete":
+                putShaped(shape, "q", firstStatement(command, "deletes", "q"));
+                break;
+            default:
+                break;
+        }
+
+        return shape.isEmpty() ? commandName : commandName + " " + shape.toJson();
+    }
+
+    static BsonValue shaped(BsonValue value)
+    {
+        if (value.isDocument())
+        {
+            BsonDocument shaped = new BsonDocument();
+            value.asDocument().forEach((key, nested) -> shaped.put(key, shaped(nested)));
+            return shaped;
+        }
+
+        if (value.isArray() && !value.asArray().isEmpty() && value.asArray().stream().allMatch(BsonValue::isDocument))
+        {
+            BsonArray shaped = new BsonArray();
+            value.asArray().forEach(nested -> shaped.add(shaped(nested)));
+            return shaped;
+        }
+
+        // Lists of values ($in, $all) collapse to one placeholder whatever their length
+        return new BsonString(PLACEHOLDER);
+    }
+
+    static long documentBytes(BsonDocument document)
+    {
+        if (document instanceof RawBsonDocument) return ((RawBsonDocument) document).getByteBuffer().remaining();
+
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        new BsonDocumentCodec().encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+
+        return buffer.getPosition();
+    }
+
+    //==================================================================================================================
+    private void record(String commandName, Started started, long elapsedNanos,
+                        long responseBytes, int documents, long largestDocument, boolean failed)
+    {
+        ProfiledCommand profiled = new ProfiledCommand(commandName, started.collection, started.shape, started.origin,
+                                                       elapsedNanos / 1_000_000.0, responseBytes, documents,
+                                                       largestDocument, failed, clock.instant());
+
+        if (elapsedNanos >= slowThresholdNanos)
+        {
+            log.warn("Slow MongoDB {} on {}: {} ms, shape {}, from {}", commandName, started.collection,
+                     String.format("%.1f", profiled.durationMillis), started.shape, started.origin);
+        }
+        if (responseBytes >= largeThresholdBytes)
+        {
+            log.warn("Large MongoDB {} on {}: {} bytes in {} document(s), largest {} bytes, shape {}, from {}",
+                     commandName, started.collection, responseBytes, documents, largestDocument,
+                     started.shape, started.origin);
+        }
+
+        slowest.offer(profiled);
+        largest.offer(profiled);
+    }
+
+    private void trackCursor(BsonDocument response, Started started)
+    {
+        // Later batches of a cursor are attributed to the query that opened it
+        BsonValue cursor = response.get("cursor");
+        if (cursor == null || !cursor.isDocument() || !cursor.asDocument().isNumber("id")) return;
+
+        long cursorId = cursor.asDocument().getNumber("id").longValue();
+        if (started.cursorId != 0)
+        {
+            if (cursorId == 0) cursorShapes.remove(started.cursorId);
+        }
+        else if (cursorId != 0 && cursorShapes.size() < MAX_OPEN_CURSORS)
+        {
+            cursorShapes.put(cursorId, started.shape);
+        }
+    }
+
+    private void forgetCursors(BsonValue cursorIds)
+    {
+        if (cursorIds == null || !cursorIds.isArray()) return;
+
+        cursorIds.asArray().stream()
+                 .filter(BsonValue::isNumber)
+                 .forEach(cursorId -> cursorShapes.remove(cursorId.asNumber().longValue()));
+    }
+
+    private static List<BsonValue> returnedDocuments(BsonDocument response)
+    {
+        BsonValue cursor = response.get("cursor");
+        if (cursor != null && cursor.isDocument())
+        {
+            BsonValue batch = cursor.asDocument().containsKey("firstBatch")
+                                    ? cursor.asDocument().get("firstBatch")
+                                    : cursor.asDocument().get("nextBatch");
+            if (batch != null && batch.isArray()) return batch.asArray().getValues();
+        }
+
+        BsonValue value = response.get("value");
+        if (value != null && value.isDocument()) return List.of(value);
+
+        return List.of();
+    }
+
+    private static String collectionOf(String commandName, BsonDocument command)
+    {
+        BsonValue collection = "getMore".equals(commandName) ? command.get("collection") : command.get(commandName);
+
+        return collection != null && collection.isString() ? collection.asString().getValue() : null;
+    }
+
+    private static BsonValue firstStatement(BsonDocument command, String statements, String query)
+    {
+        BsonValue list = command.get(statements);
+        if (list == null || !list.isArray() || list.asArray().isEmpty()) return null;
+
+        BsonValue first = list.asArray().get(0);
+        return first.isDocument() ? first.asDocument().get(query) : null;
+    }
+
+    private static void putShaped(BsonDocument shape, String key, BsonValue value)
+    {
+        if (value != null) shape.put(key, shaped(value));
+    }
+
+    private static void putAsSent(BsonDocument shape, String key, BsonValue value)
+    {
+        if (value != null) shape.put(key, value);
+    }
+
+    private static String currentRequest()
+    {
+        // The synchronous driver notifies on the calling thread; reactive commands have no origin
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes)) return null;
+
+        ServletRequestAttributes request = (ServletRequestAttributes) attributes;
+        return request.getRequest().getMethod() + " " + request.getRequest().getRequestURI();
+    }
+
+    @AllArgsConstructor
+    private static final class Started
+    {
+        private final String collection;
+        private final String shape;
+        private final long cursorId;
+        private final String origin;
+    }
+
+    /**
+     * The worst commands by one measure within a rolling window; the least bad is evicted first.
+     */
+    private static final class TopCommands
+    {
+        private final int size;
+        private final Duration window;
+        private final Comparator<ProfiledCommand> order;
+        private final PriorityQueue<ProfiledCommand> commands;
+
+        private TopCommands(int size, Duration window, Comparator<ProfiledCommand> order)
+        {
+            this.size = size;
+            this.window = window;
+            this.order = order;
+            this.commands = new PriorityQueue<>(size + 1, order);
+        }
+
+        synchronized void offer(ProfiledCommand command)
+        {
+            if (commands.size() >= size) expire(command.at);
+
+            if (commands.size() < size)
+            {
+                commands.add(command);
+            }
+            else if (order.compare(command, commands.peek()) > 0)
+            {
+                commands.poll();
+                commands.add(command);
+            }
+        }
+
+        synchronized List<ProfiledCommand> snapshot(Instant now)
+        {
+            expire(now);
+            List<ProfiledCommand> snapshot = new ArrayList<>(commands);
+            snapshot.sort(order.reversed());
+
+            return snapshot;
+        }
+
+        synchronized void clear()
+        {
+            commands.clear();
+        }
+
+        private void expire(Instant now)
+        {
+            Instant oldest = now.minus(window);
+            commands.removeIf(command -> command.at.isBefore(oldest));
+        }
+    }
+
+    /**
+     * One profiled command; <code>origin</code> is the servlet request that sent it, if any.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class ProfiledCommand
+    {
+        private final String command;
+        private final String collection;
+        private final String shape;
+        private final String origin;
+        private final double durationMillis;
+        private final long responseBytes;
+        private final int documents;
+        private final long largestDocumentBytes;
+        private final boolean failed;
+        private final Instant at;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Profile
+    {
+        private final List<ProfiledCommand> slowest;
+        private final List<ProfiledCommand> largest;
+    }
+}
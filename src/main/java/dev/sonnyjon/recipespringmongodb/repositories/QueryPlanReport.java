@@ -0,0 +1,197 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.QueryMapper;
+import org.springframework.data.mongodb.core.mapping.MongoPersistentEntity;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.repository.core.RepositoryInformation;
+import org.springframework.data.repository.query.parser.Part;
+import org.springframework.data.repository.query.parser.PartTree;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Explains the filter of every repository query method against the live database and flags
+ * those whose winning plan is a collection scan. Annotated queries are explained with their
+ * placeholders bound to a sample value; derived queries with a sample value per criterion.
+ * Methods without a filter (e.g. paging through all recipes) always scan and are not flagged.
+ * <p>
+ * Logged once the application is ready (<code>recipe.indexes.report-on-startup</code>) and
+ * published as the <code>queryplans</code> actuator endpoint.
+ */
+@Slf4j
+@Component
+@Endpoint(id = "queryplans")
+public class QueryPlanReport
+{
+    static final String SAMPLE_VALUE = "sample";
+    static final String COLLSCAN = "COLLSCAN";
+
+    private final ListableBeanFactory beanFactory;
+    private final MongoTemplate mongoTemplate;
+    private final boolean reportOnStartup;
+
+    public QueryPlanReport(ListableBeanFactory beanFactory,
+                           MongoTemplate mongoTemplate,
+                           @Value("${recipe.indexes.report-on-startup:true}") boolean reportOnStartup)
+    {
+        this.beanFactory = beanFactory;
+        this.mongoTemplate = mongoTemplate;
+        this.reportOnStartup = reportOnStartup;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady()
+    {
+        if (!reportOnStartup) return;
+
+        try
+        {
+            long scans = queryPlans().stream().filter(QueryPlan::isCollectionScan).count();
+            log.info("Query plan report: {} repository query method(s) use a collection scan", scans);
+        }
+        catch (DataAccessException e)
+        {
+            log.warn("Query plan report failed", e);
+        }
+    }
+
+    /**
+     * @return the winning plan of each repository query method; collection scans first.
+     */
+    @ReadOperation
+    public List<QueryPlan> queryPlans()
+    {
+        Repositories repositories = new Repositories(beanFactory);
+        List<QueryPlan> plans = new ArrayList<>();
+
+        for (Class<?> domainType : repositories)
+        {
+            RepositoryInformation information = repositories.getRequiredRepositoryInformation(domainType);
+            MongoPersistentEntity<?> entity = mongoTemplate.getConverter()
+                                                           .getMappingContext()
+                                                           .getRequiredPersistentEntity(domainType);
+
+            for (Method method : information.getQueryMethods())
+            {
+                String name = information.getRepositoryInterface().getSimpleName() + "." + method.getName();
+                plans.add(explain(name, entity, method));
+            }
+        }
+
+        plans.sort((a, b) -> Boolean.compare(b.isCollectionScan(), a.isCollectionScan()));
+        plans.stream()
+             .filter(QueryPlan::isCollectionScan)
+             .forEach(plan -> log.warn("Collection scan: " + plan.getMethod() + " " + plan.getFilter()));
+
+        return plans;
+    }
+
+    /**
+     * The filter a query method sends, with sample values in place of its parameters.
+     */
+    Document filterFor(Method method, MongoPersistentEntity<?> entity)
+    {
+        Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+        Document filter = query != null && !query.value().isEmpty()
+                                ? Document.parse(query.value().replaceAll("'?\\?\\d+'?", "'" + SAMPLE_VALUE + "'"))
+                                : derivedFilter(method, entity);
+
+        return new QueryMapper(mongoTemplate.getConverter()).getMappedObject(filter, entity);
+    }
+
+    /**
+     * Stages of the winning plan in an explain result, outermost first.
+     */
+    static Set<String> winningStages(Document explain)
+    {
+        Set<String> stages = new LinkedHashSet<>();
+        collectStages(((Document) explain.get("queryPlanner")).get("winningPlan"), stages);
+
+        return stages;
+    }
+
+    //==================================================================================================================
+    private QueryPlan explain(String name, MongoPersistentEntity<?> entity, Method method)
+    {
+        Document filter;
+        try
+        {
+            filter = filterFor(method, entity);
+        }
+        catch (RuntimeException e)
+        {
+            log.debug("Cannot derive a filter for " + name, e);
+            return new QueryPlan(name, entity.getCollection(), null, Set.of(), false);
+        }
+
+        Document command = new Document("explain", new Document("find", entity.getCollection()).append("filter", filter))
+                                .append("verbosity", "queryPlanner");
+        Set<String> stages = winningStages(mongoTemplate.getDb().runCommand(command));
+
+        return new QueryPlan(name, entity.getCollection(), filter.toJson(), stages,
+                             !filter.isEmpty() && stages.contains(COLLSCAN));
+    }
+
+    private static Document derivedFilter(Method method, MongoPersistentEntity<?> entity)
+    {
+        PartTree tree = new PartTree(method.getName(), entity.getType());
+        List<Document> alternatives = new ArrayList<>();
+
+        tree.forEach(orPart -> {
+            Document criteria = new Document();
+            for (Part part : orPart) criteria.append(part.getProperty().toDotPath(), SAMPLE_VALUE);
+            alternatives.add(criteria);
+        });
+
+        if (alternatives.isEmpty()) return new Document();
+        return alternatives.size() == 1 ? alternatives.get(0) : new Document("$or", alternatives);
+    }
+
+    private static void collectStages(Object plan, Set<String> stages)
+    {
+        if (plan instanceof Document)
+        {
+            Document document = (Document) plan;
+            if (document.get("stage") instanceof String) stages.add(document.getString("stage"));
+            document.values().forEach(value -> collectStages(value, stages));
+        }
+        else if (plan instanceof Collection)
+        {
+            ((Collection<?>) plan).forEach(value -> collectStages(value, stages));
+        }
+    }
+
+    /**
+     * Winning plan of one repository query method.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class QueryPlan
+    {
+        private final String method;
+        private final String collection;
+        private final String filter;
+        private final Set<String> stages;
+        private final boolean collectionScan;
+    }
+}
@@ -0,0 +1,14 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link CategoryRepository}, used by the <code>reactive</code>
+ * profile. Not cached: the cache abstraction cannot hold a Mono's value.
+ */
+public interface ReactiveCategoryRepository extends ReactiveMongoRepository<Category, String>
+{
+    Mono<Category> findByDescription(String description);
+}
@@ -0,0 +1,45 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.data.mongodb.repository.Update;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RecipeRepository}, used by the <code>reactive</code> profile.
+ * Recipes still holding DBRefs cannot be read reactively; run the snapshot migration first.
+ */
+public interface ReactiveRecipeRepository extends ReactiveMongoRepository<Recipe, String>
+{
+    /**
+     * Streams one page of recipes, fetching only the fields of the summary projection.
+     *
+     * @param pageable page number, size and sort order.
+     * @return the recipe summaries of the requested page.
+     */
+    Flux<RecipeSummaryDto> findAllBy(Pageable pageable);
+
+    /**
+     * @see RecipeRepository#findImageIdById(String)
+     */
+    @Query(value = "{'_id': ?0}", fields = "{'imageId': 1}")
+    Mono<Recipe> findImageIdById(String id);
+
+    /**
+     * @see RecipeRepository#updateImageId(String, String, String)
+     */
+    @Query("{'_id': ?0, 'imageId': ?1}")
+    @Update("{'$set': {'imageId': ?2}, '$inc': {'version': 1}}")
+    Mono<Long> updateImageId(String id, String expectedImageId, String imageId);
+
+    /**
+     * @see RecipeRepository#initVersion(String)
+     */
+    @Query("{'_id': ?0, 'version': {'$exists': false}}")
+    @Update("{'$set': {'version': 0}}")
+    Mono<Long> initVersion(String id);
+}
@@ -0,0 +1,14 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link UnitOfMeasureRepository}, used by the <code>reactive</code>
+ * profile. Not cached: the cache abstraction cannot hold a Mono's value.
+ */
+public interface ReactiveUnitOfMeasureRepository extends ReactiveMongoRepository<UnitOfMeasure, String>
+{
+    Mono<UnitOfMeasure> findByDescription(String description);
+}
@@ -1,16 +1,76 @@
 package dev.sonnyjon.recipespringmongodb.repositories;
 
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 import org.springframework.data.mongodb.repository.Query;
+import org.springframework.data.mongodb.repository.Update;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Created by Sonny on 7/7/2022.
  */
-public interface RecipeRepository extends MongoRepository<Recipe, String>
+public interface RecipeRepository extends MongoRepository<Recipe, String>, RecipeRepositoryCustom
 {
-    @Query("{'ingredients.ingredient.id': ?0}")
+    /**
+     * Implemented by {@link RecipeRepositoryCustomImpl}, which resolves the recipe's references
+     * in one query per referenced collection.
+     */
+    @Override
+    Optional<Recipe> findById(String id);
+
+    /**
+     * Implemented by {@link RecipeRepositoryCustomImpl}, which resolves references for each
+     * batch of recipes in one query per referenced collection.
+     */
+    @Override
+    List<Recipe> findAll();
+
+    @Query("{'ingredients._id': ?0}")
     List<Recipe> findByIngredientId(String ingredientId);
+
+    /**
+     * Pages through all recipes, fetching only the fields of the summary projection.
+     *
+     * @param pageable page number, size and sort order.
+     * @return the requested page of recipe summaries.
+     */
+    Page<RecipeSummaryDto> findAllBy(Pageable pageable);
+
+    /**
+     * Looks up a recipe, fetching only its id and image reference.
+     *
+     * @param id recipe id.
+     * @return a partially populated Recipe, or empty if the recipe does not exist.
+     */
+    @Query(value = "{'_id': ?0}", fields = "{'imageId': 1}")
+    Optional<Recipe> findImageIdById(String id);
+
+    /**
+     * Points a recipe at a new image, provided its current image is still the expected one.
+     * Bumps the recipe version so that open edit forms notice the change.
+     *
+     * @param id recipe id.
+     * @param expectedImageId image id the caller read, or null if the recipe had no image.
+     * @param imageId new image id.
+     * @return number of recipes updated; 0 if the recipe is missing or its image changed meanwhile.
+     */
+    @Query("{'_id': ?0, 'imageId': ?1}")
+    @Update("{'$set': {'imageId': ?2}, '$inc': {'version': 1}}")
+    long updateImageId(String id, String expectedImageId, String imageId);
+
+    /**
+     * Gives a recipe stored before versioning was introduced its initial version, so that the
+     * next save updates it rather than attempting an insert.
+     *
+     * @param id recipe id.
+     * @return 1 if the recipe was unversioned, otherwise 0.
+     */
+    @Query("{'_id': ?0, 'version': {'$exists': false}}")
+    @Update("{'$set': {'version': 0}}")
+    long initVersion(String id);
 }
@@ -0,0 +1,18 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Recipe loads that resolve the DBRefs of a recipe (categories, ingredient units of measure)
+ * in batches, with one query per referenced collection, instead of one query per reference.
+ * These replace the default {@link RecipeRepository} implementations.
+ */
+public interface RecipeRepositoryCustom
+{
+    Optional<Recipe> findById(String id);
+
+    List<Recipe> findAll();
+}
@@ -0,0 +1,144 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import com.mongodb.DBRef;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.ListIterator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reads raw recipe documents, fetches everything they reference with one <code>$in</code> query
+ * per referenced collection, and inlines the referenced documents in place of the DBRefs before
+ * mapping. The mapping converter reads an inlined document like the result of a
+ * <code>$lookup</code>, so it issues no further queries. References whose target no longer
+ * exists are left as DBRefs and resolved (to null) by the converter as before.
+ * <p>
+ * Recipes now embed unit of measure and category snapshots, so only legacy documents not yet
+ * migrated by {@link dev.sonnyjon.recipespringmongodb.loader.SnapshotMigrationRunner} hold
+ * DBRefs; for all others no reference query is issued.
+ */
+@Slf4j
+public class RecipeRepositoryCustomImpl implements RecipeRepositoryCustom
+{
+    static final int BATCH_SIZE = 100;
+
+    private final MongoTemplate mongoTemplate;
+
+    public RecipeRepositoryCustomImpl(MongoTemplate mongoTemplate)
+    {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public Optional<Recipe> findById(String id)
+    {
+        Object mongoId = mongoTemplate.getConverter().convertId(id, ObjectId.class);
+        Document recipe = mongoTemplate.findOne(query(where("_id").is(mongoId)), Document.class, recipeCollection());
+
+        if (recipe == null) return Optional.empty();
+
+        resolveReferences(List.of(recipe));
+        return Optional.of(read(recipe));
+    }
+
+    @Override
+    public List<Recipe> findAll()
+    {
+        List<Recipe> recipes = new ArrayList<>();
+        List<Document> batch = new ArrayList<>(BATCH_SIZE);
+
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(new Query(), Document.class, recipeCollection()))
+        {
+            while (documents.hasNext())
+            {
+                batch.add(documents.next());
+
+                if (batch.size() == BATCH_SIZE || !documents.hasNext())
+                {
+                    resolveReferences(batch);
+                    batch.forEach(document -> recipes.add(read(document)));
+                    batch.clear();
+                }
+            }
+        }
+
+        return recipes;
+    }
+
+    //==================================================================================================================
+    private void resolveReferences(List<Document> recipes)
+    {
+        Map<String, Set<Object>> idsByCollection = new HashMap<>();
+
+        recipes.forEach(recipe -> replaceReferences(recipe, ref -> {
+            idsByCollection.computeIfAbsent(ref.getCollectionName(), name -> new HashSet<>()).add(ref.getId());
+            return ref;
+        }));
+
+        if (idsByCollection.isEmpty()) return;
+
+        Map<String, Map<Object, Document>> resolved = new HashMap<>();
+
+        idsByCollection.forEach((collection, ids) -> {
+            Map<Object, Document> byId = new HashMap<>();
+            mongoTemplate.find(query(where("_id").in(ids)), Document.class, collection)
+                         .forEach(document -> byId.put(document.get("_id"), document));
+
+            resolved.put(collection, byId);
+            log.debug("Resolved " + byId.size() + " of " + ids.size() + " references to " + collection);
+        });
+
+        recipes.forEach(recipe -> replaceReferences(recipe, ref -> {
+            Document target = resolved.get(ref.getCollectionName()).get(ref.getId());
+            return target != null ? target : ref;
+        }));
+    }
+
+    /**
+     * Walks a document tree, replacing every DBRef with the replacement function's result.
+     */
+    private static Object replaceReferences(Object value, Function<DBRef, Object> replacement)
+    {
+        if (value instanceof DBRef) return replacement.apply((DBRef) value);
+
+        if (value instanceof Document)
+        {
+            ((Document) value).entrySet()
+                              .forEach(entry -> entry.setValue(replaceReferences(entry.getValue(), replacement)));
+        }
+        else if (value instanceof List)
+        {
+            @SuppressWarnings("unchecked")
+            ListIterator<Object> elements = ((List<Object>) value).listIterator();
+            while (elements.hasNext()) elements.set(replaceReferences(elements.next(), replacement));
+        }
+
+        return value;
+    }
+
+    private Recipe read(Document recipe)
+    {
+        return mongoTemplate.getConverter().read(Recipe.class, recipe);
+    }
+
+    private String recipeCollection()
+    {
+        return mongoTemplate.getCollectionName(Recipe.class);
+    }
+}
@@ -0,0 +1,68 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.config.CacheConfig;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.stereotype.Component;
+
+/**
+ * Clears the unit of measure and category caches whenever one of those entities is saved or
+ * deleted through a repository or MongoTemplate. Writes that bypass the mapping layer
+ * (e.g. updateMulti) are picked up when the cache entries expire.
+ */
+@Slf4j
+@Component
+public class ReferenceDataCacheListener extends AbstractMongoEventListener<Object>
+{
+    private final CacheManager cacheManager;
+
+    public ReferenceDataCacheListener(CacheManager cacheManager)
+    {
+        this.cacheManager = cacheManager;
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event)
+    {
+        evict(event.getSource().getClass());
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Object> event)
+    {
+        evict(event.getType());
+    }
+
+    /**
+     * Clears the caches of the given type, if it is cached; also for bulk writes, which raise no events.
+     */
+    public void evict(Class<?> type)
+    {
+        if (UnitOfMeasure.class.equals(type))
+        {
+            clear(CacheConfig.UOMS, CacheConfig.UOM_BY_ID, CacheConfig.UOM_BY_DESCRIPTION);
+        }
+        else if (Category.class.equals(type))
+        {
+            clear(CacheConfig.CATEGORIES, CacheConfig.CATEGORY_BY_ID, CacheConfig.CATEGORY_BY_DESCRIPTION);
+        }
+    }
+
+    //==================================================================================================================
+    private void clear(String... cacheNames)
+    {
+        for (String name : cacheNames)
+        {
+            Cache cache = cacheManager.getCache(name);
+            if (cache != null) cache.clear();
+        }
+
+        log.debug("Cleared reference data caches");
+    }
+}
@@ -1,14 +1,29 @@
 package dev.sonnyjon.recipespringmongodb.repositories;
 
+import dev.sonnyjon.recipespringmongodb.config.CacheConfig;
 import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.mongodb.repository.MongoRepository;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
  * Created by Sonny on 7/7/2022.
+ * <p>
+ * Lookups are cached; {@link ReferenceDataCacheListener} clears the caches on every save or delete.
+ * Cached entities are shared, so callers must not modify them.
  */
 public interface UnitOfMeasureRepository extends MongoRepository<UnitOfMeasure, String>
 {
+    @Cacheable(CacheConfig.UOM_BY_DESCRIPTION)
     Optional<UnitOfMeasure> findByDescription(String description);
+
+    @Override
+    @Cacheable(CacheConfig.UOM_BY_ID)
+    Optional<UnitOfMeasure> findById(String id);
+
+    @Override
+    @Cacheable(CacheConfig.UOMS)
+    List<UnitOfMeasure> findAll();
 }
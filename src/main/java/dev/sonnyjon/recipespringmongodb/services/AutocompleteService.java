@@ -0,0 +1,46 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+
+import java.util.List;
+
+/**
+ * Suggestions for ingredient and unit of measure descriptions as the user types.
+ */
+public interface AutocompleteService
+{
+    /**
+     * @param prefix typed prefix; case and extra whitespace are ignored.
+     * @param limit maximum number of suggestions, capped by <code>recipe.autocomplete.max-suggestions</code>.
+     * @return distinct ingredient descriptions starting with the prefix, most used first.
+     */
+    List<String> suggestIngredients(String prefix, int limit);
+
+    /**
+     * @param prefix typed prefix; case and extra whitespace are ignored.
+     * @param limit maximum number of suggestions, capped by <code>recipe.autocomplete.max-suggestions</code>.
+     * @return unit of measure descriptions starting with the prefix, most used first.
+     */
+    List<String> suggestUnits(String prefix, int limit);
+
+    /**
+     * Counts a saved ingredient's description and unit, moving the use from its previous
+     * description and unit if they changed.
+     *
+     * @param previous ingredient as stored before the save, or null if new.
+     * @param saved saved ingredient.
+     */
+    void recordIngredient(Ingredient previous, Ingredient saved);
+
+    /**
+     * Counts one use less of a removed ingredient's description and unit.
+     *
+     * @param removed ingredient as stored before its removal.
+     */
+    void forgetIngredient(Ingredient removed);
+
+    /**
+     * Recounts all suggestions from the recipe collection, e.g. after a bulk import.
+     */
+    void rebuild();
+}
@@ -0,0 +1,173 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.group;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.newAggregation;
+import static org.springframework.data.mongodb.core.aggregation.Aggregation.unwind;
+
+/**
+ * Serves suggestions from two in-memory {@link SuggestionTrie}s, one over the distinct
+ * ingredient descriptions and one over the units of measure, ranked by how many ingredients
+ * use them. Both are built from MongoDB once the application is ready and then kept counted by
+ * the ingredient services: an edit moves a use from the old description and unit to the new
+ * ones, a removal takes it away. Descriptions no longer used are no longer suggested; units of
+ * measure stay.
+ */
+@Slf4j
+@Service
+public class AutocompleteServiceImpl implements AutocompleteService
+{
+    private static final String USES = "uses";
+
+    private final MongoTemplate mongoTemplate;
+    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final int maxSuggestions;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private SuggestionTrie ingredients;
+    private SuggestionTrie units;
+
+    public AutocompleteServiceImpl(MongoTemplate mongoTemplate,
+                                   UnitOfMeasureRepository unitOfMeasureRepository,
+                                   @Value("${recipe.autocomplete.max-suggestions:10}") int maxSuggestions)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.maxSuggestions = maxSuggestions;
+        this.ingredients = new SuggestionTrie(maxSuggestions, false);
+        this.units = new SuggestionTrie(maxSuggestions);
+    }
+
+    @Override
+    public List<String> suggestIngredients(String prefix, int limit)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return first(ingredients.suggest(prefix), limit);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public List<String> suggestUnits(String prefix, int limit)
+    {
+        lock.readLock().lock();
+        try
+        {
+            return first(units.suggest(prefix), limit);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void recordIngredient(Ingredient previous, Ingredient saved)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            move(ingredients, previous != null ? previous.getDescription() : null, saved.getDescription());
+            move(units, previous != null ? unitOf(previous) : null, unitOf(saved));
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void forgetIngredient(Ingredient removed)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            ingredients.add(removed.getDescription(), -1);
+            units.add(unitOf(removed), -1);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds both tries: units of measure from their collection, use counts from one grouping
+     * aggregation per trie over the recipes' ingredients.
+     */
+    @Override
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild()
+    {
+        SuggestionTrie newIngredients = countUses("ingredients.description", new SuggestionTrie(maxSuggestions, false));
+
+        SuggestionTrie newUnits = new SuggestionTrie(maxSuggestions);
+        for (UnitOfMeasure uom : unitOfMeasureRepository.findAll()) newUnits.add(uom.getDescription(), 0);
+        countUses("ingredients.uom.description", newUnits);
+
+        lock.writeLock().lock();
+        try
+        {
+            ingredients = newIngredients;
+            units = newUnits;
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+
+        log.info("Autocomplete built: {} ingredient description(s), {} unit(s)", newIngredients.size(), newUnits.size());
+    }
+
+    //==================================================================================================================
+    private static List<String> first(List<String> suggestions, int limit)
+    {
+        return suggestions.subList(0, Math.max(0, Math.min(limit, suggestions.size())));
+    }
+
+    private static void move(SuggestionTrie trie, String from, String to)
+    {
+        // Unchanged, e.g. only the amount was edited
+        if (SuggestionTrie.normalize(from).equals(SuggestionTrie.normalize(to))) return;
+
+        trie.add(from, -1);
+        trie.add(to, 1);
+    }
+
+    private static String unitOf(Ingredient ingredient)
+    {
+        return ingredient.getUom() != null ? ingredient.getUom().getDescription() : null;
+    }
+
+    private SuggestionTrie countUses(String field, SuggestionTrie trie)
+    {
+        Aggregation aggregation = newAggregation(unwind("ingredients"), group(field).count().as(USES));
+
+        mongoTemplate.aggregate(aggregation, mongoTemplate.getCollectionName(Recipe.class), Document.class)
+                     .forEach(result -> trie.add(result.getString("_id"), ((Number) result.get(USES)).longValue()));
+
+        return trie;
+    }
+}
@@ -0,0 +1,44 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import java.util.Locale;
+
+/**
+ * Output formats of the recipe export; both are written gzip-compressed.
+ */
+public enum ExportFormat
+{
+    NDJSON("ndjson"), CSV("csv");
+
+    private final String extension;
+
+    ExportFormat(String extension)
+    {
+        this.extension = extension;
+    }
+
+    /**
+     * @return file name extension of the compressed export, e.g. <code>.ndjson.gz</code>.
+     */
+    public String fileExtension()
+    {
+        return "." + extension + ".gz";
+    }
+
+    /**
+     * Resolves a request parameter or property value such as "csv"; unknown values fall back to NDJSON.
+     *
+     * @param value parameter value, may be null.
+     * @return matching ExportFormat.
+     */
+    public static ExportFormat fromParam(String value)
+    {
+        if (value == null) return NDJSON;
+
+        for (ExportFormat format : values())
+        {
+            if (format.extension.equals(value.trim().toLowerCase(Locale.ROOT))) return format;
+        }
+
+        return NDJSON;
+    }
+}
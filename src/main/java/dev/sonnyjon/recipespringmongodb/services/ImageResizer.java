@@ -0,0 +1,119 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Produces the scaled JPEG variants of an uploaded image.
+ */
+class ImageResizer
+{
+    static final String VARIANT_CONTENT_TYPE = "image/jpeg";
+    private static final String VARIANT_FORMAT = "jpg";
+
+    private ImageResizer() {}
+
+    /**
+     * Decodes the source image once, subsampled to roughly twice the largest variant,
+     * and scales it down to every non-original size.
+     *
+     * @param source encoded image.
+     * @return encoded JPEG per size, or an empty map if the source is not a readable image.
+     * @throws IOException if the source cannot be read.
+     */
+    static Map<ImageSize, byte[]> resize(InputStream source) throws IOException
+    {
+        final Map<ImageSize, byte[]> variants = new EnumMap<>(ImageSize.class);
+        final BufferedImage image = read(source, largestVariant().getMaxEdge() * 2);
+
+        if (image == null) return variants;
+
+        for (ImageSize size : ImageSize.values())
+        {
+            if (size != ImageSize.ORIGINAL) variants.put(size, encode(scale(image, size.getMaxEdge())));
+        }
+
+        return variants;
+    }
+
+    //==================================================================================================================
+    private static ImageSize largestVariant()
+    {
+        ImageSize largest = ImageSize.ORIGINAL;
+
+        for (ImageSize size : ImageSize.values())
+        {
+            if (size.getMaxEdge() > largest.getMaxEdge()) largest = size;
+        }
+
+        return largest;
+    }
+
+    private static BufferedImage read(InputStream source, int targetEdge) throws IOException
+    {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source))
+        {
+            Iterator<ImageReader> readers = input != null ? ImageIO.getImageReaders(input) : null;
+            if (readers == null || !readers.hasNext()) return null;
+
+            ImageReader reader = readers.next();
+
+            try {
+                reader.setInput(input, true, true);
+
+                // Skip decoding pixels that would be thrown away by the downscale anyway
+                int longestEdge = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int subsampling = Math.max(1, longestEdge / targetEdge);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+
+                return reader.read(0, param);
+            }
+            finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scale(BufferedImage image, int maxEdge)
+    {
+        final double ratio = Math.min(1.0, (double) maxEdge / Math.max(image.getWidth(), image.getHeight()));
+        final int width = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        final int height = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        // JPEG has no alpha channel, so flatten onto white
+        final BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        final Graphics2D graphics = scaled.createGraphics();
+
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(image, 0, 0, width, height, Color.WHITE, null);
+        }
+        finally {
+            graphics.dispose();
+        }
+
+        return scaled;
+    }
+
+    private static byte[] encode(BufferedImage image) throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, VARIANT_FORMAT, out);
+
+        return out.toByteArray();
+    }
+}
@@ -1,11 +1,29 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
+import org.springframework.data.mongodb.gridfs.GridFsResource;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.Optional;
+
 /**
  * Created by Sonny on 7/9/2022.
  */
 public interface ImageService
 {
     void saveImageFile(String recipeId, MultipartFile file);
+
+    default Optional<GridFsResource> findImage(String recipeId)
+    {
+        return findImage(recipeId, ImageSize.ORIGINAL);
+    }
+
+    /**
+     * Finds a size variant of a recipe's image, falling back to the original while the
+     * variant has not been generated yet.
+     *
+     * @param recipeId recipe id.
+     * @param size requested variant.
+     * @return the image, or empty if the recipe has no image.
+     */
+    Optional<GridFsResource> findImage(String recipeId, ImageSize size);
 }
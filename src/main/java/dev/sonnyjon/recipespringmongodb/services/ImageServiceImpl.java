@@ -1,14 +1,36 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.config.ImageConfig;
+import dev.sonnyjon.recipespringmongodb.config.MetricsConfig;
+import dev.sonnyjon.recipespringmongodb.exceptions.ImageUploadException;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 /**
  * Created by Sonny on 7/9/2022.
@@ -17,34 +39,165 @@ import java.io.IOException;
 @Service
 public class ImageServiceImpl implements ImageService
 {
+    public static final String DEFAULT_CONTENT_TYPE = "image/jpeg";
+    public static final String RECIPE_ID_METADATA = "recipeId";
+    public static final String CONTENT_HASH_METADATA = "contentHash";
+    public static final String SOURCE_ID_METADATA = "sourceId";
+    public static final String SIZE_METADATA = "size";
+
     private final RecipeRepository recipeRepository;
+    private final GridFsTemplate gridFsTemplate;
+    private final Executor variantExecutor;
+    private final RetryPolicy retryPolicy;
+    private final DistributionSummary bytesIn;
 
-    public ImageServiceImpl(RecipeRepository recipeRepository)
+    public ImageServiceImpl(RecipeRepository recipeRepository,
+                            GridFsTemplate gridFsTemplate,
+                            @Qualifier(ImageConfig.IMAGE_TASK_EXECUTOR) Executor variantExecutor,
+                            RetryPolicy retryPolicy,
+                            MeterRegistry meterRegistry)
     {
         this.recipeRepository = recipeRepository;
+        this.gridFsTemplate = gridFsTemplate;
+        this.variantExecutor = variantExecutor;
+        this.retryPolicy = retryPolicy;
+        this.bytesIn = MetricsConfig.imageBytes(meterRegistry, "in");
     }
 
     @Override
     @Transactional
     public void saveImageFile(String recipeId, MultipartFile file)
     {
-        try {
-            Recipe recipe = recipeRepository.findById(recipeId).orElseThrow(NotFoundException::new);
-            Byte[] byteObjects = new Byte[file.getBytes().length];
-            int i = 0;
+        try (InputStream content = file.getInputStream())
+        {
+            findImageRef(recipeId);
+            String contentType = file.getContentType() != null ? file.getContentType() : DEFAULT_CONTENT_TYPE;
 
-            for (byte b : file.getBytes())
+            // GridFS records the upload date itself; hash up front so the metadata is written with the file
+            Document metadata = new Document(RECIPE_ID_METADATA, recipeId)
+                                        .append(CONTENT_HASH_METADATA, contentHash(file));
+            ObjectId imageId = gridFsTemplate.store(content, file.getOriginalFilename(), contentType, metadata);
+
+            String previousImageId;
+            try {
+                previousImageId = retryPolicy.execute(() -> swapImage(recipeId, imageId.toHexString()));
+            }
+            catch (RuntimeException e)
             {
-                byteObjects[i++] = b;
+                deleteImage(imageId.toHexString());
+                throw e;
             }
 
-            recipe.setImage(byteObjects);
-            recipeRepository.save(recipe);
+            if (previousImageId != null) deleteImage(previousImageId);
+
+            bytesIn.record(file.getSize());
+            scheduleVariants(recipeId, imageId);
         }
         catch (IOException e)
         {
-            log.error("Error occurred", e);
-            e.printStackTrace();
+            log.error("Could not read the image uploaded for recipe: " + recipeId, e);
+            throw new ImageUploadException("Could not read the uploaded image: " + file.getOriginalFilename(), e);
+        }
+    }
+
+    @Override
+    public Optional<GridFsResource> findImage(String recipeId, ImageSize size)
+    {
+        Recipe recipe = findImageRef(recipeId);
+
+        if (recipe.getImageId() == null) return Optional.empty();
+
+        ObjectId imageId = new ObjectId(recipe.getImageId());
+        GridFSFile file = null;
+
+        if (size != ImageSize.ORIGINAL)
+        {
+            file = gridFsTemplate.findOne(query(where("metadata." + SOURCE_ID_METADATA).is(imageId)
+                                                .and("metadata." + SIZE_METADATA).is(size.paramValue())));
+        }
+
+        if (file == null) file = gridFsTemplate.findOne(query(where("_id").is(imageId)));
+
+        return Optional.ofNullable(file).map(gridFsTemplate::getResource);
+    }
+
+    //==================================================================================================================
+    private Recipe findImageRef(String recipeId)
+    {
+        return recipeRepository.findImageIdById(recipeId)
+                               .orElseThrow(() -> new NotFoundException("Recipe not found. ID: " + recipeId));
+    }
+
+    private String swapImage(String recipeId, String imageId)
+    {
+        // Compare-and-set on the image reference; a concurrent upload makes this match nothing
+        String previousImageId = findImageRef(recipeId).getImageId();
+
+        if (recipeRepository.updateImageId(recipeId, previousImageId, imageId) == 0)
+        {
+            throw new OptimisticLockingFailureException("Image of recipe " + recipeId + " changed concurrently");
+        }
+
+        return previousImageId;
+    }
+
+    void scheduleVariants(String recipeId, ObjectId imageId)
+    {
+        try {
+            variantExecutor.execute(() -> generateVariants(recipeId, imageId));
+        }
+        catch (TaskRejectedException e)
+        {
+            // The original is served in place of missing variants
+            log.warn("Image variant queue full, skipping variants for image: " + imageId);
+        }
+    }
+
+    void generateVariants(String recipeId, ObjectId imageId)
+    {
+        GridFSFile original = gridFsTemplate.findOne(query(where("_id").is(imageId)));
+        if (original == null) return;
+
+        try (InputStream content = gridFsTemplate.getResource(original).getInputStream())
+        {
+            Map<ImageSize, byte[]> variants = ImageResizer.resize(content);
+
+            for (Map.Entry<ImageSize, byte[]> variant : variants.entrySet())
+            {
+                Document metadata = new Document(RECIPE_ID_METADATA, recipeId)
+                                            .append(SOURCE_ID_METADATA, imageId)
+                                            .append(SIZE_METADATA, variant.getKey().paramValue())
+                                            .append(CONTENT_HASH_METADATA, DigestUtils.md5DigestAsHex(variant.getValue()));
+
+                gridFsTemplate.store(new ByteArrayInputStream(variant.getValue()),
+                                     imageId.toHexString() + "-" + variant.getKey().paramValue(),
+                                     ImageResizer.VARIANT_CONTENT_TYPE, metadata);
+            }
+
+            // The image may have been replaced (and its variants deleted) while these were generated
+            boolean stillCurrent = recipeRepository.findImageIdById(recipeId)
+                                                   .map(recipe -> imageId.toHexString().equals(recipe.getImageId()))
+                                                   .orElse(false);
+            if (!stillCurrent) deleteImage(imageId.toHexString());
+        }
+        catch (IOException | RuntimeException e)
+        {
+            log.error("Could not generate variants for image: " + imageId, e);
+        }
+    }
+
+    private static String contentHash(MultipartFile file) throws IOException
+    {
+        try (InputStream content = file.getInputStream())
+        {
+            return DigestUtils.md5DigestAsHex(content);
         }
     }
+
+    private void deleteImage(String imageId)
+    {
+        ObjectId id = new ObjectId(imageId);
+        gridFsTemplate.delete(query(where("_id").is(id)));
+        gridFsTemplate.delete(query(where("metadata." + SOURCE_ID_METADATA).is(id)));
+    }
 }
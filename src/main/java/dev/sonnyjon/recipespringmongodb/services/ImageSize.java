@@ -0,0 +1,47 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import java.util.Locale;
+
+/**
+ * Size variants kept for every recipe image. All variants other than ORIGINAL are
+ * generated after upload and fit within a square of the given edge length.
+ */
+public enum ImageSize
+{
+    ORIGINAL(0), THUMB(96), MEDIUM(400);
+
+    private final int maxEdge;
+
+    ImageSize(int maxEdge)
+    {
+        this.maxEdge = maxEdge;
+    }
+
+    public int getMaxEdge()
+    {
+        return maxEdge;
+    }
+
+    public String paramValue()
+    {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Resolves a request parameter value such as "thumb"; unknown values fall back to ORIGINAL.
+     *
+     * @param value request parameter value, may be null.
+     * @return matching ImageSize.
+     */
+    public static ImageSize fromParam(String value)
+    {
+        if (value == null) return ORIGINAL;
+
+        for (ImageSize size : values())
+        {
+            if (size.paramValue().equalsIgnoreCase(value.trim())) return size;
+        }
+
+        return ORIGINAL;
+    }
+}
@@ -0,0 +1,37 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Outcome of a recipe import. Only the first <code>recipe.import.max-errors</code> row errors
+ * are kept; <code>failed</code> counts them all.
+ */
+@Getter
+@AllArgsConstructor
+public class ImportReport
+{
+    private final long rows;
+    private final long imported;
+    private final long failed;
+    private final long elapsedMillis;
+    private final List<RowError> errors;
+
+    public double getRowsPerSecond()
+    {
+        return elapsedMillis > 0 ? rows * 1000.0 / elapsedMillis : rows;
+    }
+
+    /**
+     * Why one row was rejected; <code>line</code> is 1-based.
+     */
+    @Getter
+    @AllArgsConstructor
+    public static class RowError
+    {
+        private final long line;
+        private final String message;
+    }
+}
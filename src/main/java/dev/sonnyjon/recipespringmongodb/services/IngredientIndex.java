@@ -0,0 +1,553 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Component;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * In-process inverted index from ingredient words to the recipes using them, answering "which
+ * recipes contain all (or any) of these ingredients" without a database round trip.
+ * <p>
+ * Ingredient descriptions are normalized to lower-case, accent-free, singular words without
+ * numbers or filler words ("2 Ripe Avocados" -> ripe, avocado). Each recipe gets a dense int id;
+ * each word maps to a sorted int array of recipe ids, and each recipe keeps the sorted ids of
+ * its words so that an update only touches the postings that changed. A multi-word ingredient
+ * ("olive oil") matches recipes containing all of its words.
+ * <p>
+ * The recipe and ingredient services update the index on every write, and an update carrying an
+ * older recipe version than the one indexed is ignored, so concurrent writes cannot leave it stale.
+ * Ids freed by deleted recipes are reclaimed by renumbering once they make up half of the index.
+ * <p>
+ * The index is rebuilt from MongoDB once the application is ready. Until then only the recipes
+ * written since startup are found; queries arriving during the rebuild wait for it to finish.
+ */
+@Slf4j
+@Component
+public class IngredientIndex
+{
+    private static final int[] EMPTY = new int[0];
+    private static final int SEARCH_RATIO = 16;
+    static final int COMPACT_THRESHOLD = 1024;
+    private static final Pattern NON_LETTERS = Pattern.compile("[^\\p{L}]+");
+    private static final Pattern ACCENTS = Pattern.compile("\\p{M}+");
+    private static final Set<String> STOP_WORDS = Set.of("a", "an", "and", "or", "of", "the", "to", "for", "with",
+                                                         "in", "on", "at", "into", "plus", "about", "some");
+
+    private final MongoTemplate mongoTemplate;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Guarded by lock
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<int[]> postings = new ArrayList<>();
+    private final Map<String, Integer> docIds = new HashMap<>();
+    private final List<String> recipeIds = new ArrayList<>();
+    private final List<int[]> docWords = new ArrayList<>();
+    private final List<Long> docVersions = new ArrayList<>();
+    private int freeDocs;
+
+    public IngredientIndex(MongoTemplate mongoTemplate)
+    {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    /**
+     * Replaces the indexed ingredients of a recipe.
+     *
+     * @param recipe saved recipe.
+     */
+    public void index(Recipe recipe)
+    {
+        List<String> descriptions = recipe.getIngredients() == null
+                                        ? List.of()
+                                        : recipe.getIngredients().stream()
+                                                .map(Ingredient::getDescription)
+                                                .collect(Collectors.toList());
+        index(recipe.getId(), recipe.getVersion(), descriptions);
+    }
+
+    /**
+     * Re-reads the ingredient descriptions of a recipe from MongoDB after one of its ingredients
+     * was changed in place.
+     *
+     * @param recipeId recipe id.
+     */
+    public void refresh(String recipeId)
+    {
+        Recipe recipe = mongoTemplate.findOne(refreshQuery(recipeId), Recipe.class);
+        if (recipe == null) remove(recipeId);
+        else index(recipe);
+    }
+
+    /**
+     * @param recipeId recipe id.
+     * @return query reading what {@link #index(Recipe)} needs of a recipe: its ingredient
+     *         descriptions and its version, so that a stale read is ignored.
+     */
+    static Query refreshQuery(String recipeId)
+    {
+        Query query = query(where("id").is(recipeId));
+        query.fields().include("ingredients.description").include("version");
+
+        return query;
+    }
+
+    /**
+     * Drops a deleted recipe from the index.
+     *
+     * @param recipeId recipe id.
+     */
+    public void remove(String recipeId)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer docId = docIds.remove(recipeId);
+            if (docId == null) return;
+
+            for (int wordId : docWords.get(docId)) postings.set(wordId, without(postings.get(wordId), docId));
+            docWords.set(docId, null);
+            recipeIds.set(docId, null);
+            docVersions.set(docId, null);
+
+            if (++freeDocs >= COMPACT_THRESHOLD && freeDocs * 2 >= recipeIds.size()) compact();
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param ingredients ingredient names, e.g. "avocado", "lime", "cilantro".
+     * @return ids of the recipes containing every one of the ingredients, oldest first.
+     */
+    public List<String> findWithAll(Collection<String> ingredients)
+    {
+        lock.readLock().lock();
+        try
+        {
+            List<int[]> lists = new ArrayList<>();
+            for (String ingredient : ingredients) lists.add(matching(ingredient));
+
+            return toRecipeIds(lists.isEmpty() ? EMPTY : intersect(lists));
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param ingredients ingredient names.
+     * @return ids of the recipes containing at least one of the ingredients, oldest first.
+     */
+    public List<String> findWithAny(Collection<String> ingredients)
+    {
+        lock.readLock().lock();
+        try
+        {
+            int[] result = EMPTY;
+            for (String ingredient : ingredients) result = union(result, matching(ingredient));
+
+            return toRecipeIds(result);
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Rebuilds the whole index from the recipe collection, reading only ingredient descriptions
+     * and versions.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild()
+    {
+        Query query = new Query();
+        query.fields().include("ingredients.description").include("version");
+        int recipes = 0;
+
+        lock.writeLock().lock();
+        try (CloseableIterator<Document> documents = mongoTemplate.stream(query, Document.class,
+                                                                           mongoTemplate.getCollectionName(Recipe.class)))
+        {
+            clear();
+            Map<Integer, IntList> building = new HashMap<>();
+
+            while (documents.hasNext())
+            {
+                Document document = documents.next();
+                int docId = newDocId(document.get("_id").toString());
+                int[] words = wordIdsOf(descriptionsOf(document));
+
+                docWords.set(docId, words);
+                docVersions.set(docId, versionOf(document));
+                for (int wordId : words) building.computeIfAbsent(wordId, id -> new IntList()).add(docId);
+                recipes++;
+            }
+
+            // Doc ids were handed out in ascending order, so every list is already sorted
+            building.forEach((wordId, list) -> postings.set(wordId, list.toArray()));
+            log.info("Indexed ingredients of {} recipe(s), {} distinct word(s)", recipes, wordIds.size());
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Splits an ingredient description into normalized words.
+     */
+    static Set<String> tokenize(String text)
+    {
+        Set<String> words = new LinkedHashSet<>();
+        if (text == null) return words;
+
+        String plain = ACCENTS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (String word : NON_LETTERS.split(plain.toLowerCase(Locale.ROOT)))
+        {
+            if (word.length() < 2 || STOP_WORDS.contains(word)) continue;
+            words.add(singular(word));
+        }
+
+        return words;
+    }
+
+    /**
+     * @return number of doc ids in use, including those freed and not yet reclaimed.
+     */
+    int docSlots()
+    {
+        lock.readLock().lock();
+        try
+        {
+            return recipeIds.size();
+        }
+        finally
+        {
+            lock.readLock().unlock();
+        }
+    }
+
+    //==================================================================================================================
+    private void index(String recipeId, Long version, Collection<String> descriptions)
+    {
+        lock.writeLock().lock();
+        try
+        {
+            Integer existing = docIds.get(recipeId);
+            if (existing != null && isOlder(version, docVersions.get(existing)))
+            {
+                log.debug("Ignoring version {} of recipe {}, version {} is already indexed",
+                          version, recipeId, docVersions.get(existing));
+                return;
+            }
+
+            int docId = existing != null ? existing : newDocId(recipeId);
+            int[] before = docWords.get(docId) != null ? docWords.get(docId) : EMPTY;
+            int[] after = wordIdsOf(descriptions);
+
+            for (int wordId : before)
+            {
+                if (Arrays.binarySearch(after, wordId) < 0) postings.set(wordId, without(postings.get(wordId), docId));
+            }
+            for (int wordId : after)
+            {
+                if (Arrays.binarySearch(before, wordId) < 0) postings.set(wordId, with(postings.get(wordId), docId));
+            }
+            docWords.set(docId, after);
+            docVersions.set(docId, version);
+        }
+        finally
+        {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private int[] matching(String ingredient)
+    {
+        Set<String> words = tokenize(ingredient);
+        if (words.isEmpty()) return EMPTY;
+
+        List<int[]> lists = new ArrayList<>();
+        for (String word : words)
+        {
+            Integer wordId = wordIds.get(word);
+            if (wordId == null) return EMPTY;
+            lists.add(postings.get(wordId));
+        }
+
+        return intersect(lists);
+    }
+
+    private List<String> toRecipeIds(int[] docs)
+    {
+        List<String> ids = new ArrayList<>(docs.length);
+        for (int docId : docs) ids.add(recipeIds.get(docId));
+
+        return ids;
+    }
+
+    private int[] wordIdsOf(Collection<String> descriptions)
+    {
+        Set<String> words = new LinkedHashSet<>();
+        for (String description : descriptions) words.addAll(tokenize(description));
+
+        int[] ids = new int[words.size()];
+        int i = 0;
+        for (String word : words)
+        {
+            ids[i++] = wordIds.computeIfAbsent(word, w -> {
+                postings.add(EMPTY);
+                return postings.size() - 1;
+            });
+        }
+        Arrays.sort(ids);
+
+        return ids;
+    }
+
+    private int newDocId(String recipeId)
+    {
+        int docId = recipeIds.size();
+        recipeIds.add(recipeId);
+        docWords.add(null);
+        docVersions.add(null);
+        docIds.put(recipeId, docId);
+
+        return docId;
+    }
+
+    private void clear()
+    {
+        wordIds.clear();
+        postings.clear();
+        docIds.clear();
+        recipeIds.clear();
+        docWords.clear();
+        docVersions.clear();
+        freeDocs = 0;
+    }
+
+    /**
+     * Renumbers the live recipes, and the words they still use, in their current order so that
+     * the ids freed by deletions are reclaimed. Both mappings keep the order, so every posting
+     * and word list stays sorted.
+     */
+    private void compact()
+    {
+        int[] newDocIds = new int[recipeIds.size()];
+        List<String> liveRecipeIds = new ArrayList<>();
+        List<int[]> liveDocWords = new ArrayList<>();
+        List<Long> liveVersions = new ArrayList<>();
+        for (int docId = 0; docId < recipeIds.size(); docId++)
+        {
+            newDocIds[docId] = liveRecipeIds.size();
+            if (recipeIds.get(docId) == null) continue;
+
+            liveRecipeIds.add(recipeIds.get(docId));
+            liveDocWords.add(docWords.get(docId));
+            liveVersions.add(docVersions.get(docId));
+        }
+
+        int[] newWordIds = new int[postings.size()];
+        List<int[]> livePostings = new ArrayList<>();
+        for (int wordId = 0; wordId < postings.size(); wordId++)
+        {
+            int[] docs = postings.get(wordId);
+            newWordIds[wordId] = docs.length == 0 ? -1 : livePostings.size();
+            if (docs.length > 0) livePostings.add(renumber(docs, newDocIds));
+        }
+
+        wordIds.values().removeIf(wordId -> newWordIds[wordId] < 0);
+        wordIds.replaceAll((word, wordId) -> newWordIds[wordId]);
+        docIds.replaceAll((recipeId, docId) -> newDocIds[docId]);
+        liveDocWords.replaceAll(words -> renumber(words, newWordIds));
+
+        log.debug("Reclaimed {} recipe id(s) and {} word id(s)", recipeIds.size() - liveRecipeIds.size(),
+                  postings.size() - livePostings.size());
+        postings.clear();
+        postings.addAll(livePostings);
+        recipeIds.clear();
+        recipeIds.addAll(liveRecipeIds);
+        docWords.clear();
+        docWords.addAll(liveDocWords);
+        docVersions.clear();
+        docVersions.addAll(liveVersions);
+        freeDocs = 0;
+    }
+
+    private static int[] renumber(int[] ids, int[] newIds)
+    {
+        int[] renumbered = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) renumbered[i] = newIds[ids[i]];
+
+        return renumbered;
+    }
+
+    /**
+     * Recipes written before versioning, or not yet saved, carry no version and always apply.
+     */
+    private static boolean isOlder(Long version, Long indexed)
+    {
+        return version != null && indexed != null && version < indexed;
+    }
+
+    private static Long versionOf(Document recipe)
+    {
+        Object version = recipe.get("version");
+
+        return version instanceof Number ? ((Number) version).longValue() : null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> descriptionsOf(Document recipe)
+    {
+        List<Document> ingredients = (List<Document>) recipe.get("ingredients");
+        if (ingredients == null) return List.of();
+
+        return ingredients.stream().map(ingredient -> ingredient.getString("description")).collect(Collectors.toList());
+    }
+
+    private static String singular(String word)
+    {
+        if (word.length() > 4 && word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        if (word.length() > 4 && word.endsWith("oes")) return word.substring(0, word.length() - 2);
+        if (word.length() > 3 && word.endsWith("s") && !word.endsWith("ss")) return word.substring(0, word.length() - 1);
+
+        return word;
+    }
+
+    /**
+     * Intersects sorted lists, smallest first. Where the next list is much longer, each element
+     * of the running result is looked up in it by binary search, so one rare word keeps the
+     * whole query cheap.
+     */
+    static int[] intersect(List<int[]> lists)
+    {
+        List<int[]> sorted = new ArrayList<>(lists);
+        sorted.sort(Comparator.comparingInt(list -> list.length));
+
+        int[] result = sorted.get(0);
+        for (int i = 1; i < sorted.size() && result.length > 0; i++)
+        {
+            int[] other = sorted.get(i);
+            int[] next = new int[result.length];
+            int size = 0;
+            int from = 0;
+
+            if (other.length / result.length < SEARCH_RATIO)
+            {
+                // Similar sizes: a linear merge beats repeated searching
+                for (int docId : result)
+                {
+                    while (from < other.length && other[from] < docId) from++;
+                    if (from < other.length && other[from] == docId) next[size++] = docId;
+                }
+            }
+            else
+            {
+                for (int docId : result)
+                {
+                    int found = Arrays.binarySearch(other, from, other.length, docId);
+                    if (found >= 0) next[size++] = docId;
+                    from = found >= 0 ? found + 1 : -found - 1;
+                }
+            }
+            result = Arrays.copyOf(next, size);
+        }
+
+        return result;
+    }
+
+    static int[] union(int[] a, int[] b)
+    {
+        int[] result = new int[a.length + b.length];
+        int i = 0, j = 0, size = 0;
+
+        while (i < a.length && j < b.length)
+        {
+            if (a[i] < b[j]) result[size++] = a[i++];
+            else if (a[i] > b[j]) result[size++] = b[j++];
+            else { result[size++] = a[i++]; j++; }
+        }
+        while (i < a.length) result[size++] = a[i++];
+        while (j < b.length) result[size++] = b[j++];
+
+        return Arrays.copyOf(result, size);
+    }
+
+    private static int[] with(int[] list, int docId)
+    {
+        int position = Arrays.binarySearch(list, docId);
+        if (position >= 0) return list;
+
+        int insertAt = -position - 1;
+        int[] result = new int[list.length + 1];
+        System.arraycopy(list, 0, result, 0, insertAt);
+        result[insertAt] = docId;
+        System.arraycopy(list, insertAt, result, insertAt + 1, list.length - insertAt);
+
+        return result;
+    }
+
+    private static int[] without(int[] list, int docId)
+    {
+        int position = Arrays.binarySearch(list, docId);
+        if (position < 0) return list;
+
+        int[] result = new int[list.length - 1];
+        System.arraycopy(list, 0, result, 0, position);
+        System.arraycopy(list, position + 1, result, position, list.length - position - 1);
+
+        return result;
+    }
+
+    /**
+     * Growable int array used while rebuilding.
+     */
+    private static final class IntList
+    {
+        private int[] values = new int[8];
+        private int size;
+
+        void add(int value)
+        {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = value;
+        }
+
+        int[] toArray()
+        {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -7,84 +7,156 @@ import dev.sonnyjon.recipespringmongodb.model.Ingredient;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 /**
  * Created by Sonny on 7/19/2022.
+ * <p>
+ * Ingredients are embedded in their recipe. Writes are single-document atomic updates
+ * ($set on the matched array element, $push, $pull) rather than a read-modify-save of the
+ * whole recipe, so concurrent edits to different ingredients of a recipe do not overwrite
+ * each other. Each write bumps the recipe version, so a stale recipe form cannot undo it.
+ * Replacing and removing also return the element as it was, to move its autocomplete counts.
  */
 @Slf4j
 @Service("ingredientService")
 public class IngredientServiceMongoImpl implements IngredientService
 {
+    private static final String INGREDIENTS = "ingredients";
+    private static final String INGREDIENT_ID = "ingredients.id";
+    private static final String VERSION = "version";
+
     private final RecipeRepository recipeRepository;
-    private final IngredientConverter converter = new IngredientConverter();
+    private final MongoTemplate mongoTemplate;
+    private final RetryPolicy retryPolicy;
+    private final IngredientConverter converter;
+    private final ReferenceSnapshots snapshots;
+    private final IngredientIndex ingredientIndex;
+    private final AutocompleteService autocompleteService;
 
-    public IngredientServiceMongoImpl(RecipeRepository recipeRepository)
+    public IngredientServiceMongoImpl(RecipeRepository recipeRepository,
+                                      MongoTemplate mongoTemplate,
+                                      RetryPolicy retryPolicy,
+                                      IngredientConverter converter,
+                                      ReferenceSnapshots snapshots,
+                                      IngredientIndex ingredientIndex,
+                                      AutocompleteService autocompleteService)
     {
         this.recipeRepository = recipeRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.retryPolicy = retryPolicy;
+        this.converter = converter;
+        this.snapshots = snapshots;
+        this.ingredientIndex = ingredientIndex;
+        this.autocompleteService = autocompleteService;
     }
 
     @Override
     public IngredientDto findInRecipe(String recipeId, String ingredientId)
     {
-        Recipe recipe = findRecipe( recipeId );
-        return converter.convertEntity(findIngredientInRecipe( ingredientId, recipe ));
+        // Fetch the matching array element only
+        Recipe recipe = mongoTemplate.findOne(matching(recipeId, ingredientId), Recipe.class);
+
+        if (recipe == null || recipe.getIngredients().isEmpty())
+        {
+            checkRecipeExists( recipeId );
+            throw new NotFoundException("Ingredient not found. ID: " + ingredientId);
+        }
+
+        return converter.convertEntity(recipe.getIngredients().iterator().next());
     }
 
     @Override
     @Transactional
     public IngredientDto saveIngredient(String recipeId, IngredientDto dto)
     {
-        Recipe recipe = findRecipe( recipeId );
-        Ingredient toBeSaved = converter.convertDto( dto );
-
-        try {
-            // Existing ingredient
-            Ingredient ingredient = findIngredientInRecipe( dto.getId(), recipe );
-            recipe.getIngredients().remove( ingredient );
-            recipe.addIngredient( toBeSaved );
-        }
-        catch (NotFoundException e)
-        {
-            // New ingredient
-            recipe.addIngredient( toBeSaved );
-        }
+        Ingredient toBeSaved = snapshots.fill( converter.convertDto( dto ) );
+        if (!StringUtils.hasText( toBeSaved.getId() )) toBeSaved.setId( UUID.randomUUID().toString() );
+
+        // Existing ingredient, else new ingredient. If a concurrent request added or removed the
+        // same ingredient in between, neither update matches and the pair is retried.
+        Optional<Ingredient> previous = retryPolicy.execute(() -> {
+            Ingredient replaced = replaceIngredient( recipeId, toBeSaved );
+            if (replaced != null) return Optional.of( replaced );
+            if (addIngredient( recipeId, toBeSaved )) return Optional.empty();
 
-        Recipe savedRecipe = recipeRepository.save( recipe );
-        return converter.convertEntity( findIngredientInRecipe(dto.getId(), savedRecipe) );
+            checkRecipeExists( recipeId );
+            throw new OptimisticLockingFailureException("Ingredient " + toBeSaved.getId()
+                                                        + " modified concurrently in recipe: " + recipeId);
+        });
+
+        ingredientIndex.refresh( recipeId );
+        autocompleteService.recordIngredient( previous.orElse( null ), toBeSaved );
+
+        log.debug("Saved ingredient: " + toBeSaved.getId() + " in recipe: " + recipeId);
+        return converter.convertEntity( toBeSaved );
     }
 
     @Override
     @Transactional
     public void removeIngredient(String recipeId, String ingredientId)
     {
-        Recipe recipe = findRecipe( recipeId );
-        Ingredient ingredient = findIngredientInRecipe( ingredientId, recipe );
-        recipe.getIngredients().remove( ingredient );
+        Query query = matching(recipeId, ingredientId);
+        Update update = new Update().pull(INGREDIENTS, query(where("id").is(ingredientId))).inc(VERSION, 1);
+
+        Recipe before = mongoTemplate.findAndModify(query, update, Recipe.class);
 
-        recipeRepository.save( recipe );
+        if (before == null)
+        {
+            checkRecipeExists( recipeId );
+            throw new NotFoundException("Ingredient not found. ID: " + ingredientId);
+        }
+
+        ingredientIndex.refresh( recipeId );
+        autocompleteService.forgetIngredient( before.getIngredients().iterator().next() );
     }
 
     //==================================================================================================================
-    private Recipe findRecipe(String recipeId)
+    private Ingredient replaceIngredient(String recipeId, Ingredient ingredient)
+    {
+        Update update = new Update().set(INGREDIENTS + ".$", ingredient).inc(VERSION, 1);
+
+        Recipe before = mongoTemplate.findAndModify(matching(recipeId, ingredient.getId()), update, Recipe.class);
+        return before != null ? before.getIngredients().iterator().next() : null;
+    }
+
+    private boolean addIngredient(String recipeId, Ingredient ingredient)
     {
-        return recipeRepository.findById( recipeId )
-                                .orElseThrow(
-                                    () -> new NotFoundException("Recipe not found. ID: " + recipeId)
-                                );
+        Query query = query(where("id").is(recipeId).and(INGREDIENT_ID).ne(ingredient.getId()));
+        Update update = new Update().push(INGREDIENTS, ingredient).inc(VERSION, 1);
+
+        return mongoTemplate.updateFirst(query, update, Recipe.class).getMatchedCount() > 0;
     }
 
-    private Ingredient findIngredientInRecipe(String ingredientId, Recipe recipe)
+    /**
+     * Matches the recipe containing the ingredient, projecting that ingredient only, so that
+     * findAndModify returns it as it was before the update.
+     */
+    static Query matching(String recipeId, String ingredientId)
     {
-        return recipe.getIngredients()
-                        .stream()
-                        .filter(
-                            ingredient -> ingredient.getId().equals( ingredientId )
-                        )
-                        .findFirst()
-                        .orElseThrow(
-                            ()-> new NotFoundException("Ingredient not found. ID: " + ingredientId)
-                        );
+        Query query = query(where("id").is(recipeId).and(INGREDIENT_ID).is(ingredientId));
+        query.fields().position(INGREDIENTS, 1);
+
+        return query;
+    }
+
+    private void checkRecipeExists(String recipeId)
+    {
+        if (!recipeRepository.existsById( recipeId ))
+        {
+            throw new NotFoundException("Recipe not found. ID: " + recipeId);
+        }
     }
 }
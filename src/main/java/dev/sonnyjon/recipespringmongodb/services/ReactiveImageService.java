@@ -0,0 +1,20 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.http.codec.multipart.FilePart;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link ImageService}.
+ */
+public interface ReactiveImageService
+{
+    Mono<Void> saveImageFile(String recipeId, FilePart file);
+
+    /**
+     * @param recipeId recipe id.
+     * @param size requested variant; the original is returned while it has not been generated.
+     * @return the image, or empty if the recipe has no image.
+     */
+    Mono<ReactiveGridFsResource> findImage(String recipeId, ImageSize size);
+}
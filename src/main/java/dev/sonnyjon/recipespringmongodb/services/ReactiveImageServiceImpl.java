@@ -0,0 +1,126 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveRecipeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.multipart.FilePart;
+import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
+import reactor.core.publisher.Mono;
+
+import static dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl.*;
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reactive port of {@link ImageServiceImpl}. Uploads are stored and swapped in without
+ * blocking; size variants are still generated by {@link ImageServiceImpl} on its executor,
+ * since resizing is CPU-bound work that does not belong on an event loop.
+ */
+@Slf4j
+@Service
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveImageServiceImpl implements ReactiveImageService
+{
+    private final ReactiveRecipeRepository recipeRepository;
+    private final ReactiveGridFsTemplate gridFsTemplate;
+    private final RetryPolicy retryPolicy;
+    private final ImageServiceImpl variantGenerator;
+
+    public ReactiveImageServiceImpl(ReactiveRecipeRepository recipeRepository,
+                                    ReactiveGridFsTemplate gridFsTemplate,
+                                    RetryPolicy retryPolicy,
+                                    ImageServiceImpl variantGenerator)
+    {
+        this.recipeRepository = recipeRepository;
+        this.gridFsTemplate = gridFsTemplate;
+        this.retryPolicy = retryPolicy;
+        this.variantGenerator = variantGenerator;
+    }
+
+    @Override
+    public Mono<Void> saveImageFile(String recipeId, FilePart file)
+    {
+        MediaType mediaType = file.headers().getContentType();
+        String contentType = mediaType != null ? mediaType.toString() : DEFAULT_CONTENT_TYPE;
+
+        // The upload is joined so it can be hashed before the metadata is written with the file
+        return findImageRef(recipeId)
+                .then(DataBufferUtils.join(file.content()))
+                .flatMap(content -> {
+                    Document metadata = new Document(RECIPE_ID_METADATA, recipeId)
+                                                .append(CONTENT_HASH_METADATA, contentHash(content));
+
+                    return gridFsTemplate.store(Mono.just(content), file.filename(), contentType, metadata);
+                })
+                .flatMap(imageId -> swapImage(recipeId, imageId.toHexString())
+                        .retryWhen(retryPolicy.asRetrySpec())
+                        .onErrorResume(e -> deleteImage(imageId.toHexString()).then(Mono.error(e)))
+                        .flatMap(previousImageId -> deleteImage(previousImageId))
+                        .then(Mono.fromRunnable(() -> variantGenerator.scheduleVariants(recipeId, imageId))));
+    }
+
+    @Override
+    public Mono<ReactiveGridFsResource> findImage(String recipeId, ImageSize size)
+    {
+        return findImageRef(recipeId)
+                .filter(recipe -> recipe.getImageId() != null)
+                .flatMap(recipe -> {
+                    ObjectId imageId = new ObjectId(recipe.getImageId());
+                    Mono<ReactiveGridFsResource> original = gridFsTemplate.findOne(query(where("_id").is(imageId)))
+                                                                          .flatMap(gridFsTemplate::getResource);
+
+                    if (size == ImageSize.ORIGINAL) return original;
+
+                    return gridFsTemplate.findOne(query(where("metadata." + SOURCE_ID_METADATA).is(imageId)
+                                                        .and("metadata." + SIZE_METADATA).is(size.paramValue())))
+                                         .flatMap(gridFsTemplate::getResource)
+                                         .switchIfEmpty(original);
+                });
+    }
+
+    //==================================================================================================================
+    private Mono<Recipe> findImageRef(String recipeId)
+    {
+        return recipeRepository.findImageIdById(recipeId)
+                               .switchIfEmpty(Mono.error(() -> new NotFoundException("Recipe not found. ID: " + recipeId)));
+    }
+
+    private Mono<String> swapImage(String recipeId, String imageId)
+    {
+        // Compare-and-set on the image reference; a concurrent upload makes this match nothing.
+        // Empty when the recipe had no image before.
+        return findImageRef(recipeId)
+                .flatMap(recipe -> recipeRepository.updateImageId(recipeId, recipe.getImageId(), imageId)
+                        .flatMap(updated -> updated == 0
+                                ? Mono.error(new OptimisticLockingFailureException("Image of recipe " + recipeId + " changed concurrently"))
+                                : Mono.justOrEmpty(recipe.getImageId())));
+    }
+
+    private static String contentHash(DataBuffer content)
+    {
+        byte[] bytes = new byte[content.readableByteCount()];
+        content.asByteBuffer().get(bytes);
+
+        return DigestUtils.md5DigestAsHex(bytes);
+    }
+
+    private Mono<Void> deleteImage(String imageId)
+    {
+        ObjectId id = new ObjectId(imageId);
+
+        return gridFsTemplate.delete(query(where("_id").is(id)))
+                             .then(gridFsTemplate.delete(query(where("metadata." + SOURCE_ID_METADATA).is(id))));
+    }
+}
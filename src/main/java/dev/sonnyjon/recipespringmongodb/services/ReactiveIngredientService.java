@@ -0,0 +1,14 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link IngredientService}.
+ */
+public interface ReactiveIngredientService
+{
+    Mono<IngredientDto> findInRecipe(String recipeId, String ingredientId);
+    Mono<IngredientDto> saveIngredient(String recipeId, IngredientDto dto);
+    Mono<Void> removeIngredient(String recipeId, String ingredientId);
+}
@@ -0,0 +1,150 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverter;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveRecipeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reactive port of {@link IngredientServiceMongoImpl}: the same atomic array updates, issued
+ * through {@link ReactiveMongoTemplate} and retried with {@link RetryPolicy#asRetrySpec()}.
+ */
+@Slf4j
+@Service
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveIngredientServiceImpl implements ReactiveIngredientService
+{
+    private static final String INGREDIENTS = "ingredients";
+    private static final String INGREDIENT_ID = "ingredients.id";
+    private static final String VERSION = "version";
+
+    private final ReactiveRecipeRepository recipeRepository;
+    private final ReactiveMongoTemplate mongoTemplate;
+    private final RetryPolicy retryPolicy;
+    private final IngredientConverter converter;
+    private final ReactiveReferenceSnapshots snapshots;
+    private final IngredientIndex ingredientIndex;
+    private final AutocompleteService autocompleteService;
+
+    public ReactiveIngredientServiceImpl(ReactiveRecipeRepository recipeRepository,
+                                         ReactiveMongoTemplate mongoTemplate,
+                                         RetryPolicy retryPolicy,
+                                         IngredientConverter converter,
+                                         ReactiveReferenceSnapshots snapshots,
+                                         IngredientIndex ingredientIndex,
+                                         AutocompleteService autocompleteService)
+    {
+        this.recipeRepository = recipeRepository;
+        this.mongoTemplate = mongoTemplate;
+        this.retryPolicy = retryPolicy;
+        this.converter = converter;
+        this.snapshots = snapshots;
+        this.ingredientIndex = ingredientIndex;
+        this.autocompleteService = autocompleteService;
+    }
+
+    @Override
+    public Mono<IngredientDto> findInRecipe(String recipeId, String ingredientId)
+    {
+        // Fetch the matching array element only
+        return mongoTemplate.findOne(IngredientServiceMongoImpl.matching(recipeId, ingredientId), Recipe.class)
+                            .filter(recipe -> !recipe.getIngredients().isEmpty())
+                            .map(recipe -> converter.convertEntity(recipe.getIngredients().iterator().next()))
+                            .switchIfEmpty(ingredientNotFound(recipeId, ingredientId));
+    }
+
+    @Override
+    public Mono<IngredientDto> saveIngredient(String recipeId, IngredientDto dto)
+    {
+        return snapshots.fill(converter.convertDto(dto))
+                        .flatMap(toBeSaved -> {
+                            if (!StringUtils.hasText(toBeSaved.getId())) toBeSaved.setId(UUID.randomUUID().toString());
+
+                            // Existing ingredient, else new ingredient; retried if a concurrent request
+                            // added or removed the same ingredient in between
+                            return Mono.defer(() -> replaceIngredient(recipeId, toBeSaved))
+                                    .map(Optional::of)
+                                    .switchIfEmpty(Mono.defer(() -> addIngredient(recipeId, toBeSaved))
+                                            .flatMap(added -> added
+                                                    ? Mono.just(Optional.<Ingredient>empty())
+                                                    : checkRecipeExists(recipeId).then(Mono.<Optional<Ingredient>>error(new OptimisticLockingFailureException(
+                                                            "Ingredient " + toBeSaved.getId() + " modified concurrently in recipe: " + recipeId)))))
+                                    .retryWhen(retryPolicy.asRetrySpec())
+                                    .flatMap(previous -> refreshIndex(recipeId).then(Mono.fromRunnable(
+                                            () -> autocompleteService.recordIngredient(previous.orElse(null), toBeSaved))))
+                                    .thenReturn(toBeSaved);
+                        })
+                        .doOnNext(saved -> log.debug("Saved ingredient: " + saved.getId() + " in recipe: " + recipeId))
+                        .map(converter::convertEntity);
+    }
+
+    @Override
+    public Mono<Void> removeIngredient(String recipeId, String ingredientId)
+    {
+        Update update = new Update().pull(INGREDIENTS, query(where("id").is(ingredientId))).inc(VERSION, 1);
+
+        return mongoTemplate.findAndModify(IngredientServiceMongoImpl.matching(recipeId, ingredientId), update, Recipe.class)
+                            .switchIfEmpty(Mono.defer(() -> ingredientNotFound(recipeId, ingredientId)))
+                            .flatMap(before -> refreshIndex(recipeId).then(Mono.fromRunnable(
+                                    () -> autocompleteService.forgetIngredient(before.getIngredients().iterator().next()))))
+                            .then();
+    }
+
+    //==================================================================================================================
+    private Mono<Ingredient> replaceIngredient(String recipeId, Ingredient ingredient)
+    {
+        // The replaced element, as it was before the update
+        Update update = new Update().set(INGREDIENTS + ".$", ingredient).inc(VERSION, 1);
+
+        return mongoTemplate.findAndModify(IngredientServiceMongoImpl.matching(recipeId, ingredient.getId()), update, Recipe.class)
+                            .map(before -> before.getIngredients().iterator().next());
+    }
+
+    private Mono<Boolean> addIngredient(String recipeId, Ingredient ingredient)
+    {
+        Query query = query(where("id").is(recipeId).and(INGREDIENT_ID).ne(ingredient.getId()));
+        Update update = new Update().push(INGREDIENTS, ingredient).inc(VERSION, 1);
+
+        return mongoTemplate.updateFirst(query, update, Recipe.class).map(result -> result.getMatchedCount() > 0);
+    }
+
+    private Mono<Void> refreshIndex(String recipeId)
+    {
+        // Same query as IngredientIndex.refresh, read without blocking
+        return mongoTemplate.findOne(IngredientIndex.refreshQuery(recipeId), Recipe.class)
+                            .doOnNext(ingredientIndex::index)
+                            .switchIfEmpty(Mono.fromRunnable(() -> ingredientIndex.remove(recipeId)))
+                            .then();
+    }
+
+    private <T> Mono<T> ingredientNotFound(String recipeId, String ingredientId)
+    {
+        return checkRecipeExists(recipeId).then(Mono.error(() -> new NotFoundException("Ingredient not found. ID: " + ingredientId)));
+    }
+
+    private Mono<Void> checkRecipeExists(String recipeId)
+    {
+        return recipeRepository.existsById(recipeId)
+                               .flatMap(exists -> exists
+                                       ? Mono.<Void>empty()
+                                       : Mono.error(new NotFoundException("Recipe not found. ID: " + recipeId)));
+    }
+}
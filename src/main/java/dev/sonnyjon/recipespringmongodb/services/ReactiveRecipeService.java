@@ -0,0 +1,39 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.springframework.data.domain.Pageable;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link RecipeService}; errors are signalled, not thrown.
+ */
+public interface ReactiveRecipeService
+{
+    /**
+     * @param pageable page number, size and sort order.
+     * @return the recipe summaries of the requested page, as they are read.
+     */
+    Flux<RecipeSummaryDto> getRecipeSummaries(Pageable pageable);
+
+    Mono<Long> countRecipes();
+
+    /**
+     * @param id recipe id.
+     * @return the recipe, or a {@link dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException} error.
+     */
+    Mono<Recipe> findById(String id);
+
+    Mono<RecipeDto> findDtoById(String id);
+
+    /**
+     * @param dto recipe as submitted.
+     * @return the saved recipe, or an {@link org.springframework.dao.OptimisticLockingFailureException}
+     *         error if it changed since it was read.
+     */
+    Mono<RecipeDto> saveRecipe(RecipeDto dto);
+
+    Mono<Void> deleteById(String idToDelete);
+}
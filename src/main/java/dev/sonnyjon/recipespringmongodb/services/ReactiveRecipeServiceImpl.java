@@ -0,0 +1,143 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveRecipeRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Reactive port of {@link RecipeServiceImpl}, with the same versioning rules and index updates.
+ * Deleting a recipe also deletes its images, which {@link RecipeImageCleanupListener} does for
+ * the blocking services.
+ */
+@Slf4j
+@Service
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveRecipeServiceImpl implements ReactiveRecipeService
+{
+    private final ReactiveRecipeRepository recipeRepository;
+    private final RecipeConverter converter;
+    private final ReactiveReferenceSnapshots snapshots;
+    private final IngredientIndex ingredientIndex;
+    private final ReactiveGridFsTemplate gridFsTemplate;
+
+    public ReactiveRecipeServiceImpl(ReactiveRecipeRepository recipeRepository,
+                                     RecipeConverter converter,
+                                     ReactiveReferenceSnapshots snapshots,
+                                     IngredientIndex ingredientIndex,
+                                     ReactiveGridFsTemplate gridFsTemplate)
+    {
+        this.recipeRepository = recipeRepository;
+        this.converter = converter;
+        this.snapshots = snapshots;
+        this.ingredientIndex = ingredientIndex;
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    @Override
+    public Flux<RecipeSummaryDto> getRecipeSummaries(Pageable pageable)
+    {
+        return recipeRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public Mono<Long> countRecipes()
+    {
+        return recipeRepository.count();
+    }
+
+    @Override
+    public Mono<Recipe> findById(String id)
+    {
+        return recipeRepository.findById(id)
+                               .switchIfEmpty(Mono.error(() -> new NotFoundException("Recipe Not Found. For ID value: " + id)));
+    }
+
+    @Override
+    public Mono<RecipeDto> findDtoById(String id)
+    {
+        return findById(id).map(converter::convertEntity);
+    }
+
+    @Override
+    public Mono<RecipeDto> saveRecipe(RecipeDto dto)
+    {
+        return snapshots.fill(converter.convertDto(dto))
+                        .flatMap(detachedRecipe -> {
+                            if (!StringUtils.hasText(detachedRecipe.getId()))
+                            {
+                                detachedRecipe.setId(null);
+                                detachedRecipe.setImageId(null);
+                                return Mono.just(detachedRecipe);
+                            }
+
+                            return (detachedRecipe.getVersion() == null ? initVersion(detachedRecipe) : Mono.just(detachedRecipe))
+                                    .flatMap(this::withStoredImageId);
+                        })
+                        // Versioned save: fails with OptimisticLockingFailureException if the recipe changed since it was read
+                        .flatMap(recipeRepository::save)
+                        .doOnNext(savedRecipe -> {
+                            log.debug("Saved RecipeId:" + savedRecipe.getId());
+                            ingredientIndex.index(savedRecipe);
+                        })
+                        .map(converter::convertEntity);
+    }
+
+    @Override
+    public Mono<Void> deleteById(String idToDelete)
+    {
+        return recipeRepository.deleteById(idToDelete)
+                               .then(Mono.fromRunnable(() -> ingredientIndex.remove(idToDelete)))
+                               .then(gridFsTemplate.delete(query(where("metadata." + ImageServiceImpl.RECIPE_ID_METADATA).is(idToDelete))))
+                               .doOnSuccess(deleted -> log.debug("Deleted images for recipe: " + idToDelete));
+    }
+
+    //==================================================================================================================
+    private Mono<Recipe> withStoredImageId(Recipe recipe)
+    {
+        // Only the image upload changes the image (updateImageId); whatever the client sent is ignored
+        return recipeRepository.findImageIdById(recipe.getId())
+                               .map(stored -> Optional.ofNullable(stored.getImageId()))
+                               .defaultIfEmpty(Optional.empty())
+                               .map(imageId -> {
+                                   recipe.setImageId(imageId.orElse(null));
+                                   return recipe;
+                               });
+    }
+
+    private Mono<Recipe> initVersion(Recipe recipe)
+    {
+        // Recipes saved before versioning have no version; without one the save would be an insert
+        return recipeRepository.initVersion(recipe.getId())
+                               .flatMap(updated -> {
+                                   if (updated > 0)
+                                   {
+                                       recipe.setVersion(0L);
+                                       return Mono.just(recipe);
+                                   }
+
+                                   return recipeRepository.existsById(recipe.getId())
+                                                          .flatMap(exists -> exists
+                                                                  ? Mono.error(new OptimisticLockingFailureException(
+                                                                          "Recipe " + recipe.getId() + " was saved without its version"))
+                                                                  : Mono.just(recipe));
+                               });
+    }
+}
@@ -0,0 +1,119 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveCategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveUnitOfMeasureRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import reactor.core.publisher.Mono;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Non-blocking counterpart of {@link ReferenceSnapshots}: the snapshots of a recipe are read
+ * with one query for its units of measure and one for its categories.
+ */
+@Component
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveReferenceSnapshots
+{
+    private final ReactiveUnitOfMeasureRepository unitOfMeasureRepository;
+    private final ReactiveCategoryRepository categoryRepository;
+
+    public ReactiveReferenceSnapshots(ReactiveUnitOfMeasureRepository unitOfMeasureRepository,
+                                      ReactiveCategoryRepository categoryRepository)
+    {
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Replaces the recipe's unit of measure and category references with current snapshots.
+     *
+     * @param recipe recipe about to be saved.
+     * @return the same recipe, once filled.
+     */
+    public Mono<Recipe> fill(Recipe recipe)
+    {
+        Stream<UnitOfMeasure> uoms = recipe.getIngredients() == null
+                                        ? Stream.empty()
+                                        : recipe.getIngredients().stream().map(Ingredient::getUom);
+        Stream<Category> categories = recipe.getCategories() == null ? Stream.empty() : recipe.getCategories().stream();
+
+        Mono<Map<String, String>> uomDescriptions = unitOfMeasureRepository
+                .findAllById(idsOf(uoms.filter(Objects::nonNull).map(UnitOfMeasure::getId)))
+                .collectMap(UnitOfMeasure::getId, UnitOfMeasure::getDescription);
+        Mono<Map<String, String>> categoryDescriptions = categoryRepository
+                .findAllById(idsOf(categories.map(Category::getId)))
+                .collectMap(Category::getId, Category::getDescription);
+
+        return Mono.zip(uomDescriptions, categoryDescriptions).map(found -> {
+            if (recipe.getIngredients() != null) recipe.getIngredients().forEach(ingredient -> fill(ingredient, found.getT1()));
+
+            if (recipe.getCategories() != null)
+            {
+                Set<Category> snapshots = new HashSet<>();
+                recipe.getCategories().forEach(category -> snapshots.add(snapshotOf(category, found.getT2())));
+                recipe.setCategories(snapshots);
+            }
+
+            return recipe;
+        });
+    }
+
+    /**
+     * Replaces the ingredient's unit of measure reference with a current snapshot.
+     *
+     * @param ingredient ingredient about to be saved.
+     * @return the same ingredient, once filled.
+     */
+    public Mono<Ingredient> fill(Ingredient ingredient)
+    {
+        UnitOfMeasure uom = ingredient.getUom();
+        if (uom == null || !StringUtils.hasText(uom.getId())) return Mono.just(ingredient);
+
+        return unitOfMeasureRepository.findById(uom.getId())
+                                      .map(found -> Collections.singletonMap(found.getId(), found.getDescription()))
+                                      .defaultIfEmpty(Map.of())
+                                      .map(found -> fill(ingredient, found));
+    }
+
+    //==================================================================================================================
+    private static Ingredient fill(Ingredient ingredient, Map<String, String> uomDescriptions)
+    {
+        UnitOfMeasure uom = ingredient.getUom();
+        if (uom == null || !uomDescriptions.containsKey(uom.getId())) return ingredient;
+
+        UnitOfMeasure snapshot = new UnitOfMeasure();
+        snapshot.setId(uom.getId());
+        snapshot.setDescription(uomDescriptions.get(uom.getId()));
+        ingredient.setUom(snapshot);
+
+        return ingredient;
+    }
+
+    private static Category snapshotOf(Category category, Map<String, String> categoryDescriptions)
+    {
+        Category snapshot = new Category();
+        snapshot.setId(category.getId());
+        snapshot.setDescription(categoryDescriptions.getOrDefault(category.getId(), category.getDescription()));
+
+        return snapshot;
+    }
+
+    private static Set<String> idsOf(Stream<String> ids)
+    {
+        return ids.filter(StringUtils::hasText).collect(Collectors.toSet());
+    }
+}
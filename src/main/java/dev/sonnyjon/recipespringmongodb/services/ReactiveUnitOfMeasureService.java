@@ -0,0 +1,12 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
+import reactor.core.publisher.Flux;
+
+/**
+ * Non-blocking counterpart of {@link UnitOfMeasureService}.
+ */
+public interface ReactiveUnitOfMeasureService
+{
+    Flux<UnitOfMeasureDto> listAllUoms();
+}
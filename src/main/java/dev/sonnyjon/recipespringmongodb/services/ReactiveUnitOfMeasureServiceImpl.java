@@ -0,0 +1,30 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverter;
+import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveUnitOfMeasureRepository;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+@Service
+@Profile(ReactiveConfig.PROFILE)
+public class ReactiveUnitOfMeasureServiceImpl implements ReactiveUnitOfMeasureService
+{
+    private final ReactiveUnitOfMeasureRepository unitOfMeasureRepository;
+    private final UnitOfMeasureConverter converter;
+
+    public ReactiveUnitOfMeasureServiceImpl(ReactiveUnitOfMeasureRepository unitOfMeasureRepository,
+                                            UnitOfMeasureConverter converter)
+    {
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.converter = converter;
+    }
+
+    @Override
+    public Flux<UnitOfMeasureDto> listAllUoms()
+    {
+        return unitOfMeasureRepository.findAll().map(converter::convertEntity);
+    }
+}
@@ -0,0 +1,21 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Streams every recipe out of the database for backups and data hand-offs.
+ */
+public interface RecipeExportService
+{
+    /**
+     * Writes all recipes, in id order, gzip-compressed. Recipes are read through a cursor and
+     * written one at a time, so memory use does not grow with the collection.
+     *
+     * @param format NDJSON (one recipe DTO per line) or CSV (one row per recipe).
+     * @param includeImages whether to embed each recipe's original image, base64-encoded.
+     * @param out destination; finished but left open.
+     * @return number of recipes written.
+     */
+    long exportRecipes(ExportFormat format, boolean includeImages, OutputStream out) throws IOException;
+}
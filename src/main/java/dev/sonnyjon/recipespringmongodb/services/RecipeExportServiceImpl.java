@@ -0,0 +1,266 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.dto.CategoryDto;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.util.CloseableIterator;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Exports recipes through a MongoDB cursor and {@link RecipeConverter}, writing each recipe to
+ * the compressed stream before the next is read. With images, each recipe's original image is
+ * read from GridFS on its own, so at most one image is held in memory.
+ * <p>
+ * CSV rows follow RFC 4180; categories and ingredients ("amount unit description") are joined
+ * with "; " in one column each.
+ */
+@Slf4j
+@Service
+public class RecipeExportServiceImpl implements RecipeExportService
+{
+    static final List<String> CSV_COLUMNS = List.of("id", "version", "description", "prepTime", "cookTime",
+                                                    "servings", "source", "url", "difficulty", "directions",
+                                                    "notes", "categories", "ingredients", "imageId");
+    static final List<String> CSV_IMAGE_COLUMNS = List.of("imageContentType", "image");
+    static final String LIST_SEPARATOR = "; ";
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MongoTemplate mongoTemplate;
+    private final GridFsTemplate gridFsTemplate;
+    private final RecipeConverter recipeConverter;
+    private final ObjectMapper objectMapper;
+
+    public RecipeExportServiceImpl(MongoTemplate mongoTemplate,
+                                   GridFsTemplate gridFsTemplate,
+                                   RecipeConverter recipeConverter,
+                                   ObjectMapper objectMapper)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.gridFsTemplate = gridFsTemplate;
+        this.recipeConverter = recipeConverter;
+        this.objectMapper = objectMapper;
+    }
+
+    @Override
+    public long exportRecipes(ExportFormat format, boolean includeImages, OutputStream out) throws IOException
+    {
+        GZIPOutputStream gzip = new GZIPOutputStream(out, BUFFER_SIZE);
+        RecipeWriter writer = format == ExportFormat.CSV ? new CsvWriter(gzip, includeImages) : new NdjsonWriter(gzip);
+        long count = 0;
+
+        try (CloseableIterator<Recipe> recipes = mongoTemplate.stream(new Query().with(Sort.by("_id")), Recipe.class))
+        {
+            while (recipes.hasNext())
+            {
+                RecipeDto recipe = recipeConverter.convertEntity(recipes.next());
+                writer.write(recipe, includeImages ? loadImage(recipe) : null);
+                count++;
+            }
+        }
+
+        writer.finish();
+        gzip.finish();
+        gzip.flush();
+        log.info("Exported {} recipe(s) as {}", count, format);
+
+        return count;
+    }
+
+    //==================================================================================================================
+    private ExportedImage loadImage(RecipeDto recipe) throws IOException
+    {
+        if (recipe.getImageId() == null || !ObjectId.isValid(recipe.getImageId())) return null;
+
+        GridFSFile file = gridFsTemplate.findOne(query(where("_id").is(new ObjectId(recipe.getImageId()))));
+        if (file == null)
+        {
+            log.warn("Image {} of recipe {} not found", recipe.getImageId(), recipe.getId());
+            return null;
+        }
+
+        GridFsResource resource = gridFsTemplate.getResource(file);
+        try (InputStream content = resource.getInputStream())
+        {
+            return new ExportedImage(resource.getContentType(), content.readAllBytes());
+        }
+    }
+
+    static String csvField(Object value)
+    {
+        if (value == null) return "";
+
+        String text = value.toString();
+        if (text.indexOf(',') < 0 && text.indexOf('"') < 0 && text.indexOf('\n') < 0 && text.indexOf('\r') < 0)
+        {
+            return text;
+        }
+
+        return '"' + text.replace("\"", "\"\"") + '"';
+    }
+
+    private static String ingredientText(IngredientDto ingredient)
+    {
+        String amount = ingredient.getAmount() != null ? ingredient.getAmount().stripTrailingZeros().toPlainString() : null;
+        String uom = ingredient.getUom() != null ? ingredient.getUom().getDescription() : null;
+
+        return Stream.of(amount, uom, ingredient.getDescription())
+                     .filter(Objects::nonNull)
+                     .collect(Collectors.joining(" "));
+    }
+
+    private interface RecipeWriter
+    {
+        void write(RecipeDto recipe, ExportedImage image) throws IOException;
+
+        void finish() throws IOException;
+    }
+
+    private final class NdjsonWriter implements RecipeWriter
+    {
+        private final OutputStream out;
+        private final SequenceWriter lines;
+        private boolean empty = true;
+
+        private NdjsonWriter(OutputStream out) throws IOException
+        {
+            this.out = out;
+            this.lines = objectMapper.writer()
+                                     .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                                     .withRootValueSeparator("\n")
+                                     .writeValues(out);
+        }
+
+        @Override
+        public void write(RecipeDto recipe, ExportedImage image) throws IOException
+        {
+            lines.write(new ExportedRecipe(recipe, image));
+            empty = false;
+        }
+
+        @Override
+        public void finish() throws IOException
+        {
+            // Closes the generator only; the separator goes between values, so end the last line here
+            lines.close();
+            if (!empty) out.write('\n');
+        }
+    }
+
+    private static final class CsvWriter implements RecipeWriter
+    {
+        private final Writer out;
+        private final boolean includeImages;
+
+        private CsvWriter(OutputStream out, boolean includeImages) throws IOException
+        {
+            this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.includeImages = includeImages;
+
+            List<String> header = new ArrayList<>(CSV_COLUMNS);
+            if (includeImages) header.addAll(CSV_IMAGE_COLUMNS);
+            writeRow(header);
+        }
+
+        @Override
+        public void write(RecipeDto recipe, ExportedImage image) throws IOException
+        {
+            List<Object> row = new ArrayList<>(Arrays.asList(
+                    recipe.getId(), recipe.getVersion(), recipe.getDescription(), recipe.getPrepTime(),
+                    recipe.getCookTime(), recipe.getServings(), recipe.getSource(), recipe.getUrl(),
+                    recipe.getDifficulty(), recipe.getDirections(),
+                    recipe.getNotes() != null ? recipe.getNotes().getRecipeNotes() : null,
+                    recipe.getCategories().stream()
+                          .map(CategoryDto::getDescription)
+                          .filter(Objects::nonNull)
+                          .collect(Collectors.joining(LIST_SEPARATOR)),
+                    recipe.getIngredients().stream()
+                          .map(RecipeExportServiceImpl::ingredientText)
+                          .collect(Collectors.joining(LIST_SEPARATOR)),
+                    recipe.getImageId()));
+
+            if (includeImages)
+            {
+                row.add(image != null ? image.getContentType() : null);
+                row.add(image != null ? Base64.getEncoder().encodeToString(image.getData()) : null);
+            }
+
+            writeRow(row);
+        }
+
+        @Override
+        public void finish() throws IOException
+        {
+            out.flush();
+        }
+
+        private void writeRow(List<?> fields) throws IOException
+        {
+            for (int i = 0; i < fields.size(); i++)
+            {
+                if (i > 0) out.write(',');
+                out.write(csvField(fields.get(i)));
+            }
+            out.write("\r\n");
+        }
+    }
+
+    /**
+     * An NDJSON line: the recipe DTO's fields, plus its image when exported with images.
+     */
+    @Getter
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    static class ExportedRecipe
+    {
+        @JsonUnwrapped
+        private final RecipeDto recipe;
+        private final ExportedImage image;
+    }
+
+    /**
+     * Image bytes are written base64-encoded by Jackson.
+     */
+    @Getter
+    @AllArgsConstructor
+    static class ExportedImage
+    {
+        private final String contentType;
+        private final byte[] data;
+    }
+}
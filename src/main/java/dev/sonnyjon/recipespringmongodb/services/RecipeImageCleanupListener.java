@@ -0,0 +1,49 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.config.ReactiveConfig;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.stereotype.Component;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Removes the GridFS images of a recipe once the recipe itself has been deleted. Not used by the
+ * reactive profile: there the event is published on the driver's thread, which must not block,
+ * so {@link ReactiveRecipeServiceImpl} deletes the images itself.
+ */
+@Slf4j
+@Component
+@Profile("!" + ReactiveConfig.PROFILE)
+public class RecipeImageCleanupListener extends AbstractMongoEventListener<Recipe>
+{
+    private final GridFsTemplate gridFsTemplate;
+
+    public RecipeImageCleanupListener(GridFsTemplate gridFsTemplate)
+    {
+        this.gridFsTemplate = gridFsTemplate;
+    }
+
+    @Override
+    public void onAfterDelete(AfterDeleteEvent<Recipe> event)
+    {
+        Document deleted = event.getSource();
+        Object recipeId = deleted.get("_id");
+
+        // Only single-recipe deletes (deleteById / delete) carry a plain id
+        if (recipeId instanceof ObjectId || recipeId instanceof String)
+        {
+            String id = recipeId instanceof ObjectId ? ((ObjectId) recipeId).toHexString() : (String) recipeId;
+            log.debug("Deleting images for recipe: " + id);
+
+            gridFsTemplate.delete(query(where("metadata." + ImageServiceImpl.RECIPE_ID_METADATA).is(id)));
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Bulk loads recipes from NDJSON files, as written by {@link RecipeExportService}.
+ */
+public interface RecipeImportService
+{
+    /**
+     * Imports one recipe DTO per line; gzip-compressed input is detected and decompressed.
+     * Invalid rows are reported and skipped, the others written. A row with an id replaces
+     * the recipe with that id if it carries the stored version, or is inserted if there is none.
+     *
+     * @param ndjson input; read to the end but not closed.
+     * @return counts, throughput and the errors of the rejected rows.
+     */
+    ImportReport importRecipes(InputStream ndjson) throws IOException;
+}
@@ -0,0 +1,460 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.mongodb.bulk.BulkWriteError;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.dto.CategoryDto;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.validation.ValidatorFactory;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Imports recipes in batches of <code>recipe.import.batch-size</code> lines. The lines of a
+ * batch are parsed, validated against the DTO constraints and resolved on
+ * <code>recipe.import.threads</code> threads; the valid ones are then written in one unordered
+ * bulk write, so a rejected document does not stop the rest of its batch.
+ * <p>
+ * Units of measure and categories are resolved from a table of all of them loaded once per
+ * import, by id or else by description (ignoring case), and embedded as snapshots; a row
+ * naming an unknown one is rejected. The ingredient index and autocomplete suggestions are
+ * rebuilt once the import is done.
+ * <p>
+ * A row whose id is not stored yet is inserted. One for a stored recipe must carry its stored
+ * version, like an edit form: it then replaces the recipe and increments the version, and is
+ * otherwise reported as a version conflict, as is a recipe saved while being imported. Images
+ * are not imported, so a replaced recipe keeps its stored image and an inserted one has none.
+ */
+@Slf4j
+@Service
+public class RecipeImportServiceImpl implements RecipeImportService
+{
+    private static final int GZIP_MAGIC = 0x8b1f;
+    private static final int DUPLICATE_KEY = 11000;
+
+    private final MongoTemplate mongoTemplate;
+    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final CategoryRepository categoryRepository;
+    private final RecipeConverter recipeConverter;
+    private final IngredientIndex ingredientIndex;
+    private final AutocompleteService autocompleteService;
+    private final ObjectReader recipeReader;
+    private final Validator validator;
+    private final int batchSize;
+    private final int threads;
+    private final int maxErrors;
+
+    public RecipeImportServiceImpl(MongoTemplate mongoTemplate,
+                                   UnitOfMeasureRepository unitOfMeasureRepository,
+                                   CategoryRepository categoryRepository,
+                                   RecipeConverter recipeConverter,
+                                   IngredientIndex ingredientIndex,
+                                   AutocompleteService autocompleteService,
+                                   ObjectMapper objectMapper,
+                                   ValidatorFactory validatorFactory,
+                                   @Value("${recipe.import.batch-size:500}") int batchSize,
+                                   @Value("${recipe.import.threads:0}") int threads,
+                                   @Value("${recipe.import.max-errors:1000}") int maxErrors)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.categoryRepository = categoryRepository;
+        this.recipeConverter = recipeConverter;
+        this.ingredientIndex = ingredientIndex;
+        this.autocompleteService = autocompleteService;
+        // Exported lines may carry the recipe's image, which is not imported
+        this.recipeReader = objectMapper.readerFor(RecipeDto.class)
+                                        .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+        this.validator = validatorFactory.getValidator();
+        this.batchSize = batchSize;
+        this.threads = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.maxErrors = maxErrors;
+    }
+
+    @Override
+    public ImportReport importRecipes(InputStream ndjson) throws IOException
+    {
+        long started = System.nanoTime();
+        ReferenceLookup references = new ReferenceLookup(unitOfMeasureRepository.findAll(), categoryRepository.findAll());
+        Progress progress = new Progress();
+        ExecutorService workers = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("recipe-import-"));
+
+        try
+        {
+            BufferedReader lines = new BufferedReader(new InputStreamReader(decompressed(ndjson), StandardCharsets.UTF_8));
+            List<Line> batch = new ArrayList<>(batchSize);
+            long lineNumber = 0;
+            String text;
+
+            while ((text = lines.readLine()) != null)
+            {
+                lineNumber++;
+                if (text.isBlank()) continue;
+
+                batch.add(new Line(lineNumber, text));
+                if (batch.size() == batchSize)
+                {
+                    importBatch(batch, references, workers, progress);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+            if (!batch.isEmpty()) importBatch(batch, references, workers, progress);
+        }
+        finally
+        {
+            workers.shutdownNow();
+        }
+
+        if (progress.imported > 0)
+        {
+            ingredientIndex.rebuild();
+            autocompleteService.rebuild();
+        }
+
+        ImportReport report = new ImportReport(progress.rows, progress.imported, progress.failed,
+                                               (System.nanoTime() - started) / 1_000_000, progress.errors);
+        log.info("Imported {} of {} recipe(s), {} rejected, {} rows/s", report.getImported(), report.getRows(),
+                 report.getFailed(), String.format("%.0f", report.getRowsPerSecond()));
+
+        return report;
+    }
+
+    //==================================================================================================================
+    private void importBatch(List<Line> batch, ReferenceLookup references, ExecutorService workers, Progress progress)
+    {
+        List<Future<Row>> prepared = new ArrayList<>(batch.size());
+        for (Line line : batch) prepared.add(workers.submit(() -> prepare(line, references)));
+
+        List<Row> valid = new ArrayList<>(batch.size());
+        for (Future<Row> future : prepared)
+        {
+            Row row = await(future);
+            progress.rows++;
+
+            if (row.error != null) progress.fail(row.line, row.error);
+            else valid.add(row);
+        }
+
+        write(valid, progress);
+        log.debug("Import progress: {} row(s), {} imported", progress.rows, progress.imported);
+    }
+
+    private Row prepare(Line line, ReferenceLookup references)
+    {
+        RecipeDto dto;
+        try
+        {
+            dto = recipeReader.readValue(line.text);
+        }
+        catch (JsonProcessingException e)
+        {
+            return Row.rejected(line.number, "Malformed JSON: " + e.getOriginalMessage());
+        }
+
+        if (dto == null) return Row.rejected(line.number, "Not a recipe: " + line.text);
+        dto.setIngredients(withoutNulls(dto.getIngredients()));
+        dto.setCategories(withoutNulls(dto.getCategories()));
+
+        Set<ConstraintViolation<RecipeDto>> violations = validator.validate(dto);
+        if (!violations.isEmpty())
+        {
+            return Row.rejected(line.number, violations.stream()
+                                                       .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                                                       .sorted()
+                                                       .collect(Collectors.joining("; ")));
+        }
+
+        String unresolved = references.resolve(dto);
+        if (unresolved != null) return Row.rejected(line.number, unresolved);
+
+        // Ids are set before conversion: ingredients without one would be equal, and collapse in the recipe's set
+        // A missing version is kept for rows with an id, where it must match the stored one
+        boolean insert = !StringUtils.hasText(dto.getId());
+        if (insert)
+        {
+            dto.setId(new ObjectId().toHexString());
+            dto.setVersion(0L);
+        }
+        dto.getIngredients().stream()
+           .filter(ingredient -> !StringUtils.hasText(ingredient.getId()))
+           .forEach(ingredient -> ingredient.setId(UUID.randomUUID().toString()));
+
+        return new Row(line.number, recipeConverter.convertDto(dto), insert, null);
+    }
+
+    private void write(List<Row> rows, Progress progress)
+    {
+        if (rows.isEmpty()) return;
+
+        Map<String, Recipe> stored = storedVersions(rows);
+        Map<String, Long> seen = new HashMap<>();
+        List<Row> writes = new ArrayList<>(rows.size());
+        Set<Row> replaces = new HashSet<>();
+        BulkOperations bulk = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class);
+
+        for (Row row : rows)
+        {
+            Recipe recipe = row.recipe;
+            Long firstLine = seen.putIfAbsent(recipe.getId(), row.line);
+            if (firstLine != null)
+            {
+                progress.fail(row.line, "Duplicate recipe id " + recipe.getId() + ", first seen on line " + firstLine);
+                continue;
+            }
+
+            Recipe current = row.insert ? null : stored.get(recipe.getId());
+            if (current == null)
+            {
+                if (recipe.getVersion() == null) recipe.setVersion(0L);
+                recipe.setImageId(null);
+                bulk.insert(recipe);
+            }
+            else if (!Objects.equals(recipe.getVersion(), current.getVersion()))
+            {
+                progress.fail(row.line, "Version conflict: recipe " + recipe.getId() + " is at version "
+                                        + current.getVersion() + ", the row has " + recipe.getVersion());
+                continue;
+            }
+            else
+            {
+                // If the recipe is saved before this write, the upsert collides with it on _id
+                recipe.setImageId(current.getImageId());
+                recipe.setVersion(current.getVersion() == null ? 1L : current.getVersion() + 1);
+                bulk.replaceOne(query(where("_id").is(recipe.getId()).and("version").is(current.getVersion())), recipe,
+                                FindAndReplaceOptions.options().upsert());
+                replaces.add(row);
+            }
+            writes.add(row);
+        }
+        if (writes.isEmpty()) return;
+
+        int rejected = 0;
+        try
+        {
+            bulk.execute();
+        }
+        catch (BulkOperationException e)
+        {
+            for (BulkWriteError error : e.getErrors())
+            {
+                Row row = writes.get(error.getIndex());
+                boolean conflict = replaces.contains(row) && error.getCode() == DUPLICATE_KEY;
+
+                rejected++;
+                progress.fail(row.line, conflict ? "Version conflict: recipe " + row.recipe.getId() + " changed during the import"
+                                                 : error.getMessage());
+            }
+        }
+        catch (DataAccessException e)
+        {
+            log.warn("Import batch failed", e);
+            writes.forEach(row -> progress.fail(row.line, e.getMessage()));
+            return;
+        }
+
+        progress.imported += writes.size() - rejected;
+    }
+
+    /**
+     * Id, version and image id of the stored recipes among the rows that came with an id, by id.
+     */
+    private Map<String, Recipe> storedVersions(List<Row> rows)
+    {
+        Set<String> ids = rows.stream().filter(row -> !row.insert).map(row -> row.recipe.getId()).collect(Collectors.toSet());
+        if (ids.isEmpty()) return Map.of();
+
+        Query stored = query(where("_id").in(ids));
+        stored.fields().include("_id", "version", "imageId");
+
+        return mongoTemplate.find(stored, Recipe.class).stream().collect(Collectors.toMap(Recipe::getId, Function.identity()));
+    }
+
+    private static Row await(Future<Row> future)
+    {
+        try
+        {
+            return future.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Import interrupted", e);
+        }
+        catch (ExecutionException e)
+        {
+            throw new IllegalStateException("Import failed", e.getCause());
+        }
+    }
+
+    private static <T> List<T> withoutNulls(List<T> values)
+    {
+        return values == null ? new ArrayList<>() : values.stream().filter(Objects::nonNull).collect(Collectors.toList());
+    }
+
+    private static InputStream decompressed(InputStream in) throws IOException
+    {
+        BufferedInputStream buffered = new BufferedInputStream(in);
+        buffered.mark(2);
+        int magic = buffered.read() | (buffered.read() << 8);
+        buffered.reset();
+
+        return magic == GZIP_MAGIC ? new GZIPInputStream(buffered) : buffered;
+    }
+
+    private static String key(String description)
+    {
+        return description == null ? "" : description.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @AllArgsConstructor
+    private static final class Line
+    {
+        private final long number;
+        private final String text;
+    }
+
+    @AllArgsConstructor
+    private static final class Row
+    {
+        private final long line;
+        private final Recipe recipe;
+        private final boolean insert;
+        private final String error;
+
+        private static Row rejected(long line, String error)
+        {
+            return new Row(line, null, false, error);
+        }
+    }
+
+    /**
+     * Counts, and the row errors up to the configured maximum; used by the importing thread only.
+     */
+    private final class Progress
+    {
+        private final List<ImportReport.RowError> errors = new ArrayList<>();
+        private long rows;
+        private long imported;
+        private long failed;
+
+        private void fail(long line, String message)
+        {
+            failed++;
+            if (errors.size() < maxErrors) errors.add(new ImportReport.RowError(line, message));
+        }
+    }
+
+    /**
+     * All units of measure and categories by id and by description; read-only once built.
+     */
+    private static final class ReferenceLookup
+    {
+        private final Map<String, UnitOfMeasure> unitsById = new HashMap<>();
+        private final Map<String, UnitOfMeasure> unitsByDescription = new HashMap<>();
+        private final Map<String, Category> categoriesById = new HashMap<>();
+        private final Map<String, Category> categoriesByDescription = new HashMap<>();
+
+        private ReferenceLookup(List<UnitOfMeasure> units, List<Category> categories)
+        {
+            for (UnitOfMeasure unit : units)
+            {
+                unitsById.put(unit.getId(), unit);
+                unitsByDescription.putIfAbsent(key(unit.getDescription()), unit);
+            }
+            for (Category category : categories)
+            {
+                categoriesById.put(category.getId(), category);
+                categoriesByDescription.putIfAbsent(key(category.getDescription()), category);
+            }
+        }
+
+        /**
+         * Replaces the recipe's references with the stored id and description.
+         *
+         * @return why a reference could not be resolved, or null if all were.
+         */
+        private String resolve(RecipeDto recipe)
+        {
+            for (IngredientDto ingredient : recipe.getIngredients())
+            {
+                UnitOfMeasureDto uom = ingredient.getUom();
+                if (uom == null) continue;
+
+                UnitOfMeasure found = StringUtils.hasText(uom.getId())
+                                            ? unitsById.get(uom.getId())
+                                            : unitsByDescription.get(key(uom.getDescription()));
+                if (found == null) return "Unknown unit of measure: " + describe(uom.getId(), uom.getDescription());
+
+                uom.setId(found.getId());
+                uom.setDescription(found.getDescription());
+            }
+
+            for (CategoryDto category : recipe.getCategories())
+            {
+                Category found = StringUtils.hasText(category.getId())
+                                       ? categoriesById.get(category.getId())
+                                       : categoriesByDescription.get(key(category.getDescription()));
+                if (found == null) return "Unknown category: " + describe(category.getId(), category.getDescription());
+
+                category.setId(found.getId());
+                category.setDescription(found.getDescription());
+            }
+
+            return null;
+        }
+
+        private static String describe(String id, String description)
+        {
+            return StringUtils.hasText(id) ? "id " + id : "'" + description + "'";
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+/**
+ * Full-text and ingredient search over recipes.
+ */
+public interface RecipeSearchService
+{
+    /**
+     * Finds the recipes matching any of the words of a search phrase, best matches first.
+     * Double-quoted parts must match as phrases and words prefixed with '-' must not match.
+     *
+     * @param terms search phrase as entered by the user.
+     * @param pageable page number and size; any sort is replaced by relevance.
+     * @return the requested page of matching recipe summaries; empty for a blank phrase.
+     */
+    Page<RecipeSummaryDto> search(String terms, Pageable pageable);
+
+    /**
+     * Finds the recipes containing all (or any) of a list of ingredients, e.g. "avocado, lime,
+     * cilantro". Plurals, case and accents are ignored; an ingredient of several words matches
+     * recipes containing all of them.
+     *
+     * @param ingredients comma-separated ingredients as entered by the user.
+     * @param matchAll true to require every ingredient, false to require at least one.
+     * @param pageable page number and size; recipes are listed oldest first.
+     * @return the requested page of matching recipe summaries; empty if no ingredient is given.
+     */
+    Page<RecipeSummaryDto> searchByIngredients(String ingredients, boolean matchAll, Pageable pageable);
+}
@@ -0,0 +1,105 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.TextCriteria;
+import org.springframework.data.mongodb.core.query.TextQuery;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Searches the weighted text index declared on {@link Recipe}, reading only the summary fields.
+ * Results are ordered by text score, then by id so that paging is stable between equal scores.
+ * <p>
+ * Ingredient searches are answered by the in-memory {@link IngredientIndex}; only the summaries
+ * of the requested page are then read, by id.
+ */
+@Slf4j
+@Service
+public class RecipeSearchServiceImpl implements RecipeSearchService
+{
+    static final String[] SUMMARY_FIELDS = {"description", "difficulty", "prepTime", "cookTime", "imageId"};
+
+    private final MongoTemplate mongoTemplate;
+    private final IngredientIndex ingredientIndex;
+
+    public RecipeSearchServiceImpl(MongoTemplate mongoTemplate, IngredientIndex ingredientIndex)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.ingredientIndex = ingredientIndex;
+    }
+
+    @Override
+    public Page<RecipeSummaryDto> search(String terms, Pageable pageable)
+    {
+        if (!StringUtils.hasText(terms)) return Page.empty(pageable);
+
+        TextCriteria criteria = TextCriteria.forDefaultLanguage().matching(terms.trim());
+        Query query = TextQuery.queryText(criteria)
+                               .sortByScore()
+                               .with(Sort.by("id"))
+                               .skip(pageable.getOffset())
+                               .limit(pageable.getPageSize());
+
+        query.fields().include(SUMMARY_FIELDS);
+
+        List<RecipeSummaryDto> recipes = mongoTemplate.find(query, RecipeSummaryDto.class,
+                                                            mongoTemplate.getCollectionName(Recipe.class));
+        log.debug("Search '" + terms + "' returned " + recipes.size() + " recipe(s)");
+
+        return PageableExecutionUtils.getPage(recipes, pageable,
+                                              () -> mongoTemplate.count(TextQuery.queryText(criteria), Recipe.class));
+    }
+
+    @Override
+    public Page<RecipeSummaryDto> searchByIngredients(String ingredients, boolean matchAll, Pageable pageable)
+    {
+        List<String> names = Arrays.stream(ingredients.split(","))
+                                   .filter(StringUtils::hasText)
+                                   .map(String::trim)
+                                   .collect(Collectors.toList());
+        if (names.isEmpty()) return Page.empty(pageable);
+
+        List<String> ids = matchAll ? ingredientIndex.findWithAll(names) : ingredientIndex.findWithAny(names);
+        log.debug("Ingredients '" + ingredients + "' matched " + ids.size() + " recipe(s)");
+
+        int from = (int) Math.min(pageable.getOffset(), ids.size());
+        List<String> pageIds = ids.subList(from, Math.min(from + pageable.getPageSize(), ids.size()));
+        if (pageIds.isEmpty()) return new PageImpl<>(List.of(), pageable, ids.size());
+
+        Query query = query(where("id").in(pageIds));
+        query.fields().include(SUMMARY_FIELDS);
+
+        Map<String, RecipeSummaryDto> recipes = mongoTemplate.find(query, RecipeSummaryDto.class,
+                                                                   mongoTemplate.getCollectionName(Recipe.class))
+                                                             .stream()
+                                                             .collect(Collectors.toMap(RecipeSummaryDto::getId,
+                                                                                       Function.identity()));
+
+        // Keep the index order; a recipe deleted since the lookup is simply left out
+        List<RecipeSummaryDto> content = pageIds.stream()
+                                                .map(recipes::get)
+                                                .filter(Objects::nonNull)
+                                                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, ids.size());
+    }
+}
@@ -1,7 +1,10 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
 import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 
 import java.util.Set;
 
@@ -12,6 +15,8 @@ public interface RecipeService
 {
     Set<Recipe> getRecipes();
 
+    Page<RecipeSummaryDto> getRecipeSummaries(Pageable pageable);
+
     Recipe findById(String id);
 
     RecipeDto findDtoById(String id);
@@ -2,12 +2,17 @@ package dev.sonnyjon.recipespringmongodb.services;
 
 import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
 import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import java.util.HashSet;
 import java.util.Optional;
@@ -21,11 +26,19 @@ import java.util.Set;
 public class RecipeServiceImpl implements RecipeService
 {
     private final RecipeRepository recipeRepository;
-    private final RecipeConverter converter = new RecipeConverter();
+    private final RecipeConverter converter;
+    private final ReferenceSnapshots snapshots;
+    private final IngredientIndex ingredientIndex;
 
-    public RecipeServiceImpl(RecipeRepository recipeRepository)
+    public RecipeServiceImpl(RecipeRepository recipeRepository,
+                             RecipeConverter converter,
+                             ReferenceSnapshots snapshots,
+                             IngredientIndex ingredientIndex)
     {
         this.recipeRepository = recipeRepository;
+        this.converter = converter;
+        this.snapshots = snapshots;
+        this.ingredientIndex = ingredientIndex;
     }
 
     @Override
@@ -38,6 +51,12 @@ public class RecipeServiceImpl implements RecipeService
         return recipeSet;
     }
 
+    @Override
+    public Page<RecipeSummaryDto> getRecipeSummaries(Pageable pageable)
+    {
+        return recipeRepository.findAllBy(pageable);
+    }
+
     @Override
     public Recipe findById(String id)
     {
@@ -58,9 +77,17 @@ public class RecipeServiceImpl implements RecipeService
     @Transactional
     public RecipeDto saveRecipe(RecipeDto dto)
     {
-        Recipe detachedRecipe = converter.convertDto(dto);
+        Recipe detachedRecipe = snapshots.fill(converter.convertDto(dto));
+        if (!StringUtils.hasText(detachedRecipe.getId())) detachedRecipe.setId(null);
+        else if (detachedRecipe.getVersion() == null) initVersion(detachedRecipe);
+
+        // Only the image upload changes the image (updateImageId); whatever the client sent is ignored
+        detachedRecipe.setImageId(detachedRecipe.getId() == null ? null : storedImageId(detachedRecipe.getId()));
+
+        // Versioned save: fails with OptimisticLockingFailureException if the recipe changed since it was read
         Recipe savedRecipe = recipeRepository.save(detachedRecipe);
         log.debug("Saved RecipeId:" + savedRecipe.getId());
+        ingredientIndex.index(savedRecipe);
 
         return converter.convertEntity(savedRecipe);
     }
@@ -70,5 +97,26 @@ public class RecipeServiceImpl implements RecipeService
     public void deleteById(String idToDelete)
     {
         recipeRepository.deleteById(idToDelete);
+        ingredientIndex.remove(idToDelete);
+    }
+
+    //==================================================================================================================
+    private String storedImageId(String recipeId)
+    {
+        // An upload after this read bumps the version, so the save below fails rather than dropping it
+        return recipeRepository.findImageIdById(recipeId).map(Recipe::getImageId).orElse(null);
+    }
+
+    private void initVersion(Recipe recipe)
+    {
+        // Recipes saved before versioning have no version; without one the save would be an insert
+        if (recipeRepository.initVersion(recipe.getId()) > 0)
+        {
+            recipe.setVersion(0L);
+        }
+        else if (recipeRepository.existsById(recipe.getId()))
+        {
+            throw new OptimisticLockingFailureException("Recipe " + recipe.getId() + " was saved without its version");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,155 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.sonnyjon.recipespringmongodb.config.SnapshotSyncConfig;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.types.ObjectId;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.mapping.event.AbstractMongoEventListener;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Copies the description of a saved unit of measure or category into every recipe snapshot of
+ * it, with one multi-document update using array filters. The update runs on the snapshot sync
+ * executor, so saving reference data does not wait for the recipes; until it has run, recipes
+ * show the previous description. Recipes already up to date are not matched, and each changed
+ * recipe has its version bumped.
+ * <p>
+ * The update copies the description current when it runs rather than the one saved, so renames
+ * applied out of order (by the saving thread when the queue is full, or from concurrent saves)
+ * cannot leave an older description behind.
+ * <p>
+ * Deleting a unit of measure or category leaves its snapshots in place.
+ * <p>
+ * Metrics: <code>recipe.snapshot.sync.lag</code> (time from save to recipes updated, tagged by
+ * type and outcome), <code>recipe.snapshot.sync.pending</code> and
+ * <code>recipe.snapshot.sync.recipes</code> (recipes updated).
+ */
+@Slf4j
+@Component
+public class ReferenceSnapshotSyncListener extends AbstractMongoEventListener<Object>
+{
+    static final String LAG_METRIC = "recipe.snapshot.sync.lag";
+    static final String PENDING_METRIC = "recipe.snapshot.sync.pending";
+    static final String RECIPES_METRIC = "recipe.snapshot.sync.recipes";
+
+    private final MongoTemplate mongoTemplate;
+    private final Executor syncExecutor;
+    private final MeterRegistry meterRegistry;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    public ReferenceSnapshotSyncListener(MongoTemplate mongoTemplate,
+                                         @Qualifier(SnapshotSyncConfig.SNAPSHOT_SYNC_EXECUTOR) Executor syncExecutor,
+                                         MeterRegistry meterRegistry)
+    {
+        this.mongoTemplate = mongoTemplate;
+        this.syncExecutor = syncExecutor;
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gauge(PENDING_METRIC, pending);
+    }
+
+    @Override
+    public void onAfterSave(AfterSaveEvent<Object> event)
+    {
+        Object source = event.getSource();
+
+        if (source instanceof UnitOfMeasure)
+        {
+            UnitOfMeasure uom = (UnitOfMeasure) source;
+            submit("unitOfMeasure", event.getTimestamp(), () -> syncUom(uom.getId()));
+        }
+        else if (source instanceof Category)
+        {
+            Category category = (Category) source;
+            submit("category", event.getTimestamp(), () -> syncCategory(category.getId()));
+        }
+    }
+
+    //==================================================================================================================
+    private void submit(String type, long savedAt, LongSupplier task)
+    {
+        pending.incrementAndGet();
+
+        syncExecutor.execute(() -> {
+            String outcome = "success";
+            try
+            {
+                long updated = task.getAsLong();
+                meterRegistry.counter(RECIPES_METRIC, "type", type).increment(updated);
+                log.debug("Updated " + type + " snapshots in " + updated + " recipe(s)");
+            }
+            catch (RuntimeException e)
+            {
+                outcome = "failure";
+                log.error("Failed to update " + type + " snapshots", e);
+            }
+            finally
+            {
+                pending.decrementAndGet();
+                meterRegistry.timer(LAG_METRIC, "type", type, "outcome", outcome)
+                             .record(Duration.ofMillis(Math.max(0, System.currentTimeMillis() - savedAt)));
+            }
+        });
+    }
+
+    private long syncUom(String id)
+    {
+        UnitOfMeasure current = mongoTemplate.findById(id, UnitOfMeasure.class);
+        if (current == null) return 0;
+
+        String description = current.getDescription();
+        Object uomId = toMongoId(id);
+        Criteria stale = where("uom._id").is(uomId).and("uom.description").ne(description);
+
+        Update update = new Update().set("ingredients.$[ingredient].uom.description", description)
+                                    .filterArray(where("ingredient.uom._id").is(uomId))
+                                    .inc("version", 1);
+
+        return updateRecipes(where("ingredients").elemMatch(stale), update);
+    }
+
+    private long syncCategory(String id)
+    {
+        Category current = mongoTemplate.findById(id, Category.class);
+        if (current == null) return 0;
+
+        String description = current.getDescription();
+        Object categoryId = toMongoId(id);
+        Criteria stale = where("_id").is(categoryId).and("description").ne(description);
+
+        Update update = new Update().set("categories.$[category].description", description)
+                                    .filterArray(where("category._id").is(categoryId))
+                                    .inc("version", 1);
+
+        return updateRecipes(where("categories").elemMatch(stale), update);
+    }
+
+    private long updateRecipes(Criteria criteria, Update update)
+    {
+        // Raw collection name: field names and ids are used as written
+        UpdateResult result = mongoTemplate.updateMulti(query(criteria), update,
+                                                        mongoTemplate.getCollectionName(Recipe.class));
+        return result.getModifiedCount();
+    }
+
+    private Object toMongoId(String id)
+    {
+        return mongoTemplate.getConverter().convertId(id, ObjectId.class);
+    }
+}
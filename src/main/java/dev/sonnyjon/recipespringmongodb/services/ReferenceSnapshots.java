@@ -0,0 +1,94 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Builds the unit of measure and category snapshots embedded in recipes. Forms post only the
+ * referenced ids, so the descriptions are filled in from the (cached) reference data before a
+ * recipe or ingredient is written. Unknown ids are kept as given.
+ */
+@Component
+public class ReferenceSnapshots
+{
+    private final UnitOfMeasureRepository unitOfMeasureRepository;
+    private final CategoryRepository categoryRepository;
+
+    public ReferenceSnapshots(UnitOfMeasureRepository unitOfMeasureRepository, CategoryRepository categoryRepository)
+    {
+        this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.categoryRepository = categoryRepository;
+    }
+
+    /**
+     * Replaces the recipe's unit of measure and category references with current snapshots.
+     *
+     * @param recipe recipe about to be saved.
+     * @return the same recipe.
+     */
+    public Recipe fill(Recipe recipe)
+    {
+        if (recipe.getIngredients() != null) recipe.getIngredients().forEach(this::fill);
+
+        if (recipe.getCategories() != null)
+        {
+            Set<Category> categories = new HashSet<>();
+            recipe.getCategories().forEach(category -> categories.add(snapshotOf(category)));
+            recipe.setCategories(categories);
+        }
+
+        return recipe;
+    }
+
+    /**
+     * Replaces the ingredient's unit of measure reference with a current snapshot.
+     *
+     * @param ingredient ingredient about to be saved.
+     * @return the same ingredient.
+     */
+    public Ingredient fill(Ingredient ingredient)
+    {
+        ingredient.setUom(snapshotOf(ingredient.getUom()));
+        return ingredient;
+    }
+
+    //==================================================================================================================
+    private UnitOfMeasure snapshotOf(UnitOfMeasure uom)
+    {
+        if (uom == null || !StringUtils.hasText(uom.getId())) return uom;
+
+        // Copy: the cached entity is shared
+        return unitOfMeasureRepository.findById(uom.getId())
+                                      .map(found -> {
+                                          UnitOfMeasure snapshot = new UnitOfMeasure();
+                                          snapshot.setId(found.getId());
+                                          snapshot.setDescription(found.getDescription());
+                                          return snapshot;
+                                      })
+                                      .orElse(uom);
+    }
+
+    private Category snapshotOf(Category category)
+    {
+        Category snapshot = new Category();
+        snapshot.setId(category.getId());
+        snapshot.setDescription(category.getDescription());
+
+        if (StringUtils.hasText(category.getId()))
+        {
+            categoryRepository.findById(category.getId())
+                              .ifPresent(found -> snapshot.setDescription(found.getDescription()));
+        }
+
+        return snapshot;
+    }
+}
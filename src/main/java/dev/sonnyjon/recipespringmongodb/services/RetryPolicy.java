@@ -0,0 +1,95 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import reactor.util.retry.Retry;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+/**
+ * Bounded retry with exponential backoff for recipe mutations that lost an optimistic
+ * concurrency race. Each attempt must re-read whatever state it depends on.
+ */
+@Slf4j
+public class RetryPolicy
+{
+    private final int maxAttempts;
+    private final long initialBackoffMillis;
+    private final long maxBackoffMillis;
+
+    public RetryPolicy(int maxAttempts, Duration initialBackoff, Duration maxBackoff)
+    {
+        if (maxAttempts < 1) throw new IllegalArgumentException("maxAttempts must be at least 1");
+
+        this.maxAttempts = maxAttempts;
+        this.initialBackoffMillis = initialBackoff.toMillis();
+        this.maxBackoffMillis = Math.max( maxBackoff.toMillis(), initialBackoffMillis );
+    }
+
+    /**
+     * Runs the action, retrying it while it fails with an {@link OptimisticLockingFailureException}.
+     *
+     * @param action the mutation to attempt.
+     * @return the action's result.
+     * @throws OptimisticLockingFailureException if the last attempt still conflicts.
+     */
+    public <T> T execute(Supplier<T> action)
+    {
+        for (int attempt = 1; ; attempt++)
+        {
+            try {
+                return action.get();
+            }
+            catch (OptimisticLockingFailureException e)
+            {
+                if (attempt >= maxAttempts) throw e;
+
+                log.debug("Concurrent modification, retrying (attempt " + attempt + " of " + maxAttempts + ")");
+                backOff( attempt, e );
+            }
+        }
+    }
+
+    /**
+     * The same policy for reactive pipelines: <code>mono.retryWhen(policy.asRetrySpec())</code>
+     * resubscribes to the failed publisher, which must re-read whatever state it depends on.
+     *
+     * @return a spec retrying {@link OptimisticLockingFailureException}s, rethrowing the last one when exhausted.
+     */
+    public Retry asRetrySpec()
+    {
+        return Retry.backoff( maxAttempts - 1, Duration.ofMillis( initialBackoffMillis ) )
+                    .maxBackoff( Duration.ofMillis( maxBackoffMillis ) )
+                    .jitter( 0.5 )
+                    .filter( OptimisticLockingFailureException.class::isInstance )
+                    .doBeforeRetry( signal -> log.debug("Concurrent modification, retrying (attempt "
+                                                        + (signal.totalRetries() + 1) + " of " + maxAttempts + ")") )
+                    .onRetryExhaustedThrow( (spec, signal) -> signal.failure() );
+    }
+
+    //==================================================================================================================
+    long backoffMillis(int attempt)
+    {
+        long ceiling = Math.min( initialBackoffMillis << Math.min( attempt - 1, 20 ), maxBackoffMillis );
+
+        // Jitter within the upper half of the window, so contending writers do not retry in lockstep
+        return ceiling <= 1 ? ceiling : ThreadLocalRandom.current().nextLong( ceiling / 2, ceiling + 1 );
+    }
+
+    private void backOff(int attempt, OptimisticLockingFailureException cause)
+    {
+        long millis = backoffMillis( attempt );
+        if (millis <= 0) return;
+
+        try {
+            Thread.sleep( millis );
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw cause;
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Prefix trie over phrases with a use count each. Every node keeps the most used phrases below
+ * it, so a lookup walks the prefix and returns that list without visiting the subtree; an
+ * update refreshes the lists along the phrase's path only.
+ * <p>
+ * Matching ignores case and extra whitespace; a phrase is shown as first added. Unless the trie
+ * keeps unused phrases, a phrase whose count drops to 0 is removed. Not thread-safe.
+ */
+final class SuggestionTrie
+{
+    private static final Comparator<Node> BY_COUNT = Comparator.comparingLong((Node node) -> node.count)
+                                                               .reversed()
+                                                               .thenComparing(node -> node.phrase);
+
+    private final int maxSuggestions;
+    private final boolean keepUnused;
+    private final Node root = new Node();
+    private int size;
+
+    SuggestionTrie(int maxSuggestions)
+    {
+        this(maxSuggestions, true);
+    }
+
+    /**
+     * @param maxSuggestions maximum number of suggestions per prefix.
+     * @param keepUnused whether phrases stay suggested once their count is 0.
+     */
+    SuggestionTrie(int maxSuggestions, boolean keepUnused)
+    {
+        this.maxSuggestions = maxSuggestions;
+        this.keepUnused = keepUnused;
+    }
+
+    /**
+     * Adds to the use count of a phrase, adding the phrase if new; the count does not go below 0.
+     *
+     * @param phrase phrase; ignored if blank, or if unknown and <code>uses</code> is negative.
+     * @param uses uses to add, may be 0 to add the phrase without uses or negative to remove uses.
+     */
+    void add(String phrase, long uses)
+    {
+        String key = normalize(phrase);
+        if (key.isEmpty() || (uses < 0 && find(key) == null)) return;
+
+        List<Node> path = new ArrayList<>(key.length() + 1);
+        Node node = root;
+        path.add(node);
+        for (int i = 0; i < key.length(); i++)
+        {
+            node = node.children.computeIfAbsent(key.charAt(i), c -> new Node());
+            path.add(node);
+        }
+
+        if (node.phrase == null)
+        {
+            node.phrase = phrase.trim();
+            size++;
+        }
+        node.count = Math.max(0, node.count + uses);
+
+        if (node.count == 0 && !keepUnused)
+        {
+            // Drop the phrase, and the nodes on its path that lead to no other phrase
+            node.phrase = null;
+            size--;
+            for (int i = path.size() - 1; i > 0 && path.get(i).phrase == null && path.get(i).children.isEmpty(); i--)
+            {
+                path.get(i - 1).children.remove(key.charAt(i - 1));
+                path.remove(i);
+            }
+        }
+
+        for (int i = path.size() - 1; i >= 0; i--) refreshTop(path.get(i));
+    }
+
+    /**
+     * @param prefix typed prefix.
+     * @return up to the configured number of phrases starting with the prefix, most used first.
+     */
+    List<String> suggest(String prefix)
+    {
+        Node node = find(normalize(prefix));
+
+        List<String> phrases = new ArrayList<>();
+        if (node != null) node.top.forEach(match -> phrases.add(match.phrase));
+
+        return phrases;
+    }
+
+    int size()
+    {
+        return size;
+    }
+
+    static String normalize(String phrase)
+    {
+        return phrase == null ? "" : phrase.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    //==================================================================================================================
+    private Node find(String key)
+    {
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) node = node.children.get(key.charAt(i));
+
+        return node;
+    }
+
+    private void refreshTop(Node node)
+    {
+        List<Node> candidates = new ArrayList<>();
+        if (node.phrase != null) candidates.add(node);
+        node.children.values().forEach(child -> candidates.addAll(child.top));
+
+        candidates.sort(BY_COUNT);
+        node.top = new ArrayList<>(candidates.subList(0, Math.min(maxSuggestions, candidates.size())));
+    }
+
+    private static final class Node
+    {
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private List<Node> top = List.of();
+        private String phrase;
+        private long count;
+    }
+}
@@ -16,11 +16,12 @@ import java.util.stream.StreamSupport;
 public class UnitOfMeasureServiceImpl implements UnitOfMeasureService
 {
     private final UnitOfMeasureRepository unitOfMeasureRepository;
-    private final UnitOfMeasureConverter converter = new UnitOfMeasureConverter();
+    private final UnitOfMeasureConverter converter;
 
-    public UnitOfMeasureServiceImpl(UnitOfMeasureRepository unitOfMeasureRepository)
+    public UnitOfMeasureServiceImpl(UnitOfMeasureRepository unitOfMeasureRepository, UnitOfMeasureConverter converter)
     {
         this.unitOfMeasureRepository = unitOfMeasureRepository;
+        this.converter = converter;
     }
 
     @Override
@@ -0,0 +1,71 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImageBytesFilterTest
+{
+    DistributionSummary bytesOut;
+    ImageBytesFilter filter;
+
+    @BeforeEach
+    void setUp()
+    {
+        bytesOut = MetricsConfig.imageBytes(new SimpleMeterRegistry(), "out");
+        filter = new ImageBytesFilter(bytesOut);
+    }
+
+    @Test
+    void doFilter_shouldRecordBytesWritten_forImageResponses() throws Exception
+    {
+        // given
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/recipe/1/recipeimage"), response,
+                        new MockFilterChain(writing(new byte[1000])));
+
+        // then
+        assertEquals(1, bytesOut.count());
+        assertEquals(1000, bytesOut.totalAmount());
+        assertEquals(1000, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    void doFilter_shouldSkip_otherPathsAndEmptyResponses() throws Exception
+    {
+        // when
+        filter.doFilter(new MockHttpServletRequest("GET", "/recipe/1/show"), new MockHttpServletResponse(),
+                        new MockFilterChain(writing(new byte[10])));
+        filter.doFilter(new MockHttpServletRequest("GET", "/recipe/1/recipeimage"), new MockHttpServletResponse(),
+                        new MockFilterChain(writing(new byte[0])));
+
+        // then
+        assertEquals(0, bytesOut.count());
+    }
+
+    //==================================================================================================================
+    private static HttpServlet writing(byte[] body)
+    {
+        return new HttpServlet()
+        {
+            @Override
+            protected void service(HttpServletRequest request, HttpServletResponse response) throws IOException
+            {
+                response.getOutputStream().write(body, 0, body.length);
+            }
+        };
+    }
+}
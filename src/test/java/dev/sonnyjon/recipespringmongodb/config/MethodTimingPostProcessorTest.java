@@ -0,0 +1,124 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MethodTimingPostProcessorTest
+{
+    public static final String METRIC = "test.calls";
+
+    SimpleMeterRegistry meterRegistry;
+    MethodTimingPostProcessor postProcessor;
+
+    @BeforeEach
+    void setUp()
+    {
+        meterRegistry = new SimpleMeterRegistry();
+        DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+        beanFactory.registerSingleton("meterRegistry", meterRegistry);
+
+        postProcessor = new MethodTimingPostProcessor(METRIC, beanFactory.getBeanProvider(MeterRegistry.class),
+                                                      Greeter.class, Converter.class);
+    }
+
+    @Test
+    void postProcess_shouldTimeInterfaceMethods_taggedWithInterfaceAndMethod()
+    {
+        // given
+        Greeter greeter = (Greeter) postProcessor.postProcessAfterInitialization(new GreeterImpl(), "greeter");
+
+        // when
+        greeter.greet("Sonny");
+        greeter.greet("Jon");
+
+        // then
+        Timer timer = meterRegistry.get(METRIC).tag("class", "Greeter").tag("method", "greet")
+                                   .tag("exception", "none").timer();
+        assertEquals(2, timer.count());
+        assertTrue(AopUtils.isCglibProxy(greeter));
+    }
+
+    @Test
+    void postProcess_shouldTagException_andRethrow()
+    {
+        // given
+        Greeter greeter = (Greeter) postProcessor.postProcessAfterInitialization(new GreeterImpl(), "greeter");
+
+        // when
+        assertThrows(IllegalArgumentException.class, () -> greeter.greet(null));
+
+        // then
+        assertEquals(1, meterRegistry.get(METRIC).tag("exception", "IllegalArgumentException").timer().count());
+    }
+
+    @Test
+    void postProcess_shouldTimeGenericMethods_calledThroughInterface()
+    {
+        // given
+        @SuppressWarnings("unchecked")
+        Converter<Integer> converter = (Converter<Integer>) postProcessor.postProcessAfterInitialization(
+                new IntegerConverterImpl(), "converter");
+
+        // when
+        converter.convert(42);
+
+        // then
+        assertEquals(1, meterRegistry.get(METRIC).tag("class", "IntegerConverter").tag("method", "convert")
+                                     .timer().count());
+    }
+
+    @Test
+    void postProcess_shouldLeaveOtherBeans_unproxied()
+    {
+        Object bean = new Object();
+
+        assertSame(bean, postProcessor.postProcessAfterInitialization(bean, "other"));
+    }
+
+    //==================================================================================================================
+    interface Greeter
+    {
+        String greet(String name);
+    }
+
+    interface Converter<T>
+    {
+        String convert(T value);
+    }
+
+    interface IntegerConverter extends Converter<Integer>
+    {
+    }
+
+    static class GreeterImpl implements Greeter
+    {
+        @Override
+        public String greet(String name)
+        {
+            if (name == null) throw new IllegalArgumentException("name");
+
+            return "Hello " + name;
+        }
+
+        public String helper()
+        {
+            return "not timed";
+        }
+    }
+
+    static class IntegerConverterImpl implements IntegerConverter
+    {
+        @Override
+        public String convert(Integer value)
+        {
+            return String.valueOf(value);
+        }
+    }
+}
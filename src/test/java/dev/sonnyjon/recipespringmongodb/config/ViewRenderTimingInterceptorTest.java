@@ -0,0 +1,52 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.ModelAndView;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ViewRenderTimingInterceptorTest
+{
+    SimpleMeterRegistry meterRegistry;
+    ViewRenderTimingInterceptor interceptor;
+    MockHttpServletRequest request;
+    MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp()
+    {
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new ViewRenderTimingInterceptor(meterRegistry);
+        request = new MockHttpServletRequest();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    void afterCompletion_shouldTimeRendering_taggedWithView()
+    {
+        // when
+        interceptor.postHandle(request, response, new Object(), new ModelAndView("recipe/show"));
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // then
+        assertEquals(1, meterRegistry.get(ViewRenderTimingInterceptor.RENDER_TIMER)
+                                     .tag("view", "recipe/show").tag("exception", "none").timer().count());
+    }
+
+    @Test
+    void afterCompletion_shouldSkip_redirectsAndBodyResponses()
+    {
+        // when
+        interceptor.postHandle(request, response, new Object(), new ModelAndView("redirect:/recipe/1/show"));
+        interceptor.afterCompletion(request, response, new Object(), null);
+        interceptor.postHandle(request, response, new Object(), null);
+        interceptor.afterCompletion(request, response, new Object(), null);
+
+        // then
+        assertNull(meterRegistry.find(ViewRenderTimingInterceptor.RENDER_TIMER).timer());
+    }
+}
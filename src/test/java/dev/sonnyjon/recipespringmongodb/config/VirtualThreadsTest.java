@@ -0,0 +1,31 @@
+package dev.sonnyjon.recipespringmongodb.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class VirtualThreadsTest
+{
+    @Test
+    void newPerTaskExecutor_shouldRunOnNamedVirtualThreads_whenRuntimeSupportsThem() throws Exception
+    {
+        // given
+        boolean supported = Runtime.version().feature() >= 21;
+
+        // when
+        Optional<ExecutorService> executor = VirtualThreads.newPerTaskExecutor("test-virtual-");
+
+        // then
+        assertEquals(supported, executor.isPresent());
+        if (!supported) return;
+
+        Thread thread = executor.get().submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+        assertTrue((Boolean) Thread.class.getMethod("isVirtual").invoke(thread));
+        assertEquals("test-virtual-0", thread.getName());
+        executor.get().shutdown();
+    }
+}
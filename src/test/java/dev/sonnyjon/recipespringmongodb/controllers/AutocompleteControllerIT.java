@@ -0,0 +1,76 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.services.AutocompleteService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class AutocompleteControllerIT
+{
+    @Mock
+    AutocompleteService autocompleteService;
+
+    AutocompleteController controller;
+    MockMvc mockMvc;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        controller = new AutocompleteController(autocompleteService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void ingredients_shouldReturnSuggestions_asJson() throws Exception
+    {
+        //given
+        when(autocompleteService.suggestIngredients("chi", 10)).thenReturn(List.of("chicken breast", "chili powder"));
+
+        //when
+        mockMvc.perform(get("/api/autocomplete/ingredients").param("prefix", "chi"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$[0]").value("chicken breast"))
+                .andExpect(jsonPath("$[1]").value("chili powder"));
+
+        //then
+        verify(autocompleteService, times(1)).suggestIngredients("chi", 10);
+    }
+
+    @Test
+    void units_shouldPassLimit() throws Exception
+    {
+        //given
+        when(autocompleteService.suggestUnits("t", 3)).thenReturn(List.of("Teaspoon"));
+
+        //when
+        mockMvc.perform(get("/api/autocomplete/units").param("prefix", "t").param("limit", "3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0]").value("Teaspoon"));
+
+        //then
+        verify(autocompleteService).suggestUnits("t", 3);
+    }
+}
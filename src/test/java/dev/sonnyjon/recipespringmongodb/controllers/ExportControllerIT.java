@@ -0,0 +1,84 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.services.ExportFormat;
+import dev.sonnyjon.recipespringmongodb.services.RecipeExportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ExportControllerIT
+{
+    @Mock
+    RecipeExportService exportService;
+
+    ExportController controller;
+    MockMvc mockMvc;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        controller = new ExportController(exportService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void exportRecipes_shouldStreamNdjson_withImagesByDefault() throws Exception
+    {
+        // when, then
+        mockMvc.perform(get("/admin/export/recipes"))
+               .andExpect(status().isOk())
+               .andExpect(content().contentType(ExportController.GZIP_CONTENT_TYPE))
+               .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString(".ndjson.gz")));
+
+        verify(exportService, times(1)).exportRecipes(eq(ExportFormat.NDJSON), eq(true), any(OutputStream.class));
+    }
+
+    @Test
+    void exportRecipes_shouldStreamCsv_withoutImages() throws Exception
+    {
+        // when, then
+        mockMvc.perform(get("/admin/export/recipes").param("format", "csv").param("images", "false"))
+               .andExpect(status().isOk())
+               .andExpect(header().string(HttpHeaders.CONTENT_DISPOSITION, containsString(".csv.gz")));
+
+        verify(exportService, times(1)).exportRecipes(eq(ExportFormat.CSV), eq(false), any(OutputStream.class));
+    }
+
+    @Test
+    void controller_shouldOnlyBeRegistered_whenAdminWebIsEnabled()
+    {
+        // given
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(RecipeExportService.class, () -> exportService)
+                .withUserConfiguration(ExportController.class);
+
+        // when, then
+        runner.run(context -> assertThat(context).doesNotHaveBean(ExportController.class));
+        runner.withPropertyValues("recipe.admin.web-enabled=true")
+              .run(context -> assertThat(context).hasSingleBean(ExportController.class));
+    }
+}
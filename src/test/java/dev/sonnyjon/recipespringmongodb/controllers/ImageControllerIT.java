@@ -1,9 +1,16 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
+import com.mongodb.client.gridfs.model.GridFSFile;
 import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.ImageUploadException;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
 import dev.sonnyjon.recipespringmongodb.services.ImageService;
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import dev.sonnyjon.recipespringmongodb.services.ImageSize;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -11,13 +18,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
 import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.junit.jupiter.api.Assertions.assertTrue;
+import java.io.ByteArrayInputStream;
+import java.util.Date;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -30,6 +41,10 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 @ExtendWith(MockitoExtension.class)
 class ImageControllerIT
 {
+    static final String IMAGE_TEXT = "fake image text";
+    static final String CONTENT_HASH = "CONTENT-HASH";
+    static final ObjectId IMAGE_ID = new ObjectId();
+
     @Mock
     ImageService imageService;
     @Mock
@@ -114,6 +129,30 @@ class ImageControllerIT
         verify(imageService, times(1)).saveImageFile(anyString(), any());
     }
 
+    @Test
+    public void handleImage_shouldReturnBadRequest_whenUploadUnreadable() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+
+        // given
+        MockMultipartFile multipartFile =
+                new MockMultipartFile("imagefile", "testing.txt", "text/plain",
+                        "Spring Framework Guru".getBytes());
+
+        doThrow(ImageUploadException.class).when(imageService).saveImageFile(anyString(), any());
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                 .setControllerAdvice(new ControllerExceptionHandler())
+                                 .build();
+
+        // when
+        mockMvc.perform(multipart("/recipe/{id}/image", RECIPE_ID).file(multipartFile))
+                .andExpect(status().isBadRequest())
+                .andExpect(view().name("400error"));
+
+        // then
+        verify(imageService, times(1)).saveImageFile(anyString(), any());
+    }
+
     @Test
     public void handleImage_shouldThrowException_whenRecipeNotFound() throws Exception
     {
@@ -142,31 +181,191 @@ class ImageControllerIT
         final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
 
         // given
-        String sub = "fake image text";
-        Byte[] bytesBoxed = new Byte[sub.getBytes().length];
-
-        int i = 0;
-        for (byte primByte : sub.getBytes())
-        {
-            bytesBoxed[i++] = primByte;
-        }
+        byte[] imageBytes = IMAGE_TEXT.getBytes();
 
-        RecipeDto recipeDto = new RecipeDto();
-        recipeDto.setId( RECIPE_ID );
-        recipeDto.setImage(bytesBoxed);
-
-        when(recipeService.findDtoById(anyString())).thenReturn(recipeDto);
+        when(imageService.findImage(anyString(), any())).thenAnswer(invocation -> Optional.of(getTestImage(imageBytes)));
 
         // when
         MockHttpServletResponse response = mockMvc.perform(get( TEST_URI ))
                                                     .andExpect(status().isOk())
+                                                    .andExpect(header().string("ETag", "\"" + CONTENT_HASH + "\""))
+                                                    .andExpect(header().exists("Last-Modified"))
+                                                    .andExpect(header().string("Cache-Control", "no-cache, public"))
                                                     .andReturn().getResponse();
 
         byte[] reponseBytes = response.getContentAsByteArray();
         String contentType = response.getContentType();
 
         // then
-        assertEquals(sub.getBytes().length, reponseBytes.length);
-        assertEquals("image/jpeg", contentType);
+        assertArrayEquals(imageBytes, reponseBytes);
+        assertEquals(imageBytes.length, response.getContentLength());
+        assertEquals("image/png", contentType);
+    }
+
+    @Test
+    public void renderImage_shouldBeCachedLongTerm_whenVersionMatches() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        GridFsResource image = getTestImage(IMAGE_TEXT.getBytes());
+        String imageId = image.getGridFSFile().getObjectId().toHexString();
+
+        when(imageService.findImage(anyString(), any())).thenReturn(Optional.of(image));
+
+        // when, then
+        mockMvc.perform(get( TEST_URI ).param("v", imageId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public"));
+    }
+
+    @Test
+    public void renderImage_shouldReturnNotModified_whenETagMatches() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        when(imageService.findImage(anyString(), any()))
+                .thenAnswer(invocation -> Optional.of(getTestImage(IMAGE_TEXT.getBytes())));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(get( TEST_URI )
+                                                        .header("If-None-Match", "\"" + CONTENT_HASH + "\""))
+                                                    .andExpect(status().isNotModified())
+                                                    .andReturn().getResponse();
+
+        // then
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void renderImage_shouldReturnPartialContent_forRangeRequest() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        byte[] imageBytes = IMAGE_TEXT.getBytes();
+
+        when(imageService.findImage(anyString(), any())).thenAnswer(invocation -> Optional.of(getTestImage(imageBytes)));
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(get( TEST_URI ).header("Range", "bytes=5-9"))
+                                                    .andExpect(status().isPartialContent())
+                                                    .andExpect(header().string("Content-Range",
+                                                            "bytes 5-9/" + imageBytes.length))
+                                                    .andReturn().getResponse();
+
+        // then
+        assertEquals("image", response.getContentAsString());
+    }
+
+    @Test
+    public void renderImage_shouldRequestVariant_forSizeParam() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        when(imageService.findImage(anyString(), any()))
+                .thenAnswer(invocation -> Optional.of(getTestImage(IMAGE_TEXT.getBytes())));
+
+        // when
+        mockMvc.perform(get( TEST_URI ).param("size", "thumb"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get( TEST_URI ).param("size", "unknown"))
+                .andExpect(status().isOk());
+
+        // then
+        verify(imageService, times(1)).findImage(RECIPE_ID, ImageSize.THUMB);
+        verify(imageService, times(1)).findImage(RECIPE_ID, ImageSize.ORIGINAL);
+    }
+
+    @Test
+    public void renderImage_shouldBeCachedLongTerm_whenVariantSourceMatches() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        byte[] imageBytes = IMAGE_TEXT.getBytes();
+        Document metadata = new Document("_contentType", "image/jpeg")
+                                    .append(ImageServiceImpl.SOURCE_ID_METADATA, IMAGE_ID)
+                                    .append(ImageServiceImpl.SIZE_METADATA, "thumb");
+        GridFSFile variant = new GridFSFile(new BsonObjectId(new ObjectId()), "thumb.jpg", imageBytes.length, 255,
+                new Date(), metadata);
+
+        when(imageService.findImage(anyString(), any()))
+                .thenReturn(Optional.of(new GridFsResource(variant, new ByteArrayInputStream(imageBytes))));
+
+        // when, then
+        mockMvc.perform(get( TEST_URI ).param("size", "thumb").param("v", IMAGE_ID.toHexString()))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "max-age=31536000, public"));
+    }
+
+    @Test
+    public void renderImage_shouldNotBeCachedLongTerm_whenVariantFallsBackToOriginal() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given: the thumbnail is not generated yet, so the original is served
+        GridFsResource image = getTestImage(IMAGE_TEXT.getBytes());
+        String imageId = image.getGridFSFile().getObjectId().toHexString();
+
+        when(imageService.findImage(anyString(), any())).thenReturn(Optional.of(image));
+
+        // when, then
+        mockMvc.perform(get( TEST_URI ).param("size", "thumb").param("v", imageId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Cache-Control", "no-cache, public"));
+    }
+
+    @Test
+    public void renderImage_shouldReturnNotFound_whenNoImage() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        when(imageService.findImage(anyString(), any())).thenReturn(Optional.empty());
+
+        // when
+        MockHttpServletResponse response = mockMvc.perform(get( TEST_URI ))
+                                                    .andExpect(status().isNotFound())
+                                                    .andReturn().getResponse();
+
+        // then
+        assertEquals(0, response.getContentAsByteArray().length);
+    }
+
+    @Test
+    public void renderImage_shouldThrowException_whenRecipeNotFound() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/recipeimage", RECIPE_ID);
+
+        // given
+        when(imageService.findImage(anyString(), any())).thenThrow(NotFoundException.class);
+
+        // when
+        mockMvc.perform(get( TEST_URI ))
+                .andExpect(status().isNotFound());
+
+        // then
+        verify(imageService, times(1)).findImage(anyString(), any());
+    }
+
+    private static GridFsResource getTestImage(byte[] imageBytes)
+    {
+        Document metadata = new Document("_contentType", "image/png")
+                                    .append(ImageServiceImpl.CONTENT_HASH_METADATA, CONTENT_HASH);
+        GridFSFile file = new GridFSFile(new BsonObjectId(IMAGE_ID), "fake.png", imageBytes.length, 255,
+                new Date(), metadata);
+
+        return new GridFsResource(file, new ByteArrayInputStream(imageBytes));
     }
 }
\ No newline at end of file
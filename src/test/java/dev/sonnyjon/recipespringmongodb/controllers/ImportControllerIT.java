@@ -0,0 +1,80 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.services.ImportReport;
+import dev.sonnyjon.recipespringmongodb.services.RecipeImportService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.InputStream;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+class ImportControllerIT
+{
+    @Mock
+    RecipeImportService importService;
+
+    ImportController controller;
+    MockMvc mockMvc;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        controller = new ImportController(importService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void importRecipes_shouldReturnReport() throws Exception
+    {
+        // given
+        MockMultipartFile file = new MockMultipartFile("file", "recipes.ndjson", "application/x-ndjson",
+                                                       "{\"description\": \"Tacos\"}\n{}".getBytes());
+        when(importService.importRecipes(any(InputStream.class)))
+                .thenReturn(new ImportReport(2, 1, 1, 5, List.of(new ImportReport.RowError(2, "description must not be blank"))));
+
+        // when, then
+        mockMvc.perform(multipart("/admin/import/recipes").file(file))
+               .andExpect(status().isOk())
+               .andExpect(jsonPath("$.imported").value(1))
+               .andExpect(jsonPath("$.rowsPerSecond").value(400.0))
+               .andExpect(jsonPath("$.errors[0].line").value(2))
+               .andExpect(jsonPath("$.errors[0].message").value("description must not be blank"));
+
+        verify(importService, times(1)).importRecipes(any(InputStream.class));
+    }
+
+    @Test
+    void controller_shouldOnlyBeRegistered_whenAdminWebIsEnabled()
+    {
+        // given
+        ApplicationContextRunner runner = new ApplicationContextRunner()
+                .withBean(RecipeImportService.class, () -> importService)
+                .withUserConfiguration(ImportController.class);
+
+        // when, then
+        runner.run(context -> assertThat(context).doesNotHaveBean(ImportController.class));
+        runner.withPropertyValues("recipe.admin.web-enabled=true")
+              .run(context -> assertThat(context).hasSingleBean(ImportController.class));
+    }
+}
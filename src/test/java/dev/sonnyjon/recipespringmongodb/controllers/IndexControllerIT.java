@@ -1,6 +1,7 @@
 package dev.sonnyjon.recipespringmongodb.controllers;
 
-import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
 import dev.sonnyjon.recipespringmongodb.services.RecipeService;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -9,16 +10,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.forwardedUrl;
-import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 /**
  * Created by Sonny on 7/14/2022.
@@ -55,24 +60,58 @@ class IndexControllerIT
         final String expectedUri = "index";
 
         //given
-        Recipe recipe1 = new Recipe();
-        recipe1.setId(RECIPE1_ID);
+        RecipeSummaryDto recipe1 = new RecipeSummaryDto(RECIPE1_ID, "DESC-1", Difficulty.EASY, 5, 10, null);
+        RecipeSummaryDto recipe2 = new RecipeSummaryDto(RECIPE2_ID, "DESC-2", Difficulty.HARD, 15, 20, null);
 
-        Recipe recipe2 = new Recipe();
-        recipe2.setId(RECIPE2_ID);
-
-        Set<Recipe> expectedRecipes = new HashSet<>();
-        expectedRecipes.add(recipe1);
-        expectedRecipes.add(recipe2);
-
-        when(recipeService.getRecipes()).thenReturn(expectedRecipes);
+        when(recipeService.getRecipeSummaries(any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(recipe1, recipe2)));
 
         //when
         mockMvc.perform(get("/"))
                 .andExpect(status().isOk())
+                .andExpect(model().attributeExists("recipes"))
                 .andExpect(forwardedUrl(expectedUri));
 
         //then
-        verify(recipeService, times(1)).getRecipes();
+        verify(recipeService, times(1)).getRecipeSummaries(any(Pageable.class));
+        verify(recipeService, never()).getRecipes();
+    }
+
+    @Test
+    void indexPage_shouldRequestPage_withGivenParams() throws Exception
+    {
+        //given
+        final Pageable expected = PageRequest.of(2, 50, Sort.by(Sort.Direction.DESC, "cookTime").and(Sort.by("id")));
+
+        when(recipeService.getRecipeSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        //when
+        mockMvc.perform(get("/").param("page", "2").param("size", "50").param("sort", "cookTime").param("dir", "desc"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("sort", "cookTime"))
+                .andExpect(model().attribute("dir", "desc"));
+
+        //then
+        verify(recipeService, times(1)).getRecipeSummaries(expected);
+    }
+
+    @Test
+    void indexPage_shouldClampPageSize_andIgnoreUnknownSort() throws Exception
+    {
+        //given
+        when(recipeService.getRecipeSummaries(any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        //when
+        mockMvc.perform(get("/").param("page", "-1").param("size", "100000").param("sort", "image"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("sort", "description"));
+
+        //then
+        verify(recipeService, times(1)).getRecipeSummaries(argThat(pageable ->
+        {
+            assertEquals(0, pageable.getPageNumber());
+            assertEquals(IndexController.MAX_PAGE_SIZE, pageable.getPageSize());
+            return true;
+        }));
     }
 }
\ No newline at end of file
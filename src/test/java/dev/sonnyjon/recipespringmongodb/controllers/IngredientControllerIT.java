@@ -14,6 +14,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -48,7 +49,9 @@ class IngredientControllerIT
     {
         mocks = MockitoAnnotations.openMocks(this);
         controller = new IngredientController(ingredientService, recipeService, unitOfMeasureService);
-        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                                .setControllerAdvice(new ControllerExceptionHandler())
+                                .build();
     }
 
     @AfterEach
@@ -285,6 +288,27 @@ class IngredientControllerIT
         verify(ingredientService, times(1)).saveIngredient(anyString(), any());
     }
 
+    @Test
+    public void saveOrUpdate_shouldReturnConflict_whenRetriesExhausted() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = String.format("/recipe/%s/ingredient", RECIPE_ID);
+
+        // given
+        when(ingredientService.saveIngredient(anyString(), any()))
+                .thenThrow( new OptimisticLockingFailureException("conflict") );
+
+        // when, then
+        mockMvc.perform(post( TEST_URI )
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("id", "INGRED-1")
+                        .param("description", "My ingredient")
+                        .param("amount", "3")
+                )
+                .andExpect(status().isConflict())
+                .andExpect(view().name("409error"));
+    }
+
     @Test
     public void deleteIngredient_shouldReturnListUri_afterDelete() throws Exception
     {
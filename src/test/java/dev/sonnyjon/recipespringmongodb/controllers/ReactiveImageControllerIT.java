@@ -0,0 +1,98 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.services.ImageServiceImpl;
+import dev.sonnyjon.recipespringmongodb.services.ImageSize;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveImageService;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsResource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Date;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReactiveImageControllerIT
+{
+    static final String RECIPE_ID = "RECIPE-1";
+    static final ObjectId IMAGE_ID = new ObjectId();
+    static final byte[] IMAGE_BYTES = "fake image text".getBytes();
+
+    @Mock
+    ReactiveImageService imageService;
+    @Mock
+    ReactiveRecipeService recipeService;
+
+    WebTestClient webTestClient;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToController(new ReactiveImageController(imageService, recipeService)).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void renderImage_shouldBeCachedLongTerm_whenVariantSourceMatches()
+    {
+        // given
+        Document metadata = new Document(ReactiveImageController.CONTENT_TYPE_METADATA, "image/jpeg")
+                                    .append(ImageServiceImpl.SOURCE_ID_METADATA, IMAGE_ID)
+                                    .append(ImageServiceImpl.SIZE_METADATA, "thumb");
+        ReactiveGridFsResource image = getTestImage(new ObjectId(), metadata);
+        when(imageService.findImage(anyString(), eq(ImageSize.THUMB))).thenReturn(Mono.just(image));
+
+        // when, then
+        webTestClient.get().uri("/recipe/{id}/recipeimage?size=thumb&v={v}", RECIPE_ID, IMAGE_ID.toHexString())
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectHeader().valueEquals("Cache-Control", "max-age=31536000, public")
+                     .expectBody(byte[].class).isEqualTo(IMAGE_BYTES);
+    }
+
+    @Test
+    void renderImage_shouldNotBeCachedLongTerm_whenVariantFallsBackToOriginal()
+    {
+        // given: the thumbnail is not generated yet, so the original is served
+        ReactiveGridFsResource image = getTestImage(IMAGE_ID, new Document(ReactiveImageController.CONTENT_TYPE_METADATA, "image/png"));
+        when(imageService.findImage(anyString(), eq(ImageSize.THUMB))).thenReturn(Mono.just(image));
+
+        // when, then
+        webTestClient.get().uri("/recipe/{id}/recipeimage?size=thumb&v={v}", RECIPE_ID, IMAGE_ID.toHexString())
+                     .exchange()
+                     .expectStatus().isOk()
+                     .expectHeader().valueEquals("Cache-Control", "no-cache, public");
+    }
+
+    //==================================================================================================================
+    private static ReactiveGridFsResource getTestImage(ObjectId fileId, Document metadata)
+    {
+        GridFSFile file = new GridFSFile(new BsonObjectId(fileId), "fake.jpg", IMAGE_BYTES.length, 255, new Date(), metadata);
+
+        ReactiveGridFsResource image = mock(ReactiveGridFsResource.class);
+        when(image.getGridFSFile()).thenReturn(Mono.just(file));
+        when(image.getDownloadStream()).thenAnswer(invocation -> Flux.just(DefaultDataBufferFactory.sharedInstance.wrap(IMAGE_BYTES)));
+
+        return image;
+    }
+}
@@ -0,0 +1,111 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.context.support.StaticApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.thymeleaf.spring5.SpringWebFluxTemplateEngine;
+import org.thymeleaf.spring5.view.reactive.ThymeleafReactiveViewResolver;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Renders the real index template, so the streamed rows and the page metadata are checked together.
+ */
+class ReactiveIndexControllerIT
+{
+    @Mock
+    ReactiveRecipeService recipeService;
+
+    WebTestClient webTestClient;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToController(new ReactiveIndexController(recipeService))
+                                     .viewResolvers(registry -> registry.viewResolver(thymeleafViewResolver()))
+                                     .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void indexPage_shouldStreamRows_andPaginate()
+    {
+        // given
+        RecipeSummaryDto recipe1 = new RecipeSummaryDto("RECIPE-1", "DESC-1", Difficulty.EASY, 5, 10, null);
+        RecipeSummaryDto recipe2 = new RecipeSummaryDto("RECIPE-2", "DESC-2", Difficulty.HARD, 15, 20, "IMAGE-2");
+
+        when(recipeService.getRecipeSummaries(any(Pageable.class))).thenReturn(Flux.just(recipe1, recipe2));
+        when(recipeService.countRecipes()).thenReturn(Mono.just(42L));
+
+        // when
+        String body = webTestClient.get().uri("/?page=1&size=2").exchange()
+                                   .expectStatus().isOk()
+                                   .expectBody(String.class).returnResult().getResponseBody();
+
+        // then
+        assertTrue(body.contains("DESC-1") && body.contains("DESC-2"));
+        assertTrue(body.contains("/recipe/RECIPE-2/recipeimage?size=thumb&amp;v=IMAGE-2"));
+        assertTrue(body.contains("page=2"), "next page link");
+        verify(recipeService, times(1)).getRecipeSummaries(PageRequest.of(1, 2, Sort.by("description").and(Sort.by("id"))));
+    }
+
+    @Test
+    void indexPage_shouldOmitTable_pastLastPage()
+    {
+        // given
+        when(recipeService.getRecipeSummaries(any(Pageable.class))).thenReturn(Flux.empty());
+        when(recipeService.countRecipes()).thenReturn(Mono.just(0L));
+
+        // when
+        String body = webTestClient.get().uri("/").exchange()
+                                   .expectStatus().isOk()
+                                   .expectBody(String.class).returnResult().getResponseBody();
+
+        // then
+        assertTrue(body.contains("My Recipes!"));
+        assertTrue(!body.contains("<table"));
+    }
+
+    //==================================================================================================================
+    static ThymeleafReactiveViewResolver thymeleafViewResolver()
+    {
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+
+        SpringWebFluxTemplateEngine templateEngine = new SpringWebFluxTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+
+        // The resolver creates its views through an application context
+        StaticApplicationContext context = new StaticApplicationContext();
+        context.refresh();
+
+        ThymeleafReactiveViewResolver viewResolver = new ThymeleafReactiveViewResolver();
+        viewResolver.setApplicationContext(context);
+        viewResolver.setTemplateEngine(templateEngine);
+
+        return viewResolver;
+    }
+}
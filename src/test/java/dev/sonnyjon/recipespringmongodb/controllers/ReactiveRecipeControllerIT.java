@@ -0,0 +1,104 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.services.ReactiveRecipeService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.BodyInserters;
+import reactor.core.publisher.Mono;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class ReactiveRecipeControllerIT
+{
+    public static final String RECIPE_ID = "RECIPE-1";
+
+    @Mock
+    ReactiveRecipeService recipeService;
+
+    WebTestClient webTestClient;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        webTestClient = WebTestClient.bindToController(new ReactiveRecipeController(recipeService))
+                                     .controllerAdvice(new ReactiveControllerExceptionHandler())
+                                     .viewResolvers(registry -> registry.viewResolver(ReactiveIndexControllerIT.thymeleafViewResolver()))
+                                     .build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void showById_shouldRender404_forUnknownRecipe()
+    {
+        // given
+        when(recipeService.findDtoById(anyString())).thenReturn(Mono.error(new NotFoundException("Recipe Not Found. For ID value: X")));
+
+        // when
+        String body = webTestClient.get().uri("/recipe/X/show").exchange()
+                                   .expectStatus().isNotFound()
+                                   .expectBody(String.class).returnResult().getResponseBody();
+
+        // then
+        assertTrue(body.contains("Recipe Not Found. For ID value: X"));
+    }
+
+    @Test
+    void saveOrUpdate_shouldRedirect_toSavedRecipe()
+    {
+        // given
+        RecipeDto saved = new RecipeDto();
+        saved.setId(RECIPE_ID);
+        when(recipeService.saveRecipe(any(RecipeDto.class))).thenReturn(Mono.just(saved));
+
+        // when
+        webTestClient.post().uri("/recipe")
+                     .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                     .body(BodyInserters.fromFormData("description", "Tacos").with("directions", "Cook"))
+                     .exchange()
+                     // then
+                     .expectStatus().is3xxRedirection()
+                     .expectHeader().location("/recipe/" + RECIPE_ID + "/show");
+    }
+
+    @Test
+    void saveOrUpdate_shouldRerenderForm_withCurrentVersion_onConflict()
+    {
+        // given
+        RecipeDto current = new RecipeDto();
+        current.setId(RECIPE_ID);
+        current.setVersion(7L);
+        when(recipeService.saveRecipe(any(RecipeDto.class))).thenReturn(Mono.error(new OptimisticLockingFailureException("stale")));
+        when(recipeService.findDtoById(RECIPE_ID)).thenReturn(Mono.just(current));
+
+        // when
+        String body = webTestClient.post().uri("/recipe")
+                                   .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                                   .body(BodyInserters.fromFormData("id", RECIPE_ID).with("version", "3")
+                                                      .with("description", "Tacos").with("directions", "Cook"))
+                                   .exchange()
+                                   .expectStatus().isOk()
+                                   .expectBody(String.class).returnResult().getResponseBody();
+
+        // then
+        assertTrue(body.contains("This recipe was changed by someone else."));
+        assertTrue(body.contains("value=\"7\""), "current version");
+    }
+}
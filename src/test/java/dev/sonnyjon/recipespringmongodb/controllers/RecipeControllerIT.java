@@ -10,10 +10,13 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 
+import static org.hamcrest.Matchers.hasProperty;
+import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -169,6 +172,35 @@ public class RecipeControllerIT
         // then
     }
 
+    @Test
+    public void saveOrUpdate_shouldRedisplayForm_withCurrentVersion_whenEditConflicts() throws Exception
+    {
+        final String RECIPE_ID = "RECIPE-1";
+        final String TEST_URI = "/recipe";
+        final String EXPECTED_RETURN = "recipe/recipeform";
+
+        // given
+        RecipeDto currentRecipe = new RecipeDto();
+        currentRecipe.setId( RECIPE_ID );
+        currentRecipe.setVersion( 4L );
+
+        when(recipeService.saveRecipe(any())).thenThrow(new OptimisticLockingFailureException("conflict"));
+        when(recipeService.findDtoById(anyString())).thenReturn(currentRecipe);
+
+        // when, then
+        mockMvc.perform(post( TEST_URI )
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED)
+                        .param("id", RECIPE_ID)
+                        .param("version", "3")
+                        .param("description", "My edited recipe")
+                )
+                .andExpect(status().isOk())
+                .andExpect(model().attributeHasErrors("recipe"))
+                .andExpect(model().attribute("recipe", hasProperty("version", is(4L))))
+                .andExpect(model().attribute("recipe", hasProperty("description", is("My edited recipe"))))
+                .andExpect(forwardedUrl( EXPECTED_RETURN ));
+    }
+
     // TODO Form validation tests
 
 //    @Test
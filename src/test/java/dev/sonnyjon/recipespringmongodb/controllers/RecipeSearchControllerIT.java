@@ -0,0 +1,122 @@
+package dev.sonnyjon.recipespringmongodb.controllers;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.services.RecipeSearchService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+class RecipeSearchControllerIT
+{
+    @Mock
+    RecipeSearchService searchService;
+
+    RecipeSearchController controller;
+    MockMvc mockMvc;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        controller = new RecipeSearchController(searchService);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller).build();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void search_shouldReturnSearchUri_withResults() throws Exception
+    {
+        //given
+        RecipeSummaryDto recipe = new RecipeSummaryDto("RECIPE-1", "Spicy Chicken Tacos", Difficulty.MODERATE, 20, 15, null);
+        when(searchService.search(eq("tacos"), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(recipe)));
+
+        //when
+        mockMvc.perform(get("/recipe/search").param("q", "tacos").param("page", "2"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("q", "tacos"))
+                .andExpect(model().attributeExists("recipes"))
+                .andExpect(forwardedUrl("recipe/search"));
+
+        //then
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(searchService, times(1)).search(eq("tacos"), pageableCaptor.capture());
+        assertEquals(2, pageableCaptor.getValue().getPageNumber());
+        assertEquals(Integer.parseInt(IndexController.DEFAULT_PAGE_SIZE), pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void search_shouldClampPageSize() throws Exception
+    {
+        //given
+        when(searchService.search(any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        //when
+        mockMvc.perform(get("/recipe/search").param("q", "tacos").param("size", "10000").param("page", "-1"))
+                .andExpect(status().isOk());
+
+        //then
+        ArgumentCaptor<Pageable> pageableCaptor = ArgumentCaptor.forClass(Pageable.class);
+        verify(searchService).search(eq("tacos"), pageableCaptor.capture());
+        assertEquals(0, pageableCaptor.getValue().getPageNumber());
+        assertEquals(IndexController.MAX_PAGE_SIZE, pageableCaptor.getValue().getPageSize());
+    }
+
+    @Test
+    void searchByIngredients_shouldMatchAll_byDefault() throws Exception
+    {
+        //given
+        when(searchService.searchByIngredients(any(), anyBoolean(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        //when
+        mockMvc.perform(get("/recipe/search/ingredients").param("q", "avocado, lime"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("match", RecipeSearchController.MATCH_ALL))
+                .andExpect(model().attribute("searchPath", "/recipe/search/ingredients"))
+                .andExpect(forwardedUrl("recipe/search"));
+
+        //then
+        verify(searchService).searchByIngredients(eq("avocado, lime"), eq(true), any(Pageable.class));
+    }
+
+    @Test
+    void searchByIngredients_shouldMatchAny_whenRequested() throws Exception
+    {
+        //given
+        when(searchService.searchByIngredients(any(), anyBoolean(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of()));
+
+        //when
+        mockMvc.perform(get("/recipe/search/ingredients").param("q", "lime").param("match", "any"))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("match", RecipeSearchController.MATCH_ANY));
+
+        //then
+        verify(searchService).searchByIngredients(eq("lime"), eq(false), any(Pageable.class));
+    }
+}
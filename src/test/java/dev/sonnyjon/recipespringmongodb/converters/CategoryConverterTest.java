@@ -21,7 +21,7 @@ class CategoryConverterTest
     @BeforeEach
     void setUp()
     {
-        converter = new CategoryConverter();
+        converter = new CategoryConverterImpl();
     }
 
     @Test
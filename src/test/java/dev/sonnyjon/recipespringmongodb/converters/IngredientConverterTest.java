@@ -28,7 +28,7 @@ class IngredientConverterTest
     @BeforeEach
     void setUp()
     {
-        converter = new IngredientConverter();
+        converter = new IngredientConverterImpl(new UnitOfMeasureConverterImpl());
     }
 
     @Test
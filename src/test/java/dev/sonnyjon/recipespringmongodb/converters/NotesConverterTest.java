@@ -21,7 +21,7 @@ class NotesConverterTest
     @BeforeEach
     void setUp()
     {
-        converter = new NotesConverter();
+        converter = new NotesConverterImpl();
     }
 
     @Test
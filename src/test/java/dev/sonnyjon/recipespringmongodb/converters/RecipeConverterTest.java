@@ -40,7 +40,9 @@ class RecipeConverterTest
     @BeforeEach
     void setUp()
     {
-        converter = new RecipeConverter();
+        converter = new RecipeConverterImpl(new CategoryConverterImpl(),
+                                            new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                            new NotesConverterImpl());
     }
 
     @Test
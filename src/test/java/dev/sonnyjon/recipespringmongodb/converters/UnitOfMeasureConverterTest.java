@@ -23,7 +23,7 @@ class UnitOfMeasureConverterTest
     @BeforeEach
     void setUp()
     {
-        converter = new UnitOfMeasureConverter();
+        converter = new UnitOfMeasureConverterImpl();
     }
 
     @Test
@@ -0,0 +1,143 @@
+package dev.sonnyjon.recipespringmongodb.loader;
+
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.bulk.BulkWriteUpsert;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReferenceDataCacheListener;
+import org.bson.BsonObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.boot.DefaultApplicationArguments;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeLoaderTest
+{
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    BulkOperations bulkOperations;
+    @Mock
+    RecipeRepository recipeRepository;
+    @Mock
+    ReferenceDataCacheListener cacheListener;
+
+    RecipeLoader loader;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        loader = new RecipeLoader(mongoTemplate, recipeRepository, cacheListener);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void run_shouldOnlyCount_whenBootstrapDataExists()
+    {
+        // given
+        when(mongoTemplate.count(any(Query.class), eq(Category.class))).thenReturn((long) RecipeLoader.CATEGORIES.size());
+        when(mongoTemplate.count(any(Query.class), eq(UnitOfMeasure.class))).thenReturn((long) RecipeLoader.UOMS.size());
+        when(mongoTemplate.exists(any(Query.class), eq(Recipe.class))).thenReturn(true);
+
+        // when
+        loader.run(new DefaultApplicationArguments());
+
+        // then
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), any(Class.class));
+        verify(mongoTemplate, never()).find(any(Query.class), any(Class.class));
+        verifyNoInteractions(recipeRepository, cacheListener);
+    }
+
+    @Test
+    void run_shouldUpsertReferenceData_andLoadRecipes_whenDatabaseIsEmpty()
+    {
+        // given
+        when(mongoTemplate.bulkOps(eq(BulkOperations.BulkMode.UNORDERED), any(Class.class))).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0,
+                List.of(new BulkWriteUpsert(0, new BsonObjectId())), List.of()));
+        when(mongoTemplate.find(any(Query.class), eq(UnitOfMeasure.class)))
+                .thenReturn(RecipeLoader.UOMS.stream().map(RecipeLoaderTest::getTestUom).collect(Collectors.toList()));
+        when(mongoTemplate.find(any(Query.class), eq(Category.class)))
+                .thenReturn(RecipeLoader.CATEGORIES.stream().map(RecipeLoaderTest::getTestCategory).collect(Collectors.toList()));
+
+        // when
+        loader.run(new DefaultApplicationArguments());
+
+        // then
+        verify(bulkOperations, times(RecipeLoader.CATEGORIES.size() + RecipeLoader.UOMS.size()))
+                .upsert(any(Query.class), any(Update.class));
+        verify(bulkOperations, times(2)).execute();
+        verify(cacheListener, times(1)).evict(Category.class);
+        verify(cacheListener, times(1)).evict(UnitOfMeasure.class);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<Recipe>> recipes = ArgumentCaptor.forClass(List.class);
+        verify(recipeRepository, times(1)).saveAll(recipes.capture());
+        assertEquals(2, recipes.getValue().size());
+        recipes.getValue().forEach(recipe -> recipe.getIngredients()
+                                                   .forEach(ingredient -> assertNotNull(ingredient.getUom().getId())));
+    }
+
+    @Test
+    void run_shouldNotReloadRecipes_whenRecipesExist()
+    {
+        // given
+        when(mongoTemplate.count(any(Query.class), eq(Category.class))).thenReturn(0L);
+        when(mongoTemplate.count(any(Query.class), eq(UnitOfMeasure.class))).thenReturn((long) RecipeLoader.UOMS.size());
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Category.class)).thenReturn(bulkOperations);
+        when(bulkOperations.execute()).thenReturn(BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of()));
+        when(mongoTemplate.exists(any(Query.class), eq(Recipe.class))).thenReturn(true);
+
+        // when
+        loader.run(new DefaultApplicationArguments());
+
+        // then
+        verify(bulkOperations, times(1)).execute();
+        verify(recipeRepository, never()).saveAll(anyList());
+        verifyNoInteractions(cacheListener);
+    }
+
+    //==================================================================================================================
+    private static UnitOfMeasure getTestUom(String description)
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId("UOM-" + description);
+        uom.setDescription(description);
+
+        return uom;
+    }
+
+    private static Category getTestCategory(String description)
+    {
+        Category category = new Category();
+        category.setId("CAT-" + description);
+        category.setDescription(description);
+
+        return category;
+    }
+}
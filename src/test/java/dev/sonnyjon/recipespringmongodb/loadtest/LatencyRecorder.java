@@ -0,0 +1,94 @@
+package dev.sonnyjon.recipespringmongodb.loadtest;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Response times of one endpoint, kept in full so percentiles are exact. Thread-safe.
+ */
+class LatencyRecorder
+{
+    private final String endpoint;
+    private long[] nanos = new long[1024];
+    private int count;
+    private int errors;
+
+    LatencyRecorder(String endpoint)
+    {
+        this.endpoint = endpoint;
+    }
+
+    synchronized void record(long elapsedNanos, boolean success)
+    {
+        if (count == nanos.length) nanos = Arrays.copyOf(nanos, count * 2);
+        nanos[count++] = elapsedNanos;
+        if (!success) errors++;
+    }
+
+    /**
+     * @param seconds length of the measured window, for the throughput.
+     * @return counts, throughput and latency percentiles in milliseconds.
+     */
+    synchronized Summary summarize(double seconds)
+    {
+        long[] sorted = Arrays.copyOf(nanos, count);
+        Arrays.sort(sorted);
+
+        return new Summary(endpoint, count, errors, count / seconds,
+                           percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                           count == 0 ? 0 : sorted[count - 1] / 1e6);
+    }
+
+    //==================================================================================================================
+    static double percentile(long[] sorted, double percent)
+    {
+        if (sorted.length == 0) return 0;
+
+        // Nearest-rank percentile
+        int rank = (int) Math.ceil(percent / 100 * sorted.length);
+        return sorted[Math.max(rank, 1) - 1] / 1e6;
+    }
+
+    static final class Summary
+    {
+        final String endpoint;
+        final int requests;
+        final int errors;
+        final double throughput;
+        final double p50;
+        final double p95;
+        final double p99;
+        final double max;
+
+        Summary(String endpoint, int requests, int errors, double throughput, double p50, double p95, double p99, double max)
+        {
+            this.endpoint = endpoint;
+            this.requests = requests;
+            this.errors = errors;
+            this.throughput = throughput;
+            this.p50 = p50;
+            this.p95 = p95;
+            this.p99 = p99;
+            this.max = max;
+        }
+
+        String toRow()
+        {
+            return String.format(Locale.ROOT, "%-16s %9d %7d %10.1f %9.2f %9.2f %9.2f %9.2f",
+                                 endpoint, requests, errors, throughput, p50, p95, p99, max);
+        }
+
+        String toJson()
+        {
+            return String.format(Locale.ROOT, "{\"endpoint\": \"%s\", \"requests\": %d, \"errors\": %d, \"throughput\": %.2f, "
+                                              + "\"p50\": %.3f, \"p95\": %.3f, \"p99\": %.3f, \"max\": %.3f}",
+                                 endpoint, requests, errors, throughput, p50, p95, p99, max);
+        }
+
+        static String header()
+        {
+            return String.format(Locale.ROOT, "%-16s %9s %7s %10s %9s %9s %9s %9s",
+                                 "endpoint", "requests", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package dev.sonnyjon.recipespringmongodb.loadtest;
+
+import dev.sonnyjon.recipespringmongodb.config.ImageConfig;
+import dev.sonnyjon.recipespringmongodb.config.VirtualThreads;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.services.ImageService;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * End-to-end load test: boots the application on a random port against embedded MongoDB, seeds
+ * a {@link SyntheticDataset}, then has <code>load.clients</code> concurrent clients request the
+ * index, show, ingredient-edit and image endpoints in a weighted mix for
+ * <code>load.duration</code> seconds after <code>load.warmup</code> seconds of warm-up.
+ * Reports throughput and p50/p95/p99 latency per endpoint, on stdout and as JSON in
+ * <code>load.report</code>.
+ * <p>
+ * <code>load.virtual-threads=true</code> sets <code>recipe.virtual-threads.enabled</code>, so
+ * running the same load with and without it compares Tomcat's thread pool with virtual request
+ * threads; the latter needs a JDK 21 runtime. Tomcat then accepts a connection per client, and
+ * the clients run on virtual threads where available, so that neither caps the concurrency.
+ * <p>
+ * Tagged <code>load</code>, so it only runs with <code>./gradlew loadTest</code>, e.g.
+ * <code>./gradlew loadTest -Dload.clients=64 -Dload.recipes=10000</code> or
+ * <code>./gradlew loadTest -Dload.clients=10000 -Dload.virtual-threads=true</code>.
+ */
+@Slf4j
+@Tag("load")
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+                properties = {"spring.data.mongodb.port=0", "spring.data.mongodb.database=recipes_load"})
+class RecipeLoadTest
+{
+    static final int CLIENTS = Integer.getInteger("load.clients", 32);
+    static final int WARMUP_SECONDS = Integer.getInteger("load.warmup", 5);
+    static final int DURATION_SECONDS = Integer.getInteger("load.duration", 30);
+    static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+    static final boolean VIRTUAL_THREADS = Boolean.getBoolean("load.virtual-threads");
+    static final String REPORT = System.getProperty("load.report", "build/reports/load/results-"
+                                                                   + (VIRTUAL_THREADS ? "virtual" : "platform") + "-"
+                                                                   + CLIENTS + ".json");
+
+    // Relative share of each endpoint in the request mix
+    static final Map<String, Integer> MIX = Map.of("index", 4, "show", 3, "image", 2, "ingredient-edit", 1);
+
+    final SyntheticDataset dataset = new SyntheticDataset(Integer.getInteger("load.recipes", 1000),
+                                                          Integer.getInteger("load.ingredients", 10),
+                                                          Integer.getInteger("load.images", 100),
+                                                          Integer.getInteger("load.image-size", 1024));
+
+    @LocalServerPort
+    int port;
+    @Autowired
+    MongoTemplate mongoTemplate;
+    @Autowired
+    ImageService imageService;
+    @Autowired
+    @Qualifier(ImageConfig.IMAGE_TASK_EXECUTOR)
+    ThreadPoolTaskExecutor variantExecutor;
+
+    HttpClient httpClient;
+    ExecutorService clients;
+    List<String> uomIds;
+    Map<String, LatencyRecorder> recorders;
+
+    @DynamicPropertySource
+    static void requestThreads(DynamicPropertyRegistry registry)
+    {
+        registry.add("recipe.virtual-threads.enabled", () -> VIRTUAL_THREADS);
+        registry.add("server.tomcat.max-connections", () -> Math.max(CLIENTS, 8192));
+    }
+
+    @BeforeEach
+    void setUp() throws InterruptedException
+    {
+        Optional<ExecutorService> virtualClients = VirtualThreads.newPerTaskExecutor("load-client-");
+        assertFalse(VIRTUAL_THREADS && virtualClients.isEmpty(), "load.virtual-threads needs a JDK 21 runtime");
+        clients = virtualClients.orElseGet(() -> Executors.newFixedThreadPool(CLIENTS));
+
+        long start = System.nanoTime();
+        dataset.seed(mongoTemplate, imageService);
+        while (variantExecutor.getActiveCount() > 0 || variantExecutor.getThreadPoolExecutor().getQueue().size() > 0)
+        {
+            Thread.sleep(100);
+        }
+        log.info("Seeded " + dataset.recipes + " recipes in " + (System.nanoTime() - start) / 1_000_000 + " ms");
+
+        httpClient = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        uomIds = mongoTemplate.findAll(UnitOfMeasure.class).stream().map(UnitOfMeasure::getId).collect(Collectors.toList());
+        recorders = new LinkedHashMap<>();
+        MIX.keySet().stream().sorted().forEach(endpoint -> recorders.put(endpoint, new LatencyRecorder(endpoint)));
+    }
+
+    @Test
+    void endpoints_underConcurrentLoad() throws Exception
+    {
+        long measureFrom = System.nanoTime() + WARMUP_SECONDS * 1_000_000_000L;
+        long measureUntil = measureFrom + DURATION_SECONDS * 1_000_000_000L;
+
+        List<Future<?>> running = new ArrayList<>();
+        for (int i = 0; i < CLIENTS; i++) running.add(clients.submit(() -> runClient(measureFrom, measureUntil)));
+        for (Future<?> client : running) client.get();
+        clients.shutdown();
+
+        List<LatencyRecorder.Summary> summaries = recorders.values().stream()
+                                                           .map(recorder -> recorder.summarize(DURATION_SECONDS))
+                                                           .collect(Collectors.toList());
+        report(summaries);
+
+        for (LatencyRecorder.Summary summary : summaries)
+        {
+            assertTrue(summary.requests > 0, summary.endpoint + " was not requested");
+            assertTrue(summary.errors <= summary.requests * MAX_ERROR_RATE, summary.endpoint + " error rate: " + summary.toRow());
+        }
+    }
+
+    //==================================================================================================================
+    private Void runClient(long measureFrom, long measureUntil) throws InterruptedException
+    {
+        int totalWeight = MIX.values().stream().mapToInt(Integer::intValue).sum();
+
+        for (long now = System.nanoTime(); now < measureUntil; now = System.nanoTime())
+        {
+            int pick = ThreadLocalRandom.current().nextInt(totalWeight);
+            String endpoint = null;
+            for (Map.Entry<String, Integer> entry : MIX.entrySet())
+            {
+                endpoint = entry.getKey();
+                if ((pick -= entry.getValue()) < 0) break;
+            }
+
+            long start = System.nanoTime();
+            boolean success;
+            try {
+                int status = httpClient.send(newRequest(endpoint), HttpResponse.BodyHandlers.discarding()).statusCode();
+                success = status < 400;
+            }
+            catch (IOException e)
+            {
+                success = false;
+            }
+            long end = System.nanoTime();
+
+            if (start >= measureFrom) recorders.get(endpoint).record(end - start, success);
+        }
+
+        return null;
+    }
+
+    private HttpRequest newRequest(String endpoint)
+    {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int recipe = random.nextInt(dataset.recipes);
+
+        switch (endpoint)
+        {
+            case "index":
+                return get("/?page=" + random.nextInt(Math.max(dataset.recipes / 20, 1)));
+            case "show":
+                return get("/recipe/" + SyntheticDataset.recipeId(recipe) + "/show");
+            case "image":
+                return get("/recipe/" + SyntheticDataset.recipeId(random.nextInt(Math.max(dataset.images, 1)))
+                           + "/recipeimage?size=" + (random.nextBoolean() ? "thumb" : "original"));
+            default:
+                int ingredient = random.nextInt(dataset.ingredients);
+                String form = "id=" + SyntheticDataset.ingredientId(recipe, ingredient)
+                              + "&description=" + URLEncoder.encode("Edited " + random.nextInt(100), StandardCharsets.UTF_8)
+                              + "&amount=" + (1 + random.nextInt(4))
+                              + (uomIds.isEmpty() ? "" : "&uom.id=" + uomIds.get(random.nextInt(uomIds.size())));
+
+                return HttpRequest.newBuilder(uri("/recipe/" + SyntheticDataset.recipeId(recipe) + "/ingredient"))
+                                  .header("Content-Type", "application/x-www-form-urlencoded")
+                                  .POST(HttpRequest.BodyPublishers.ofString(form))
+                                  .build();
+        }
+    }
+
+    private HttpRequest get(String path)
+    {
+        return HttpRequest.newBuilder(uri(path)).GET().build();
+    }
+
+    private URI uri(String path)
+    {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private void report(List<LatencyRecorder.Summary> summaries) throws IOException
+    {
+        StringBuilder table = new StringBuilder("\n")
+                .append(CLIENTS).append(" clients, ").append(DURATION_SECONDS).append(" s, ")
+                .append(VIRTUAL_THREADS ? "virtual request threads, " : "Tomcat request thread pool, ")
+                .append(dataset.recipes).append(" recipes x ").append(dataset.ingredients).append(" ingredients, ")
+                .append(dataset.images).append(" images of ").append(dataset.imageSize).append(" px\n")
+                .append(LatencyRecorder.Summary.header()).append('\n');
+        summaries.forEach(summary -> table.append(summary.toRow()).append('\n'));
+        log.info(table.toString());
+
+        Path report = Path.of(REPORT);
+        if (report.getParent() != null) Files.createDirectories(report.getParent());
+        Files.writeString(report, summaries.stream()
+                                           .map(LatencyRecorder.Summary::toJson)
+                                           .collect(Collectors.joining(",\n  ", "[\n  ", "\n]\n")));
+    }
+}
@@ -0,0 +1,125 @@
+package dev.sonnyjon.recipespringmongodb.loadtest;
+
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.services.ImageService;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic recipes for the load test: <code>recipes</code> recipes with
+ * <code>ingredients</code> ingredients each, ids <code>LOAD-{n}</code> and
+ * <code>LOAD-{n}-{m}</code>. The first <code>images</code> recipes get a JPEG of
+ * <code>imageSize</code> pixels square, uploaded through {@link ImageService} so the size
+ * variants are generated as in production.
+ */
+final class SyntheticDataset
+{
+    private static final int BATCH_SIZE = 1000;
+
+    final int recipes;
+    final int ingredients;
+    final int images;
+    final int imageSize;
+
+    SyntheticDataset(int recipes, int ingredients, int images, int imageSize)
+    {
+        this.recipes = recipes;
+        this.ingredients = ingredients;
+        this.images = Math.min(images, recipes);
+        this.imageSize = imageSize;
+    }
+
+    static String recipeId(int recipe)
+    {
+        return "LOAD-" + recipe;
+    }
+
+    static String ingredientId(int recipe, int ingredient)
+    {
+        return recipeId(recipe) + "-" + ingredient;
+    }
+
+    void seed(MongoTemplate mongoTemplate, ImageService imageService)
+    {
+        Random random = new Random(42);
+        List<UnitOfMeasure> uoms = mongoTemplate.findAll(UnitOfMeasure.class);
+        List<Category> categories = mongoTemplate.findAll(Category.class);
+        List<Recipe> batch = new ArrayList<>(BATCH_SIZE);
+
+        for (int i = 0; i < recipes; i++)
+        {
+            batch.add(newRecipe(i, random, uoms, categories));
+
+            if (batch.size() == BATCH_SIZE || i == recipes - 1)
+            {
+                mongoTemplate.insert(batch, Recipe.class);
+                batch = new ArrayList<>(BATCH_SIZE);
+            }
+        }
+
+        byte[] jpeg = newJpeg(random);
+        for (int i = 0; i < images; i++)
+        {
+            imageService.saveImageFile(recipeId(i), new MockMultipartFile("imagefile", "load.jpg", "image/jpeg", jpeg));
+        }
+    }
+
+    //==================================================================================================================
+    private Recipe newRecipe(int index, Random random, List<UnitOfMeasure> uoms, List<Category> categories)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setId(recipeId(index));
+        recipe.setVersion(0L);
+        recipe.setDescription("Load test recipe " + index);
+        recipe.setPrepTime(5 + random.nextInt(40));
+        recipe.setCookTime(random.nextInt(120));
+        recipe.setServings(1 + random.nextInt(8));
+        recipe.setDifficulty(Difficulty.values()[random.nextInt(Difficulty.values().length)]);
+        recipe.setDirections("Mix everything and cook until done.");
+
+        for (int i = 0; i < ingredients; i++)
+        {
+            Ingredient ingredient = new Ingredient("Ingredient " + random.nextInt(500), new BigDecimal(1 + random.nextInt(4)),
+                                                   uoms.isEmpty() ? null : uoms.get(random.nextInt(uoms.size())));
+            ingredient.setId(ingredientId(index, i));
+            recipe.addIngredient(ingredient);
+        }
+        if (!categories.isEmpty()) recipe.getCategories().add(categories.get(random.nextInt(categories.size())));
+
+        return recipe;
+    }
+
+    private byte[] newJpeg(Random random)
+    {
+        // Noise, so the JPEG is about as large as a photo of the same size
+        BufferedImage image = new BufferedImage(imageSize, imageSize, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < imageSize; y++)
+        {
+            for (int x = 0; x < imageSize; x++) image.setRGB(x, y, random.nextInt(0x1000000));
+        }
+
+        try (ByteArrayOutputStream out = new ByteArrayOutputStream())
+        {
+            ImageIO.write(image, "jpg", out);
+            return out.toByteArray();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class IndexInitializerTest
+{
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    IndexOperations indexOps;
+
+    List<String> existing;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        existing = new ArrayList<>();
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        mappingContext.setInitialEntitySet(Set.of(Recipe.class, UnitOfMeasure.class, Category.class));
+        mappingContext.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext));
+        when(mongoTemplate.indexOps(anyString())).thenReturn(indexOps);
+        when(indexOps.getIndexInfo()).thenAnswer(invocation -> existing.stream()
+                .map(name -> new IndexInfo(List.of(), name, false, false, ""))
+                .collect(Collectors.toList()));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void declaredIndexes_shouldCover_queryPaths_only()
+    {
+        // given
+        IndexInitializer initializer = new IndexInitializer(mongoTemplate, true);
+
+        // when
+        Map<String, List<IndexDefinition>> indexes = initializer.declaredIndexes();
+
+        // then
+        assertEquals(Set.of("ingredients_id", "ingredients_uom_id", "categories_id", "description_id",
+                            "difficulty_id", "prepTime_id", "cookTime_id", "Recipe_TextIndex"),
+                     namesOf(indexes.get("recipe")));
+        assertEquals(Set.of("description"), namesOf(indexes.get("unitOfMeasure")));
+        assertEquals(Set.of("description"), namesOf(indexes.get("category")));
+        assertEquals(Set.of("metadata_recipeId"), namesOf(indexes.get(IndexInitializer.GRIDFS_FILES)));
+        assertTrue(indexes.get("unitOfMeasure").get(0).getIndexOptions().getBoolean("unique"));
+
+        IndexDefinition textIndex = indexes.get("recipe").stream()
+                                           .filter(definition -> definition.getIndexKeys().containsValue("text"))
+                                           .findFirst().orElseThrow();
+        Document weights = (Document) textIndex.getIndexOptions().get("weights");
+        assertEquals(10f, ((Number) weights.get("description")).floatValue());
+        assertEquals(5f, ((Number) weights.get("ingredients.description")).floatValue());
+        assertEquals(2f, ((Number) weights.get("notes.recipeNotes")).floatValue());
+        assertTrue(textIndex.getIndexKeys().containsKey("directions"));
+    }
+
+    @Test
+    void ensureIndexes_shouldCreate_andVerify()
+    {
+        // given
+        IndexInitializer initializer = new IndexInitializer(mongoTemplate, true);
+        when(indexOps.ensureIndex(any())).thenAnswer(invocation -> {
+            String name = ((IndexDefinition) invocation.getArgument(0)).getIndexOptions().getString("name");
+            existing.add(name);
+            return name;
+        });
+
+        // when
+        List<String> missing = initializer.ensureIndexes();
+
+        // then
+        assertTrue(missing.isEmpty());
+        verify(indexOps, times(11)).ensureIndex(any());
+    }
+
+    @Test
+    void ensureIndexes_shouldReportMissing_whenCreationFails()
+    {
+        // given
+        IndexInitializer initializer = new IndexInitializer(mongoTemplate, true);
+        when(indexOps.ensureIndex(any())).thenThrow(new DuplicateKeyException("duplicate description"));
+
+        // when
+        List<String> missing = initializer.ensureIndexes();
+
+        // then
+        assertEquals(11, missing.size());
+        assertTrue(missing.contains("unitOfMeasure.description"));
+    }
+
+    @Test
+    void ensureIndexes_shouldOnlyVerify_whenCreationDisabled()
+    {
+        // given
+        IndexInitializer initializer = new IndexInitializer(mongoTemplate, false);
+        existing.addAll(List.of("description", "metadata_recipeId"));
+
+        // when
+        List<String> missing = initializer.ensureIndexes();
+
+        // then
+        verify(indexOps, never()).ensureIndex(any());
+        assertEquals(8, missing.size());
+        assertTrue(missing.contains("recipe.ingredients_id"));
+    }
+
+    //==================================================================================================================
+    private static Set<String> namesOf(List<IndexDefinition> definitions)
+    {
+        return definitions.stream()
+                          .map(definition -> definition.getIndexOptions().getString("name"))
+                          .collect(Collectors.toSet());
+    }
+}
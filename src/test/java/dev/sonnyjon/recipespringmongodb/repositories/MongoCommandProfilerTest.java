@@ -0,0 +1,167 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import com.mongodb.ServerAddress;
+import com.mongodb.connection.ClusterId;
+import com.mongodb.connection.ConnectionDescription;
+import com.mongodb.connection.ServerId;
+import com.mongodb.event.CommandStartedEvent;
+import com.mongodb.event.CommandSucceededEvent;
+import dev.sonnyjon.recipespringmongodb.repositories.MongoCommandProfiler.ProfiledCommand;
+import org.bson.BsonDocument;
+import org.bson.RawBsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MongoCommandProfilerTest
+{
+    static final ConnectionDescription CONNECTION = new ConnectionDescription(new ServerId(new ClusterId(), new ServerAddress()));
+
+    MutableClock clock;
+    MongoCommandProfiler profiler;
+    AtomicInteger requestIds = new AtomicInteger();
+
+    @BeforeEach
+    void setUp()
+    {
+        clock = new MutableClock(Instant.parse("2022-07-01T12:00:00Z"));
+        profiler = new MongoCommandProfiler(Duration.ofMillis(100), DataSize.ofKilobytes(1), 2, Duration.ofHours(1), clock);
+    }
+
+    @Test
+    void shapeOf_shouldReplaceValues_andKeepSort()
+    {
+        BsonDocument find = BsonDocument.parse("{find: 'recipe', filter: {_id: 'RECIPE-1', 'ingredients.description': "
+                                               + "{$in: ['lime', 'salt']}, $or: [{servings: 2}, {cookTime: {$lt: 10}}]},"
+                                               + " sort: {description: 1}, limit: 20}");
+
+        assertEquals("find {\"filter\": {\"_id\": \"?\", \"ingredients.description\": {\"$in\": \"?\"}, "
+                     + "\"$or\": [{\"servings\": \"?\"}, {\"cookTime\": {\"$lt\": \"?\"}}]}, \"sort\": {\"description\": 1}}",
+                     MongoCommandProfiler.shapeOf("find", find));
+        assertEquals("update {\"q\": {\"_id\": \"?\", \"version\": \"?\"}}", MongoCommandProfiler.shapeOf("update",
+                     BsonDocument.parse("{update: 'recipe', updates: [{q: {_id: 'A', version: 3}, u: {$set: {x: 1}}}]}")));
+        assertEquals("insert", MongoCommandProfiler.shapeOf("insert", BsonDocument.parse("{insert: 'recipe'}")));
+    }
+
+    @Test
+    void profile_shouldKeepSlowestAndLargest_worstFirst()
+    {
+        // when
+        execute("find", "{find: 'recipe', filter: {_id: 'A'}}", cursorResponse(0, 1, 100), 5);
+        execute("find", "{find: 'recipe', filter: {_id: 'B'}}", cursorResponse(0, 3, 2000), 150);
+        execute("find", "{find: 'recipe', filter: {description: 'C'}}", cursorResponse(0, 1, 500), 40);
+        execute("hello", "{hello: 1}", RawBsonDocument.parse("{ok: 1}"), 500);
+
+        // then
+        MongoCommandProfiler.Profile profile = profiler.profile();
+        assertEquals(List.of(150.0, 40.0), profile.getSlowest().stream().map(ProfiledCommand::getDurationMillis)
+                                                  .collect(Collectors.toList()));
+
+        ProfiledCommand largest = profile.getLargest().get(0);
+        assertEquals("recipe", largest.getCollection());
+        assertEquals("find {\"filter\": {\"_id\": \"?\"}}", largest.getShape());
+        assertEquals(3, largest.getDocuments());
+        assertTrue(largest.getLargestDocumentBytes() > 2000);
+        assertTrue(largest.getResponseBytes() > 3 * 2000);
+    }
+
+    @Test
+    void profile_shouldAttributeGetMore_toQueryThatOpenedCursor()
+    {
+        // when
+        execute("find", "{find: 'recipe', filter: {difficulty: 'EASY'}}", cursorResponse(77, 1, 10), 1);
+        execute("getMore", "{getMore: {$numberLong: '77'}, collection: 'recipe'}", cursorResponse(0, 2, 5000), 1);
+
+        // then
+        ProfiledCommand getMore = profiler.profile().getLargest().get(0);
+        assertEquals("getMore", getMore.getCommand());
+        assertEquals("recipe", getMore.getCollection());
+        assertEquals("find {\"filter\": {\"difficulty\": \"?\"}}", getMore.getShape());
+    }
+
+    @Test
+    void profile_shouldDropCommands_olderThanWindow()
+    {
+        // given
+        execute("find", "{find: 'recipe', filter: {_id: 'A'}}", cursorResponse(0, 1, 100), 500);
+
+        // when
+        clock.advance(Duration.ofMinutes(61));
+        execute("find", "{find: 'recipe', filter: {_id: 'B'}}", cursorResponse(0, 1, 100), 5);
+
+        // then
+        assertEquals(List.of(5.0), profiler.profile().getSlowest().stream().map(ProfiledCommand::getDurationMillis)
+                                           .collect(Collectors.toList()));
+
+        // when
+        profiler.reset();
+
+        // then
+        assertTrue(profiler.profile().getSlowest().isEmpty());
+    }
+
+    //==================================================================================================================
+    private void execute(String commandName, String command, BsonDocument response, long millis)
+    {
+        int requestId = requestIds.incrementAndGet();
+
+        profiler.commandStarted(new CommandStartedEvent(requestId, CONNECTION, "recipes", commandName,
+                                                        BsonDocument.parse(command)));
+        profiler.commandSucceeded(new CommandSucceededEvent(requestId, CONNECTION, commandName, response,
+                                                            Duration.ofMillis(millis).toNanos()));
+    }
+
+    private static RawBsonDocument cursorResponse(long cursorId, int documents, int documentChars)
+    {
+        String document = "{notes: '" + "x".repeat(documentChars) + "'}";
+        String batch = String.join(", ", Collections.nCopies(documents, document));
+
+        return RawBsonDocument.parse("{cursor: {id: {$numberLong: '" + cursorId + "'}, ns: 'recipes.recipe', "
+                                     + "firstBatch: [" + batch + "]}, ok: 1}");
+    }
+
+    private static final class MutableClock extends Clock
+    {
+        private Instant now;
+
+        private MutableClock(Instant now)
+        {
+            this.now = now;
+        }
+
+        void advance(Duration duration)
+        {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone()
+        {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone)
+        {
+            return this;
+        }
+
+        @Override
+        public Instant instant()
+        {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.when;
+
+class QueryPlanReportTest
+{
+    @Mock
+    ListableBeanFactory beanFactory;
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    MongoMappingContext mappingContext;
+    QueryPlanReport report;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        report = new QueryPlanReport(beanFactory, mongoTemplate, false);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void filterFor_shouldDerive_filterFromMethodName() throws Exception
+    {
+        // when
+        Document filter = report.filterFor(UnitOfMeasureRepository.class.getMethod("findByDescription", String.class),
+                                           mappingContext.getRequiredPersistentEntity(UnitOfMeasure.class));
+
+        // then
+        assertEquals(new Document("description", QueryPlanReport.SAMPLE_VALUE), filter);
+    }
+
+    @Test
+    void filterFor_shouldBind_annotatedQueryPlaceholders() throws Exception
+    {
+        // when
+        Document filter = report.filterFor(RecipeRepository.class.getMethod("updateImageId", String.class,
+                                                                            String.class, String.class),
+                                           mappingContext.getRequiredPersistentEntity(Recipe.class));
+
+        // then
+        assertEquals(new Document("_id", QueryPlanReport.SAMPLE_VALUE).append("imageId", QueryPlanReport.SAMPLE_VALUE),
+                     filter);
+    }
+
+    @Test
+    void filterFor_shouldBeEmpty_forUnfilteredQuery() throws Exception
+    {
+        // when
+        Document filter = report.filterFor(RecipeRepository.class.getMethod("findAllBy", Pageable.class),
+                                           mappingContext.getRequiredPersistentEntity(Recipe.class));
+
+        // then
+        assertTrue(filter.isEmpty());
+    }
+
+    @Test
+    void winningStages_shouldCollect_nestedStages()
+    {
+        // given
+        Document indexScan = Document.parse("{'queryPlanner': {'winningPlan': {'stage': 'FETCH', "
+                                            + "'inputStage': {'stage': 'IXSCAN', 'indexName': 'description'}}}}");
+        Document collectionScan = Document.parse("{'queryPlanner': {'winningPlan': {'stage': 'SUBPLAN', "
+                                                 + "'inputStages': [{'stage': 'COLLSCAN'}]}}}");
+
+        // then
+        assertEquals(List.of("FETCH", "IXSCAN"), List.copyOf(QueryPlanReport.winningStages(indexScan)));
+        assertEquals(Set.of("SUBPLAN", QueryPlanReport.COLLSCAN), QueryPlanReport.winningStages(collectionScan));
+    }
+}
@@ -0,0 +1,204 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import com.mongodb.DBRef;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.DefaultDbRefResolver;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeRepositoryCustomImplTest
+{
+    public static final String RECIPE = "recipe";
+    public static final String UOM = "unitOfMeasure";
+    public static final String CATEGORY = "category";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    MongoDatabaseFactory databaseFactory;
+
+    RecipeRepositoryCustom repository;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(databaseFactory.getExceptionTranslator()).thenReturn(new MongoExceptionTranslator());
+
+        // A real converter; its DBRef resolver would query databaseFactory for any unresolved reference
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(new DefaultDbRefResolver(databaseFactory),
+                                                                    mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+
+        when(mongoTemplate.getConverter()).thenReturn(converter);
+        when(mongoTemplate.getCollectionName(Recipe.class)).thenReturn(RECIPE);
+
+        repository = new RecipeRepositoryCustomImpl(mongoTemplate);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void findById_shouldResolveAllReferences_withOneQueryPerCollection()
+    {
+        // given
+        ObjectId recipeId = new ObjectId();
+        List<Document> uoms = getUoms(3);
+        Document category = new Document("_id", new ObjectId()).append("description", "Mexican");
+
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(RECIPE)))
+                .thenReturn(getRecipeDocument(recipeId, 12, uoms, category));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(UOM))).thenReturn(uoms);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CATEGORY))).thenReturn(List.of(category));
+
+        // when
+        Optional<Recipe> actual = repository.findById(recipeId.toHexString());
+
+        // then
+        Recipe recipe = actual.orElseThrow();
+        assertEquals(recipeId.toHexString(), recipe.getId());
+        assertEquals(12, recipe.getIngredients().size());
+        for (Ingredient ingredient : recipe.getIngredients())
+        {
+            assertNotNull(ingredient.getUom().getDescription());
+        }
+        assertEquals("Mexican", recipe.getCategories().iterator().next().getDescription());
+
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq(UOM));
+        verify(mongoTemplate, times(1)).find(any(Query.class), eq(Document.class), eq(CATEGORY));
+        verify(databaseFactory, never()).getMongoDatabase();
+    }
+
+    @Test
+    void findById_shouldReturnEmpty_whenNotFound()
+    {
+        // given
+        when(mongoTemplate.findOne(any(Query.class), eq(Document.class), eq(RECIPE))).thenReturn(null);
+
+        // when
+        Optional<Recipe> actual = repository.findById(new ObjectId().toHexString());
+
+        // then
+        assertTrue(actual.isEmpty());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(Document.class), anyString());
+    }
+
+    @Test
+    void findAll_shouldResolveReferences_perBatch()
+    {
+        // given
+        final int recipeCount = RecipeRepositoryCustomImpl.BATCH_SIZE * 2 + 1;
+        List<Document> uoms = getUoms(3);
+        Document category = new Document("_id", new ObjectId()).append("description", "Mexican");
+
+        List<Document> recipes = new ArrayList<>();
+        for (int i = 0; i < recipeCount; i++) recipes.add(getRecipeDocument(new ObjectId(), 5, uoms, category));
+
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(RECIPE)))
+                .thenReturn(new ListIterator(recipes));
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(UOM))).thenReturn(uoms);
+        when(mongoTemplate.find(any(Query.class), eq(Document.class), eq(CATEGORY))).thenReturn(List.of(category));
+
+        // when
+        List<Recipe> actual = repository.findAll();
+
+        // then
+        assertEquals(recipeCount, actual.size());
+        assertEquals("Mexican", actual.get(recipeCount - 1).getCategories().iterator().next().getDescription());
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), eq(UOM));
+        verify(mongoTemplate, times(3)).find(any(Query.class), eq(Document.class), eq(CATEGORY));
+    }
+
+    //==================================================================================================================
+    private static List<Document> getUoms(int count)
+    {
+        List<Document> uoms = new ArrayList<>();
+        for (int i = 0; i < count; i++)
+        {
+            uoms.add(new Document("_id", new ObjectId()).append("description", "UOM " + i));
+        }
+
+        return uoms;
+    }
+
+    private static Document getRecipeDocument(ObjectId id, int ingredientCount, List<Document> uoms, Document category)
+    {
+        List<Document> ingredients = new ArrayList<>();
+        for (int i = 0; i < ingredientCount; i++)
+        {
+            Object uomId = uoms.get(i % uoms.size()).get("_id");
+            ingredients.add(new Document("_id", "INGRED-" + i)
+                                    .append("description", "Ingredient " + i)
+                                    .append("amount", "1")
+                                    .append("uom", new DBRef(UOM, uomId)));
+        }
+
+        List<Object> categories = new ArrayList<>();
+        categories.add(new DBRef(CATEGORY, category.get("_id")));
+
+        return new Document("_id", id)
+                        .append("description", "Recipe " + id)
+                        .append("ingredients", ingredients)
+                        .append("categories", categories);
+    }
+
+    private static class ListIterator implements CloseableIterator<Document>
+    {
+        private final Iterator<Document> delegate;
+
+        ListIterator(List<Document> documents)
+        {
+            this.delegate = documents.iterator();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Document next()
+        {
+            return delegate.next();
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package dev.sonnyjon.recipespringmongodb.repositories;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import dev.sonnyjon.recipespringmongodb.config.CacheConfig;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.caffeine.CaffeineCache;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.mongodb.core.mapping.event.AfterDeleteEvent;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(SpringExtension.class)
+@ContextConfiguration(classes = ReferenceDataCacheTest.TestConfig.class)
+class ReferenceDataCacheTest
+{
+    public static final String UOM_ID = "UOM-1";
+    public static final String DESCRIPTION = "Teaspoon";
+
+    @Configuration
+    @Import({CacheConfig.class, ReferenceDataCacheListener.class})
+    static class TestConfig
+    {
+        static final UnitOfMeasureRepository UOM_REPOSITORY = mock(UnitOfMeasureRepository.class);
+        static final CategoryRepository CATEGORY_REPOSITORY = mock(CategoryRepository.class);
+
+        @Bean
+        CacheManager cacheManager()
+        {
+            CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+            cacheManager.setCaffeine(Caffeine.newBuilder().maximumSize(100).recordStats());
+            return cacheManager;
+        }
+
+        @Bean
+        UnitOfMeasureRepository unitOfMeasureRepository()
+        {
+            return UOM_REPOSITORY;
+        }
+
+        @Bean
+        CategoryRepository categoryRepository()
+        {
+            return CATEGORY_REPOSITORY;
+        }
+    }
+
+    @Autowired
+    UnitOfMeasureRepository unitOfMeasureRepository;
+    @Autowired
+    CategoryRepository categoryRepository;
+    @Autowired
+    ApplicationEventPublisher eventPublisher;
+    @Autowired
+    CacheManager cacheManager;
+
+    UnitOfMeasureRepository mockUomRepository;
+    CategoryRepository mockCategoryRepository;
+
+    @BeforeEach
+    void setUp()
+    {
+        // The autowired beans are caching proxies around these mocks
+        mockUomRepository = TestConfig.UOM_REPOSITORY;
+        mockCategoryRepository = TestConfig.CATEGORY_REPOSITORY;
+        reset(mockUomRepository, mockCategoryRepository);
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @Test
+    void findById_shouldHitDatabaseOnce_whenRepeated()
+    {
+        // given
+        when(mockUomRepository.findById(UOM_ID)).thenReturn(Optional.of(getTestUom()));
+
+        // when
+        unitOfMeasureRepository.findById(UOM_ID);
+        Optional<UnitOfMeasure> actual = unitOfMeasureRepository.findById(UOM_ID);
+
+        // then
+        assertEquals(DESCRIPTION, actual.orElseThrow().getDescription());
+        verify(mockUomRepository, times(1)).findById(UOM_ID);
+        assertEquals(1, ((CaffeineCache) cacheManager.getCache(CacheConfig.UOM_BY_ID)).getNativeCache().stats().hitCount());
+    }
+
+    @Test
+    void findByDescription_shouldCacheMisses()
+    {
+        // given
+        when(mockUomRepository.findByDescription(anyString())).thenReturn(Optional.empty());
+
+        // when
+        unitOfMeasureRepository.findByDescription(DESCRIPTION);
+        Optional<UnitOfMeasure> actual = unitOfMeasureRepository.findByDescription(DESCRIPTION);
+
+        // then
+        assertTrue(actual.isEmpty());
+        verify(mockUomRepository, times(1)).findByDescription(DESCRIPTION);
+    }
+
+    @Test
+    void save_shouldClearUomCaches_only()
+    {
+        // given
+        when(mockUomRepository.findAll()).thenReturn(List.of(getTestUom()));
+        when(mockCategoryRepository.findAll()).thenReturn(List.of(new Category()));
+
+        unitOfMeasureRepository.findAll();
+        categoryRepository.findAll();
+
+        // when
+        eventPublisher.publishEvent(new AfterSaveEvent<>(getTestUom(), new Document(), "unitOfMeasure"));
+        unitOfMeasureRepository.findAll();
+        categoryRepository.findAll();
+
+        // then
+        verify(mockUomRepository, times(2)).findAll();
+        verify(mockCategoryRepository, times(1)).findAll();
+    }
+
+    @Test
+    void delete_shouldClearCategoryCaches()
+    {
+        // given
+        when(mockCategoryRepository.findByDescription(anyString())).thenReturn(Optional.of(new Category()));
+        categoryRepository.findByDescription("American");
+
+        // when
+        eventPublisher.publishEvent(new AfterDeleteEvent<>(new Document("_id", "CAT-1"), Category.class, "category"));
+        categoryRepository.findByDescription("American");
+
+        // then
+        verify(mockCategoryRepository, times(2)).findByDescription("American");
+    }
+
+    //==================================================================================================================
+    private static UnitOfMeasure getTestUom()
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId(UOM_ID);
+        uom.setDescription(DESCRIPTION);
+
+        return uom;
+    }
+}
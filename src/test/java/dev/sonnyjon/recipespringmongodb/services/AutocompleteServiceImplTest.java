@@ -0,0 +1,164 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.Aggregation;
+import org.springframework.data.mongodb.core.aggregation.AggregationResults;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class AutocompleteServiceImplTest
+{
+    public static final String RECIPE = "recipe";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    UnitOfMeasureRepository unitOfMeasureRepository;
+
+    AutocompleteServiceImpl autocompleteService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Recipe.class)).thenReturn(RECIPE);
+        autocompleteService = new AutocompleteServiceImpl(mongoTemplate, unitOfMeasureRepository, 5);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void rebuild_shouldRankByUses()
+    {
+        // given
+        when(mongoTemplate.aggregate(any(Aggregation.class), eq(RECIPE), eq(Document.class)))
+                .thenReturn(getTestResults(uses("Chicken breast", 40), uses("cheddar", 30), uses(null, 2)))
+                .thenReturn(getTestResults(uses("Cup", 12), uses("Teaspoon", 50)));
+        when(unitOfMeasureRepository.findAll()).thenReturn(List.of(getTestUom("Teaspoon"), getTestUom("Tablespoon"),
+                                                                   getTestUom("Cup")));
+
+        // when
+        autocompleteService.rebuild();
+
+        // then
+        assertEquals(List.of("Chicken breast", "cheddar"), autocompleteService.suggestIngredients("c", 10));
+        assertEquals(List.of("Teaspoon", "Tablespoon"), autocompleteService.suggestUnits("t", 10));
+        assertEquals(List.of("Cup"), autocompleteService.suggestUnits("cu", 10));
+    }
+
+    @Test
+    void recordIngredient_shouldCountUse()
+    {
+        // given
+        UnitOfMeasure uom = getTestUom("Pinch");
+        Ingredient saffron = new Ingredient("Saffron threads", BigDecimal.ONE, uom);
+
+        // when
+        autocompleteService.recordIngredient(null, saffron);
+        autocompleteService.recordIngredient(null, new Ingredient("Salt", BigDecimal.ONE, uom));
+        autocompleteService.recordIngredient(null, new Ingredient("salt", BigDecimal.ONE, null));
+
+        // then
+        assertEquals(List.of("Salt", "Saffron threads"), autocompleteService.suggestIngredients("SA", 10));
+        assertEquals(List.of("Salt"), autocompleteService.suggestIngredients("sa", 1));
+        assertEquals(List.of("Pinch"), autocompleteService.suggestUnits("p", 10));
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void recordIngredient_shouldNotCount_unchangedEdit()
+    {
+        // given
+        UnitOfMeasure pinch = getTestUom("Pinch");
+        autocompleteService.recordIngredient(null, new Ingredient("Saffron", BigDecimal.ONE, pinch));
+        autocompleteService.recordIngredient(null, new Ingredient("Salt", BigDecimal.ONE, pinch));
+        Ingredient saffron = new Ingredient("Saffron", BigDecimal.ONE, pinch);
+
+        // when: only the amount changes, three times
+        for (int i = 0; i < 3; i++) autocompleteService.recordIngredient(saffron, new Ingredient("saffron ", BigDecimal.TEN, pinch));
+        autocompleteService.recordIngredient(null, new Ingredient("Salt", BigDecimal.ONE, pinch));
+
+        // then
+        assertEquals(List.of("Salt", "Saffron"), autocompleteService.suggestIngredients("sa", 10));
+    }
+
+    @Test
+    void recordIngredient_shouldMoveUse_onRename()
+    {
+        // given
+        UnitOfMeasure pinch = getTestUom("Pinch");
+        Ingredient typo = new Ingredient("Saffrn", BigDecimal.ONE, pinch);
+        autocompleteService.recordIngredient(null, typo);
+
+        // when
+        autocompleteService.recordIngredient(typo, new Ingredient("Saffron", BigDecimal.ONE, getTestUom("Gram")));
+
+        // then
+        assertEquals(List.of("Saffron"), autocompleteService.suggestIngredients("saff", 10));
+        assertEquals(List.of("Gram"), autocompleteService.suggestUnits("g", 10));
+        assertEquals(List.of("Pinch"), autocompleteService.suggestUnits("p", 10));
+    }
+
+    @Test
+    void forgetIngredient_shouldDropUnusedDescription_butKeepUnit()
+    {
+        // given
+        UnitOfMeasure pinch = getTestUom("Pinch");
+        Ingredient saffron = new Ingredient("Saffron", BigDecimal.ONE, pinch);
+        autocompleteService.recordIngredient(null, saffron);
+        autocompleteService.recordIngredient(null, new Ingredient("Saffron", BigDecimal.ONE, null));
+
+        // when
+        autocompleteService.forgetIngredient(saffron);
+
+        // then
+        assertEquals(List.of("Saffron"), autocompleteService.suggestIngredients("sa", 10));
+
+        // when
+        autocompleteService.forgetIngredient(new Ingredient("saffron", BigDecimal.ONE, null));
+
+        // then
+        assertTrue(autocompleteService.suggestIngredients("sa", 10).isEmpty());
+        assertEquals(List.of("Pinch"), autocompleteService.suggestUnits("p", 10));
+    }
+
+    //==================================================================================================================
+    private static AggregationResults<Document> getTestResults(Document... results)
+    {
+        return new AggregationResults<>(List.of(results), new Document());
+    }
+
+    private static Document uses(String description, int uses)
+    {
+        return new Document("_id", description).append("uses", uses);
+    }
+
+    private static UnitOfMeasure getTestUom(String description)
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setDescription(description);
+
+        return uom;
+    }
+}
@@ -8,11 +8,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 /**
  * Created by Sonny on 7/17/2022.
@@ -52,7 +53,30 @@ class ImageServiceIT
 
         // then
         assertEquals(expectedRecipe.getId(), actualRecipe.getId());
-        assertEquals(expectedBytes.length, actualRecipe.getImage().length);
+        assertNotNull(actualRecipe.getImageId());
+        GridFsResource image = imageService.findImage( RECIPE_ID ).orElseThrow();
+        assertEquals(expectedBytes.length, image.contentLength());
+        assertArrayEquals(expectedBytes, image.getInputStream().readAllBytes());
+    }
+
+    @Test
+    void saveImageFile_shouldReplace_previousImage() throws Exception
+    {
+        // given
+        getTestRecipe();
+        imageService.saveImageFile(RECIPE_ID, mockFile);
+        final String firstImageId = recipeService.findById( RECIPE_ID ).getImageId();
+        final byte[] replacement = "Replacement image".getBytes();
+
+        // when
+        imageService.saveImageFile(RECIPE_ID,
+                new MockMultipartFile("imagefile", "other.jpg", "image/jpeg", replacement));
+
+        // then
+        GridFsResource image = imageService.findImage( RECIPE_ID ).orElseThrow();
+        assertNotEquals(firstImageId, recipeService.findById( RECIPE_ID ).getImageId());
+        assertEquals("image/jpeg", image.getContentType());
+        assertArrayEquals(replacement, image.getInputStream().readAllBytes());
     }
 
     private Recipe getTestRecipe()
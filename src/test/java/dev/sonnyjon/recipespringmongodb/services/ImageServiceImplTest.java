@@ -1,7 +1,15 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.config.MetricsConfig;
+import dev.sonnyjon.recipespringmongodb.exceptions.ImageUploadException;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -9,14 +17,29 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.multipart.MultipartFile;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.Date;
 import java.util.Optional;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -29,15 +52,20 @@ class ImageServiceImplTest
 
     @Mock
     RecipeRepository recipeRepository;
+    @Mock
+    GridFsTemplate gridFsTemplate;
 
     ImageService imageService;
+    SimpleMeterRegistry meterRegistry;
     AutoCloseable mocks;
 
     @BeforeEach
     void setUp()
     {
         mocks = MockitoAnnotations.openMocks(this);
-        imageService = new ImageServiceImpl(recipeRepository);
+        meterRegistry = new SimpleMeterRegistry();
+        imageService = new ImageServiceImpl(recipeRepository, gridFsTemplate, Runnable::run,
+                                            new RetryPolicy(3, Duration.ZERO, Duration.ZERO), meterRegistry);
     }
 
     @AfterEach
@@ -46,26 +74,321 @@ class ImageServiceImplTest
         mocks.close();
     }
 
-    // John Thompson's test
+    static byte[] getTestPng(int width, int height) throws Exception
+    {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+
+        return out.toByteArray();
+    }
 
     @Test
-    void test_saveImageFile() throws Exception
+    void saveImageFile_shouldStoreInGridFs_andReferenceFromRecipe() throws Exception
     {
+        // given
         MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.txt", "text/plain",
                 "Spring Framework Guru".getBytes());
+        ObjectId imageId = new ObjectId();
+
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), any(), anyString())).thenReturn(1L);
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(imageId);
+
+        ArgumentCaptor<Document> metadataCaptor = ArgumentCaptor.forClass(Document.class);
+
+        // when
+        imageService.saveImageFile(RECIPE_ID, multipartFile);
+
+        // then
+        verify(gridFsTemplate, times(1)).store(any(InputStream.class), eq("testing.txt"), eq("text/plain"),
+                metadataCaptor.capture());
+        verify(recipeRepository, times(1)).updateImageId(eq(RECIPE_ID), isNull(), eq(imageId.toHexString()));
+        verify(recipeRepository, never()).save(any());
+        verify(gridFsTemplate, never()).delete(any());
+        assertEquals(RECIPE_ID, metadataCaptor.getValue().get(ImageServiceImpl.RECIPE_ID_METADATA));
+        assertEquals(DigestUtils.md5DigestAsHex(multipartFile.getBytes()),
+                metadataCaptor.getValue().get(ImageServiceImpl.CONTENT_HASH_METADATA));
+        assertEquals(multipartFile.getSize(), meterRegistry.get(MetricsConfig.IMAGE_BYTES)
+                                                           .tag("direction", "in").summary().totalAmount());
+    }
+
+    @Test
+    void saveImageFile_shouldDeletePreviousImage() throws Exception
+    {
+        // given
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.jpg", "image/jpeg",
+                "Spring Framework Guru".getBytes());
 
         Recipe recipe = new Recipe();
         recipe.setId(RECIPE_ID);
-        Optional<Recipe> recipeOptional = Optional.of(recipe);
+        recipe.setImageId(new ObjectId().toHexString());
 
-        when(recipeRepository.findById(anyString())).thenReturn(recipeOptional);
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), anyString(), anyString())).thenReturn(1L);
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(new ObjectId());
+
+        // when
+        imageService.saveImageFile(RECIPE_ID, multipartFile);
 
-        ArgumentCaptor<Recipe> argumentCaptor = ArgumentCaptor.forClass(Recipe.class);
+        // then: the replaced original and its variants
+        verify(gridFsTemplate, times(2)).delete(any(Query.class));
+    }
 
+    @Test
+    void saveImageFile_shouldRetry_whenImageChangedConcurrently() throws Exception
+    {
+        // given
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.jpg", "image/jpeg",
+                "Spring Framework Guru".getBytes());
+
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), any(), anyString())).thenReturn(0L, 1L);
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(new ObjectId());
+
+        // when
         imageService.saveImageFile(RECIPE_ID, multipartFile);
 
-        verify(recipeRepository, times(1)).save(argumentCaptor.capture());
-        Recipe savedRecipe = argumentCaptor.getValue();
-        assertEquals(multipartFile.getBytes().length, savedRecipe.getImage().length);
+        // then
+        verify(recipeRepository, times(2)).updateImageId(anyString(), any(), anyString());
+        verify(gridFsTemplate, never()).delete(any());
+    }
+
+    @Test
+    void saveImageFile_shouldDeleteStoredImage_whenRetriesExhausted()
+    {
+        // given
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.jpg", "image/jpeg",
+                "Spring Framework Guru".getBytes());
+
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), any(), anyString())).thenReturn(0L);
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(new ObjectId());
+
+        // when, then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> imageService.saveImageFile(RECIPE_ID, multipartFile));
+        verify(recipeRepository, times(3)).updateImageId(anyString(), any(), anyString());
+        verify(gridFsTemplate, times(2)).delete(any(Query.class));
+    }
+
+    @Test
+    void saveImageFile_shouldThrowException_whenUploadUnreadable() throws Exception
+    {
+        // given
+        MultipartFile multipartFile = mock(MultipartFile.class);
+        when(multipartFile.getOriginalFilename()).thenReturn("testing.jpg");
+        when(multipartFile.getInputStream()).thenThrow(new IOException("Connection reset"));
+
+        // when, then
+        ImageUploadException exception = assertThrows(ImageUploadException.class,
+                                                      () -> imageService.saveImageFile(RECIPE_ID, multipartFile));
+        assertInstanceOf(IOException.class, exception.getCause());
+        verify(gridFsTemplate, never()).store(any(InputStream.class), anyString(), anyString(), any(Document.class));
+        verify(recipeRepository, never()).findImageIdById(anyString());
+    }
+
+    @Test
+    void saveImageFile_shouldThrowException_whenRecipeNotFound()
+    {
+        // given
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.jpg", "image/jpeg",
+                "Spring Framework Guru".getBytes());
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.empty());
+
+        // when, then
+        assertThrows(NotFoundException.class, () -> imageService.saveImageFile(RECIPE_ID, multipartFile));
+        verify(gridFsTemplate, never()).store(any(InputStream.class), anyString(), anyString(), any(Document.class));
+    }
+
+    @Test
+    void findImage_shouldReturnResource_whenImageExists()
+    {
+        // given
+        ObjectId imageId = new ObjectId();
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        recipe.setImageId(imageId.toHexString());
+
+        GridFSFile file = new GridFSFile(new BsonObjectId(imageId), RECIPE_ID, 3, 255, new Date(),
+                new Document("_contentType", "image/png"));
+        GridFsResource resource = new GridFsResource(file, new ByteArrayInputStream(new byte[3]));
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(file);
+        when(gridFsTemplate.getResource(file)).thenReturn(resource);
+
+        // when
+        Optional<GridFsResource> actual = imageService.findImage(RECIPE_ID);
+
+        // then
+        assertTrue(actual.isPresent());
+        assertEquals(resource, actual.get());
+    }
+
+    @Test
+    void findImage_shouldReturnVariant_whenGenerated()
+    {
+        // given
+        ObjectId imageId = new ObjectId();
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        recipe.setImageId(imageId.toHexString());
+
+        GridFSFile variant = new GridFSFile(new BsonObjectId(new ObjectId()), "thumb", 3, 255, new Date(),
+                new Document("_contentType", "image/jpeg").append(ImageServiceImpl.SOURCE_ID_METADATA, imageId));
+        GridFsResource resource = new GridFsResource(variant, new ByteArrayInputStream(new byte[3]));
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(variant);
+        when(gridFsTemplate.getResource(variant)).thenReturn(resource);
+
+        // when
+        Optional<GridFsResource> actual = imageService.findImage(RECIPE_ID, ImageSize.THUMB);
+
+        // then
+        assertEquals(resource, actual.orElseThrow());
+        verify(gridFsTemplate, times(1)).findOne(any(Query.class));
+    }
+
+    @Test
+    void findImage_shouldFallBackToOriginal_whenVariantMissing()
+    {
+        // given
+        ObjectId imageId = new ObjectId();
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        recipe.setImageId(imageId.toHexString());
+
+        GridFSFile original = new GridFSFile(new BsonObjectId(imageId), RECIPE_ID, 3, 255, new Date(),
+                new Document("_contentType", "image/png"));
+        GridFsResource resource = new GridFsResource(original, new ByteArrayInputStream(new byte[3]));
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(null, original);
+        when(gridFsTemplate.getResource(original)).thenReturn(resource);
+
+        // when
+        Optional<GridFsResource> actual = imageService.findImage(RECIPE_ID, ImageSize.MEDIUM);
+
+        // then
+        assertEquals(resource, actual.orElseThrow());
+        verify(gridFsTemplate, times(2)).findOne(any(Query.class));
+    }
+
+    @Test
+    void saveImageFile_shouldStoreSizeVariants_forReadableImage() throws Exception
+    {
+        // given
+        byte[] png = getTestPng(800, 600);
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "test.png", "image/png", png);
+        ObjectId imageId = new ObjectId();
+
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        GridFSFile original = new GridFSFile(new BsonObjectId(imageId), "test.png", png.length, 255, new Date(),
+                new Document("_contentType", "image/png"));
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), any(), anyString())).thenAnswer(invocation -> {
+            recipe.setImageId(invocation.getArgument(2));
+            return 1L;
+        });
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(imageId);
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(original);
+        when(gridFsTemplate.getResource(original))
+                .thenReturn(new GridFsResource(original, new ByteArrayInputStream(png)));
+
+        ArgumentCaptor<InputStream> contentCaptor = ArgumentCaptor.forClass(InputStream.class);
+        ArgumentCaptor<Document> metadataCaptor = ArgumentCaptor.forClass(Document.class);
+
+        // when
+        imageService.saveImageFile(RECIPE_ID, multipartFile);
+
+        // then
+        verify(gridFsTemplate, times(3)).store(contentCaptor.capture(), anyString(), anyString(),
+                metadataCaptor.capture());
+        verify(gridFsTemplate, never()).delete(any());
+
+        for (int i = 1; i < 3; i++)
+        {
+            Document metadata = metadataCaptor.getAllValues().get(i);
+            ImageSize size = ImageSize.fromParam(metadata.getString(ImageServiceImpl.SIZE_METADATA));
+            BufferedImage variant = ImageIO.read(contentCaptor.getAllValues().get(i));
+
+            assertEquals(imageId, metadata.get(ImageServiceImpl.SOURCE_ID_METADATA));
+            assertEquals(size.getMaxEdge(), variant.getWidth());
+            assertEquals(size.getMaxEdge() * 3 / 4, variant.getHeight());
+        }
+    }
+
+    @Test
+    void saveImageFile_shouldSkipVariants_forUnreadableImage() throws Exception
+    {
+        // given
+        byte[] text = "Spring Framework Guru".getBytes();
+        MultipartFile multipartFile = new MockMultipartFile("imagefile", "testing.txt", "text/plain", text);
+        ObjectId imageId = new ObjectId();
+
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        GridFSFile original = new GridFSFile(new BsonObjectId(imageId), "testing.txt", text.length, 255, new Date(),
+                new Document("_contentType", "text/plain"));
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+        when(recipeRepository.updateImageId(anyString(), any(), anyString())).thenReturn(1L);
+        when(gridFsTemplate.store(any(InputStream.class), anyString(), anyString(), any(Document.class)))
+                .thenReturn(imageId);
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(original);
+        when(gridFsTemplate.getResource(original))
+                .thenReturn(new GridFsResource(original, new ByteArrayInputStream(text)));
+
+        // when
+        imageService.saveImageFile(RECIPE_ID, multipartFile);
+
+        // then
+        verify(gridFsTemplate, times(1)).store(any(InputStream.class), anyString(), anyString(), any(Document.class));
+    }
+
+    @Test
+    void findImage_shouldReturnEmpty_whenRecipeHasNoImage()
+    {
+        // given
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.of(recipe));
+
+        // when
+        Optional<GridFsResource> actual = imageService.findImage(RECIPE_ID);
+
+        // then
+        assertTrue(actual.isEmpty());
+        verify(gridFsTemplate, never()).findOne(any());
+    }
+
+    @Test
+    void findImage_shouldThrowException_whenRecipeNotFound()
+    {
+        // given
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Optional.empty());
+
+        // when, then
+        assertThrows(NotFoundException.class, () -> imageService.findImage(RECIPE_ID));
     }
-}
\ No newline at end of file
+}
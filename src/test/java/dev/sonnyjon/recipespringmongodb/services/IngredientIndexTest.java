@@ -0,0 +1,250 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.util.CloseableIterator;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class IngredientIndexTest
+{
+    public static final String RECIPE = "recipe";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+
+    IngredientIndex index;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Recipe.class)).thenReturn(RECIPE);
+        index = new IngredientIndex(mongoTemplate);
+
+        index.index(getTestRecipe("GUACAMOLE", "2 ripe avocados", "1 Lime", "Cilantro", "1/2 red onion"));
+        index.index(getTestRecipe("FISH-TACOS", "1 lb white fish", "Juice of 2 limes", "cilantro", "1 avocado"));
+        index.index(getTestRecipe("SALAD", "Mixed greens", "3 tbsp olive oil", "1 avocado"));
+        index.index(getTestRecipe("CHILI", "2 jalapeños", "1 red onion", "Ground beef"));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void tokenize_shouldNormalize_caseAccentsPluralsAndFiller()
+    {
+        assertEquals(Set.of("juice", "lime"), IngredientIndex.tokenize("Juice of 2 Limes"));
+        assertEquals(Set.of("jalapeno"), IngredientIndex.tokenize("Jalapeños"));
+        assertEquals(Set.of("tomato", "berry", "glass"), IngredientIndex.tokenize("tomatoes, berries and a glass"));
+        assertTrue(IngredientIndex.tokenize(null).isEmpty());
+    }
+
+    @Test
+    void findWithAll_shouldIntersect_ingredients()
+    {
+        assertEquals(List.of("GUACAMOLE", "FISH-TACOS"), index.findWithAll(List.of("avocado", "lime", "cilantro")));
+        assertEquals(List.of("GUACAMOLE", "CHILI"), index.findWithAll(List.of("Red Onions")));
+        assertEquals(List.of("SALAD"), index.findWithAll(List.of("olive oil", "avocados")));
+        assertTrue(index.findWithAll(List.of("avocado", "saffron")).isEmpty());
+        assertTrue(index.findWithAll(List.of()).isEmpty());
+    }
+
+    @Test
+    void findWithAny_shouldUnite_ingredients()
+    {
+        assertEquals(List.of("GUACAMOLE", "FISH-TACOS", "CHILI"), index.findWithAny(List.of("lime", "beef")));
+        assertEquals(List.of("CHILI"), index.findWithAny(List.of("saffron", "jalapeno")));
+        assertTrue(index.findWithAny(List.of("saffron")).isEmpty());
+    }
+
+    @Test
+    void index_shouldReplace_previousIngredients()
+    {
+        // when
+        index.index(getTestRecipe("SALAD", "Mixed greens", "Lime juice"));
+
+        // then
+        assertEquals(List.of("GUACAMOLE", "FISH-TACOS"), index.findWithAll(List.of("avocado")));
+        assertEquals(List.of("GUACAMOLE", "FISH-TACOS", "SALAD"), index.findWithAll(List.of("lime")));
+    }
+
+    @Test
+    void remove_shouldDropRecipe()
+    {
+        // when
+        index.remove("GUACAMOLE");
+        index.remove("UNKNOWN");
+
+        // then
+        assertEquals(List.of("FISH-TACOS"), index.findWithAll(List.of("avocado", "cilantro")));
+        assertEquals(List.of("CHILI"), index.findWithAny(List.of("onion")));
+    }
+
+    @Test
+    void refresh_shouldReindex_fromDatabase()
+    {
+        // given
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class)))
+                .thenReturn(getTestRecipe("CHILI", "Ground beef", "Kidney beans"))
+                .thenReturn(null);
+
+        // when
+        index.refresh("CHILI");
+
+        // then
+        assertEquals(List.of("CHILI"), index.findWithAll(List.of("kidney bean")));
+        assertEquals(List.of("GUACAMOLE"), index.findWithAny(List.of("onion")));
+
+        // when
+        index.refresh("CHILI");
+
+        // then
+        assertTrue(index.findWithAny(List.of("beef")).isEmpty());
+    }
+
+    @Test
+    void refresh_shouldIgnoreOlderVersion_whenNewerIsIndexed()
+    {
+        // given: the refresh of the later save finishes first
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class)))
+                .thenReturn(getTestRecipe("CHILI", 3L, "Ground beef", "Kidney beans"))
+                .thenReturn(getTestRecipe("CHILI", 2L, "Ground beef", "Black beans"));
+
+        // when
+        index.refresh("CHILI");
+        index.refresh("CHILI");
+
+        // then
+        assertEquals(List.of("CHILI"), index.findWithAll(List.of("kidney bean")));
+        assertTrue(index.findWithAny(List.of("black")).isEmpty());
+    }
+
+    @Test
+    void remove_shouldReclaimIds_andKeepOrder_whenManyRecipesAreDeleted()
+    {
+        // given
+        int created = IngredientIndex.COMPACT_THRESHOLD * 2;
+        for (int i = 0; i < created; i++) index.index(getTestRecipe("R" + i, "Sea salt", i % 8 == 7 ? "Black pepper" : "Water"));
+
+        // when: keep every fourth recipe
+        for (int i = 0; i < created; i++) if (i % 4 != 3) index.remove("R" + i);
+        index.index(getTestRecipe("NEW", "Sea salt", "Saffron"));
+
+        // then
+        assertTrue(index.docSlots() <= created);
+        List<String> salted = index.findWithAll(List.of("salt"));
+        assertEquals(created / 4 + 1, salted.size());
+        assertEquals("R3", salted.get(0));
+        assertEquals("NEW", salted.get(salted.size() - 1));
+        assertEquals(created / 8, index.findWithAll(List.of("black pepper")).size());
+        assertEquals(created / 8, index.findWithAll(List.of("salt", "water")).size());
+        assertEquals(List.of("R7", "R15"), index.findWithAll(List.of("pepper")).subList(0, 2));
+        assertEquals(List.of("GUACAMOLE", "FISH-TACOS", "SALAD"), index.findWithAll(List.of("avocado")));
+    }
+
+    @Test
+    void rebuild_shouldReplaceIndex_withDatabaseContents()
+    {
+        // given
+        ObjectId id1 = new ObjectId();
+        ObjectId id2 = new ObjectId();
+        when(mongoTemplate.stream(any(Query.class), eq(Document.class), eq(RECIPE)))
+                .thenReturn(closeableIterator(getTestDocument(id1, "Avocado", "Sourdough bread"),
+                                              getTestDocument(id2, "Sourdough bread", "Butter"),
+                                              new Document("_id", new ObjectId())));
+
+        // when
+        index.rebuild();
+
+        // then
+        assertEquals(List.of(id1.toHexString(), id2.toHexString()), index.findWithAll(List.of("bread")));
+        assertEquals(List.of(id1.toHexString()), index.findWithAll(List.of("avocado")));
+        assertTrue(index.findWithAny(List.of("lime", "cilantro")).isEmpty());
+    }
+
+    @Test
+    void intersect_shouldSkipAhead_inLargerLists()
+    {
+        int[] large = new int[1000];
+        Arrays.setAll(large, i -> i * 2);
+
+        assertArrayEquals(new int[] {4, 998}, IngredientIndex.intersect(List.of(large, new int[] {3, 4, 998, 2001})));
+        assertArrayEquals(new int[] {1, 2, 3, 5}, IngredientIndex.union(new int[] {1, 3}, new int[] {2, 3, 5}));
+    }
+
+    //==================================================================================================================
+    private static Recipe getTestRecipe(String id, String... ingredients)
+    {
+        return getTestRecipe(id, null, ingredients);
+    }
+
+    private static Recipe getTestRecipe(String id, Long version, String... ingredients)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setVersion(version);
+        for (String description : ingredients)
+        {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setDescription(description);
+            recipe.addIngredient(ingredient);
+        }
+
+        return recipe;
+    }
+
+    private static Document getTestDocument(ObjectId id, String... ingredients)
+    {
+        return new Document("_id", id)
+                .append("ingredients", Arrays.stream(ingredients).map(description -> new Document("description", description))
+                                             .collect(Collectors.toList()));
+    }
+
+    private static CloseableIterator<Document> closeableIterator(Document... documents)
+    {
+        Iterator<Document> iterator = List.of(documents).iterator();
+
+        return new CloseableIterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Document next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+}
@@ -1,27 +1,42 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
+import com.mongodb.client.result.UpdateResult;
 import dev.sonnyjon.recipespringmongodb.converters.IngredientConverter;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
 import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
 import dev.sonnyjon.recipespringmongodb.model.Ingredient;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
 import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import org.bson.Document;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.math.BigDecimal;
-import java.util.ArrayList;
-import java.util.List;
+import java.time.Duration;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
 import static org.mockito.Mockito.*;
 
 /**
@@ -40,6 +55,16 @@ class IngredientServiceMongoImplTest
 
     @Mock
     RecipeRepository recipeRepository;
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    UnitOfMeasureRepository unitOfMeasureRepository;
+    @Mock
+    CategoryRepository categoryRepository;
+    @Mock
+    IngredientIndex ingredientIndex;
+    @Mock
+    AutocompleteService autocompleteService;
 
     IngredientService ingredientService;
     IngredientConverter converter;
@@ -49,8 +74,14 @@ class IngredientServiceMongoImplTest
     void setUp()
     {
         mocks = MockitoAnnotations.openMocks(this);
-        ingredientService = new IngredientServiceMongoImpl( recipeRepository );
-        converter = new IngredientConverter();
+        converter = new IngredientConverterImpl( new UnitOfMeasureConverterImpl() );
+        ingredientService = new IngredientServiceMongoImpl( recipeRepository, mongoTemplate,
+                                                            new RetryPolicy( 3, Duration.ZERO, Duration.ZERO ),
+                                                            converter,
+                                                            new ReferenceSnapshots( unitOfMeasureRepository,
+                                                                                    categoryRepository ),
+                                                            ingredientIndex,
+                                                            autocompleteService );
     }
 
     @AfterEach
@@ -63,171 +94,251 @@ class IngredientServiceMongoImplTest
     void findInRecipe_shouldReturnDto_whenFound()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithTwoIngredients();
-        Optional<Recipe> optional = Optional.of( testRecipe );
         Ingredient testIngredient = getTestIngredient( INGRED1_ID, INGRED1_DESC );
+        Recipe projected = getTestRecipeWithNoIngredient();
+        projected.addIngredient( testIngredient );
 
-        when(recipeRepository.findById(anyString())).thenReturn( optional );
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn( projected );
 
         // when
         IngredientDto expected = converter.convertEntity( testIngredient );
-        IngredientDto actual = ingredientService.findInRecipe( testRecipe.getId(), expected.getId() );
+        IngredientDto actual = ingredientService.findInRecipe( RECIPE_ID, expected.getId() );
 
         // then
         assertEquals( expected.getDescription(), actual.getDescription() );
         assertEquals( expected.getAmount(), actual.getAmount() );
         assertEquals( expected.getUom().getId(), actual.getUom().getId() );
 
-        verify(recipeRepository, times(1)).findById(any());
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate, times(1)).findOne(queryCaptor.capture(), eq(Recipe.class));
+        assertEquals( 1, queryCaptor.getValue().getFieldsObject().get("ingredients.$") );
+        verify(recipeRepository, never()).findById(any());
     }
 
     @Test
     void findInRecipe_shouldThrowException_whenRecipeNotFound()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithTwoIngredients();
-        Ingredient testIngredient = getTestIngredient( INGRED1_ID, INGRED1_DESC );
-        IngredientDto expected = converter.convertEntity( testIngredient );
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn( null );
+        when(recipeRepository.existsById(anyString())).thenReturn( false );
+
+        // when
+        Executable executable = () -> ingredientService.findInRecipe( RECIPE_ID, INGRED1_ID );
+
+        // then
+        NotFoundException exception = assertThrows(NotFoundException.class, executable);
+        assertTrue( exception.getMessage().startsWith("Recipe not found") );
+    }
 
-        when(recipeRepository.findByIngredientId(anyString())).thenThrow( NotFoundException.class );
+    @Test
+    void findInRecipe_shouldThrowException_whenIngredientNotFound()
+    {
+        // given
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn( null );
+        when(recipeRepository.existsById(anyString())).thenReturn( true );
 
         // when
-        Executable executable = () -> ingredientService.findInRecipe( testRecipe.getId(), expected.getId() );
+        Executable executable = () -> ingredientService.findInRecipe( RECIPE_ID, INGRED1_ID );
 
         // then
-        assertThrows(NotFoundException.class, executable);
+        NotFoundException exception = assertThrows(NotFoundException.class, executable);
+        assertTrue( exception.getMessage().startsWith("Ingredient not found") );
     }
 
     @Test
     void saveIngredient_shouldAdd_NewIngredient()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithNoIngredient();
-        Recipe expectedRecipe = getTestRecipeWithOneIngredient();
-        Optional<Recipe> recipeOptional = Optional.of( testRecipe );
-
-        Ingredient expectedIngredient = getTestIngredient( INGRED1_ID, INGRED1_DESC );
-        IngredientDto testIngredient = converter.convertEntity( expectedIngredient );
+        IngredientDto testIngredient = converter.convertEntity( getTestIngredient( null, INGRED1_DESC ) );
 
-        when(recipeRepository.findById(anyString())).thenReturn( recipeOptional );
-        when(recipeRepository.save(any())).thenReturn( expectedRecipe );
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( UpdateResult.acknowledged(1, 1L, null) );
 
         // when
-        IngredientDto actualDto = ingredientService.saveIngredient( testRecipe.getId(), testIngredient );
+        IngredientDto actualDto = ingredientService.saveIngredient( RECIPE_ID, testIngredient );
 
         // then
         assertNotNull( actualDto.getId() );
-        verify(recipeRepository, times(1)).findById(anyString());
-        verify(recipeRepository, times(1)).save(any());
+        assertEquals( INGRED1_DESC, actualDto.getDescription() );
+
+        ArgumentCaptor<Update> replaceCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), replaceCaptor.capture(), eq(Recipe.class));
+        assertTrue( replaceCaptor.getValue().getUpdateObject().containsKey("$set") );
+        ArgumentCaptor<Update> addCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), addCaptor.capture(), eq(Recipe.class));
+        assertTrue( addCaptor.getValue().getUpdateObject().containsKey("$push") );
+        assertEquals( 1, ((Document) addCaptor.getValue().getUpdateObject().get("$inc")).get("version") );
+        verify(recipeRepository, never()).save(any());
+        verify(ingredientIndex).refresh( RECIPE_ID );
+        verify(autocompleteService).recordIngredient( isNull(), argThat(ingredient -> INGRED1_DESC.equals( ingredient.getDescription() )) );
     }
 
     @Test
-    void saveIngredient_shouldUpdate_ExistingIngredient()
+    void saveIngredient_shouldEmbed_UomSnapshot()
     {
         // given
-        Ingredient expectedIngredient = getTestIngredient( INGRED1_ID, "CHANGED" );
-        Recipe testRecipe = getTestRecipeWithOneIngredient();
-        Optional<Recipe> optional = Optional.of( testRecipe );
+        IngredientDto testIngredient = converter.convertEntity( getTestIngredient( INGRED1_ID, INGRED1_DESC ) );
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId( UOM_ID );
+        uom.setDescription( "Teaspoon" );
+
+        when(unitOfMeasureRepository.findById( UOM_ID )).thenReturn( Optional.of(uom) );
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( getTestRecipe( getTestIngredient( INGRED1_ID, INGRED1_DESC ) ) );
+
+        // when
+        IngredientDto actualDto = ingredientService.saveIngredient( RECIPE_ID, testIngredient );
 
-        Recipe expectedRecipe = getTestRecipeWithOneIngredient();
-        expectedRecipe.getIngredients().clear();
-        expectedRecipe.addIngredient( expectedIngredient );
+        // then
+        assertEquals( "Teaspoon", actualDto.getUom().getDescription() );
 
-        List<Recipe> recipes = new ArrayList<>();
-        recipes.add( testRecipe );
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).findAndModify(any(Query.class), updateCaptor.capture(), eq(Recipe.class));
+        Ingredient saved = (Ingredient) ((Document) updateCaptor.getValue().getUpdateObject().get("$set")).get("ingredients.$");
+        assertEquals( "Teaspoon", saved.getUom().getDescription() );
+        assertNotSame( uom, saved.getUom() );
+    }
 
+    @Test
+    void saveIngredient_shouldUpdate_ExistingIngredient()
+    {
+        // given
+        Ingredient expectedIngredient = getTestIngredient( INGRED1_ID, "CHANGED" );
         IngredientDto testIngredient = converter.convertEntity( expectedIngredient );
+        Ingredient previous = getTestIngredient( INGRED1_ID, INGRED1_DESC );
 
-        when(recipeRepository.findById(anyString())).thenReturn( optional );
-        when(recipeRepository.save(any())).thenReturn( expectedRecipe );
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( getTestRecipe( previous ) );
 
         // when
-        IngredientDto actualDto = ingredientService.saveIngredient( testRecipe.getId(), testIngredient );
+        IngredientDto actualDto = ingredientService.saveIngredient( RECIPE_ID, testIngredient );
 
         // then
         assertEquals( expectedIngredient.getId(), actualDto.getId() );
         assertEquals( "CHANGED", actualDto.getDescription() );
-        verify(recipeRepository, times(1)).findById(anyString());
-        verify(recipeRepository, times(1)).save(any());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(queryCaptor.capture(), updateCaptor.capture(), eq(Recipe.class));
+        assertEquals( INGRED1_ID, queryCaptor.getValue().getQueryObject().get("ingredients.id") );
+        assertTrue( queryCaptor.getValue().getFieldsObject().containsKey("ingredients.$") );
+        assertTrue( ((Document) updateCaptor.getValue().getUpdateObject().get("$set")).containsKey("ingredients.$") );
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(Recipe.class));
+        verify(recipeRepository, never()).findById(anyString());
+        verify(recipeRepository, never()).save(any());
+        verify(autocompleteService).recordIngredient( same(previous), argThat(ingredient -> "CHANGED".equals( ingredient.getDescription() )) );
+    }
+
+    @Test
+    void saveIngredient_shouldRetry_whenModifiedConcurrently()
+    {
+        // given
+        IngredientDto testIngredient = converter.convertEntity( getTestIngredient( INGRED1_ID, INGRED1_DESC ) );
+
+        when(recipeRepository.existsById(anyString())).thenReturn( true );
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( null )
+                .thenReturn( getTestRecipe( getTestIngredient( INGRED1_ID, INGRED1_DESC ) ) );
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( UpdateResult.acknowledged(0, 0L, null) );
+
+        // when
+        IngredientDto actualDto = ingredientService.saveIngredient( RECIPE_ID, testIngredient );
+
+        // then
+        assertEquals( INGRED1_ID, actualDto.getId() );
+        verify(mongoTemplate, times(2)).findAndModify(any(Query.class), any(Update.class), eq(Recipe.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Recipe.class));
     }
 
     @Test
     void saveIngredient_shouldThrowException_whenRecipeNotFound()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithTwoIngredients();
         Ingredient expected = getTestIngredient( INGRED1_ID, INGRED1_DESC );
         IngredientDto testIngredient = converter.convertEntity( expected );
 
-        when(recipeRepository.findById(anyString())).thenThrow( NotFoundException.class );
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( UpdateResult.acknowledged(0, 0L, null) );
+        when(recipeRepository.existsById(anyString())).thenReturn( false );
 
         // when
-        Executable executable = () -> ingredientService.saveIngredient( testRecipe.getId(), testIngredient );
+        Executable executable = () -> ingredientService.saveIngredient( RECIPE_ID, testIngredient );
 
         // then
         assertThrows( NotFoundException.class, executable );
-        verify(recipeRepository, times(1)).findById(anyString());
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(Update.class), eq(Recipe.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(Update.class), eq(Recipe.class));
     }
 
     @Test
-    void removeIngredient_shouldRemoveIngredient_fromRecipe()
+    void saveIngredient_shouldThrowException_whenRetriesExhausted()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithTwoIngredients();
-        Recipe expectedRecipe = getTestRecipeWithOneIngredient();
-        Optional<Recipe> optionalRecipe = Optional.of( testRecipe );
+        IngredientDto testIngredient = converter.convertEntity( getTestIngredient( INGRED1_ID, INGRED1_DESC ) );
+
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( UpdateResult.acknowledged(0, 0L, null) );
+        when(recipeRepository.existsById(anyString())).thenReturn( true );
 
-        Ingredient testIngredient = getTestIngredient( INGRED2_ID, INGRED2_DESC );
+        // when
+        Executable executable = () -> ingredientService.saveIngredient( RECIPE_ID, testIngredient );
+
+        // then
+        assertThrows( OptimisticLockingFailureException.class, executable );
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(Update.class), eq(Recipe.class));
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(Update.class), eq(Recipe.class));
+        verifyNoInteractions(autocompleteService);
+    }
 
-        when(recipeRepository.findById(anyString())).thenReturn( optionalRecipe );
-        when(recipeRepository.save(any())).thenReturn( expectedRecipe );
+    @Test
+    void removeIngredient_shouldRemoveIngredient_fromRecipe()
+    {
+        // given
+        Ingredient removed = getTestIngredient( INGRED2_ID, INGRED2_DESC );
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), eq(Recipe.class)))
+                .thenReturn( getTestRecipe( removed ) );
 
         // when
-        ingredientService.removeIngredient( testRecipe.getId(), testIngredient.getId() );
+        ingredientService.removeIngredient( RECIPE_ID, INGRED2_ID );
 
         // then
-        verify(recipeRepository, times(1)).findById(anyString());
-        verify(recipeRepository, times(1)).save(any());
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), updateCaptor.capture(), eq(Recipe.class));
+        assertTrue( updateCaptor.getValue().getUpdateObject().containsKey("$pull") );
+        verify(recipeRepository, never()).findById(anyString());
+        verify(recipeRepository, never()).save(any());
+        verify(ingredientIndex).refresh( RECIPE_ID );
+        verify(autocompleteService).forgetIngredient( removed );
     }
 
     @Test
     void removeIngredient_shouldThrowException_whenRecipeNotFound()
     {
         // given
-        Recipe testRecipe = getTestRecipeWithTwoIngredients();
-        Ingredient testIngredient = getTestIngredient( INGRED1_ID, INGRED1_DESC );
-
-        when(recipeRepository.findByIngredientId(anyString())).thenThrow( NotFoundException.class );
+        when(recipeRepository.existsById(anyString())).thenReturn( false );
 
         // when
-        Executable executable = () -> ingredientService.removeIngredient( testRecipe.getId(), testIngredient.getId() );
+        Executable executable = () -> ingredientService.removeIngredient( RECIPE_ID, INGRED1_ID );
 
         // then
-        assertThrows( NotFoundException.class, executable );
+        NotFoundException exception = assertThrows( NotFoundException.class, executable );
+        assertTrue( exception.getMessage().startsWith("Recipe not found") );
     }
 
     //==================================================================================================================
-    private Recipe getTestRecipeWithOneIngredient()
+    private Recipe getTestRecipeWithNoIngredient()
     {
         Recipe recipe = new Recipe();
         recipe.setId( RECIPE_ID );
-        recipe.addIngredient(getTestIngredient( INGRED1_ID, INGRED1_DESC ));
 
         return recipe;
     }
 
-    private Recipe getTestRecipeWithTwoIngredients()
+    private Recipe getTestRecipe(Ingredient ingredient)
     {
-        Recipe recipe = getTestRecipeWithOneIngredient();
-        recipe.addIngredient(getTestIngredient( INGRED2_ID, INGRED2_DESC ));
-
-        return recipe;
-    }
-
-    private Recipe getTestRecipeWithNoIngredient()
-    {
-        Recipe recipe = new Recipe();
-        recipe.setId( RECIPE_ID );
+        Recipe recipe = getTestRecipeWithNoIngredient();
+        recipe.addIngredient( ingredient );
 
         return recipe;
     }
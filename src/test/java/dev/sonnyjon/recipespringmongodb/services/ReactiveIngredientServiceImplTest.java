@@ -0,0 +1,245 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverter;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.dto.IngredientDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveCategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveRecipeRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveUnitOfMeasureRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.*;
+
+class ReactiveIngredientServiceImplTest
+{
+    public static final String RECIPE_ID = "RECIPE-1";
+    public static final String INGRED_ID = "INGRED-ID";
+    public static final String UOM_ID = "UOM-1";
+
+    @Mock
+    ReactiveRecipeRepository recipeRepository;
+    @Mock
+    ReactiveMongoTemplate mongoTemplate;
+    @Mock
+    ReactiveUnitOfMeasureRepository unitOfMeasureRepository;
+    @Mock
+    ReactiveCategoryRepository categoryRepository;
+    @Mock
+    IngredientIndex ingredientIndex;
+    @Mock
+    AutocompleteService autocompleteService;
+
+    IngredientConverter converter;
+    ReactiveIngredientService ingredientService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        converter = new IngredientConverterImpl(new UnitOfMeasureConverterImpl());
+        ingredientService = new ReactiveIngredientServiceImpl(recipeRepository, mongoTemplate,
+                                                              new RetryPolicy(3, Duration.ZERO, Duration.ZERO),
+                                                              converter,
+                                                              new ReactiveReferenceSnapshots(unitOfMeasureRepository, categoryRepository),
+                                                              ingredientIndex, autocompleteService);
+
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId(UOM_ID);
+        uom.setDescription("Cup");
+        when(unitOfMeasureRepository.findById(UOM_ID)).thenReturn(Mono.just(uom));
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn(Mono.just(new Recipe()));
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class))).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void findInRecipe_shouldSignalNotFound_forUnknownRecipe()
+    {
+        // given
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn(Mono.empty());
+        when(recipeRepository.existsById(RECIPE_ID)).thenReturn(Mono.just(false));
+
+        // when
+        StepVerifier.create(ingredientService.findInRecipe(RECIPE_ID, INGRED_ID))
+                    // then
+                    .expectErrorMatches(e -> e instanceof NotFoundException && e.getMessage().contains("Recipe"))
+                    .verify();
+    }
+
+    @Test
+    void saveIngredient_shouldAddIngredient_withUomSnapshot()
+    {
+        // given
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(matched(1)));
+
+        // when
+        StepVerifier.create(ingredientService.saveIngredient(RECIPE_ID, getTestDto()))
+                    // then
+                    .assertNext(saved -> {
+                        assertNotNull(saved.getId());
+                        assertEquals("Cup", saved.getUom().getDescription());
+                    })
+                    .verifyComplete();
+        verify(mongoTemplate, times(1)).findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class));
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class));
+        verify(ingredientIndex, times(1)).index(any(Recipe.class));
+        verify(autocompleteService, times(1)).recordIngredient(isNull(), any(Ingredient.class));
+    }
+
+    @Test
+    void saveIngredient_shouldMoveAutocompleteUse_fromReplacedIngredient()
+    {
+        // given
+        Ingredient previous = new Ingredient("Plain flour", BigDecimal.ONE, null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(getTestRecipe(1L, previous)));
+
+        // when
+        StepVerifier.create(ingredientService.saveIngredient(RECIPE_ID, getTestDto())).expectNextCount(1).verifyComplete();
+
+        // then
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class));
+        verify(autocompleteService, times(1)).recordIngredient(same(previous),
+                                                               argThat(saved -> "Flour".equals(saved.getDescription())));
+    }
+
+    @Test
+    void saveIngredient_shouldRetry_thenSignalConflict()
+    {
+        // given
+        when(mongoTemplate.updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(matched(0)));
+        when(recipeRepository.existsById(RECIPE_ID)).thenReturn(Mono.just(true));
+
+        // when
+        StepVerifier.create(ingredientService.saveIngredient(RECIPE_ID, getTestDto()))
+                    // then
+                    .expectError(OptimisticLockingFailureException.class)
+                    .verify();
+        verify(mongoTemplate, times(3)).findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class));
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class));
+        verifyNoInteractions(ingredientIndex, autocompleteService);
+    }
+
+    @Test
+    void saveIngredient_shouldKeepNewerIndexedIngredients_whenOlderRefreshArrivesLast()
+    {
+        // given: a real index, and the refresh of the later save read first
+        IngredientIndex index = new IngredientIndex(mock(MongoTemplate.class));
+        ReactiveIngredientService service = new ReactiveIngredientServiceImpl(recipeRepository, mongoTemplate,
+                                                                              new RetryPolicy(3, Duration.ZERO, Duration.ZERO),
+                                                                              converter,
+                                                                              new ReactiveReferenceSnapshots(unitOfMeasureRepository, categoryRepository),
+                                                                              index, autocompleteService);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(getTestRecipe(1L, "Flour")));
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(getTestRecipe(3L, "Bread flour")))
+                .thenReturn(Mono.just(getTestRecipe(2L, "Rye flour")));
+
+        // when
+        StepVerifier.create(service.saveIngredient(RECIPE_ID, getTestDto())).expectNextCount(1).verifyComplete();
+        StepVerifier.create(service.saveIngredient(RECIPE_ID, getTestDto())).expectNextCount(1).verifyComplete();
+
+        // then
+        assertEquals(List.of(RECIPE_ID), index.findWithAll(List.of("bread")));
+        assertTrue(index.findWithAny(List.of("rye")).isEmpty());
+        verify(mongoTemplate, times(2)).findOne(argThat((Query query) -> query.getFieldsObject().containsKey("version")),
+                                                eq(Recipe.class));
+    }
+
+    @Test
+    void removeIngredient_shouldSignalNotFound_whenNothingMatched()
+    {
+        // given
+        when(recipeRepository.existsById(anyString())).thenReturn(Mono.just(true));
+
+        // when
+        StepVerifier.create(ingredientService.removeIngredient(RECIPE_ID, INGRED_ID))
+                    // then
+                    .expectErrorMatches(e -> e instanceof NotFoundException && e.getMessage().contains("Ingredient"))
+                    .verify();
+        verifyNoInteractions(ingredientIndex, autocompleteService);
+    }
+
+    @Test
+    void removeIngredient_shouldDropDeletedRecipe_fromIndex()
+    {
+        // given
+        Ingredient removed = new Ingredient("Flour", BigDecimal.ONE, null);
+        when(mongoTemplate.findAndModify(any(Query.class), any(UpdateDefinition.class), eq(Recipe.class)))
+                .thenReturn(Mono.just(getTestRecipe(1L, removed)));
+        when(mongoTemplate.findOne(any(Query.class), eq(Recipe.class))).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(ingredientService.removeIngredient(RECIPE_ID, INGRED_ID)).verifyComplete();
+
+        // then
+        verify(ingredientIndex, times(1)).remove(RECIPE_ID);
+        verify(autocompleteService, times(1)).forgetIngredient(removed);
+    }
+
+    //==================================================================================================================
+    private IngredientDto getTestDto()
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId(UOM_ID);
+
+        return converter.convertEntity(new Ingredient("Flour", new BigDecimal(2), uom));
+    }
+
+    private static Recipe getTestRecipe(Long version, String description)
+    {
+        return getTestRecipe(version, new Ingredient(description, BigDecimal.ONE, null));
+    }
+
+    private static Recipe getTestRecipe(Long version, Ingredient ingredient)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setId(RECIPE_ID);
+        recipe.setVersion(version);
+        recipe.addIngredient(ingredient);
+
+        return recipe;
+    }
+
+    private static UpdateResult matched(long count)
+    {
+        return UpdateResult.acknowledged(count, count, null);
+    }
+}
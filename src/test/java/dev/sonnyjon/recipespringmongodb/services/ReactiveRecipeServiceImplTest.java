@@ -0,0 +1,200 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.converters.CategoryConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.NotesConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveCategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveRecipeRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.ReactiveUnitOfMeasureRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.ReactiveGridFsTemplate;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
+
+class ReactiveRecipeServiceImplTest
+{
+    public static final String RECIPE_ID = "RECIPE-1";
+
+    @Mock
+    ReactiveRecipeRepository recipeRepository;
+    @Mock
+    ReactiveUnitOfMeasureRepository unitOfMeasureRepository;
+    @Mock
+    ReactiveCategoryRepository categoryRepository;
+    @Mock
+    IngredientIndex ingredientIndex;
+    @Mock
+    ReactiveGridFsTemplate gridFsTemplate;
+
+    RecipeConverter converter;
+    ReactiveRecipeService recipeService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        converter = new RecipeConverterImpl(new CategoryConverterImpl(),
+                                            new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                            new NotesConverterImpl());
+        recipeService = new ReactiveRecipeServiceImpl(recipeRepository, converter,
+                                                      new ReactiveReferenceSnapshots(unitOfMeasureRepository, categoryRepository),
+                                                      ingredientIndex, gridFsTemplate);
+
+        when(unitOfMeasureRepository.findAllById(any(Iterable.class))).thenReturn(Flux.empty());
+        when(categoryRepository.findAllById(any(Iterable.class))).thenReturn(Flux.empty());
+        when(recipeRepository.save(any(Recipe.class))).thenAnswer(invocation -> Mono.just(invocation.getArgument(0)));
+        when(recipeRepository.findImageIdById(anyString())).thenReturn(Mono.empty());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void findDtoById_shouldSignalNotFound_whenMissing()
+    {
+        // given
+        when(recipeRepository.findById(anyString())).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(recipeService.findDtoById(RECIPE_ID))
+                    // then
+                    .expectError(NotFoundException.class)
+                    .verify();
+    }
+
+    @Test
+    void saveRecipe_shouldFillSnapshots_andIndex()
+    {
+        // given
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId("UOM-1");
+        uom.setDescription("Teaspoon");
+        Category category = new Category();
+        category.setId("CAT-1");
+        category.setDescription("Mexican");
+        when(unitOfMeasureRepository.findAllById(any(Iterable.class))).thenReturn(Flux.just(uom));
+        when(categoryRepository.findAllById(any(Iterable.class))).thenReturn(Flux.just(category));
+
+        Recipe recipe = new Recipe();
+        recipe.setId("");
+        UnitOfMeasure uomRef = new UnitOfMeasure();
+        uomRef.setId("UOM-1");
+        recipe.addIngredient(new Ingredient("Salt", BigDecimal.ONE, uomRef));
+        Category categoryRef = new Category();
+        categoryRef.setId("CAT-1");
+        recipe.getCategories().add(categoryRef);
+
+        // when
+        StepVerifier.create(recipeService.saveRecipe(converter.convertEntity(recipe)))
+                    // then
+                    .assertNext(saved -> {
+                        assertNull(saved.getId());
+                        assertEquals("Teaspoon", saved.getIngredients().iterator().next().getUom().getDescription());
+                        assertEquals("Mexican", saved.getCategories().iterator().next().getDescription());
+                    })
+                    .verifyComplete();
+        verify(ingredientIndex, times(1)).index(any(Recipe.class));
+    }
+
+    @Test
+    void saveRecipe_shouldKeepStoredImageId_whateverTheClientSent()
+    {
+        // given
+        RecipeDto dto = getTestDto();
+        dto.setVersion(3L);
+        dto.setImageId("ANOTHER-RECIPES-IMAGE");
+
+        Recipe stored = new Recipe();
+        stored.setImageId("IMAGE-1");
+        when(recipeRepository.findImageIdById(RECIPE_ID)).thenReturn(Mono.just(stored));
+
+        // when
+        StepVerifier.create(recipeService.saveRecipe(dto))
+                    // then
+                    .assertNext(saved -> assertEquals("IMAGE-1", saved.getImageId()))
+                    .verifyComplete();
+    }
+
+    @Test
+    void saveRecipe_shouldInitVersion_ofUnversionedRecipe()
+    {
+        // given
+        when(recipeRepository.initVersion(RECIPE_ID)).thenReturn(Mono.just(1L));
+
+        // when
+        StepVerifier.create(recipeService.saveRecipe(getTestDto()))
+                    // then
+                    .assertNext(saved -> assertEquals(0L, saved.getVersion()))
+                    .verifyComplete();
+    }
+
+    @Test
+    void saveRecipe_shouldSignalConflict_whenVersionedSinceRead()
+    {
+        // given
+        when(recipeRepository.initVersion(RECIPE_ID)).thenReturn(Mono.just(0L));
+        when(recipeRepository.existsById(RECIPE_ID)).thenReturn(Mono.just(true));
+
+        // when
+        StepVerifier.create(recipeService.saveRecipe(getTestDto()))
+                    // then
+                    .expectError(OptimisticLockingFailureException.class)
+                    .verify();
+        verify(recipeRepository, never()).save(any(Recipe.class));
+        verifyNoInteractions(ingredientIndex);
+    }
+
+    @Test
+    void deleteById_shouldRemoveFromIndex_andDeleteImages()
+    {
+        // given
+        when(recipeRepository.deleteById(RECIPE_ID)).thenReturn(Mono.empty());
+        when(gridFsTemplate.delete(any(Query.class))).thenReturn(Mono.empty());
+
+        // when
+        StepVerifier.create(recipeService.deleteById(RECIPE_ID)).verifyComplete();
+
+        // then
+        verify(ingredientIndex, times(1)).remove(RECIPE_ID);
+        verify(gridFsTemplate, times(1)).delete(argThat((Query query) -> RECIPE_ID.equals(query.getQueryObject()
+                                                                                   .get("metadata." + ImageServiceImpl.RECIPE_ID_METADATA))));
+    }
+
+    //==================================================================================================================
+    private static RecipeDto getTestDto()
+    {
+        RecipeDto dto = new RecipeDto();
+        dto.setId(RECIPE_ID);
+
+        return dto;
+    }
+}
@@ -0,0 +1,211 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.client.gridfs.model.GridFSFile;
+import dev.sonnyjon.recipespringmongodb.converters.CategoryConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.NotesConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import org.bson.BsonObjectId;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.gridfs.GridFsResource;
+import org.springframework.data.mongodb.gridfs.GridFsTemplate;
+import org.springframework.data.util.CloseableIterator;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeExportServiceImplTest
+{
+    static final ObjectId IMAGE_ID = new ObjectId();
+    static final byte[] IMAGE_BYTES = "fake image".getBytes(StandardCharsets.UTF_8);
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    GridFsTemplate gridFsTemplate;
+
+    ObjectMapper objectMapper = new ObjectMapper();
+    RecipeExportService exportService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        exportService = new RecipeExportServiceImpl(mongoTemplate, gridFsTemplate,
+                                                    new RecipeConverterImpl(new CategoryConverterImpl(),
+                                                                            new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                                                            new NotesConverterImpl()),
+                                                    objectMapper);
+
+        GridFSFile image = new GridFSFile(new BsonObjectId(IMAGE_ID), "guacamole.jpg", IMAGE_BYTES.length, 255,
+                                          new Date(), new Document("_contentType", "image/jpeg"));
+        when(gridFsTemplate.findOne(any(Query.class))).thenReturn(image);
+        when(gridFsTemplate.getResource(image)).thenReturn(new GridFsResource(image, new ByteArrayInputStream(IMAGE_BYTES)));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void exportRecipes_shouldWriteOneJsonLinePerRecipe_withImage() throws Exception
+    {
+        // given
+        when(mongoTemplate.stream(any(Query.class), eq(Recipe.class)))
+                .thenReturn(closeableIterator(getTestRecipe("RECIPE-1", IMAGE_ID.toHexString()), getTestRecipe("RECIPE-2", null)));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportRecipes(ExportFormat.NDJSON, true, out);
+
+        // then
+        String[] lines = gunzip(out).split("\n");
+        assertEquals(2, count);
+        assertEquals(2, lines.length);
+
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("RECIPE-1", first.get("id").asText());
+        assertEquals("Perfect, \"Easy\" Guacamole", first.get("description").asText());
+        assertEquals("avocado", first.get("ingredients").get(0).get("description").asText());
+        assertEquals("image/jpeg", first.get("image").get("contentType").asText());
+        assertArrayEquals(IMAGE_BYTES, first.get("image").get("data").binaryValue());
+        assertFalse(objectMapper.readTree(lines[1]).has("image"));
+    }
+
+    @Test
+    void exportRecipes_shouldWriteCsvRows_withoutImages() throws Exception
+    {
+        // given
+        when(mongoTemplate.stream(any(Query.class), eq(Recipe.class)))
+                .thenReturn(closeableIterator(getTestRecipe("RECIPE-1", IMAGE_ID.toHexString())));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        exportService.exportRecipes(ExportFormat.CSV, false, out);
+
+        // then
+        String[] rows = gunzip(out).split("\r\n");
+        assertEquals(String.join(",", RecipeExportServiceImpl.CSV_COLUMNS), rows[0]);
+        assertEquals("RECIPE-1,,\"Perfect, \"\"Easy\"\" Guacamole\",10,,,,,,\"Mash.\nServe.\",,Mexican,2 each avocado,"
+                     + IMAGE_ID.toHexString(), rows[1]);
+        verifyNoInteractions(gridFsTemplate);
+    }
+
+    @Test
+    void exportRecipes_shouldAppendImageColumns_toCsv() throws Exception
+    {
+        // given
+        when(mongoTemplate.stream(any(Query.class), eq(Recipe.class)))
+                .thenReturn(closeableIterator(getTestRecipe("RECIPE-1", IMAGE_ID.toHexString())));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        exportService.exportRecipes(ExportFormat.CSV, true, out);
+
+        // then
+        String[] rows = gunzip(out).split("\r\n");
+        assertTrue(rows[0].endsWith(",imageContentType,image"));
+        assertTrue(rows[1].endsWith(",image/jpeg," + Base64.getEncoder().encodeToString(IMAGE_BYTES)));
+    }
+
+    @Test
+    void exportRecipes_shouldWriteValidGzip_whenNoRecipes() throws Exception
+    {
+        // given
+        when(mongoTemplate.stream(any(Query.class), eq(Recipe.class))).thenReturn(closeableIterator());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // when
+        long count = exportService.exportRecipes(ExportFormat.NDJSON, true, out);
+
+        // then
+        assertEquals(0, count);
+        assertEquals("", gunzip(out));
+    }
+
+    //==================================================================================================================
+    private static Recipe getTestRecipe(String id, String imageId)
+    {
+        UnitOfMeasure each = new UnitOfMeasure();
+        each.setId("UOM-1");
+        each.setDescription("each");
+
+        Category category = new Category();
+        category.setId("CAT-1");
+        category.setDescription("Mexican");
+
+        Recipe recipe = new Recipe();
+        recipe.setId(id);
+        recipe.setDescription("Perfect, \"Easy\" Guacamole");
+        recipe.setPrepTime(10);
+        recipe.setDirections("Mash.\nServe.");
+        recipe.setImageId(imageId);
+        recipe.getCategories().add(category);
+        recipe.addIngredient(new Ingredient("avocado", new BigDecimal("2.00"), each));
+
+        return recipe;
+    }
+
+    private static String gunzip(ByteArrayOutputStream out) throws Exception
+    {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(out.toByteArray())))
+        {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    private static CloseableIterator<Recipe> closeableIterator(Recipe... recipes)
+    {
+        Iterator<Recipe> iterator = List.of(recipes).iterator();
+
+        return new CloseableIterator<>()
+        {
+            @Override
+            public boolean hasNext()
+            {
+                return iterator.hasNext();
+            }
+
+            @Override
+            public Recipe next()
+            {
+                return iterator.next();
+            }
+
+            @Override
+            public void close()
+            {
+            }
+        };
+    }
+}
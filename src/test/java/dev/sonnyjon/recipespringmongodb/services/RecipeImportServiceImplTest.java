@@ -0,0 +1,319 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import dev.sonnyjon.recipespringmongodb.converters.CategoryConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.NotesConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.ValidatorFactory;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeImportServiceImplTest
+{
+    static final String VALID = "{\"description\": \"Perfect Guacamole\", \"servings\": 4, \"categories\": [{\"description\": \"mexican\"}],"
+                                + " \"ingredients\": [{\"description\": \"avocado\", \"amount\": 2, \"uom\": {\"description\": \"Each\"}},"
+                                + " {\"description\": \"lime\", \"amount\": 1, \"uom\": {\"id\": \"UOM-EACH\"}}]}";
+    static final String WITH_ID = "{\"id\": \"RECIPE-1\", \"version\": 3, \"description\": \"Spicy Tacos\", \"imageId\": \"OTHER-DB\","
+                                  + " \"image\": {\"contentType\": \"image/jpeg\", \"data\": \"AAAA\"}}";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    BulkOperations bulkOperations;
+    @Mock
+    UnitOfMeasureRepository unitOfMeasureRepository;
+    @Mock
+    CategoryRepository categoryRepository;
+    @Mock
+    IngredientIndex ingredientIndex;
+    @Mock
+    AutocompleteService autocompleteService;
+
+    ValidatorFactory validatorFactory;
+    RecipeImportService importService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        validatorFactory = Validation.buildDefaultValidatorFactory();
+        importService = new RecipeImportServiceImpl(mongoTemplate, unitOfMeasureRepository, categoryRepository,
+                                                    new RecipeConverterImpl(new CategoryConverterImpl(),
+                                                                            new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                                                            new NotesConverterImpl()),
+                                                    ingredientIndex, autocompleteService, new ObjectMapper(),
+                                                    validatorFactory, 2, 2, 10);
+
+        when(mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Recipe.class)).thenReturn(bulkOperations);
+        when(unitOfMeasureRepository.findAll()).thenReturn(List.of(getTestUom("UOM-EACH", "Each")));
+        when(categoryRepository.findAll()).thenReturn(List.of(getTestCategory("CAT-MEX", "Mexican")));
+        when(bulkOperations.execute()).thenReturn(getTestResult(1));
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        validatorFactory.close();
+        mocks.close();
+    }
+
+    @Test
+    void importRecipes_shouldInsertNewRecipes_withResolvedReferences() throws Exception
+    {
+        // given
+        ArgumentCaptor<Recipe> inserted = ArgumentCaptor.forClass(Recipe.class);
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of(getStoredRecipe(3L)));
+
+        // when
+        ImportReport report = importService.importRecipes(ndjson(VALID, "", WITH_ID));
+
+        // then
+        assertEquals(2, report.getRows());
+        assertEquals(2, report.getImported());
+        assertEquals(0, report.getFailed());
+        assertTrue(report.getRowsPerSecond() > 0);
+
+        verify(bulkOperations, times(1)).insert(inserted.capture());
+        Recipe recipe = inserted.getValue();
+        assertNotNull(recipe.getId());
+        assertEquals(0L, recipe.getVersion());
+        assertEquals(Set.of("Mexican"), Set.of(recipe.getCategories().iterator().next().getDescription()));
+        assertEquals(2, recipe.getIngredients().size());
+        for (Ingredient ingredient : recipe.getIngredients())
+        {
+            assertNotNull(ingredient.getId());
+            assertEquals("UOM-EACH", ingredient.getUom().getId());
+            assertEquals("Each", ingredient.getUom().getDescription());
+        }
+
+        verify(bulkOperations, times(1)).execute();
+        verify(ingredientIndex, times(1)).rebuild();
+        verify(autocompleteService, times(1)).rebuild();
+    }
+
+    @Test
+    void importRecipes_shouldReplaceStoredRecipe_withNextVersion_andStoredImage() throws Exception
+    {
+        // given
+        ArgumentCaptor<Query> guard = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Recipe> replaced = ArgumentCaptor.forClass(Recipe.class);
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of(getStoredRecipe(3L)));
+
+        // when
+        ImportReport report = importService.importRecipes(ndjson(WITH_ID));
+
+        // then
+        assertEquals(1, report.getImported());
+        verify(bulkOperations, times(1)).replaceOne(guard.capture(), replaced.capture(), any(FindAndReplaceOptions.class));
+        assertEquals(3L, guard.getValue().getQueryObject().get("version"));
+        assertEquals(4L, replaced.getValue().getVersion());
+        assertEquals("IMAGE-1", replaced.getValue().getImageId());
+        assertEquals("Spicy Tacos", replaced.getValue().getDescription());
+    }
+
+    @Test
+    void importRecipes_shouldInsertUnknownId_withoutImage() throws Exception
+    {
+        // given
+        ArgumentCaptor<Recipe> inserted = ArgumentCaptor.forClass(Recipe.class);
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of());
+
+        // when
+        ImportReport report = importService.importRecipes(ndjson(WITH_ID));
+
+        // then
+        assertEquals(1, report.getImported());
+        verify(bulkOperations, times(1)).insert(inserted.capture());
+        assertEquals("RECIPE-1", inserted.getValue().getId());
+        assertNull(inserted.getValue().getImageId());
+        verify(bulkOperations, never()).replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+    }
+
+    @Test
+    void importRecipes_shouldReportVersionConflict_whenStoredRecipeIsNewer() throws Exception
+    {
+        // given
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of(getStoredRecipe(5L)));
+
+        // when
+        ImportReport older = importService.importRecipes(ndjson(WITH_ID));
+        ImportReport unversioned = importService.importRecipes(ndjson("{\"id\": \"RECIPE-1\", \"description\": \"No version\"}"));
+
+        // then
+        assertEquals(0, older.getImported() + unversioned.getImported());
+        assertEquals("Version conflict: recipe RECIPE-1 is at version 5, the row has 3", older.getErrors().get(0).getMessage());
+        assertEquals("Version conflict: recipe RECIPE-1 is at version 5, the row has null", unversioned.getErrors().get(0).getMessage());
+        verify(bulkOperations, never()).replaceOne(any(Query.class), any(), any(FindAndReplaceOptions.class));
+        verify(bulkOperations, never()).execute();
+    }
+
+    @Test
+    void importRecipes_shouldReportVersionConflict_whenRecipeChangesDuringImport() throws Exception
+    {
+        // given: saved after its version was read, the recipe no longer matches the guard and the upsert collides on _id
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of(getStoredRecipe(3L)));
+        when(bulkOperations.execute()).thenThrow(getTestFailure(0));
+
+        // when
+        ImportReport report = importService.importRecipes(ndjson(WITH_ID));
+
+        // then
+        assertEquals(0, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals("Version conflict: recipe RECIPE-1 changed during the import", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importRecipes_shouldReportInvalidRows_andWriteTheRest() throws Exception
+    {
+        // when
+        ImportReport report = importService.importRecipes(ndjson(
+                VALID,
+                "{\"description\": \"\", \"servings\": 0}",
+                "{not json",
+                "{\"description\": \"Chili\", \"ingredients\": [{\"description\": \"beans\", \"uom\": {\"description\": \"Bushel\"}}]}",
+                "{\"description\": \"Salad\", \"categories\": [{\"id\": \"CAT-NONE\"}]}"));
+
+        // then
+        assertEquals(5, report.getRows());
+        assertEquals(1, report.getImported());
+        assertEquals(4, report.getFailed());
+
+        List<ImportReport.RowError> errors = report.getErrors();
+        assertEquals(List.of(2L, 3L, 4L, 5L), errors.stream().map(ImportReport.RowError::getLine).collect(Collectors.toList()));
+        assertTrue(errors.get(0).getMessage().contains("description"));
+        assertTrue(errors.get(0).getMessage().contains("servings"));
+        assertTrue(errors.get(1).getMessage().startsWith("Malformed JSON"));
+        assertEquals("Unknown unit of measure: 'Bushel'", errors.get(2).getMessage());
+        assertEquals("Unknown category: id CAT-NONE", errors.get(3).getMessage());
+
+        // batches of 2 lines; the second holds no valid row and writes nothing
+        verify(bulkOperations, times(1)).insert(any(Recipe.class));
+        verify(bulkOperations, times(1)).execute();
+    }
+
+    @Test
+    void importRecipes_shouldReportBulkWriteErrors_byLine() throws Exception
+    {
+        // given
+        when(mongoTemplate.find(any(Query.class), eq(Recipe.class))).thenReturn(List.of(getStoredRecipe(3L)));
+        when(bulkOperations.execute()).thenThrow(getTestFailure(0));
+
+        // when
+        ImportReport report = importService.importRecipes(ndjson(VALID, WITH_ID));
+
+        // then
+        assertEquals(1, report.getImported());
+        assertEquals(1, report.getFailed());
+        assertEquals(1L, report.getErrors().get(0).getLine());
+        assertEquals("E11000 duplicate key", report.getErrors().get(0).getMessage());
+    }
+
+    @Test
+    void importRecipes_shouldReadGzippedInput_andKeepMaxErrors() throws Exception
+    {
+        // given
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed))
+        {
+            for (int i = 0; i < 12; i++) gzip.write("{}\n".getBytes(StandardCharsets.UTF_8));
+        }
+
+        // when
+        ImportReport report = importService.importRecipes(new ByteArrayInputStream(compressed.toByteArray()));
+
+        // then
+        assertEquals(12, report.getRows());
+        assertEquals(12, report.getFailed());
+        assertEquals(10, report.getErrors().size());
+        verify(mongoTemplate, never()).bulkOps(any(BulkOperations.BulkMode.class), eq(Recipe.class));
+        verify(ingredientIndex, never()).rebuild();
+    }
+
+    //==================================================================================================================
+    private static InputStream ndjson(String... lines)
+    {
+        return new ByteArrayInputStream(String.join("\n", lines).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Recipe getStoredRecipe(Long version)
+    {
+        Recipe recipe = new Recipe();
+        recipe.setId("RECIPE-1");
+        recipe.setVersion(version);
+        recipe.setImageId("IMAGE-1");
+
+        return recipe;
+    }
+
+    private static BulkWriteResult getTestResult(int matched)
+    {
+        return BulkWriteResult.acknowledged(0, matched, 0, matched, List.of(), List.of());
+    }
+
+    private static BulkOperationException getTestFailure(int index)
+    {
+        MongoBulkWriteException failure = new MongoBulkWriteException(
+                getTestResult(0),
+                List.of(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), index)),
+                null, new ServerAddress(), Set.of());
+
+        return new BulkOperationException("bulk failed", failure);
+    }
+
+    private static UnitOfMeasure getTestUom(String id, String description)
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId(id);
+        uom.setDescription(description);
+
+        return uom;
+    }
+
+    private static Category getTestCategory(String id, String description)
+    {
+        Category category = new Category();
+        category.setId(id);
+        category.setDescription(description);
+
+        return category;
+    }
+}
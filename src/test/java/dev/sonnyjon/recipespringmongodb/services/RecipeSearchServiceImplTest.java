@@ -0,0 +1,142 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class RecipeSearchServiceImplTest
+{
+    public static final String RECIPE = "recipe";
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    IngredientIndex ingredientIndex;
+
+    RecipeSearchService searchService;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        when(mongoTemplate.getCollectionName(Recipe.class)).thenReturn(RECIPE);
+        searchService = new RecipeSearchServiceImpl(mongoTemplate, ingredientIndex);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void search_shouldQueryTextIndex_byRelevance()
+    {
+        // given
+        RecipeSummaryDto recipe = new RecipeSummaryDto("RECIPE-1", "Chicken Tacos", Difficulty.EASY, 10, 15, null);
+        when(mongoTemplate.find(any(Query.class), eq(RecipeSummaryDto.class), eq(RECIPE))).thenReturn(List.of(recipe));
+        when(mongoTemplate.count(any(Query.class), eq(Recipe.class))).thenReturn(41L);
+
+        // when
+        Page<RecipeSummaryDto> actual = searchService.search(" chicken tacos ", PageRequest.of(2, 20));
+
+        // then
+        assertEquals(List.of(recipe), actual.getContent());
+        assertEquals(41L, actual.getTotalElements());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(RecipeSummaryDto.class), eq(RECIPE));
+        Query query = queryCaptor.getValue();
+
+        assertEquals("chicken tacos", ((Document) query.getQueryObject().get("$text")).get("$search"));
+        assertEquals(List.of("score", "id"), List.copyOf(query.getSortObject().keySet()));
+        assertEquals(40L, query.getSkip());
+        assertEquals(20, query.getLimit());
+        assertEquals(1, query.getFieldsObject().get("description"));
+        assertFalse(query.getFieldsObject().containsKey("directions"));
+    }
+
+    @Test
+    void search_shouldSkipCount_onPartialFirstPage()
+    {
+        // given
+        when(mongoTemplate.find(any(Query.class), eq(RecipeSummaryDto.class), eq(RECIPE))).thenReturn(List.of());
+
+        // when
+        Page<RecipeSummaryDto> actual = searchService.search("kale", PageRequest.of(0, 20));
+
+        // then
+        assertEquals(0L, actual.getTotalElements());
+        verify(mongoTemplate, never()).count(any(Query.class), any(Class.class));
+    }
+
+    @Test
+    void search_shouldReturnEmpty_whenTermsBlank()
+    {
+        // when
+        Page<RecipeSummaryDto> actual = searchService.search("  ", PageRequest.of(0, 20));
+
+        // then
+        assertTrue(actual.isEmpty());
+        verifyNoInteractions(mongoTemplate);
+    }
+
+    @Test
+    void searchByIngredients_shouldReadRequestedPage_inIndexOrder()
+    {
+        // given
+        RecipeSummaryDto first = new RecipeSummaryDto("RECIPE-3", "Guacamole", Difficulty.EASY, 10, 0, null);
+        RecipeSummaryDto second = new RecipeSummaryDto("RECIPE-4", "Fish Tacos", Difficulty.MODERATE, 20, 10, null);
+        when(ingredientIndex.findWithAll(List.of("avocado", "lime")))
+                .thenReturn(List.of("RECIPE-1", "RECIPE-2", "RECIPE-3", "RECIPE-4", "RECIPE-5"));
+        when(mongoTemplate.find(any(Query.class), eq(RecipeSummaryDto.class), eq(RECIPE))).thenReturn(List.of(second, first));
+
+        // when
+        Page<RecipeSummaryDto> actual = searchService.searchByIngredients(" avocado,lime, ", true, PageRequest.of(1, 2));
+
+        // then
+        assertEquals(List.of(first, second), actual.getContent());
+        assertEquals(5L, actual.getTotalElements());
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).find(queryCaptor.capture(), eq(RecipeSummaryDto.class), eq(RECIPE));
+        assertEquals(List.of("RECIPE-3", "RECIPE-4"),
+                     ((Document) queryCaptor.getValue().getQueryObject().get("id")).get("$in"));
+        verify(ingredientIndex, never()).findWithAny(any());
+    }
+
+    @Test
+    void searchByIngredients_shouldNotQuery_pastLastMatch()
+    {
+        // given
+        when(ingredientIndex.findWithAny(List.of("saffron"))).thenReturn(List.of("RECIPE-1"));
+
+        // when
+        Page<RecipeSummaryDto> actual = searchService.searchByIngredients("saffron", false, PageRequest.of(3, 20));
+
+        // then
+        assertTrue(actual.getContent().isEmpty());
+        assertEquals(1L, actual.getTotalElements());
+        verify(mongoTemplate, never()).find(any(Query.class), eq(RecipeSummaryDto.class), anyString());
+    }
+}
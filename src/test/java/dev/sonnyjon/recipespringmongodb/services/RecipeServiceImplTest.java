@@ -1,10 +1,22 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
+import dev.sonnyjon.recipespringmongodb.converters.CategoryConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.IngredientConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.NotesConverterImpl;
 import dev.sonnyjon.recipespringmongodb.converters.RecipeConverter;
+import dev.sonnyjon.recipespringmongodb.converters.RecipeConverterImpl;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
 import dev.sonnyjon.recipespringmongodb.dto.RecipeDto;
+import dev.sonnyjon.recipespringmongodb.dto.RecipeSummaryDto;
 import dev.sonnyjon.recipespringmongodb.exceptions.NotFoundException;
+import dev.sonnyjon.recipespringmongodb.model.Difficulty;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Ingredient;
 import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import dev.sonnyjon.recipespringmongodb.repositories.CategoryRepository;
 import dev.sonnyjon.recipespringmongodb.repositories.RecipeRepository;
+import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -12,11 +24,17 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.api.function.Executable;
 import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
@@ -30,6 +48,12 @@ class RecipeServiceImplTest
 {
     @Mock
     RecipeRepository recipeRepository;
+    @Mock
+    UnitOfMeasureRepository unitOfMeasureRepository;
+    @Mock
+    CategoryRepository categoryRepository;
+    @Mock
+    IngredientIndex ingredientIndex;
 
     RecipeConverter converter;
     RecipeService recipeService;
@@ -39,8 +63,12 @@ class RecipeServiceImplTest
     void setUp()
     {
         mocks = MockitoAnnotations.openMocks(this);
-        recipeService = new RecipeServiceImpl(recipeRepository);
-        converter = new RecipeConverter();
+        converter = new RecipeConverterImpl(new CategoryConverterImpl(),
+                                            new IngredientConverterImpl(new UnitOfMeasureConverterImpl()),
+                                            new NotesConverterImpl());
+        recipeService = new RecipeServiceImpl(recipeRepository, converter,
+                                              new ReferenceSnapshots(unitOfMeasureRepository, categoryRepository),
+                                              ingredientIndex);
     }
 
     @AfterEach
@@ -77,6 +105,29 @@ class RecipeServiceImplTest
         assertEquals(expectedRecipes, actualRecipes);
     }
 
+    @Test
+    void getRecipeSummaries_shouldReturn_requestedPage()
+    {
+        // given
+        Pageable pageable = PageRequest.of(1, 2);
+        List<RecipeSummaryDto> summaries = List.of(
+                new RecipeSummaryDto("RECIPE-3", "DESC-3", Difficulty.EASY, 5, 10, null),
+                new RecipeSummaryDto("RECIPE-4", "DESC-4", Difficulty.MODERATE, 10, 20, null)
+        );
+        Page<RecipeSummaryDto> expected = new PageImpl<>(summaries, pageable, 5);
+
+        when(recipeRepository.findAllBy(pageable)).thenReturn(expected);
+
+        // when
+        Page<RecipeSummaryDto> actual = recipeService.getRecipeSummaries(pageable);
+
+        // then
+        assertEquals(expected, actual);
+        assertEquals(3, actual.getTotalPages());
+        verify(recipeRepository, times(1)).findAllBy(pageable);
+        verify(recipeRepository, never()).findAll();
+    }
+
     @Test
     void findById_shouldReturnRecipe_whenFound()
     {
@@ -156,6 +207,152 @@ class RecipeServiceImplTest
         // then
         assertEquals(expectedDto.getId(), actualDto.getId());
         assertEquals(expectedDto.getDescription(), actualDto.getDescription());
+        verify(ingredientIndex).index(recipe);
+    }
+
+    @Test
+    void saveRecipe_shouldInsert_whenIdIsBlank()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setId("");
+        dto.setDescription("RECIPE_DESC");
+
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        recipeService.saveRecipe(dto);
+
+        // then
+        verify(recipeRepository, times(1)).save(argThat(recipe -> recipe.getId() == null));
+        verify(recipeRepository, never()).initVersion(any());
+    }
+
+    @Test
+    void saveRecipe_shouldInitVersion_whenRecipeIsUnversioned()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setId("RECIPE-1");
+
+        when(recipeRepository.initVersion(anyString())).thenReturn(1L);
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        recipeService.saveRecipe(dto);
+
+        // then
+        verify(recipeRepository, times(1)).save(argThat(recipe -> Long.valueOf(0L).equals(recipe.getVersion())));
+    }
+
+    @Test
+    void saveRecipe_shouldThrowException_whenVersionMissingForVersionedRecipe()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setId("RECIPE-1");
+
+        when(recipeRepository.initVersion(anyString())).thenReturn(0L);
+        when(recipeRepository.existsById(anyString())).thenReturn(true);
+
+        // when
+        Executable executable = () -> recipeService.saveRecipe(dto);
+
+        // then
+        assertThrows(OptimisticLockingFailureException.class, executable);
+        verify(recipeRepository, never()).save(any());
+    }
+
+    @Test
+    void saveRecipe_shouldNotTouchVersion_whenVersionGiven()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setId("RECIPE-1");
+        dto.setVersion(3L);
+
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        RecipeDto actualDto = recipeService.saveRecipe(dto);
+
+        // then
+        assertEquals(3L, actualDto.getVersion());
+        verify(recipeRepository, never()).initVersion(any());
+        verify(recipeRepository, never()).existsById(any());
+    }
+
+    @Test
+    void saveRecipe_shouldKeepStoredImageId_whateverTheClientSent()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setId("RECIPE-1");
+        dto.setVersion(3L);
+        dto.setImageId("ANOTHER-RECIPES-IMAGE");
+
+        Recipe stored = new Recipe();
+        stored.setImageId("IMAGE-1");
+
+        when(recipeRepository.findImageIdById("RECIPE-1")).thenReturn(Optional.of(stored));
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        recipeService.saveRecipe(dto);
+
+        // then
+        verify(recipeRepository, times(1)).save(argThat(recipe -> "IMAGE-1".equals(recipe.getImageId())));
+    }
+
+    @Test
+    void saveRecipe_shouldInsertWithoutImage_whateverTheClientSent()
+    {
+        // given
+        RecipeDto dto = new RecipeDto();
+        dto.setDescription("RECIPE_DESC");
+        dto.setImageId("not-an-object-id");
+
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        recipeService.saveRecipe(dto);
+
+        // then
+        verify(recipeRepository, times(1)).save(argThat(recipe -> recipe.getImageId() == null));
+        verify(recipeRepository, never()).findImageIdById(any());
+    }
+
+    @Test
+    void saveRecipe_shouldEmbed_UomAndCategorySnapshots()
+    {
+        // given
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId("UOM-1");
+        uom.setDescription("Teaspoon");
+        Category category = new Category();
+        category.setId("CAT-1");
+        category.setDescription("Mexican");
+
+        // The form posts ids only
+        Recipe recipe = new Recipe();
+        recipe.setVersion(1L);
+        UnitOfMeasure uomRef = new UnitOfMeasure();
+        uomRef.setId("UOM-1");
+        recipe.addIngredient(new Ingredient("Salt", null, uomRef));
+        Category categoryRef = new Category();
+        categoryRef.setId("CAT-1");
+        recipe.getCategories().add(categoryRef);
+
+        when(unitOfMeasureRepository.findById("UOM-1")).thenReturn(Optional.of(uom));
+        when(categoryRepository.findById("CAT-1")).thenReturn(Optional.of(category));
+        when(recipeRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // when
+        RecipeDto actualDto = recipeService.saveRecipe(converter.convertEntity(recipe));
+
+        // then
+        assertEquals("Teaspoon", actualDto.getIngredients().get(0).getUom().getDescription());
+        assertEquals("Mexican", actualDto.getCategories().get(0).getDescription());
     }
 
     @Test
@@ -169,5 +366,6 @@ class RecipeServiceImplTest
 
         // then
         verify(recipeRepository, times(1)).deleteById(anyString());
+        verify(ingredientIndex).remove("RECIPE-1");
     }
 }
\ No newline at end of file
@@ -0,0 +1,200 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import com.mongodb.client.result.UpdateResult;
+import dev.sonnyjon.recipespringmongodb.model.Category;
+import dev.sonnyjon.recipespringmongodb.model.Recipe;
+import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MongoConverter;
+import org.springframework.data.mongodb.core.mapping.event.AfterSaveEvent;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class ReferenceSnapshotSyncListenerTest
+{
+    public static final String RECIPE = "recipe";
+    public static final ObjectId UOM_ID = new ObjectId();
+    public static final ObjectId CATEGORY_ID = new ObjectId();
+
+    @Mock
+    MongoTemplate mongoTemplate;
+    @Mock
+    MongoConverter mongoConverter;
+
+    List<Runnable> queued;
+    SimpleMeterRegistry meterRegistry;
+    ReferenceSnapshotSyncListener listener;
+    AutoCloseable mocks;
+
+    @BeforeEach
+    void setUp()
+    {
+        mocks = MockitoAnnotations.openMocks(this);
+        queued = new ArrayList<>();
+        meterRegistry = new SimpleMeterRegistry();
+
+        when(mongoTemplate.getConverter()).thenReturn(mongoConverter);
+        when(mongoConverter.convertId(any(), eq(ObjectId.class)))
+                .thenAnswer(invocation -> new ObjectId((String) invocation.getArgument(0)));
+        when(mongoTemplate.getCollectionName(Recipe.class)).thenReturn(RECIPE);
+
+        listener = new ReferenceSnapshotSyncListener(mongoTemplate, queued::add, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception
+    {
+        mocks.close();
+    }
+
+    @Test
+    void onAfterSave_shouldUpdateUomSnapshots_inBackground()
+    {
+        // given
+        when(mongoTemplate.findById(UOM_ID.toHexString(), UnitOfMeasure.class)).thenReturn(getTestUom("Tablespoon"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(RECIPE)))
+                .thenReturn(UpdateResult.acknowledged(3, 3L, null));
+
+        // when
+        listener.onAfterSave(new AfterSaveEvent<>(getTestUom("Tablespoon"), new Document(), "unitOfMeasure"));
+
+        // then
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), anyString());
+        assertEquals(1, meterRegistry.get(ReferenceSnapshotSyncListener.PENDING_METRIC).gauge().value());
+
+        queued.forEach(Runnable::run);
+
+        ArgumentCaptor<Query> queryCaptor = ArgumentCaptor.forClass(Query.class);
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(queryCaptor.capture(), updateCaptor.capture(), eq(RECIPE));
+
+        Document elemMatch = (Document) ((Document) queryCaptor.getValue().getQueryObject().get("ingredients")).get("$elemMatch");
+        assertEquals(UOM_ID, elemMatch.get("uom._id"));
+        assertEquals("Tablespoon", ((Document) updateCaptor.getValue().getUpdateObject().get("$set"))
+                                        .get("ingredients.$[ingredient].uom.description"));
+        assertEquals(1, ((Document) updateCaptor.getValue().getUpdateObject().get("$inc")).get("version"));
+        assertEquals(UOM_ID, updateCaptor.getValue().getArrayFilters().get(0).asDocument().get("ingredient.uom._id"));
+
+        assertEquals(0, meterRegistry.get(ReferenceSnapshotSyncListener.PENDING_METRIC).gauge().value());
+        assertEquals(3, meterRegistry.get(ReferenceSnapshotSyncListener.RECIPES_METRIC).counter().count());
+        assertEquals(1, meterRegistry.get(ReferenceSnapshotSyncListener.LAG_METRIC)
+                                     .tag("type", "unitOfMeasure").tag("outcome", "success").timer().count());
+    }
+
+    @Test
+    void onAfterSave_shouldUpdateCategorySnapshots()
+    {
+        // given
+        Category category = new Category();
+        category.setId(CATEGORY_ID.toHexString());
+        category.setDescription("Tex-Mex");
+
+        when(mongoTemplate.findById(CATEGORY_ID.toHexString(), Category.class)).thenReturn(category);
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(RECIPE)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        // when
+        listener.onAfterSave(new AfterSaveEvent<>(category, new Document(), "category"));
+        queued.forEach(Runnable::run);
+
+        // then
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateMulti(any(Query.class), updateCaptor.capture(), eq(RECIPE));
+        assertEquals("Tex-Mex", ((Document) updateCaptor.getValue().getUpdateObject().get("$set"))
+                                        .get("categories.$[category].description"));
+        assertEquals(CATEGORY_ID, updateCaptor.getValue().getArrayFilters().get(0).asDocument().get("category._id"));
+    }
+
+    @Test
+    void onAfterSave_shouldIgnore_otherEntities()
+    {
+        // when
+        listener.onAfterSave(new AfterSaveEvent<>(new Recipe(), new Document(), RECIPE));
+
+        // then
+        assertTrue(queued.isEmpty());
+    }
+
+    @Test
+    void onAfterSave_shouldRecordFailure_whenUpdateFails()
+    {
+        // given
+        when(mongoTemplate.findById(UOM_ID.toHexString(), UnitOfMeasure.class)).thenReturn(getTestUom("Cup"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(RECIPE)))
+                .thenThrow(new DataAccessResourceFailureException("down"));
+
+        // when
+        listener.onAfterSave(new AfterSaveEvent<>(getTestUom("Cup"), new Document(), "unitOfMeasure"));
+        queued.forEach(Runnable::run);
+
+        // then
+        assertEquals(0, meterRegistry.get(ReferenceSnapshotSyncListener.PENDING_METRIC).gauge().value());
+        assertEquals(1, meterRegistry.get(ReferenceSnapshotSyncListener.LAG_METRIC)
+                                     .tag("outcome", "failure").timer().count());
+    }
+
+    @Test
+    void onAfterSave_shouldApplyCurrentDescription_whenRenamesRunOutOfOrder()
+    {
+        // given: A->B queued, then B->C; the stored description is C by the time either runs
+        when(mongoTemplate.findById(UOM_ID.toHexString(), UnitOfMeasure.class)).thenReturn(getTestUom("C"));
+        when(mongoTemplate.updateMulti(any(Query.class), any(Update.class), eq(RECIPE)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        listener.onAfterSave(new AfterSaveEvent<>(getTestUom("B"), new Document(), "unitOfMeasure"));
+        listener.onAfterSave(new AfterSaveEvent<>(getTestUom("C"), new Document(), "unitOfMeasure"));
+
+        // when: the newer rename runs first
+        queued.get(1).run();
+        queued.get(0).run();
+
+        // then
+        ArgumentCaptor<Update> updateCaptor = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateMulti(any(Query.class), updateCaptor.capture(), eq(RECIPE));
+        for (Update update : updateCaptor.getAllValues())
+        {
+            assertEquals("C", ((Document) update.getUpdateObject().get("$set")).get("ingredients.$[ingredient].uom.description"));
+        }
+    }
+
+    @Test
+    void onAfterSave_shouldSkipUpdate_whenReferenceDeleted()
+    {
+        // when
+        listener.onAfterSave(new AfterSaveEvent<>(getTestUom("Cup"), new Document(), "unitOfMeasure"));
+        queued.forEach(Runnable::run);
+
+        // then
+        verify(mongoTemplate, never()).updateMulti(any(Query.class), any(Update.class), anyString());
+        assertEquals(1, meterRegistry.get(ReferenceSnapshotSyncListener.LAG_METRIC)
+                                     .tag("outcome", "success").timer().count());
+    }
+
+    //==================================================================================================================
+    private static UnitOfMeasure getTestUom(String description)
+    {
+        UnitOfMeasure uom = new UnitOfMeasure();
+        uom.setId(UOM_ID.toHexString());
+        uom.setDescription(description);
+
+        return uom;
+    }
+}
@@ -0,0 +1,76 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.OptimisticLockingFailureException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RetryPolicyTest
+{
+    @Test
+    void execute_shouldReturnResult_afterConflicts()
+    {
+        // given
+        RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when
+        String actual = retryPolicy.execute(() -> {
+            if (attempts.incrementAndGet() < 3) throw new OptimisticLockingFailureException("conflict");
+            return "saved";
+        });
+
+        // then
+        assertEquals("saved", actual);
+        assertEquals(3, attempts.get());
+    }
+
+    @Test
+    void execute_shouldThrowException_whenAttemptsExhausted()
+    {
+        // given
+        RetryPolicy retryPolicy = new RetryPolicy(2, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when, then
+        assertThrows(OptimisticLockingFailureException.class, () -> retryPolicy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new OptimisticLockingFailureException("conflict");
+        }));
+        assertEquals(2, attempts.get());
+    }
+
+    @Test
+    void execute_shouldNotRetry_otherExceptions()
+    {
+        // given
+        RetryPolicy retryPolicy = new RetryPolicy(3, Duration.ZERO, Duration.ZERO);
+        AtomicInteger attempts = new AtomicInteger();
+
+        // when, then
+        assertThrows(IllegalStateException.class, () -> retryPolicy.execute(() -> {
+            attempts.incrementAndGet();
+            throw new IllegalStateException();
+        }));
+        assertEquals(1, attempts.get());
+    }
+
+    @Test
+    void backoffMillis_shouldGrowExponentially_upToMaximum()
+    {
+        // given
+        RetryPolicy retryPolicy = new RetryPolicy(10, Duration.ofMillis(10), Duration.ofMillis(100));
+
+        // when, then
+        for (int attempt = 1; attempt < 10; attempt++)
+        {
+            long ceiling = Math.min(10L << (attempt - 1), 100L);
+            long actual = retryPolicy.backoffMillis(attempt);
+
+            assertTrue(actual >= ceiling / 2 && actual <= ceiling, "attempt " + attempt + ": " + actual);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package dev.sonnyjon.recipespringmongodb.services;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SuggestionTrieTest
+{
+    SuggestionTrie trie;
+
+    @BeforeEach
+    void setUp()
+    {
+        trie = new SuggestionTrie(3);
+        trie.add("Chicken breast", 40);
+        trie.add("chili powder", 25);
+        trie.add("Chives", 5);
+        trie.add("cheddar", 30);
+        trie.add("Cilantro", 12);
+        trie.add("salt", 90);
+    }
+
+    @Test
+    void suggest_shouldReturnMostUsed_forPrefix()
+    {
+        assertEquals(List.of("Chicken breast", "cheddar", "chili powder"), trie.suggest("ch"));
+        assertEquals(List.of("Chicken breast", "chili powder", "Chives"), trie.suggest("CHI"));
+        assertEquals(List.of("chili powder"), trie.suggest("chil"));
+        assertEquals(List.of("salt", "Chicken breast", "cheddar"), trie.suggest(""));
+        assertTrue(trie.suggest("x").isEmpty());
+    }
+
+    @Test
+    void suggest_shouldIgnore_caseAndExtraWhitespace()
+    {
+        assertEquals(List.of("Chicken breast"), trie.suggest("  chicken   BR"));
+    }
+
+    @Test
+    void add_shouldReRank_alongPath()
+    {
+        // when
+        trie.add("chives", 100);
+        trie.add("CHICKEN BREAST", -40);
+
+        // then
+        assertEquals(List.of("Chives", "cheddar", "chili powder"), trie.suggest("ch"));
+        assertEquals(List.of("Chives", "chili powder", "Chicken breast"), trie.suggest("chi"));
+        assertEquals(6, trie.size());
+    }
+
+    @Test
+    void add_shouldDropPhrase_whenUnusedAndNotKept()
+    {
+        // given
+        SuggestionTrie dropping = new SuggestionTrie(3, false);
+        dropping.add("Chicken breast", 2);
+        dropping.add("Chickpeas", 1);
+
+        // when
+        dropping.add("chickpeas", -1);
+        dropping.add("Chicken", -1);
+
+        // then
+        assertEquals(List.of("Chicken breast"), dropping.suggest("chick"));
+        assertTrue(dropping.suggest("chickp").isEmpty());
+        assertEquals(1, dropping.size());
+
+        // when
+        dropping.add("chicken breast", -5);
+
+        // then
+        assertTrue(dropping.suggest("").isEmpty());
+        assertEquals(0, dropping.size());
+    }
+
+    @Test
+    void add_shouldIgnore_blankPhrases()
+    {
+        // when
+        trie.add("  ", 10);
+        trie.add(null, 10);
+
+        // then
+        assertEquals(6, trie.size());
+    }
+}
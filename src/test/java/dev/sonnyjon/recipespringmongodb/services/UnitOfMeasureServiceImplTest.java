@@ -1,6 +1,7 @@
 package dev.sonnyjon.recipespringmongodb.services;
 
 import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverter;
+import dev.sonnyjon.recipespringmongodb.converters.UnitOfMeasureConverterImpl;
 import dev.sonnyjon.recipespringmongodb.dto.UnitOfMeasureDto;
 import dev.sonnyjon.recipespringmongodb.model.UnitOfMeasure;
 import dev.sonnyjon.recipespringmongodb.repositories.UnitOfMeasureRepository;
@@ -36,8 +37,8 @@ class UnitOfMeasureServiceImplTest
     void setUp()
     {
         mocks = MockitoAnnotations.openMocks(this);
-        service = new UnitOfMeasureServiceImpl(unitOfMeasureRepository);
-        converter = new UnitOfMeasureConverter();
+        converter = new UnitOfMeasureConverterImpl();
+        service = new UnitOfMeasureServiceImpl(unitOfMeasureRepository, converter);
     }
 
     @AfterEach